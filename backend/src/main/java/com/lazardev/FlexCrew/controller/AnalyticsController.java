@@ -1,14 +1,19 @@
 package com.lazardev.FlexCrew.controller;
 
+import com.lazardev.FlexCrew.dto.analytics.CoverageAtDto;
+import com.lazardev.FlexCrew.dto.analytics.CoverageHistogramDto;
 import com.lazardev.FlexCrew.dto.analytics.PunctualityStatsDto;
 import com.lazardev.FlexCrew.dto.analytics.ScheduleLoadDto;
 import com.lazardev.FlexCrew.service.AnalyticsService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.LocalTime;
 import java.util.List;
 
 @RestController
@@ -30,5 +35,21 @@ public class AnalyticsController {
         return ResponseEntity.ok(stats);
     }
 
+    // Headcount on shift at a time of day (HH:mm), overnight schedules included
+    @GetMapping("/coverage")
+    public ResponseEntity<CoverageAtDto> getCoverageAt(
+            @RequestParam @DateTimeFormat(pattern = "HH:mm", fallbackPatterns = "HH:mm:ss") LocalTime at) {
+        return ResponseEntity.ok(analyticsService.getCoverageAt(at));
+    }
+
+    @GetMapping("/coverage/histogram")
+    public ResponseEntity<?> getCoverageHistogram(@RequestParam(defaultValue = "15") int slotMinutes) {
+        try {
+            return ResponseEntity.ok(analyticsService.getCoverageHistogram(slotMinutes));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     // Add more endpoints corresponding to methods in AnalyticsService
 }
\ No newline at end of file
@@ -23,6 +23,8 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping("/api/employees")
 public class EmployeeController {
 
+  private static final int MAX_LEAST_LOADED = 500;
+
   private final EmployeeService employeeService;
 
   @Autowired
@@ -109,6 +111,22 @@ public class EmployeeController {
     }
   }
 
+  @GetMapping("/byTeam/{teamId}/least-loaded")
+  @PreAuthorize("isAuthenticated()")
+  public ResponseEntity<?> findLeastLoadedByTeamId(
+      @PathVariable Integer teamId, @RequestParam(defaultValue = "10") int limit) {
+    try {
+      if (limit < 1 || limit > MAX_LEAST_LOADED) {
+        return ResponseEntity.badRequest()
+            .body("Limit must be between 1 and " + MAX_LEAST_LOADED + ".");
+      }
+      return ResponseEntity.ok(employeeService.findLeastLoadedByTeamId(teamId, limit));
+    } catch (Exception e) {
+      return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+          .body("An unexpected error occurred while fetching the least loaded employees.");
+    }
+  }
+
   @PutMapping("/change-password")
   @PreAuthorize("isAuthenticated()")
   public ResponseEntity<?> changePassword(@RequestBody ChangePasswordRequest request) {
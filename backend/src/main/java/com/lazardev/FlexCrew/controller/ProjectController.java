@@ -1,24 +1,50 @@
 package com.lazardev.FlexCrew.controller;
 
+import com.lazardev.FlexCrew.dto.KeysetPage;
 import com.lazardev.FlexCrew.dto.ProjectAssignmentSuggestionDTO;
+import com.lazardev.FlexCrew.dto.ProjectSummaryDTO;
+import com.lazardev.FlexCrew.dto.StaffingAssignment;
+import com.lazardev.FlexCrew.dto.StaffingPlan;
 import com.lazardev.FlexCrew.entity.Project;
 import com.lazardev.FlexCrew.service.ProjectService;
+import com.lazardev.FlexCrew.service.ProjectStaffingService;
+import com.lazardev.FlexCrew.service.ProjectSuggestionCache;
+import com.lazardev.FlexCrew.service.ProjectSummaryService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
+import java.time.OffsetDateTime;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/v1/projects") // Using /api/v1 for versioning practice
 public class ProjectController {
 
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final ProjectService projectService;
+    private final ProjectStaffingService staffingService;
+    private final ProjectSummaryService summaryService;
+    private final ProjectSuggestionCache suggestionCache;
+    private final CacheControl summaryCacheControl;
 
     @Autowired
-    public ProjectController(ProjectService projectService) {
+    public ProjectController(ProjectService projectService, ProjectStaffingService staffingService,
+            ProjectSummaryService summaryService, ProjectSuggestionCache suggestionCache,
+            @Value("${application.projects.summary.max-age:PT30S}") Duration summaryMaxAge) {
         this.projectService = projectService;
+        this.staffingService = staffingService;
+        this.summaryService = summaryService;
+        this.suggestionCache = suggestionCache;
+        this.summaryCacheControl = CacheControl.maxAge(summaryMaxAge).cachePublic();
     }
 
     @GetMapping
@@ -27,6 +53,33 @@ public class ProjectController {
         return ResponseEntity.ok(projects);
     }
 
+    // Summaries without the entity graph, in id order. The list is public, so shared caches may
+    // keep a page for max-age. The cursor of the next page, if any, is returned in X-Next-Cursor
+    @GetMapping("/summary")
+    public ResponseEntity<?> getProjectSummaries(
+            @RequestParam(name = "status", required = false) String status,
+            @RequestParam(name = "dueFrom", required = false) @DateTimeFormat(iso = ISO.DATE_TIME) OffsetDateTime dueFrom,
+            @RequestParam(name = "dueTo", required = false) @DateTimeFormat(iso = ISO.DATE_TIME) OffsetDateTime dueTo,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "limit", defaultValue = "" + ProjectSummaryService.DEFAULT_PAGE_SIZE) int limit) {
+        try {
+            if (dueFrom != null && dueTo != null && !dueFrom.isBefore(dueTo)) {
+                return ResponseEntity.badRequest().body("dueFrom must be before dueTo.");
+            }
+            KeysetPage<ProjectSummaryDTO> page = summaryService.findPage(status, dueFrom, dueTo, cursor, limit);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok().cacheControl(summaryCacheControl);
+            if (page.nextCursor() != null) {
+                response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+            }
+            return response.body(page.items());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("An unexpected error occurred while listing the projects.");
+        }
+    }
+
     @GetMapping("/{projectId}")
     public ResponseEntity<Project> getProjectById(@PathVariable Integer projectId) {
         return projectService.getProjectById(projectId)
@@ -65,7 +118,7 @@ public class ProjectController {
     @GetMapping("/{projectId}/assignment-suggestions")
     public ResponseEntity<ProjectAssignmentSuggestionDTO> getAssignmentSuggestions(@PathVariable Integer projectId) {
         try {
-            ProjectAssignmentSuggestionDTO suggestions = projectService.getProjectAssignmentSuggestions(projectId);
+            ProjectAssignmentSuggestionDTO suggestions = suggestionCache.get(projectId);
             return ResponseEntity.ok(suggestions);
         } catch (RuntimeException e) { // Replace with specific exceptions
             // Log the exception e.g. logger.error("Error getting suggestions for project
@@ -73,4 +126,57 @@ public class ProjectController {
             return ResponseEntity.notFound().build(); // Or internal server error depending on exception type
         }
     }
-}
\ No newline at end of file
+
+    @PostMapping("/{projectId}/assignments/{employeeId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> assignEmployee(@PathVariable Integer projectId, @PathVariable Integer employeeId) {
+        try {
+            StaffingAssignment assignment = projectService.assignEmployee(projectId, employeeId);
+            return new ResponseEntity<>(assignment, HttpStatus.CREATED);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        }
+    }
+
+    @DeleteMapping("/{projectId}/assignments/{employeeId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> unassignEmployee(@PathVariable Integer projectId, @PathVariable Integer employeeId) {
+        try {
+            projectService.unassignEmployee(projectId, employeeId);
+            return ResponseEntity.noContent().build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    // Free employees spread over every open project at once, nothing is changed until applied
+    @GetMapping("/staffing-plan")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getStaffingPlan() {
+        try {
+            return ResponseEntity.ok(staffingService.planStaffing());
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("An unexpected error occurred while planning the staffing.");
+        }
+    }
+
+    // Applies a plan all at once, or nothing of it if any assignment no longer holds
+    @PostMapping("/staffing-plan/apply")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> applyStaffingPlan(@RequestBody StaffingPlan plan) {
+        if (plan == null || plan.assignments() == null || plan.assignments().isEmpty()) {
+            return ResponseEntity.badRequest().body("No assignments to apply.");
+        }
+        try {
+            List<StaffingAssignment> applied = staffingService.applyPlan(plan.assignments());
+            return ResponseEntity.ok(applied);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+}
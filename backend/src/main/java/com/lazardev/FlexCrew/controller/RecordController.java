@@ -1,11 +1,24 @@
 package com.lazardev.FlexCrew.controller;
 
+import com.lazardev.FlexCrew.dto.KeysetPage;
+import com.lazardev.FlexCrew.dto.RecordView;
 import com.lazardev.FlexCrew.entity.Record;
+import com.lazardev.FlexCrew.service.PunctualityBackfillService;
+import com.lazardev.FlexCrew.service.RecordBatchService;
+import com.lazardev.FlexCrew.service.RecordExportService;
 import com.lazardev.FlexCrew.service.RecordService;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
 import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -13,27 +26,50 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api/records")
 public class RecordController {
 
+  private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
   private RecordService recordService;
+  private RecordExportService recordExportService;
+  private RecordBatchService recordBatchService;
+  private PunctualityBackfillService punctualityBackfillService;
 
   @Autowired
-  public RecordController(RecordService theRecordService) {
+  public RecordController(
+      RecordService theRecordService,
+      RecordExportService theRecordExportService,
+      RecordBatchService theRecordBatchService,
+      PunctualityBackfillService thePunctualityBackfillService) {
     this.recordService = theRecordService;
+    this.recordExportService = theRecordExportService;
+    this.recordBatchService = theRecordBatchService;
+    this.punctualityBackfillService = thePunctualityBackfillService;
   }
 
-  // Get records by employee id
+  // Get records by employee id, newest first. The cursor of the next page, if any, is
+  // returned in the X-Next-Cursor header
   @GetMapping("/{employeeId}")
-  public ResponseEntity<?> getRecordsbyEmployeeId(@PathVariable("employeeId") Integer employeeId) {
+  public ResponseEntity<?> getRecordsbyEmployeeId(
+      @PathVariable("employeeId") Integer employeeId,
+      @RequestParam(name = "from", required = false) @DateTimeFormat(iso = ISO.DATE_TIME)
+          OffsetDateTime from,
+      @RequestParam(name = "to", required = false) @DateTimeFormat(iso = ISO.DATE_TIME)
+          OffsetDateTime to,
+      @RequestParam(name = "cursor", required = false) String cursor,
+      @RequestParam(name = "limit", defaultValue = "" + RecordService.DEFAULT_PAGE_SIZE)
+          int limit) {
     try {
       if (employeeId <= 0) {
         return ResponseEntity.badRequest().body("Employee ID cannot be negative.");
       }
-      List<Record> findedRecords = recordService.findbyEmployeeId(employeeId);
-      return new ResponseEntity<>(findedRecords, HttpStatus.OK);
+      return toResponse(recordService.findPageByEmployeeId(employeeId, from, to, cursor, limit));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().body(e.getMessage());
     } catch (Exception e) {
       return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
           .body("An unexpected error occurred.");
@@ -42,13 +78,22 @@ public class RecordController {
 
   @GetMapping("/search")
   public ResponseEntity<?> getRecordsbyEmployeeEmail(
-      @RequestParam(name = "employeeEmail") String employeeEmail) {
+      @RequestParam(name = "employeeEmail") String employeeEmail,
+      @RequestParam(name = "from", required = false) @DateTimeFormat(iso = ISO.DATE_TIME)
+          OffsetDateTime from,
+      @RequestParam(name = "to", required = false) @DateTimeFormat(iso = ISO.DATE_TIME)
+          OffsetDateTime to,
+      @RequestParam(name = "cursor", required = false) String cursor,
+      @RequestParam(name = "limit", defaultValue = "" + RecordService.DEFAULT_PAGE_SIZE)
+          int limit) {
     try {
       if (employeeEmail == null) {
         return ResponseEntity.badRequest().body("Employee email cannot be empty.");
       }
-      List<Record> findedRecords = recordService.findbyEmployeeEmail(employeeEmail);
-      return new ResponseEntity<>(findedRecords, HttpStatus.OK);
+      return toResponse(
+          recordService.findPageByEmployeeEmail(employeeEmail, from, to, cursor, limit));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().body(e.getMessage());
     } catch (Exception e) {
       return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
           .body("An unexpected error occurred.");
@@ -76,6 +121,63 @@ public class RecordController {
     }
   }
 
+  // Export every record created in [from, to), streamed as it is read from the database. The body
+  // type has to be declared for the streaming handler to pick the response up, so even the
+  // validation errors are written as streamed text
+  @GetMapping("/export")
+  @PreAuthorize("hasRole('ADMIN')")
+  public ResponseEntity<StreamingResponseBody> exportRecords(
+      @RequestParam(name = "from") @DateTimeFormat(iso = ISO.DATE_TIME) OffsetDateTime from,
+      @RequestParam(name = "to") @DateTimeFormat(iso = ISO.DATE_TIME) OffsetDateTime to,
+      @RequestParam(name = "format", defaultValue = "csv") String format,
+      @RequestParam(name = "gzip", defaultValue = "false") boolean gzip) {
+    if (!from.isBefore(to)) {
+      return streamedBadRequest("from must be before to.");
+    }
+    RecordExportService.Format exportFormat;
+    try {
+      exportFormat = RecordExportService.Format.parse(format);
+    } catch (IllegalArgumentException e) {
+      return streamedBadRequest(e.getMessage());
+    }
+    String fileName = "records." + exportFormat.getExtension() + (gzip ? ".gz" : "");
+    StreamingResponseBody body =
+        out -> recordExportService.export(from, to, exportFormat, gzip, out);
+    return ResponseEntity.ok()
+        .contentType(
+            MediaType.parseMediaType(gzip ? "application/gzip" : exportFormat.getContentType()))
+        .header(
+            HttpHeaders.CONTENT_DISPOSITION,
+            ContentDisposition.attachment().filename(fileName).build().toString())
+        .body(body);
+  }
+
+  // Rebuild the monthly counters behind /searchbymonth from the Records table
+  @PostMapping("/monthly-counters/rebuild")
+  @PreAuthorize("hasRole('ADMIN')")
+  public ResponseEntity<?> rebuildMonthlyCounters() {
+    try {
+      int counters = recordService.rebuildMonthlyCounters();
+      return ResponseEntity.ok("Rebuilt " + counters + " monthly counters.");
+    } catch (Exception e) {
+      return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+          .body("An unexpected error occurred while rebuilding the monthly counters.");
+    }
+  }
+
+  // Classify the punctuality of records stored before it was computed on check-in
+  @PostMapping("/punctuality/backfill")
+  @PreAuthorize("hasRole('ADMIN')")
+  public ResponseEntity<?> backfillPunctuality() {
+    try {
+      long records = punctualityBackfillService.backfill();
+      return ResponseEntity.ok("Classified " + records + " records.");
+    } catch (Exception e) {
+      return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+          .body("An unexpected error occurred while classifying the records.");
+    }
+  }
+
   // Post (save) a new record
   @PostMapping
   public ResponseEntity<?> saveRecord(@RequestBody Record theRecord) {
@@ -101,12 +203,51 @@ public class RecordController {
       }
 
       // If the employee can post a record today:
-      // Set the ID to zero/0 just in case it's different in the JSON.
-      theRecord.setId(0);
-      Record savedRecord = recordService.saveRecord(theRecord);
-      return new ResponseEntity<>(savedRecord, HttpStatus.CREATED);
+      // The ID is generated by the database, ignore whatever came in the JSON.
+      theRecord.setId(null);
+      // With write-behind enabled the check-in is only queued: 202, no id yet and not durable
+      // until the flusher commits it. 201 with the id otherwise
+      if (recordService.submitRecord(theRecord)) {
+        return new ResponseEntity<>(theRecord, HttpStatus.ACCEPTED);
+      }
+      return new ResponseEntity<>(theRecord, HttpStatus.CREATED);
+    } catch (IllegalStateException e) {
+      return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
     } catch (Exception e) {
       return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
     }
   }
+
+  // Post a batch of records buffered by a kiosk, answers with one result per record
+  @PostMapping("/batch")
+  public ResponseEntity<?> saveRecords(@RequestBody List<Record> theRecords) {
+    try {
+      if (theRecords == null || theRecords.isEmpty()) {
+        return ResponseEntity.badRequest().body("No records to save.");
+      }
+      if (theRecords.size() > RecordBatchService.MAX_BATCH_SIZE) {
+        return ResponseEntity.badRequest()
+            .body("At most " + RecordBatchService.MAX_BATCH_SIZE + " records per batch.");
+      }
+      return ResponseEntity.ok(recordBatchService.submitBatch(theRecords));
+    } catch (Exception e) {
+      return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+          .body("An unexpected error occurred while saving the records.");
+    }
+  }
+
+  private static ResponseEntity<StreamingResponseBody> streamedBadRequest(String message) {
+    return ResponseEntity.badRequest()
+        .contentType(MediaType.TEXT_PLAIN)
+        .body(out -> out.write(message.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  // The body stays a plain array, paging information goes in a header
+  private static ResponseEntity<List<RecordView>> toResponse(KeysetPage<RecordView> page) {
+    ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+    if (page.nextCursor() != null) {
+      response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+    }
+    return response.body(page.items());
+  }
 }
@@ -0,0 +1,109 @@
+package com.lazardev.FlexCrew.controller;
+
+import com.lazardev.FlexCrew.dto.rotation.RotationPatternRequest;
+import com.lazardev.FlexCrew.entity.RotationPattern;
+import com.lazardev.FlexCrew.security.user.EmployeePrincipal;
+import com.lazardev.FlexCrew.service.EmployeeService;
+import com.lazardev.FlexCrew.service.RotationService;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/rotations")
+@RequiredArgsConstructor
+public class RotationController {
+
+    private final RotationService rotationService;
+    private final EmployeeService employeeService;
+
+    @GetMapping("")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<List<RotationPattern>> getAllRotations() {
+        return ResponseEntity.ok(rotationService.findAllPatterns());
+    }
+
+    @PostMapping("")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> createRotation(@RequestBody RotationPatternRequest request) {
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(rotationService.createPattern(request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // Step 0 of the rotation falls on anchor, today by default
+    @PostMapping("/{rotationId}/assign/{employeeId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> assignEmployeeToRotation(
+            @PathVariable Integer rotationId,
+            @PathVariable Integer employeeId,
+            @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate anchor) {
+        try {
+            return ResponseEntity.ok(rotationService.assign(
+                    employeeId, rotationId, anchor != null ? anchor : LocalDate.now()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @DeleteMapping("/assign/{employeeId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> unassignEmployeeFromRotation(@PathVariable Integer employeeId) {
+        if (!rotationService.unassign(employeeId)) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Employee is not on a rotation.");
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/schedule/{scheduleId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getEmployeesWorkingSchedule(
+            @PathVariable Integer scheduleId,
+            @RequestParam @DateTimeFormat(iso = ISO.DATE) LocalDate date) {
+        try {
+            return ResponseEntity.ok(rotationService.findWorking(scheduleId, date));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // Month as yyyy-MM, the current month by default
+    @GetMapping("/employee/{employeeId}")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<?> getEmployeeMonth(
+            @PathVariable Integer employeeId,
+            @RequestParam(required = false) YearMonth month) {
+        try {
+            return ResponseEntity.ok(
+                    rotationService.findMonth(employeeId, month != null ? month : YearMonth.now()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/employee/current")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<?> getCurrentEmployeeMonth(@RequestParam(required = false) YearMonth month) {
+        EmployeePrincipal currentEmployee = employeeService.getCurrentPrincipal();
+        if (currentEmployee == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("User not authenticated.");
+        }
+        return getEmployeeMonth(currentEmployee.id(), month);
+    }
+}
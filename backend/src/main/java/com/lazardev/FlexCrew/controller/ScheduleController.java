@@ -1,14 +1,30 @@
 package com.lazardev.FlexCrew.controller;
 
-import com.lazardev.FlexCrew.entity.Employee;
+import com.lazardev.FlexCrew.dto.ScheduleAssignment;
+import com.lazardev.FlexCrew.dto.ScheduleAssignmentResult;
+import com.lazardev.FlexCrew.dto.TeamSchedulePlan;
+import com.lazardev.FlexCrew.dto.calendar.WeekSchedule;
+import com.lazardev.FlexCrew.dto.conflict.RosterChangeSet;
+import com.lazardev.FlexCrew.dto.conflict.RosterValidation;
+import com.lazardev.FlexCrew.dto.simulation.ScheduleEdit;
+import com.lazardev.FlexCrew.dto.simulation.SimulationResult;
+import com.lazardev.FlexCrew.dto.simulation.SimulationScenario;
 import com.lazardev.FlexCrew.entity.Schedule;
+import com.lazardev.FlexCrew.security.user.EmployeePrincipal;
 import com.lazardev.FlexCrew.service.EmployeeService;
+import com.lazardev.FlexCrew.service.RosterConflictDetector;
+import com.lazardev.FlexCrew.service.ScheduleAssignmentBatchService;
 import com.lazardev.FlexCrew.service.ScheduleService;
+import com.lazardev.FlexCrew.service.ScheduleSimulationService;
 
+import java.time.LocalDate;
+import java.util.ConcurrentModificationException;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -19,6 +35,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
@@ -27,11 +44,19 @@ public class ScheduleController {
 
     private final ScheduleService scheduleService;
     private final EmployeeService employeeService;
+    private final ScheduleAssignmentBatchService assignmentBatchService;
+    private final ScheduleSimulationService simulationService;
+    private final RosterConflictDetector conflictDetector;
 
     @Autowired
-    public ScheduleController(ScheduleService scheduleService, EmployeeService employeeService) {
+    public ScheduleController(ScheduleService scheduleService, EmployeeService employeeService,
+            ScheduleAssignmentBatchService assignmentBatchService, ScheduleSimulationService simulationService,
+            RosterConflictDetector conflictDetector) {
         this.scheduleService = scheduleService;
         this.employeeService = employeeService;
+        this.assignmentBatchService = assignmentBatchService;
+        this.simulationService = simulationService;
+        this.conflictDetector = conflictDetector;
     }
 
     @GetMapping("")
@@ -61,17 +86,43 @@ public class ScheduleController {
     @GetMapping("/employee/current")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<?> getNextWeekScheduleForCurrentEmployee() {
-        Employee currentEmployee = employeeService.getCurrentAuthenticatedEmployee();
+        EmployeePrincipal currentEmployee = employeeService.getCurrentPrincipal();
         if (currentEmployee == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("User not authenticated.");
         }
         try {
-            return ResponseEntity.ok(scheduleService.getNextWeekScheduleForEmployee(currentEmployee.getId()));
+            return ResponseEntity.ok(scheduleService.getNextWeekScheduleForEmployee(currentEmployee.id()));
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
         }
     }
 
+    // Dated shifts of the week containing start, the current week by default
+    @GetMapping("/employee/{employeeId}/week")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<?> getWeekScheduleForEmployee(
+            @PathVariable Integer employeeId,
+            @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate start) {
+        try {
+            WeekSchedule week = scheduleService.getWeekScheduleForEmployee(
+                    employeeId, start != null ? start : LocalDate.now());
+            return ResponseEntity.ok(week);
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/employee/current/week")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<?> getWeekScheduleForCurrentEmployee(
+            @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate start) {
+        EmployeePrincipal currentEmployee = employeeService.getCurrentPrincipal();
+        if (currentEmployee == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("User not authenticated.");
+        }
+        return getWeekScheduleForEmployee(currentEmployee.id(), start);
+    }
+
     @PostMapping("/assign/{employeeId}/{scheduleId}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<?> assignEmployeeToSchedule(
@@ -80,22 +131,108 @@ public class ScheduleController {
         try {
             Schedule updatedSchedule = scheduleService.assignEmployeeToSchedule(employeeId, scheduleId);
             return ResponseEntity.ok(updatedSchedule);
+        } catch (ConcurrentModificationException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
 
+    // Assign many employees at once, answers with one result per pair
+    @PostMapping("/assign/batch")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> assignEmployeesToSchedules(@RequestBody List<ScheduleAssignment> assignments) {
+        if (assignments == null || assignments.isEmpty()) {
+            return ResponseEntity.badRequest().body("No assignments to apply.");
+        }
+        if (assignments.size() > ScheduleAssignmentBatchService.MAX_BATCH_SIZE) {
+            return ResponseEntity.badRequest()
+                    .body("At most " + ScheduleAssignmentBatchService.MAX_BATCH_SIZE + " assignments per batch.");
+        }
+        try {
+            List<ScheduleAssignmentResult> results = assignmentBatchService.assignBatch(assignments, false);
+            return ResponseEntity.ok(results);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("An unexpected error occurred while assigning the schedules.");
+        }
+    }
+
+    // Plan for the whole team, nothing is changed until the plan is applied
     @GetMapping("/optimize/team/{teamId}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<?> optimizeScheduleForTeam(@PathVariable Integer teamId) {
         try {
-            Schedule optimalSchedule = scheduleService.optimizeScheduleForTeam(teamId);
-            return ResponseEntity.ok(optimalSchedule);
+            TeamSchedulePlan plan = scheduleService.optimizeScheduleForTeam(teamId);
+            return ResponseEntity.ok(plan);
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
 
+    // Applies a plan all at once, or nothing of it if any assignment no longer fits
+    @PostMapping("/optimize/team/{teamId}/apply")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> applyTeamSchedulePlan(
+            @PathVariable Integer teamId,
+            @RequestBody TeamSchedulePlan plan) {
+        if (plan == null || !teamId.equals(plan.teamId()) || plan.assignments() == null
+                || plan.assignments().isEmpty()) {
+            return ResponseEntity.badRequest().body("Invalid plan. Team ID mismatch or no assignments.");
+        }
+        if (plan.assignments().size() > ScheduleAssignmentBatchService.MAX_BATCH_SIZE) {
+            return ResponseEntity.badRequest()
+                    .body("At most " + ScheduleAssignmentBatchService.MAX_BATCH_SIZE + " assignments per plan.");
+        }
+        try {
+            List<ScheduleAssignmentResult> results = assignmentBatchService.assignBatch(plan.assignments(), true);
+            boolean applied = results.stream()
+                    .allMatch(result -> result.status() == ScheduleAssignmentResult.Status.ASSIGNED
+                            || result.status() == ScheduleAssignmentResult.Status.UNCHANGED);
+            return ResponseEntity.status(applied ? HttpStatus.OK : HttpStatus.CONFLICT).body(results);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("An unexpected error occurred while applying the plan.");
+        }
+    }
+
+    // What-if evaluation of schedule edits, nothing is written
+    @PostMapping("/simulate")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> simulateScheduleEdits(@RequestBody List<SimulationScenario> scenarios) {
+        if (scenarios == null || scenarios.isEmpty()) {
+            return ResponseEntity.badRequest().body("No scenarios to simulate.");
+        }
+        if (scenarios.size() > ScheduleSimulationService.MAX_SCENARIOS) {
+            return ResponseEntity.badRequest()
+                    .body("At most " + ScheduleSimulationService.MAX_SCENARIOS + " scenarios per request.");
+        }
+        try {
+            SimulationResult result = simulationService.simulate(scenarios);
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("An unexpected error occurred while simulating the scenarios.");
+        }
+    }
+
+    // Every conflict of a batch of schedule, assignment and rotation changes, nothing is written
+    @PostMapping("/validate")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> validateRosterChanges(@RequestBody RosterChangeSet changes) {
+        if (changes == null) {
+            return ResponseEntity.badRequest().body("No changes to validate.");
+        }
+        try {
+            return ResponseEntity.ok(conflictDetector.validate(changes));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("An unexpected error occurred while validating the changes.");
+        }
+    }
+
     @PostMapping("")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<?> createSchedule(@RequestBody Schedule schedule) {
@@ -107,6 +244,10 @@ public class ScheduleController {
                         .body("Invalid schedule data. Name, start/end times, and max employees are required.");
             }
             schedule.setId(null);
+            RosterValidation validation = conflictDetector.validate(RosterChangeSet.ofSchedule(toEdit(schedule)));
+            if (!validation.valid()) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(validation);
+            }
             Schedule createdSchedule = scheduleService.saveSchedule(schedule);
             return new ResponseEntity<>(createdSchedule, HttpStatus.CREATED);
         } catch (Exception e) {
@@ -131,6 +272,13 @@ public class ScheduleController {
                     schedule.getMaxEmployees() == null || schedule.getMaxEmployees() <= 0) {
                 return ResponseEntity.badRequest().body("Invalid schedule data for update.");
             }
+            if (scheduleService.findById(scheduleId).isEmpty()) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Schedule not found.");
+            }
+            RosterValidation validation = conflictDetector.validate(RosterChangeSet.ofSchedule(toEdit(schedule)));
+            if (!validation.valid()) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(validation);
+            }
             scheduleService.updateSchedule(schedule);
             return ResponseEntity.ok("Schedule updated successfully.");
         } catch (IllegalArgumentException e) {
@@ -157,4 +305,9 @@ public class ScheduleController {
                     .body("Error deleting schedule: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    private static ScheduleEdit toEdit(Schedule schedule) {
+        return new ScheduleEdit(schedule.getId(), schedule.getName(), schedule.getStartTime(),
+                schedule.getEndTime(), schedule.getMaxEmployees(), false);
+    }
+}
@@ -1,14 +1,145 @@
 package com.lazardev.FlexCrew.dao;
 
+import com.lazardev.FlexCrew.dao.projection.EmployeeScheduleRef;
+import com.lazardev.FlexCrew.dao.projection.StoredEmployeeRef;
+import com.lazardev.FlexCrew.dao.projection.EmployeeWorkloadRef;
+import com.lazardev.FlexCrew.dao.projection.ProjectCandidate;
+import com.lazardev.FlexCrew.dao.projection.ProjectMemberRef;
+import com.lazardev.FlexCrew.dao.projection.ScheduleHeadcount;
 import com.lazardev.FlexCrew.entity.Employee;
+import com.lazardev.FlexCrew.entity.Schedule;
+import com.lazardev.FlexCrew.security.user.EmployeePrincipal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface EmployeeRepository extends JpaRepository<Employee, Integer> {
 
   Optional<Employee> findByEmail(String email);
 
+  // Single select of the Employees row, none of the associated entities are loaded
+  @Query("""
+      select new com.lazardev.FlexCrew.security.user.EmployeePrincipal(
+          e.id, e.email, e.role, t.id, s.id, e.password)
+      from Employee e left join e.team t left join e.schedule s
+      where e.email = :email
+      """)
+  Optional<EmployeePrincipal> findPrincipalByEmail(@Param("email") String email);
+
+  // Id only, for reads by email that do not need the principal
+  @Query("select e.id from Employee e where e.email = :email")
+  Optional<Integer> findIdByEmail(@Param("email") String email);
+
+  // Moves the employee only if still on the schedule read before, 0 after a concurrent move
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("""
+      update Employee e set e.schedule = :schedule
+      where e.id = :employeeId and e.schedule.id = :fromScheduleId
+      """)
+  int moveToSchedule(
+      @Param("employeeId") Integer employeeId,
+      @Param("fromScheduleId") Integer fromScheduleId,
+      @Param("schedule") Schedule schedule);
+
+  // Same for an employee without a schedule
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("""
+      update Employee e set e.schedule = :schedule
+      where e.id = :employeeId and e.schedule is null
+      """)
+  int assignScheduleIfUnassigned(
+      @Param("employeeId") Integer employeeId, @Param("schedule") Schedule schedule);
+
+  // Which of the ids exist, for the check-in batches
+  @Query("select e.id from Employee e where e.id in :ids")
+  List<Integer> findExistingIds(@Param("ids") Collection<Integer> ids);
+
+  // Ids only, for the schedule optimizer
+  @Query("""
+      select e.id as employeeId, s.id as scheduleId
+      from Employee e left join e.schedule s
+      where e.team.id = :teamId
+      """)
+  List<EmployeeScheduleRef> findScheduleRefsByTeamId(@Param("teamId") Integer teamId);
+
+  @Query("""
+      select e.id as employeeId, s.id as scheduleId
+      from Employee e left join e.schedule s
+      where e.id in :ids
+      """)
+  List<EmployeeScheduleRef> findScheduleRefsByIds(@Param("ids") Collection<Integer> ids);
+
+  // Read before a save overwrites them
+  @Query("""
+      select e.email as email, s.id as scheduleId
+      from Employee e left join e.schedule s
+      where e.id = :id
+      """)
+  Optional<StoredEmployeeRef> findStoredRefById(@Param("id") Integer id);
+
+  // Every member of the teams in one query, for project suggestions. Active projects are counted
+  // as ProjectWorkloadIndex does, used until the index is seeded
+  @Query("""
+      select e.id as employeeId, e.names as names, e.firstSurname as firstSurname,
+             t.id as teamId, t.name as teamName,
+             (select count(a) from ProjectEmployeeAssignment a
+              where a.employee = e
+                and (a.project.status is null or a.project.status not in ('COMPLETED', 'CANCELLED')))
+                 as assignmentCount
+      from Employee e join e.team t
+      where t.id in :teamIds
+      """)
+  List<ProjectCandidate> findProjectCandidatesByTeamIds(@Param("teamIds") Collection<Integer> teamIds);
+
+  // The same members without the count, for when ProjectWorkloadIndex is seeded and ranks them
+  @Query("""
+      select e.id as employeeId, e.names as names, e.firstSurname as firstSurname,
+             t.id as teamId, t.name as teamName, 0L as assignmentCount
+      from Employee e join e.team t
+      where t.id in :teamIds
+      """)
+  List<ProjectCandidate> findUncountedProjectCandidatesByTeamIds(@Param("teamIds") Collection<Integer> teamIds);
+
+  @Query("""
+      select e.id as employeeId, e.names as names, e.firstSurname as firstSurname,
+             t.id as teamId, t.name as teamName
+      from Employee e left join e.team t
+      where e.id in :ids
+      """)
+  List<ProjectMemberRef> findMemberRefsByIds(@Param("ids") Collection<Integer> ids);
+
+  // Row locks in id order, taken after the project locks when staffing projects
+  @Query(value = """
+      SELECT employee_id FROM {h-schema}"Employees"
+      WHERE employee_id IN (:ids) ORDER BY employee_id FOR UPDATE
+      """, nativeQuery = true)
+  List<Integer> lockIdsByIds(@Param("ids") Collection<Integer> ids);
+
+  // Team and active projects of every employee in one grouped query, for the workload index
+  @Query("""
+      select e.id as employeeId, t.id as teamId, count(p.projectId) as assignments
+      from Employee e
+      left join e.team t
+      left join ProjectEmployeeAssignment a on a.employee.id = e.id
+      left join Project p on p.projectId = a.project.projectId
+          and (p.status is null or p.status not in :inactive)
+      group by e.id, t.id
+      """)
+  List<EmployeeWorkloadRef> findWorkloadRefs(@Param("inactive") Collection<String> inactive);
+
+  // Employees actually assigned per schedule, not the current_employees counter
+  @Query("""
+      select e.schedule.id as scheduleId, count(e) as employees
+      from Employee e
+      where e.schedule is not null
+      group by e.schedule.id
+      """)
+  List<ScheduleHeadcount> countEmployeesPerSchedule();
+
   List<Employee> findByTeamId(Long teamId);
 
   List<Employee> findByTeamId(Integer teamId);
@@ -0,0 +1,52 @@
+package com.lazardev.FlexCrew.dao;
+
+import com.lazardev.FlexCrew.entity.MonthlyAttendance;
+import com.lazardev.FlexCrew.entity.MonthlyAttendanceId;
+import java.time.OffsetDateTime;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface MonthlyAttendanceRepository
+    extends JpaRepository<MonthlyAttendance, MonthlyAttendanceId> {
+
+  // Year and month are taken in the database time zone, as MONTH()/YEAR() on Records would be
+  String INCREMENT_SQL = """
+      INSERT INTO {h-schema}"Monthly_attendance" AS m (fk_employee, year, month, records)
+      VALUES (:employeeId,
+              EXTRACT(YEAR FROM CAST(:created AS timestamptz)),
+              EXTRACT(MONTH FROM CAST(:created AS timestamptz)),
+              1)
+      ON CONFLICT (fk_employee, year, month) DO UPDATE SET records = m.records + 1
+      """;
+
+  /** Counts one more record, call it in the transaction that inserts the record. */
+  @Modifying
+  @Query(value = INCREMENT_SQL, nativeQuery = true)
+  void increment(@Param("employeeId") Integer employeeId, @Param("created") OffsetDateTime created);
+
+  // Conflicts with the ROW EXCLUSIVE lock every increment takes, the write-behind ones included,
+  // until the end of the transaction. Increments already running commit first and are counted
+  // again from Records, later ones wait and count records the rebuild could not see
+  @Modifying
+  @Query(
+      value = "LOCK TABLE {h-schema}\"Monthly_attendance\" IN SHARE ROW EXCLUSIVE MODE",
+      nativeQuery = true)
+  void lockCounters();
+
+  @Modifying
+  @Query(value = "DELETE FROM {h-schema}\"Monthly_attendance\"", nativeQuery = true)
+  int deleteAllCounters();
+
+  @Modifying
+  @Query(value = """
+      INSERT INTO {h-schema}"Monthly_attendance" (fk_employee, year, month, records)
+      SELECT fk_employee, EXTRACT(YEAR FROM created), EXTRACT(MONTH FROM created), COUNT(*)
+      FROM {h-schema}"Records"
+      GROUP BY 1, 2, 3
+      """, nativeQuery = true)
+  int insertCountersFromRecords();
+}
@@ -1,15 +1,41 @@
 package com.lazardev.FlexCrew.dao;
 
+import com.lazardev.FlexCrew.dao.projection.ProjectAssignmentRef;
+import com.lazardev.FlexCrew.dao.projection.ProjectMemberRef;
 import com.lazardev.FlexCrew.entity.ProjectEmployeeAssignment;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ProjectEmployeeAssignmentRepository extends JpaRepository<ProjectEmployeeAssignment, Integer> {
     List<ProjectEmployeeAssignment> findByProjectProjectId(Integer projectId);
 
     List<ProjectEmployeeAssignment> findByEmployeeId(Integer employeeId);
+
+    Optional<ProjectEmployeeAssignment> findByProjectProjectIdAndEmployeeId(Integer projectId, Integer employeeId);
+
+    boolean existsByProjectProjectIdAndEmployeeId(Integer projectId, Integer employeeId);
+
+    // Assigned employees with their team in one query, for the suggestions
+    @Query("""
+            SELECT e.id AS employeeId, e.names AS names, e.firstSurname AS firstSurname,
+                   t.id AS teamId, t.name AS teamName
+            FROM ProjectEmployeeAssignment a JOIN a.employee e LEFT JOIN e.team t
+            WHERE a.project.projectId = :projectId
+            """)
+    List<ProjectMemberRef> findMemberRefsByProjectId(@Param("projectId") Integer projectId);
+
+    // Who is on the projects in a status, for the staffing optimizer
+    @Query("""
+            SELECT a.project.projectId AS projectId, e.id AS employeeId, t.id AS teamId
+            FROM ProjectEmployeeAssignment a JOIN a.employee e LEFT JOIN e.team t
+            WHERE a.project.status = :status
+            """)
+    List<ProjectAssignmentRef> findRefsByProjectStatus(@Param("status") String status);
     // You can add other custom query methods here if needed
-}
\ No newline at end of file
+}
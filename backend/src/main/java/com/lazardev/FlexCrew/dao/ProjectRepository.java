@@ -1,11 +1,25 @@
 package com.lazardev.FlexCrew.dao;
 
 import com.lazardev.FlexCrew.entity.Project;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface ProjectRepository extends JpaRepository<Project, Integer> {
+    List<Project> findByStatus(String status);
+
+    // In id order, so concurrent staffing plans lock in the same order
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Project p WHERE p.projectId IN :ids ORDER BY p.projectId")
+    List<Project> lockAllByIds(@Param("ids") Collection<Integer> ids);
+
     // You can add custom query methods here if needed in the future
     // For example:
     // List<Project> findByStatus(String status);
@@ -1,13 +1,30 @@
 package com.lazardev.FlexCrew.dao;
 
+import com.lazardev.FlexCrew.dao.projection.RequiredTeamRef;
 import com.lazardev.FlexCrew.entity.ProjectRequiredTeam;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface ProjectRequiredTeamRepository extends JpaRepository<ProjectRequiredTeam, Integer> {
     List<ProjectRequiredTeam> findByProjectProjectId(Integer projectId);
+
+    @Query("""
+            SELECT prt FROM ProjectRequiredTeam prt JOIN FETCH prt.team
+            WHERE prt.project.projectId = :projectId
+            """)
+    List<ProjectRequiredTeam> findWithTeamByProjectId(@Param("projectId") Integer projectId);
+
+    @Query("""
+            SELECT prt.project.projectId AS projectId, prt.team.id AS teamId, prt.requiredCount AS requiredCount
+            FROM ProjectRequiredTeam prt
+            WHERE prt.project.projectId IN :projectIds
+            """)
+    List<RequiredTeamRef> findRefsByProjectIds(@Param("projectIds") Collection<Integer> projectIds);
     // You can add other custom query methods here if needed
-}
\ No newline at end of file
+}
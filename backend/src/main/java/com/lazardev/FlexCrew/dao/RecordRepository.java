@@ -1,36 +1,91 @@
 package com.lazardev.FlexCrew.dao;
 
+import com.lazardev.FlexCrew.dao.projection.CheckInTime;
+import com.lazardev.FlexCrew.dao.projection.LastCheckIn;
 import com.lazardev.FlexCrew.dao.projection.PunctualityCount;
+import com.lazardev.FlexCrew.dto.RecordExportRow;
+import com.lazardev.FlexCrew.dto.RecordView;
 import com.lazardev.FlexCrew.entity.Record;
+import jakarta.persistence.QueryHint;
+import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface RecordRepository extends JpaRepository<Record, Integer> {
 
-    List<Record> findByEmployeeId(Integer employeeId);
-
-    List<Record> findByEmployeeEmail(String employeeEmail);
+    // Keyset page, newest first. Served by the (fk_employee, created, record_id) index
+    @Query(value = """
+            select new com.lazardev.FlexCrew.dto.RecordView(
+                r.id, r.startTime, e.id, e.email, e.names, e.firstSurname, e.secondSurname,
+                s.id, s.name, s.startTime, s.endTime,
+                i.id, ist.id, ist.name, i.delay, i.description,
+                r.punctuality, r.delayMinutes)
+            from Record r
+            join r.employee e
+            left join r.schedule s
+            left join r.issue i
+            left join i.issueStatus ist
+            where e.id = :employeeId
+            and r.startTime >= :from and r.startTime < :to
+            and (r.startTime < :afterCreated or (r.startTime = :afterCreated and r.id < :afterId))
+            order by r.startTime desc, r.id desc
+            """)
+    List<RecordView> findPageByEmployeeId(
+            @Param("employeeId") Integer employeeId,
+            @Param("from") OffsetDateTime from,
+            @Param("to") OffsetDateTime to,
+            @Param("afterCreated") OffsetDateTime afterCreated,
+            @Param("afterId") Integer afterId,
+            Pageable pageable);
 
     Optional<Record> findTopByEmployeeIdOrderByStartTimeDesc(Integer employeeId);
 
+    // Served by the (fk_employee, created, record_id) index
+    @Query("SELECT r.employee.id as employeeId, r.startTime as created FROM Record r " +
+            "WHERE r.employee.id IN :employeeIds AND r.startTime >= :from AND r.startTime < :to")
+    List<CheckInTime> findCheckInTimes(
+            @Param("employeeIds") Collection<Integer> employeeIds,
+            @Param("from") OffsetDateTime from,
+            @Param("to") OffsetDateTime to);
+
+    @Query("SELECT r.employee.id as employeeId, MAX(r.startTime) as lastCheckIn " +
+            "FROM Record r GROUP BY r.employee.id")
+    List<LastCheckIn> findLastCheckInPerEmployee();
+
+    // Forward-only cursor for the export, must be consumed inside a transaction
     @Query(value = """
-            select count(r) from Record r
-            where r.employee.email = :employeeEmail
-            and MONTH(r.startTime) = :month
-            and YEAR(r.startTime) = :year
+            select new com.lazardev.FlexCrew.dto.RecordExportRow(
+                r.id, r.startTime, e.id, e.email, e.names, e.firstSurname, e.secondSurname,
+                s.name, s.startTime, ist.name)
+            from Record r
+            join r.employee e
+            left join r.schedule s
+            left join r.issue i
+            left join i.issueStatus ist
+            where r.startTime >= :from and r.startTime < :to
+            order by r.startTime, r.id
             """)
-    int findByEmployeeEmailAndMonth(
-            @Param("employeeEmail") String employeeEmail,
-            @Param("month") int month,
-            @Param("year") int year);
-
-    @Query("SELECT ist.name as statusName, COUNT(r.id) as count " +
-            "FROM Record r JOIN r.issue i JOIN i.issueStatus ist " +
-            "GROUP BY ist.name")
-    List<PunctualityCount> countRecordsByIssueStatus();
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<RecordExportRow> streamForExport(
+            @Param("from") OffsetDateTime from,
+            @Param("to") OffsetDateTime to);
+
+    // Single table aggregate over the punctuality index, unclassified records are left out
+    @Query("SELECT r.punctuality as punctuality, COUNT(r) as count " +
+            "FROM Record r WHERE r.punctuality IS NOT NULL " +
+            "GROUP BY r.punctuality")
+    List<PunctualityCount> countRecordsByPunctuality();
 }
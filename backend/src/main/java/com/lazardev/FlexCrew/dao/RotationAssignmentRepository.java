@@ -0,0 +1,26 @@
+package com.lazardev.FlexCrew.dao;
+
+import com.lazardev.FlexCrew.dao.projection.RotationAssignmentRef;
+import com.lazardev.FlexCrew.entity.RotationAssignment;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface RotationAssignmentRepository extends JpaRepository<RotationAssignment, Integer> {
+
+  @Query("""
+      SELECT r.employeeId AS employeeId, r.pattern.id AS patternId, r.anchorDate AS anchorDate
+      FROM RotationAssignment r
+      """)
+  List<RotationAssignmentRef> findAllRefs();
+
+  @Query("SELECT r.employeeId FROM RotationAssignment r WHERE r.pattern.id = :patternId")
+  List<Integer> findEmployeeIdsByPatternId(@Param("patternId") Integer patternId);
+
+  @Query("SELECT r.employeeId FROM RotationAssignment r WHERE r.employeeId IN :ids")
+  List<Integer> findEmployeeIdsIn(@Param("ids") Collection<Integer> ids);
+}
@@ -0,0 +1,8 @@
+package com.lazardev.FlexCrew.dao;
+
+import com.lazardev.FlexCrew.entity.RotationPattern;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface RotationPatternRepository extends JpaRepository<RotationPattern, Integer> {}
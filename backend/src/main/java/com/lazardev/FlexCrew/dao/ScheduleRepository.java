@@ -1,9 +1,24 @@
 package com.lazardev.FlexCrew.dao;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.lazardev.FlexCrew.entity.Schedule;
 
 public interface ScheduleRepository extends JpaRepository<Schedule, Integer>  {
 
+    // Takes a seat only while there is one left. The row lock serializes concurrent
+    // reservations of the same schedule, other schedules are not affected. 1 if reserved
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Schedule s SET s.currentEmployees = s.currentEmployees + 1 " +
+            "WHERE s.id = :scheduleId AND s.currentEmployees < s.maxEmployees")
+    int tryReserveSeat(@Param("scheduleId") Integer scheduleId);
+
+    // Gives a seat back, never below 0. 1 if released
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Schedule s SET s.currentEmployees = s.currentEmployees - 1 " +
+            "WHERE s.id = :scheduleId AND s.currentEmployees > 0")
+    int releaseSeat(@Param("scheduleId") Integer scheduleId);
 }
@@ -0,0 +1,25 @@
+package com.lazardev.FlexCrew.dao;
+
+import com.lazardev.FlexCrew.entity.ShiftInstance;
+import com.lazardev.FlexCrew.entity.ShiftInstanceId;
+import java.time.LocalDate;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ShiftInstanceRepository extends JpaRepository<ShiftInstance, ShiftInstanceId> {
+
+  /** Range scan of the primary key, the schedules come with the same query. */
+  @Query("""
+      SELECT s FROM ShiftInstance s JOIN FETCH s.schedule
+      WHERE s.id.employeeId = :employeeId AND s.id.shiftDate BETWEEN :from AND :to
+      ORDER BY s.id.shiftDate
+      """)
+  List<ShiftInstance> findByEmployeeBetween(
+      @Param("employeeId") Integer employeeId,
+      @Param("from") LocalDate from,
+      @Param("to") LocalDate to);
+}
@@ -0,0 +1,12 @@
+package com.lazardev.FlexCrew.dao.projection;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Projection for the creation time of a record and its employee.
+ */
+public interface CheckInTime {
+    Integer getEmployeeId();
+
+    OffsetDateTime getCreated();
+}
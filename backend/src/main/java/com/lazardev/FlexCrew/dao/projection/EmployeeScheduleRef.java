@@ -0,0 +1,10 @@
+package com.lazardev.FlexCrew.dao.projection;
+
+/**
+ * Projection for an employee and the id of its current schedule, null if it has none.
+ */
+public interface EmployeeScheduleRef {
+    Integer getEmployeeId();
+
+    Integer getScheduleId();
+}
@@ -0,0 +1,12 @@
+package com.lazardev.FlexCrew.dao.projection;
+
+/**
+ * Projection for an employee, its team (null if it has none) and the active projects it is on.
+ */
+public interface EmployeeWorkloadRef {
+    Integer getEmployeeId();
+
+    Integer getTeamId();
+
+    Long getAssignments();
+}
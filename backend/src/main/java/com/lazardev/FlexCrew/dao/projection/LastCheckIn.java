@@ -0,0 +1,12 @@
+package com.lazardev.FlexCrew.dao.projection;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Projection for the latest record of each employee.
+ */
+public interface LastCheckIn {
+    Integer getEmployeeId();
+
+    OffsetDateTime getLastCheckIn();
+}
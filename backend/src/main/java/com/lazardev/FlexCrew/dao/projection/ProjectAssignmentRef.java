@@ -0,0 +1,12 @@
+package com.lazardev.FlexCrew.dao.projection;
+
+/**
+ * Projection for an employee on a project and its team, null if it has none.
+ */
+public interface ProjectAssignmentRef {
+    Integer getProjectId();
+
+    Integer getEmployeeId();
+
+    Integer getTeamId();
+}
@@ -0,0 +1,9 @@
+package com.lazardev.FlexCrew.dao.projection;
+
+/**
+ * Projection for an employee who could join a project, with the number of projects it is already
+ * assigned to. The count is 0 when read for a seeded ProjectWorkloadIndex, which holds it instead.
+ */
+public interface ProjectCandidate extends ProjectMemberRef {
+    Long getAssignmentCount();
+}
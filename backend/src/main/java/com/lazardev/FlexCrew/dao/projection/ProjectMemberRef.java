@@ -0,0 +1,16 @@
+package com.lazardev.FlexCrew.dao.projection;
+
+/**
+ * Projection for an employee as shown in project suggestions, with the id and name of its team.
+ */
+public interface ProjectMemberRef {
+    Integer getEmployeeId();
+
+    String getNames();
+
+    String getFirstSurname();
+
+    Integer getTeamId();
+
+    String getTeamName();
+}
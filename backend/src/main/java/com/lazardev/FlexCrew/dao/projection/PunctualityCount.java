@@ -1,10 +1,12 @@
 package com.lazardev.FlexCrew.dao.projection;
 
+import com.lazardev.FlexCrew.entity.Punctuality;
+
 /**
- * Projection for retrieving punctuality counts grouped by status name.
+ * Projection for retrieving punctuality counts grouped by the punctuality stored on each record.
  */
 public interface PunctualityCount {
-    String getStatusName();
+    Punctuality getPunctuality();
 
     Long getCount();
-}
\ No newline at end of file
+}
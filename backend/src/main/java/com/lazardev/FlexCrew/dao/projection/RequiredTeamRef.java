@@ -0,0 +1,12 @@
+package com.lazardev.FlexCrew.dao.projection;
+
+/**
+ * Projection for the number of employees a project requires from a team.
+ */
+public interface RequiredTeamRef {
+    Integer getProjectId();
+
+    Integer getTeamId();
+
+    Integer getRequiredCount();
+}
@@ -0,0 +1,14 @@
+package com.lazardev.FlexCrew.dao.projection;
+
+import java.time.LocalDate;
+
+/**
+ * Projection for the rotation an employee follows, without loading the pattern.
+ */
+public interface RotationAssignmentRef {
+    Integer getEmployeeId();
+
+    Integer getPatternId();
+
+    LocalDate getAnchorDate();
+}
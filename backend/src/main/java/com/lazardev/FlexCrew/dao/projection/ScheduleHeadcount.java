@@ -0,0 +1,10 @@
+package com.lazardev.FlexCrew.dao.projection;
+
+/**
+ * Projection for the number of employees assigned to a schedule.
+ */
+public interface ScheduleHeadcount {
+    Integer getScheduleId();
+
+    Long getEmployees();
+}
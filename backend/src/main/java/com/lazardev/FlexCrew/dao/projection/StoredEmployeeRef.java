@@ -0,0 +1,11 @@
+package com.lazardev.FlexCrew.dao.projection;
+
+/**
+ * Projection for what a save of an employee can overwrite and has to be undone elsewhere: its
+ * email, the key of the cached principal, and the id of its schedule, null if it has none.
+ */
+public interface StoredEmployeeRef {
+    String getEmail();
+
+    Integer getScheduleId();
+}
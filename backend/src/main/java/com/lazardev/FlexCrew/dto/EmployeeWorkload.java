@@ -0,0 +1,7 @@
+package com.lazardev.FlexCrew.dto;
+
+/**
+ * An employee of a team and the number of active projects it is on.
+ */
+public record EmployeeWorkload(Integer employeeId, Integer teamId, int activeAssignments) {
+}
@@ -0,0 +1,9 @@
+package com.lazardev.FlexCrew.dto;
+
+import java.util.List;
+
+/**
+ * One page of a keyset paginated query. nextCursor is null on the last page.
+ */
+public record KeysetPage<T>(List<T> items, String nextCursor) {
+}
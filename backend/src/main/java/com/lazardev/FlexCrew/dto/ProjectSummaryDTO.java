@@ -0,0 +1,19 @@
+package com.lazardev.FlexCrew.dto;
+
+import java.time.OffsetDateTime;
+
+/**
+ * A project as the project list shows it. missingCount adds up the places each required team
+ * still has to fill, so extra people from one team do not hide the gap of another.
+ * staffingGapPercent is missingCount over requiredCount, 0 when no team is required.
+ */
+public record ProjectSummaryDTO(
+        Integer projectId,
+        String name,
+        String status,
+        OffsetDateTime dueDate,
+        int requiredCount,
+        int assignedCount,
+        int missingCount,
+        double staffingGapPercent) {
+}
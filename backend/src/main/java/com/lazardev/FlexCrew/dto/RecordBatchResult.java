@@ -0,0 +1,26 @@
+package com.lazardev.FlexCrew.dto;
+
+/**
+ * Outcome of one item of a record batch, index is the position of the item in the request.
+ */
+public record RecordBatchResult(int index, Status status, String message) {
+
+    public enum Status {
+        CREATED,
+        REJECTED,
+        // Valid, but the insert failed, the item can be sent again
+        FAILED
+    }
+
+    public static RecordBatchResult created(int index) {
+        return new RecordBatchResult(index, Status.CREATED, null);
+    }
+
+    public static RecordBatchResult rejected(int index, String message) {
+        return new RecordBatchResult(index, Status.REJECTED, message);
+    }
+
+    public static RecordBatchResult failed(int index, String message) {
+        return new RecordBatchResult(index, Status.FAILED, message);
+    }
+}
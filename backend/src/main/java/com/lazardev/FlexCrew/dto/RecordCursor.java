@@ -0,0 +1,30 @@
+package com.lazardev.FlexCrew.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position after the last record of a page, records are ordered by (created, record_id)
+ * descending. Sent to clients as an opaque base64url string.
+ */
+public record RecordCursor(OffsetDateTime created, Integer id) {
+
+    public String encode() {
+        String raw = created + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static RecordCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            return new RecordCursor(
+                    OffsetDateTime.parse(raw.substring(0, separator)),
+                    Integer.valueOf(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor.", e);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.lazardev.FlexCrew.dto;
+
+import java.time.OffsetDateTime;
+import java.time.OffsetTime;
+
+/**
+ * One line of the attendance export, built directly by the query so no entity is loaded.
+ * issueStatus is null for records without an issue.
+ */
+public record RecordExportRow(
+        Integer recordId,
+        OffsetDateTime created,
+        Integer employeeId,
+        String email,
+        String names,
+        String firstSurname,
+        String secondSurname,
+        String scheduleName,
+        OffsetTime scheduleStartTime,
+        String issueStatus) {
+}
@@ -0,0 +1,71 @@
+package com.lazardev.FlexCrew.dto;
+
+import com.lazardev.FlexCrew.entity.Punctuality;
+import java.time.OffsetDateTime;
+import java.time.OffsetTime;
+
+/**
+ * Read model of a record for the listing endpoints. Keeps the JSON shape of the Record entity
+ * (employee, schedule and issue as nested objects) with only the fields clients use, and is
+ * filled by a single query instead of the entity's eager graph.
+ */
+public record RecordView(
+        Integer id,
+        OffsetDateTime startTime,
+        EmployeeRef employee,
+        ScheduleRef schedule,
+        IssueRef issue,
+        Punctuality punctuality,
+        Integer delayMinutes) {
+
+    public record EmployeeRef(
+            Integer id, String email, String names, String firstSurname, String secondSurname) {
+    }
+
+    public record ScheduleRef(Integer id, String name, OffsetTime startTime, OffsetTime endTime) {
+    }
+
+    public record IssueRef(Integer id, IssueStatusRef issueStatus, OffsetTime delay, String description) {
+    }
+
+    public record IssueStatusRef(Integer id, String name) {
+    }
+
+    // Flat constructor for JPQL constructor expressions, schedule and issue come from outer joins
+    public RecordView(
+            Integer id,
+            OffsetDateTime startTime,
+            Integer employeeId,
+            String email,
+            String names,
+            String firstSurname,
+            String secondSurname,
+            Integer scheduleId,
+            String scheduleName,
+            OffsetTime scheduleStartTime,
+            OffsetTime scheduleEndTime,
+            Integer issueId,
+            Integer issueStatusId,
+            String issueStatusName,
+            OffsetTime issueDelay,
+            String issueDescription,
+            Punctuality punctuality,
+            Integer delayMinutes) {
+        this(
+                id,
+                startTime,
+                new EmployeeRef(employeeId, email, names, firstSurname, secondSurname),
+                scheduleId == null
+                        ? null
+                        : new ScheduleRef(scheduleId, scheduleName, scheduleStartTime, scheduleEndTime),
+                issueId == null
+                        ? null
+                        : new IssueRef(
+                                issueId,
+                                issueStatusId == null ? null : new IssueStatusRef(issueStatusId, issueStatusName),
+                                issueDelay,
+                                issueDescription),
+                punctuality,
+                delayMinutes);
+    }
+}
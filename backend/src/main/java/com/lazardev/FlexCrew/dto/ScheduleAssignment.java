@@ -0,0 +1,7 @@
+package com.lazardev.FlexCrew.dto;
+
+/**
+ * One (employee, schedule) pair of a bulk schedule assignment.
+ */
+public record ScheduleAssignment(Integer employeeId, Integer scheduleId) {
+}
@@ -0,0 +1,24 @@
+package com.lazardev.FlexCrew.dto;
+
+/**
+ * Outcome of one pair of a bulk schedule assignment, index is the position of the pair in the
+ * request.
+ */
+public record ScheduleAssignmentResult(
+        int index, Integer employeeId, Integer scheduleId, Status status, String message) {
+
+    public enum Status {
+        ASSIGNED,
+        // The employee was already on that schedule
+        UNCHANGED,
+        REJECTED,
+        // The employee was reassigned by someone else meanwhile, the pair can be sent again
+        FAILED
+    }
+
+    public static ScheduleAssignmentResult of(int index, ScheduleAssignment pair, Status status,
+            String message) {
+        return new ScheduleAssignmentResult(index, pair != null ? pair.employeeId() : null,
+                pair != null ? pair.scheduleId() : null, status, message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.lazardev.FlexCrew.dto;
+
+/**
+ * One employee put on a project to fill a place required from its team.
+ */
+public record StaffingAssignment(Integer projectId, Integer teamId, Integer employeeId) {
+}
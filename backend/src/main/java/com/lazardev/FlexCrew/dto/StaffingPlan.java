@@ -0,0 +1,15 @@
+package com.lazardev.FlexCrew.dto;
+
+import java.util.List;
+
+/**
+ * Free employees spread over every open project as proposed by the staffing optimizer. neededCount
+ * is the number of places still open before the plan, filledCount how many the plan fills.
+ */
+public record StaffingPlan(
+        List<StaffingAssignment> assignments,
+        int neededCount,
+        int filledCount,
+        int candidateCount,
+        long elapsedMillis) {
+}
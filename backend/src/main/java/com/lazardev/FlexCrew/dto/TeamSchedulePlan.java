@@ -0,0 +1,16 @@
+package com.lazardev.FlexCrew.dto;
+
+import java.util.List;
+
+/**
+ * Schedule of every member of a team as proposed by the optimizer. assignments holds one pair per
+ * member that got a seat, unassigned the members that do not fit in any schedule.
+ */
+public record TeamSchedulePlan(
+        Integer teamId,
+        List<ScheduleAssignment> assignments,
+        List<Integer> unassigned,
+        int reassignments,
+        int schedulesUsed,
+        long elapsedMillis) {
+}
@@ -0,0 +1,16 @@
+package com.lazardev.FlexCrew.dto.analytics;
+
+import java.time.LocalTime;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CoverageAtDto {
+    private LocalTime time;
+    private int headcount; // Employees assigned to the schedules running at time
+    private List<Integer> scheduleIds;
+}
@@ -0,0 +1,16 @@
+package com.lazardev.FlexCrew.dto.analytics;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CoverageHistogramDto {
+    private int slotMinutes;
+    private List<Integer> headcounts; // Peak headcount of each slot, the first slot starts at 00:00
+    private int peakHeadcount;
+    private int minHeadcount;
+}
@@ -0,0 +1,13 @@
+package com.lazardev.FlexCrew.dto.calendar;
+
+import java.time.LocalDate;
+import java.time.OffsetTime;
+
+/** One dated shift of an employee, with the schedule as it was when the week was loaded. */
+public record ShiftDay(
+        LocalDate date,
+        Integer scheduleId,
+        String name,
+        OffsetTime startTime,
+        OffsetTime endTime) {
+}
@@ -0,0 +1,12 @@
+package com.lazardev.FlexCrew.dto.calendar;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/** Shifts of an employee in the week starting on weekStart, a Monday. Days off are left out. */
+public record WeekSchedule(Integer employeeId, LocalDate weekStart, List<ShiftDay> days) {
+
+    public WeekSchedule {
+        days = List.copyOf(days);
+    }
+}
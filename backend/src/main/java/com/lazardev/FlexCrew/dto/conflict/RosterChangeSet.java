@@ -0,0 +1,30 @@
+package com.lazardev.FlexCrew.dto.conflict;
+
+import com.lazardev.FlexCrew.dto.ScheduleAssignment;
+import com.lazardev.FlexCrew.dto.rotation.RotationPatternRequest;
+import com.lazardev.FlexCrew.dto.simulation.ScheduleEdit;
+import java.util.List;
+
+/**
+ * Batch of roster changes to validate together, as imported from a spreadsheet. Any list may be
+ * null or empty.
+ */
+public record RosterChangeSet(
+        List<ScheduleEdit> schedules,
+        List<ScheduleAssignment> assignments,
+        List<RotationPatternRequest> rotations) {
+
+    public RosterChangeSet {
+        schedules = schedules != null ? schedules : List.of();
+        assignments = assignments != null ? assignments : List.of();
+        rotations = rotations != null ? rotations : List.of();
+    }
+
+    public static RosterChangeSet ofSchedule(ScheduleEdit edit) {
+        return new RosterChangeSet(List.of(edit), null, null);
+    }
+
+    public static RosterChangeSet ofRotation(RotationPatternRequest rotation) {
+        return new RosterChangeSet(null, null, List.of(rotation));
+    }
+}
@@ -0,0 +1,37 @@
+package com.lazardev.FlexCrew.dto.conflict;
+
+import java.util.List;
+
+/**
+ * One problem found in a change set. Edits are referred to by their index in the list they came
+ * in (schedules, assignments or rotations, depending on the type), existing schedules by id.
+ */
+public record RosterConflict(
+        Type type,
+        Severity severity,
+        String message,
+        List<Integer> scheduleIds,
+        List<Integer> editIndexes,
+        Integer employeeId) {
+
+    public enum Type {
+        INVALID_EDIT,
+        DUPLICATE_NAME,
+        DUPLICATE_WINDOW,
+        OVERLAP,
+        OVER_CAPACITY,
+        DUPLICATE_ASSIGNMENT,
+        ON_ROTATION,
+        ROTATION_OVERLAP
+    }
+
+    public enum Severity {
+        ERROR,
+        WARNING
+    }
+
+    public RosterConflict {
+        scheduleIds = scheduleIds != null ? List.copyOf(scheduleIds) : List.of();
+        editIndexes = editIndexes != null ? List.copyOf(editIndexes) : List.of();
+    }
+}
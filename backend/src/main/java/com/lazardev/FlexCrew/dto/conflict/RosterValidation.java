@@ -0,0 +1,15 @@
+package com.lazardev.FlexCrew.dto.conflict;
+
+import java.util.List;
+
+/**
+ * Every conflict of a change set, errors first. Valid when there is no error, warnings only
+ * inform. Truncated when warnings were left out past the limit of a response, errors never are.
+ */
+public record RosterValidation(
+        boolean valid,
+        int errors,
+        int warnings,
+        boolean truncated,
+        List<RosterConflict> conflicts) {
+}
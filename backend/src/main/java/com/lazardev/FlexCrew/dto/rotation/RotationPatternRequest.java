@@ -0,0 +1,10 @@
+package com.lazardev.FlexCrew.dto.rotation;
+
+import java.util.List;
+
+/**
+ * New rotation: one schedule id per day of the cycle, null on a day off. Four days on and three off
+ * on schedule 1 is [1, 1, 1, 1, null, null, null].
+ */
+public record RotationPatternRequest(String name, List<Integer> scheduleIds) {
+}
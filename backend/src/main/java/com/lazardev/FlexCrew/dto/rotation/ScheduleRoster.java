@@ -0,0 +1,12 @@
+package com.lazardev.FlexCrew.dto.rotation;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/** Employees on a rotation that work the schedule on the date. */
+public record ScheduleRoster(Integer scheduleId, LocalDate date, List<Integer> employeeIds) {
+
+    public ScheduleRoster {
+        employeeIds = List.copyOf(employeeIds);
+    }
+}
@@ -0,0 +1,22 @@
+package com.lazardev.FlexCrew.dto.simulation;
+
+import com.lazardev.FlexCrew.dto.analytics.ScheduleLoadDto;
+import java.util.List;
+
+/**
+ * Effect of a scenario. coverage holds the employees on shift per slot of the day after the
+ * edits, coverageDelta the difference with the current schedules. Only errors is set when the
+ * scenario is invalid.
+ */
+public record ScenarioResult(
+        String name,
+        int displacedEmployees,
+        List<ScheduleLoadDto> loads,
+        int[] coverage,
+        int[] coverageDelta,
+        List<String> errors) {
+
+    public static ScenarioResult invalid(String name, List<String> errors) {
+        return new ScenarioResult(name, 0, List.of(), null, null, errors);
+    }
+}
@@ -0,0 +1,16 @@
+package com.lazardev.FlexCrew.dto.simulation;
+
+import java.time.OffsetTime;
+
+/**
+ * Hypothetical change of one schedule. Without scheduleId it adds a schedule, with remove set it
+ * removes one, otherwise the non-null fields replace those of the schedule.
+ */
+public record ScheduleEdit(
+        Integer scheduleId,
+        String name,
+        OffsetTime startTime,
+        OffsetTime endTime,
+        Integer maxEmployees,
+        boolean remove) {
+}
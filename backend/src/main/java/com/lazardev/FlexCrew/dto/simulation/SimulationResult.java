@@ -0,0 +1,10 @@
+package com.lazardev.FlexCrew.dto.simulation;
+
+import java.util.List;
+
+/**
+ * Results of the scenarios in request order. Coverage slots are slotMinutes long and start at
+ * midnight, baselineCoverage is the coverage of the current schedules.
+ */
+public record SimulationResult(int slotMinutes, int[] baselineCoverage, List<ScenarioResult> scenarios) {
+}
@@ -0,0 +1,9 @@
+package com.lazardev.FlexCrew.dto.simulation;
+
+import java.util.List;
+
+/**
+ * Named set of schedule edits evaluated together.
+ */
+public record SimulationScenario(String name, List<ScheduleEdit> edits) {
+}
@@ -0,0 +1,29 @@
+package com.lazardev.FlexCrew.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Number of records of an employee in a calendar month. Maintained together with the Records
+ * table, see MonthlyAttendanceRepository.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+// Table name inside characters ` because of upper case table names defined
+// in DDL script
+@Table(name = "`Monthly_attendance`")
+public class MonthlyAttendance {
+
+  @EmbeddedId
+  private MonthlyAttendanceId id;
+
+  @Column(name = "records", nullable = false)
+  private Integer records;
+}
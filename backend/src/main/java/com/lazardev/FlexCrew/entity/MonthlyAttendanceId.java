@@ -0,0 +1,24 @@
+package com.lazardev.FlexCrew.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import java.io.Serializable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Embeddable
+public class MonthlyAttendanceId implements Serializable {
+
+  @Column(name = "fk_employee")
+  private Integer employeeId;
+
+  @Column(name = "year")
+  private Integer year;
+
+  @Column(name = "month")
+  private Integer month;
+}
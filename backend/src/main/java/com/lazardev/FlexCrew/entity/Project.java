@@ -11,7 +11,9 @@ import java.time.OffsetDateTime;
 import java.util.Set;
 
 @Entity
-@Table(name = "\"Projects\"", schema = "Flex-Crew-v1")
+@Table(name = "\"Projects\"", schema = "Flex-Crew-v1", indexes = {
+        @Index(name = "projects_status_idx", columnList = "status, project_id"),
+        @Index(name = "projects_due_date_idx", columnList = "due_date") })
 @Getter
 @Setter
 @NoArgsConstructor
@@ -11,7 +11,7 @@ import java.time.OffsetDateTime;
 
 @Entity
 @Table(name = "Project_Employee_Assignments", schema = "Flex-Crew-v1", uniqueConstraints = @UniqueConstraint(columnNames = {
-        "fk_project_id", "fk_employee_id" }))
+        "fk_project_id", "fk_employee_id" }), indexes = @Index(name = "project_assignments_employee_idx", columnList = "fk_employee_id"))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -0,0 +1,31 @@
+package com.lazardev.FlexCrew.entity;
+
+/**
+ * Punctuality of a check-in, stored on Records as a smallint code. Codes are persisted, never
+ * renumber them.
+ */
+public enum Punctuality {
+  PUNCTUAL(0),
+  LATE(1),
+  EARLY(2),
+  MISSED(3);
+
+  private final short code;
+
+  Punctuality(int code) {
+    this.code = (short) code;
+  }
+
+  public short getCode() {
+    return code;
+  }
+
+  public static Punctuality fromCode(short code) {
+    for (Punctuality punctuality : values()) {
+      if (punctuality.code == code) {
+        return punctuality;
+      }
+    }
+    throw new IllegalArgumentException("Unknown punctuality code: " + code);
+  }
+}
@@ -0,0 +1,18 @@
+package com.lazardev.FlexCrew.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+@Converter
+public class PunctualityConverter implements AttributeConverter<Punctuality, Short> {
+
+  @Override
+  public Short convertToDatabaseColumn(Punctuality punctuality) {
+    return punctuality != null ? punctuality.getCode() : null;
+  }
+
+  @Override
+  public Punctuality convertToEntityAttribute(Short code) {
+    return code != null ? Punctuality.fromCode(code) : null;
+  }
+}
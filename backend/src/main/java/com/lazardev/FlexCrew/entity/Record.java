@@ -1,10 +1,12 @@
 package com.lazardev.FlexCrew.entity;
 
 import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToOne;
@@ -24,7 +26,13 @@ import lombok.ToString;
 @NoArgsConstructor
 @Builder
 @ToString
-@Table(name = "`Records`")
+// Keyset pagination of an employee's records, newest first, and punctuality aggregates
+@Table(
+    name = "`Records`",
+    indexes = {
+      @Index(name = "records_employee_created_idx", columnList = "fk_employee, created, record_id"),
+      @Index(name = "records_punctuality_idx", columnList = "punctuality")
+    })
 public class Record {
 
   @Id
@@ -52,4 +60,13 @@ public class Record {
 
   @Column(name = "created")
   private OffsetDateTime startTime;
+
+  // Classified on check-in by PunctualityClassifier, null until then
+  @Convert(converter = PunctualityConverter.class)
+  @Column(name = "punctuality")
+  private Punctuality punctuality;
+
+  // Minutes after the schedule start time, negative when early
+  @Column(name = "delay_minutes")
+  private Integer delayMinutes;
 }
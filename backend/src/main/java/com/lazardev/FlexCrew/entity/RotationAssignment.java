@@ -0,0 +1,40 @@
+package com.lazardev.FlexCrew.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import java.time.LocalDate;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * Rotation an employee follows. Step 0 of the pattern falls on the anchor date, and the cycle
+ * repeats in both directions from there. While assigned, the rotation and not Employees.fk_schedule
+ * decides the employee's shifts.
+ */
+@Entity
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@ToString
+@Table(name = "`Rotation_assignments`")
+public class RotationAssignment {
+
+  @Id
+  @Column(name = "fk_employee")
+  private Integer employeeId;
+
+  @ManyToOne(optional = false)
+  @JoinColumn(name = "fk_rotation_pattern", nullable = false)
+  private RotationPattern pattern;
+
+  @Column(name = "anchor_date", nullable = false)
+  private LocalDate anchorDate;
+}
@@ -0,0 +1,77 @@
+package com.lazardev.FlexCrew.entity;
+
+import jakarta.persistence.CollectionTable;
+import jakarta.persistence.Column;
+import jakarta.persistence.ElementCollection;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.OrderColumn;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Table;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * Cyclic sequence of schedules, one step per day, such as four days on and three off or alternating
+ * early and late weeks. Employees follow it through a RotationAssignment.
+ *
+ * <p>Days off are not stored as step rows, cycle_length keeps the length of the whole cycle.
+ */
+@Entity
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@ToString
+@Table(name = "`Rotation_patterns`")
+public class RotationPattern {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @Column(name = "rotation_pattern_id")
+  private Integer id;
+
+  @Column(name = "name", nullable = false)
+  private String name;
+
+  @Column(name = "cycle_length", nullable = false)
+  private Integer cycleLength;
+
+  @Builder.Default
+  @ElementCollection(fetch = FetchType.EAGER)
+  @CollectionTable(
+      name = "`Rotation_pattern_steps`",
+      joinColumns = @JoinColumn(name = "fk_rotation_pattern"))
+  @OrderColumn(name = "step_index")
+  private List<RotationStep> steps = new ArrayList<>();
+
+  /** Schedule id of the step, null on a day off. */
+  public Integer scheduleIdAt(int step) {
+    if (step >= steps.size() || steps.get(step) == null) {
+      return null;
+    }
+    Schedule schedule = steps.get(step).getSchedule();
+    return schedule != null ? schedule.getId() : null;
+  }
+
+  // Trailing days off leave no rows, the length has to be kept apart
+  @PrePersist
+  @PreUpdate
+  void updateCycleLength() {
+    if (cycleLength == null || cycleLength < steps.size()) {
+      cycleLength = steps.size();
+    }
+  }
+}
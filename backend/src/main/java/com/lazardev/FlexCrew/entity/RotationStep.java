@@ -0,0 +1,24 @@
+package com.lazardev.FlexCrew.entity;
+
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/** One day of a rotation, a null schedule is a day off. */
+@Embeddable
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@ToString
+public class RotationStep {
+
+  @ManyToOne
+  @JoinColumn(name = "fk_schedule")
+  private Schedule schedule;
+}
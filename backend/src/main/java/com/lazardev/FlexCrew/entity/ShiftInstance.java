@@ -0,0 +1,44 @@
+package com.lazardev.FlexCrew.entity;
+
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+/**
+ * Shift of an employee on one day, generated ahead of time from the employee's schedule by
+ * ShiftCalendarService. The primary key (fk_employee, shift_date) serves an employee's date ranges,
+ * the index the staffing of a day.
+ */
+@Entity
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@ToString
+// Table name inside characters ` because of upper case table names defined
+// in DDL script
+@Table(
+    name = "`Shift_instances`",
+    indexes = @Index(name = "shift_instances_date_schedule_idx", columnList = "shift_date, fk_schedule"))
+public class ShiftInstance {
+
+  @EmbeddedId
+  private ShiftInstanceId id;
+
+  @ManyToOne(fetch = FetchType.LAZY, optional = false)
+  @JoinColumn(name = "fk_schedule", nullable = false)
+  @OnDelete(action = OnDeleteAction.CASCADE)
+  @ToString.Exclude
+  private Schedule schedule;
+}
@@ -0,0 +1,22 @@
+package com.lazardev.FlexCrew.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import java.io.Serializable;
+import java.time.LocalDate;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Embeddable
+public class ShiftInstanceId implements Serializable {
+
+  @Column(name = "fk_employee")
+  private Integer employeeId;
+
+  @Column(name = "shift_date")
+  private LocalDate shiftDate;
+}
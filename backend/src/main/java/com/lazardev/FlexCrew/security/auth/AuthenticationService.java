@@ -7,6 +7,7 @@ import com.lazardev.FlexCrew.entity.Role;
 import com.lazardev.FlexCrew.security.config.JwtService;
 import com.lazardev.FlexCrew.security.token.Token;
 import com.lazardev.FlexCrew.security.token.TokenRepository;
+import com.lazardev.FlexCrew.security.token.TokenRevocationIndex;
 import com.lazardev.FlexCrew.security.token.TokenType;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -27,6 +28,7 @@ public class AuthenticationService {
   private PasswordEncoder passwordEncoder;
   private JwtService jwtService;
   private AuthenticationManager authenticationManager;
+  private TokenRevocationIndex tokenRevocationIndex;
 
   @Autowired
   public AuthenticationService(
@@ -34,12 +36,14 @@ public class AuthenticationService {
       TokenRepository theTokenRepo,
       PasswordEncoder thePasswordEncoder,
       JwtService theJwtservice,
-      AuthenticationManager theAuthenticationManager) {
+      AuthenticationManager theAuthenticationManager,
+      TokenRevocationIndex theTokenRevocationIndex) {
     this.repository = theEmployeeRepo;
     this.tokenRepository = theTokenRepo;
     this.passwordEncoder = thePasswordEncoder;
     this.jwtService = theJwtservice;
     this.authenticationManager = theAuthenticationManager;
+    this.tokenRevocationIndex = theTokenRevocationIndex;
   }
 
   public AuthenticationResponse register(RegisterRequest request) {
@@ -70,9 +74,10 @@ public class AuthenticationService {
     authenticationManager.authenticate(
         new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword()));
     Employee user = repository.findByEmail(request.getEmail()).orElseThrow();
+    // Revoke first, the revocation index rejects tokens issued before the revocation
+    revokeAllUserTokens(user);
     String jwtToken = jwtService.generateToken(user);
     String refreshToken = jwtService.generateRefreshToken(user);
-    revokeAllUserTokens(user);
     saveUserToken(user, jwtToken);
     return AuthenticationResponse.builder()
         .accessToken(jwtToken)
@@ -97,18 +102,19 @@ public class AuthenticationService {
     tokenRepository.save(token);
   }
 
-  private void revokeAllUserTokens(Employee user) {
+  public void revokeAllUserTokens(Employee user) {
     List<Token> validUserTokens = tokenRepository.findAllValidTokenByUser(user.getId());
-    if (validUserTokens.isEmpty()) {
-      return;
+    if (!validUserTokens.isEmpty()) {
+      // Set expired and revoked to true for old tokens
+      validUserTokens.forEach(
+          token -> {
+            token.setExpired(true);
+            token.setRevoked(true);
+          });
+      tokenRepository.saveAll(validUserTokens);
     }
-    // Set expired and revoked to true for old tokens
-    validUserTokens.forEach(
-        token -> {
-          token.setExpired(true);
-          token.setRevoked(true);
-        });
-    tokenRepository.saveAll(validUserTokens);
+    // Write-through: the database is updated first, then the in-memory index
+    tokenRevocationIndex.revokeAll(user.getUsername(), validUserTokens);
   }
 
   public void refreshToken(HttpServletRequest request, HttpServletResponse response)
@@ -124,8 +130,8 @@ public class AuthenticationService {
     if (userEmail != null) {
       Employee user = this.repository.findByEmail(userEmail).orElseThrow();
       if (jwtService.isTokenValid(refreshToken, user)) {
-        String accessToken = jwtService.generateToken(user);
         revokeAllUserTokens(user);
+        String accessToken = jwtService.generateToken(user);
         saveUserToken(user, accessToken);
         AuthenticationResponse authResponse = AuthenticationResponse.builder()
             .accessToken(accessToken)
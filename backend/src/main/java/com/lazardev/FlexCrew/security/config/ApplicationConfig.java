@@ -1,6 +1,6 @@
 package com.lazardev.FlexCrew.security.config;
 
-import com.lazardev.FlexCrew.dao.EmployeeRepository;
+import com.lazardev.FlexCrew.security.user.EmployeePrincipalCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -9,26 +9,23 @@ import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 @Configuration
 public class ApplicationConfig {
 
-  private EmployeeRepository repository;
+  private EmployeePrincipalCache principalCache;
 
   @Autowired
-  public ApplicationConfig(EmployeeRepository repository) {
-    this.repository = repository;
+  public ApplicationConfig(EmployeePrincipalCache principalCache) {
+    this.principalCache = principalCache;
   }
 
+  // Hands out cached EmployeePrincipal records, not Employee entities
   @Bean
   public UserDetailsService userDetailsService() {
-    return username ->
-        repository
-            .findByEmail(username)
-            .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+    return principalCache::get;
   }
 
   @Bean
@@ -1,6 +1,8 @@
 package com.lazardev.FlexCrew.security.config;
 
 import com.lazardev.FlexCrew.security.token.TokenRepository;
+import com.lazardev.FlexCrew.security.token.TokenRevocationIndex;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -22,15 +24,18 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
   private JwtService jwtService;
   private UserDetailsService userDetailsService;
   private TokenRepository tokenRepository;
+  private TokenRevocationIndex tokenRevocationIndex;
 
   @Autowired
   public JwtAuthenticationFilter(
       JwtService jwtService,
       UserDetailsService userDetailsService,
-      TokenRepository tokenRepository) {
+      TokenRepository tokenRepository,
+      TokenRevocationIndex tokenRevocationIndex) {
     this.jwtService = jwtService;
     this.userDetailsService = userDetailsService;
     this.tokenRepository = tokenRepository;
+    this.tokenRevocationIndex = tokenRevocationIndex;
   }
 
   @Override
@@ -51,12 +56,22 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
       return;
     }
     jwt = authHeader.substring(7);
-    userEmail = jwtService.extractUsername(jwt);
+    // Parsed and verified once per request, later lookups hit the claims cache
+    final Claims claims = jwtService.extractAllClaims(jwt);
+    userEmail = claims.getSubject();
     if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
       UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
       boolean isTokenValid =
-          tokenRepository.findByToken(jwt).map(t -> !t.isExpired() && !t.isRevoked()).orElse(false);
-      if (jwtService.isTokenValid(jwt, userDetails) && isTokenValid) {
+          switch (tokenRevocationIndex.check(jwt, claims)) {
+            case ACTIVE -> true;
+            case REVOKED -> false;
+            // Only tokens the in-memory index cannot vouch for go to the database
+            default -> tokenRepository
+                .findByToken(jwt)
+                .map(t -> !t.isExpired() && !t.isRevoked())
+                .orElse(false);
+          };
+      if (jwtService.isTokenValid(claims, userDetails) && isTokenValid) {
         UsernamePasswordAuthenticationToken authToken =
             new UsernamePasswordAuthenticationToken(
                 userDetails, null, userDetails.getAuthorities());
@@ -1,14 +1,27 @@
 package com.lazardev.FlexCrew.security.config;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import javax.crypto.SecretKey;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
@@ -16,6 +29,11 @@ import org.springframework.stereotype.Service;
 @Service
 public class JwtService {
 
+  // Marks what a token may be used for, only access tokens are accepted as bearer credentials
+  public static final String TOKEN_USE_CLAIM = "token_use";
+  public static final String ACCESS_TOKEN = "access";
+  public static final String REFRESH_TOKEN = "refresh";
+
   @Value("${application.security.jwt.secret-key}")
   private String secretKey;
 
@@ -25,6 +43,36 @@ public class JwtService {
   @Value("${application.security.jwt.refresh-token.expiration}")
   private long refreshExpiration;
 
+  @Value("${application.security.jwt.claims-cache.max-size:10000}")
+  private long claimsCacheMaxSize;
+
+  private final MeterRegistry meterRegistry;
+
+  // Built once on startup, decoding the key and building the parser is not free
+  private SecretKey signInKey;
+  private JwtParser jwtParser;
+
+  // Verified claims keyed by the token digest, each entry lives until the token expires
+  private Cache<String, Claims> claimsCache;
+
+  @Autowired
+  public JwtService(MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+  }
+
+  @PostConstruct
+  void init() {
+    signInKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+    jwtParser = Jwts.parser().verifyWith(signInKey).build();
+    claimsCache =
+        Caffeine.newBuilder()
+            .maximumSize(claimsCacheMaxSize)
+            .expireAfter(new UntilTokenExpiration())
+            .recordStats()
+            .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, claimsCache, "jwt.claims");
+  }
+
   public String extractUsername(String token) {
     return extractClaim(token, Claims::getSubject);
   }
@@ -39,43 +87,82 @@ public class JwtService {
   }
 
   public String generateToken(Map<String, Object> extraClaims, UserDetails userDetails) {
-    return buildToken(extraClaims, userDetails, jwtExpiration);
+    return buildToken(extraClaims, userDetails, jwtExpiration, ACCESS_TOKEN);
   }
 
   public String generateRefreshToken(UserDetails userDetails) {
-    return buildToken(new HashMap<>(), userDetails, refreshExpiration);
+    return buildToken(new HashMap<>(), userDetails, refreshExpiration, REFRESH_TOKEN);
   }
 
   private String buildToken(
-      Map<String, Object> extraClaims, UserDetails userDetails, long expiration) {
+      Map<String, Object> extraClaims, UserDetails userDetails, long expiration, String tokenUse) {
     return Jwts.builder()
         .claims(extraClaims)
+        .claim(TOKEN_USE_CLAIM, tokenUse)
         .subject(userDetails.getUsername())
         .issuedAt(new Date(System.currentTimeMillis()))
         .expiration(new Date(System.currentTimeMillis() + expiration))
-        .signWith(getSignInKey())
+        .signWith(signInKey)
         .compact();
   }
 
   public boolean isTokenValid(String token, UserDetails userDetails) {
-    final String username = extractUsername(token);
-    return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+    return isTokenValid(extractAllClaims(token), userDetails);
+  }
+
+  public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+    return (claims.getSubject().equals(userDetails.getUsername())) && !isTokenExpired(claims);
+  }
+
+  private boolean isTokenExpired(Claims claims) {
+    return claims.getExpiration().before(new Date());
   }
 
-  private boolean isTokenExpired(String token) {
-    return extractExpiration(token).before(new Date());
+  /**
+   * Parses and verifies the token only on a cache miss. Invalid or expired tokens throw from the
+   * parser and are never cached.
+   */
+  public Claims extractAllClaims(String token) {
+    return claimsCache.get(tokenDigest(token), digest -> parseClaims(token));
   }
 
-  private Date extractExpiration(String token) {
-    return extractClaim(token, Claims::getExpiration);
+  private Claims parseClaims(String token) {
+    return jwtParser.parseSignedClaims(token).getPayload();
   }
 
-  private Claims extractAllClaims(String token) {
-    return Jwts.parser().verifyWith(getSignInKey()).build().parseSignedClaims(token).getPayload();
+  /** SHA-256 of the raw token, so the cache never keeps bearer tokens in memory. */
+  public static String tokenDigest(String token) {
+    try {
+      MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+      byte[] hash = sha256.digest(token.getBytes(StandardCharsets.UTF_8));
+      return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
   }
 
-  private SecretKey getSignInKey() {
-    byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-    return Keys.hmacShaKeyFor(keyBytes);
+  private static class UntilTokenExpiration implements Expiry<String, Claims> {
+
+    @Override
+    public long expireAfterCreate(String key, Claims claims, long currentTime) {
+      Date expiration = claims.getExpiration();
+      if (expiration == null) {
+        return 0;
+      }
+      long millisLeft = expiration.getTime() - System.currentTimeMillis();
+      return TimeUnit.MILLISECONDS.toNanos(Math.max(0, millisLeft));
+    }
+
+    @Override
+    public long expireAfterUpdate(
+        String key, Claims claims, long currentTime, long currentDuration) {
+      return currentDuration;
+    }
+
+    @Override
+    public long expireAfterRead(
+        String key, Claims claims, long currentTime, long currentDuration) {
+      return currentDuration;
+    }
   }
 }
@@ -5,11 +5,13 @@ import static org.springframework.security.config.http.SessionCreationPolicy.STA
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -47,6 +49,20 @@ public class SecurityConfiguration {
         .csrf(AbstractHttpConfigurer::disable)
         .authorizeHttpRequests(req -> req
             .requestMatchers(WHITE_LIST_URL).permitAll()
+            // Authorities carry the bare role name, there is no ROLE_ prefix to match hasRole
+            .requestMatchers("/api/v1/projects/staffing-plan", "/api/v1/projects/staffing-plan/**")
+            .hasAuthority("ADMIN")
+            .requestMatchers(HttpMethod.GET, "/api/records/export").hasAuthority("ADMIN")
+            .requestMatchers(HttpMethod.POST, "/api/records/monthly-counters/rebuild", "/api/records/punctuality/backfill")
+            .hasAuthority("ADMIN")
+            .requestMatchers("/api/v1/projects/*/assignments/**").hasAuthority("ADMIN")
+            // Employees only read their schedules and rotations, every change is an admin's
+            .requestMatchers(HttpMethod.GET, "/api/schedules/optimize/**", "/api/rotations/schedule/**")
+            .hasAuthority("ADMIN")
+            .requestMatchers(HttpMethod.POST, "/api/schedules", "/api/schedules/**", "/api/rotations", "/api/rotations/**")
+            .hasAuthority("ADMIN")
+            .requestMatchers(HttpMethod.PUT, "/api/schedules/**").hasAuthority("ADMIN")
+            .requestMatchers(HttpMethod.DELETE, "/api/schedules/**", "/api/rotations/**").hasAuthority("ADMIN")
             .requestMatchers(HttpMethod.GET, "/api/v1/projects", "/api/v1/projects/**").permitAll()
             .requestMatchers("/api/v1/management/**").hasAnyRole("ADMIN", "MANAGER")
             .requestMatchers(HttpMethod.GET, "/api/v1/management/**").hasAnyAuthority("admin:read", "manager:read")
@@ -55,6 +71,9 @@ public class SecurityConfiguration {
             .requestMatchers(HttpMethod.DELETE, "/api/v1/management/**")
             .hasAnyAuthority("admin:delete", "manager:delete")
             .anyRequest().authenticated())
+        // Without a login form anonymous calls would otherwise be answered 403 like a missing authority
+        .exceptionHandling(exceptions -> exceptions
+            .authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
         .sessionManagement(session -> session.sessionCreationPolicy(STATELESS))
         .authenticationProvider(authenticationProvider)
         .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
@@ -70,6 +89,8 @@ public class SecurityConfiguration {
     config.addAllowedOrigin("http://localhost:5173");
     config.addAllowedHeader("*");
     config.addAllowedMethod("*");
+    // Paginated endpoints return the cursor of the next page in a header
+    config.addExposedHeader("X-Next-Cursor");
     source.registerCorsConfiguration("/api/**", config);
     return new CorsFilter(source);
   }
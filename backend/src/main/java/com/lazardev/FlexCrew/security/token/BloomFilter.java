@@ -0,0 +1,74 @@
+package com.lazardev.FlexCrew.security.token;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free bloom filter over string keys. Answers "definitely not present" or "maybe present",
+ * so callers must confirm positives against the source of truth.
+ */
+final class BloomFilter {
+
+  private final AtomicLongArray bits;
+  private final long bitCount;
+  private final int hashCount;
+
+  private BloomFilter(long bitCount, int hashCount) {
+    int words = (int) ((bitCount + 63) / 64);
+    this.bits = new AtomicLongArray(words);
+    this.bitCount = (long) words * 64;
+    this.hashCount = hashCount;
+  }
+
+  static BloomFilter create(long expectedInsertions, double falsePositiveRate) {
+    long n = Math.max(1, expectedInsertions);
+    double p = Math.min(Math.max(falsePositiveRate, 1e-9), 0.5);
+    long m = (long) Math.ceil(-n * Math.log(p) / (Math.log(2) * Math.log(2)));
+    int k = Math.max(1, (int) Math.round((double) m / n * Math.log(2)));
+    // Keep the bit array addressable by an int word index
+    return new BloomFilter(Math.min(m, (long) Integer.MAX_VALUE * 32), k);
+  }
+
+  void put(String key) {
+    long hash = hash64(key);
+    int h1 = (int) hash;
+    int h2 = (int) (hash >>> 32);
+    for (int i = 1; i <= hashCount; i++) {
+      long bit = Integer.toUnsignedLong(h1 + i * h2) % bitCount;
+      int word = (int) (bit >>> 6);
+      long mask = 1L << bit;
+      long current = bits.get(word);
+      while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask)) {
+        current = bits.get(word);
+      }
+    }
+  }
+
+  boolean mightContain(String key) {
+    long hash = hash64(key);
+    int h1 = (int) hash;
+    int h2 = (int) (hash >>> 32);
+    for (int i = 1; i <= hashCount; i++) {
+      long bit = Integer.toUnsignedLong(h1 + i * h2) % bitCount;
+      if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // FNV-1a followed by a murmur3 finalizer to spread the bits of both halves
+  private static long hash64(String key) {
+    long hash = 0xcbf29ce484222325L;
+    for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+      hash ^= b;
+      hash *= 0x100000001b3L;
+    }
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+}
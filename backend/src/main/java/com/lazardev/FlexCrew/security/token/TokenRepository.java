@@ -1,9 +1,13 @@
 package com.lazardev.FlexCrew.security.token;
 
+import jakarta.persistence.QueryHint;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 public interface TokenRepository extends JpaRepository<Token, Integer> {
 
@@ -17,4 +21,14 @@ public interface TokenRepository extends JpaRepository<Token, Integer> {
   List<Token> findAllValidTokenByUser(Integer id);
 
   Optional<Token> findByToken(String token);
+
+  long countByRevokedTrue();
+
+  // Used to rebuild the in-memory revocation index, must run inside a transaction
+  @Query("select t.token from Token t where t.revoked = true")
+  @QueryHints({
+    @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+    @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+  })
+  Stream<String> streamRevokedTokens();
 }
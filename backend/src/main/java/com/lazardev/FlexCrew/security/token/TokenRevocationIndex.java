@@ -0,0 +1,158 @@
+package com.lazardev.FlexCrew.security.token;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lazardev.FlexCrew.security.config.JwtService;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * In-memory view of the Tokens table used by the authentication filter.
+ *
+ * <p>Two structures decide whether an access token is still usable without a database round trip:
+ * a per-subject "revoked before" epoch (every token issued earlier is revoked) and a bloom filter
+ * of revoked token digests. Only a bloom filter hit, a token issued before this index existed or a
+ * token without the access marker has to be confirmed against the database.
+ */
+@Component
+public class TokenRevocationIndex {
+
+  public enum Status {
+    ACTIVE,
+    REVOKED,
+    UNKNOWN
+  }
+
+  private static final ObjectMapper PAYLOAD_READER = new ObjectMapper();
+
+  private final TokenRepository tokenRepository;
+  private final long expectedRevocations;
+  private final double falsePositiveRate;
+
+  // JWT subject (employee email) -> epoch second, tokens issued before it are revoked
+  private final Map<String, Long> revokedBeforeBySubject = new ConcurrentHashMap<>();
+  private volatile BloomFilter revokedTokens;
+  private volatile boolean ready;
+
+  private final Counter activeCount;
+  private final Counter revokedCount;
+  private final Counter unknownCount;
+
+  @Autowired
+  public TokenRevocationIndex(
+      TokenRepository tokenRepository,
+      MeterRegistry meterRegistry,
+      @Value("${application.security.token-revocation.expected-revocations:100000}")
+          long expectedRevocations,
+      @Value("${application.security.token-revocation.false-positive-rate:0.001}")
+          double falsePositiveRate) {
+    this.tokenRepository = tokenRepository;
+    this.expectedRevocations = expectedRevocations;
+    this.falsePositiveRate = falsePositiveRate;
+    this.revokedTokens = BloomFilter.create(expectedRevocations, falsePositiveRate);
+    this.activeCount = revocationCheckCounter(meterRegistry, "active");
+    this.revokedCount = revocationCheckCounter(meterRegistry, "revoked");
+    this.unknownCount = revocationCheckCounter(meterRegistry, "database");
+  }
+
+  private static Counter revocationCheckCounter(MeterRegistry registry, String outcome) {
+    return Counter.builder("jwt.revocation.checks").tag("outcome", outcome).register(registry);
+  }
+
+  /**
+   * Rebuilds the bloom filter and the per-subject epochs from the revoked rows of the Tokens table.
+   * Tokens are only ever revoked all at once per subject, so every token issued before the newest
+   * revoked one of its subject is revoked too. That issue time is the rebuilt epoch, the newest
+   * revoked token itself is caught by the bloom filter.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  @Transactional(readOnly = true)
+  public void rebuild() {
+    ready = false;
+    long revoked = tokenRepository.countByRevokedTrue();
+    BloomFilter rebuilt =
+        BloomFilter.create(Math.max(expectedRevocations, revoked * 2), falsePositiveRate);
+    // Publish before loading so revocations that happen meanwhile land in the new filter
+    revokedTokens = rebuilt;
+    try (Stream<String> tokens = tokenRepository.streamRevokedTokens()) {
+      tokens.forEach(
+          token -> {
+            rebuilt.put(JwtService.tokenDigest(token));
+            seedRevokedBefore(token);
+          });
+    }
+    ready = true;
+  }
+
+  // The rows were signed by this application, their payload is read without checking it again
+  private void seedRevokedBefore(String token) {
+    String[] parts = token.split("\\.");
+    if (parts.length != 3) {
+      return;
+    }
+    try {
+      JsonNode payload = PAYLOAD_READER.readTree(Base64.getUrlDecoder().decode(parts[1]));
+      JsonNode subject = payload.get(Claims.SUBJECT);
+      JsonNode issuedAt = payload.get(Claims.ISSUED_AT);
+      if (subject != null && issuedAt != null && issuedAt.canConvertToLong()) {
+        revokedBeforeBySubject.merge(subject.asText(), issuedAt.asLong(), Math::max);
+      }
+    } catch (IOException | IllegalArgumentException e) {
+      // Not a JWT this application issued, the bloom filter alone covers it
+    }
+  }
+
+  public Status check(String jwt, Claims claims) {
+    Status status = resolve(jwt, claims);
+    switch (status) {
+      case ACTIVE -> activeCount.increment();
+      case REVOKED -> revokedCount.increment();
+      default -> unknownCount.increment();
+    }
+    return status;
+  }
+
+  private Status resolve(String jwt, Claims claims) {
+    if (!ready || !JwtService.ACCESS_TOKEN.equals(claims.get(JwtService.TOKEN_USE_CLAIM))) {
+      // Refresh tokens and tokens from older releases are only valid if persisted
+      return Status.UNKNOWN;
+    }
+    Long revokedBefore = revokedBeforeBySubject.get(claims.getSubject());
+    Date issuedAt = claims.getIssuedAt();
+    if (issuedAt == null) {
+      return Status.UNKNOWN;
+    }
+    if (revokedBefore != null && issuedAt.getTime() / 1000 < revokedBefore) {
+      return Status.REVOKED;
+    }
+    if (revokedTokens.mightContain(JwtService.tokenDigest(jwt))) {
+      return Status.UNKNOWN;
+    }
+    return Status.ACTIVE;
+  }
+
+  /**
+   * Records that every token of the subject issued before now is revoked. Call it after the
+   * revoked rows are saved, and before issuing the replacement token.
+   */
+  public void revokeAll(String subject, Collection<Token> revokedTokenRows) {
+    long now = System.currentTimeMillis() / 1000;
+    revokedBeforeBySubject.merge(subject, now, Math::max);
+    BloomFilter filter = revokedTokens;
+    revokedTokenRows.forEach(token -> filter.put(JwtService.tokenDigest(token.getToken())));
+  }
+}
@@ -0,0 +1,60 @@
+package com.lazardev.FlexCrew.security.user;
+
+import com.lazardev.FlexCrew.entity.Role;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+/**
+ * Immutable view of an employee kept in the security context instead of the {@code Employee}
+ * entity. Only holds what authentication and authorization need, related entities are referenced
+ * by id.
+ */
+public record EmployeePrincipal(
+    Integer id, String email, Role role, Integer teamId, Integer scheduleId, String passwordHash)
+    implements UserDetails {
+
+  @Override
+  public Collection<? extends GrantedAuthority> getAuthorities() {
+    return List.of(new SimpleGrantedAuthority(role.name()));
+  }
+
+  @Override
+  public String getPassword() {
+    return passwordHash;
+  }
+
+  @Override
+  public String getUsername() {
+    return email;
+  }
+
+  @Override
+  public boolean isAccountNonExpired() {
+    return true;
+  }
+
+  @Override
+  public boolean isAccountNonLocked() {
+    return true;
+  }
+
+  @Override
+  public boolean isCredentialsNonExpired() {
+    return true;
+  }
+
+  @Override
+  public boolean isEnabled() {
+    return true;
+  }
+
+  // Keep the password hash out of logs
+  @Override
+  public String toString() {
+    return "EmployeePrincipal[id=%d, email=%s, role=%s, teamId=%s, scheduleId=%s]"
+        .formatted(id, email, role, teamId, scheduleId);
+  }
+}
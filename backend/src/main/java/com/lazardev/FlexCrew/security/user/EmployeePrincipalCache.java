@@ -0,0 +1,84 @@
+package com.lazardev.FlexCrew.security.user;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.lazardev.FlexCrew.dao.EmployeeRepository;
+import com.lazardev.FlexCrew.entity.Employee;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Principals by email, loaded with a single projection query. Entries expire after a fixed time so
+ * changes made outside the application are picked up eventually, changes made through the services
+ * evict the entry right away.
+ */
+@Component
+public class EmployeePrincipalCache {
+
+  private final EmployeeRepository employeeRepository;
+  private final Cache<String, EmployeePrincipal> principals;
+
+  @Autowired
+  public EmployeePrincipalCache(
+      EmployeeRepository employeeRepository,
+      MeterRegistry meterRegistry,
+      @Value("${application.security.principal-cache.max-size:10000}") long maxSize,
+      @Value("${application.security.principal-cache.ttl:PT5M}") Duration ttl) {
+    this.employeeRepository = employeeRepository;
+    this.principals =
+        Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).recordStats().build();
+    CaffeineCacheMetrics.monitor(meterRegistry, principals, "security.principals");
+  }
+
+  public EmployeePrincipal get(String email) {
+    EmployeePrincipal principal =
+        principals.get(email, key -> employeeRepository.findPrincipalByEmail(key).orElse(null));
+    if (principal == null) {
+      throw new UsernameNotFoundException("User not found");
+    }
+    return principal;
+  }
+
+  /** Evicts an employee whose email is not being changed. */
+  public void evict(Employee employee) {
+    evict(employee.getEmail(), employee);
+  }
+
+  /**
+   * Evicts the employee under its stored email and its new one, now and again once the
+   * surrounding transaction commits, so a request running concurrently cannot put the old state
+   * back in the cache. storedEmail is null when it is not known.
+   */
+  public void evict(String storedEmail, Employee employee) {
+    evictNow(storedEmail, employee);
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              evictNow(storedEmail, employee);
+            }
+          });
+    }
+  }
+
+  private void evictNow(String storedEmail, Employee employee) {
+    if (storedEmail != null) {
+      principals.invalidate(storedEmail);
+    }
+    if (employee.getEmail() != null && !employee.getEmail().equals(storedEmail)) {
+      principals.invalidate(employee.getEmail());
+    }
+    // The old key is unknown, only a pass over the cache finds what is held for the id
+    if (storedEmail == null && employee.getId() != null) {
+      principals.asMap().values().removeIf(principal -> employee.getId().equals(principal.id()));
+    }
+  }
+}
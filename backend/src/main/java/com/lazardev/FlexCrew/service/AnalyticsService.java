@@ -5,12 +5,19 @@ import com.lazardev.FlexCrew.dao.IssueRepository;
 import com.lazardev.FlexCrew.dao.RecordRepository;
 import com.lazardev.FlexCrew.dao.ScheduleRepository;
 import com.lazardev.FlexCrew.dao.projection.PunctualityCount;
+import com.lazardev.FlexCrew.dto.analytics.CoverageAtDto;
+import com.lazardev.FlexCrew.dto.analytics.CoverageHistogramDto;
 import com.lazardev.FlexCrew.dto.analytics.PunctualityStatsDto;
 import com.lazardev.FlexCrew.dto.analytics.ScheduleLoadDto;
+import com.lazardev.FlexCrew.entity.Punctuality;
 import com.lazardev.FlexCrew.entity.Schedule; // Assuming Schedule entity import
+import com.lazardev.FlexCrew.util.ShiftWindow;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -24,24 +31,25 @@ public class AnalyticsService {
     private final ScheduleRepository scheduleRepository;
     private final EmployeeRepository employeeRepository; // Keep if needed for other stats
     private final IssueRepository issueRepository; // Keep if needed for other stats
+    private final CoverageIndex coverageIndex;
 
     // Method to get overall punctuality stats
     public PunctualityStatsDto getPunctualityStats() {
-        List<PunctualityCount> counts = recordRepository.countRecordsByIssueStatus();
-        Map<String, Long> countsMap = counts.stream()
-                .collect(Collectors.toMap(PunctualityCount::getStatusName, PunctualityCount::getCount));
+        List<PunctualityCount> counts = recordRepository.countRecordsByPunctuality();
+        Map<Punctuality, Long> countsMap = new EnumMap<>(Punctuality.class);
+        for (PunctualityCount count : counts) {
+            if (count.getPunctuality() != null) {
+                countsMap.merge(count.getPunctuality(), count.getCount(), Long::sum);
+            }
+        }
 
-        // Assuming status names exactly match these strings based on SQL script
-        long punctual = countsMap.getOrDefault("Punctual", 0L);
-        long late = countsMap.getOrDefault("Late", 0L);
-        long early = countsMap.getOrDefault("Early", 0L);
-        long missed = countsMap.getOrDefault("Missed", 0L);
+        long punctual = countsMap.getOrDefault(Punctuality.PUNCTUAL, 0L);
+        long late = countsMap.getOrDefault(Punctuality.LATE, 0L);
+        long early = countsMap.getOrDefault(Punctuality.EARLY, 0L);
+        long missed = countsMap.getOrDefault(Punctuality.MISSED, 0L);
 
         // Calculate total from the individual counts to ensure consistency
         long total = punctual + late + early + missed;
-        // Or, if you want total records regardless of issue status, use
-        // recordRepository.count()
-        // long total = recordRepository.count();
 
         return new PunctualityStatsDto(punctual, late, early, missed, total);
     }
@@ -69,5 +77,28 @@ public class AnalyticsService {
                 .collect(Collectors.toList());
     }
 
+    // Who is on shift at a time of day, from the precomputed coverage
+    public CoverageAtDto getCoverageAt(LocalTime time) {
+        CoverageIndex.Coverage coverage = coverageIndex.coverage();
+        int minute = time.getHour() * 60 + time.getMinute();
+        List<Integer> scheduleIds = Arrays.stream(coverage.index().schedulesAt(minute)).boxed().toList();
+        return new CoverageAtDto(time.withSecond(0).withNano(0), coverage.headcountAt(minute), scheduleIds);
+    }
+
+    // Headcount over the day in slots of slotMinutes, each slot reports its peak
+    public CoverageHistogramDto getCoverageHistogram(int slotMinutes) {
+        if (slotMinutes <= 0 || ShiftWindow.MINUTES_PER_DAY % slotMinutes != 0) {
+            throw new IllegalArgumentException("Slot minutes must divide a day evenly");
+        }
+        int[] minutes = coverageIndex.coverage().minutes();
+        Integer[] slots = new Integer[ShiftWindow.MINUTES_PER_DAY / slotMinutes];
+        for (int slot = 0; slot < slots.length; slot++) {
+            int from = slot * slotMinutes;
+            slots[slot] = Arrays.stream(minutes, from, from + slotMinutes).max().orElse(0);
+        }
+        return new CoverageHistogramDto(slotMinutes, List.of(slots),
+                Arrays.stream(minutes).max().orElse(0), Arrays.stream(minutes).min().orElse(0));
+    }
+
     // Add more methods for other analytics as needed (e.g., stats per team)
 }
\ No newline at end of file
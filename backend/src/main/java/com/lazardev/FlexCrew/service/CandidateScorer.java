@@ -0,0 +1,13 @@
+package com.lazardev.FlexCrew.service;
+
+import com.lazardev.FlexCrew.dao.projection.ProjectCandidate;
+
+/**
+ * Ranks the employees suggested for a project, a higher score first and the lower employee id on a
+ * tie. Declare another bean as primary to change how suggestions are ranked.
+ */
+@FunctionalInterface
+public interface CandidateScorer {
+
+  double score(ProjectCandidate candidate);
+}
@@ -0,0 +1,83 @@
+package com.lazardev.FlexCrew.service;
+
+import com.lazardev.FlexCrew.dao.RecordRepository;
+import com.lazardev.FlexCrew.dao.projection.LastCheckIn;
+import com.lazardev.FlexCrew.util.AtomicDenseIntMap;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Day of the last check-in of every employee, kept in memory so the once-a-day rule does not read
+ * the Records table. Days are stored as epoch day + 1, 0 means no check-in. The day of a check-in
+ * is the local date in its own offset, the one the device sent, whatever the server time zone.
+ *
+ * <p>Assumes this instance sees every check-in, as it is seeded once from the database.
+ */
+@Component
+public class CheckInDayIndex {
+
+  private static final int NONE = 0;
+
+  private final RecordRepository recordRepository;
+  private final AtomicDenseIntMap lastDayByEmployee = new AtomicDenseIntMap();
+  private volatile boolean ready;
+
+  @Autowired
+  public CheckInDayIndex(RecordRepository recordRepository) {
+    this.recordRepository = recordRepository;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void seed() {
+    // Stored times come back in the offset of the database session, not the one they were sent in
+    for (LastCheckIn lastCheckIn : recordRepository.findLastCheckInPerEmployee()) {
+      // Max, check-ins accepted while seeding must not be overwritten
+      lastDayByEmployee.accumulateAndGet(
+          lastCheckIn.getEmployeeId(), encode(dayOf(lastCheckIn.getLastCheckIn())), Math::max);
+    }
+    ready = true;
+  }
+
+  /** False until seeded, callers have to ask the database meanwhile. */
+  public boolean isReady() {
+    return ready;
+  }
+
+  public boolean isCheckedIn(int employeeId, LocalDate day) {
+    return lastDayByEmployee.get(employeeId) == encode(day);
+  }
+
+  /**
+   * Claims the day for the employee. Returns false if the employee already checked in that day,
+   * of two concurrent claims for the same day exactly one succeeds.
+   */
+  public boolean tryCheckIn(int employeeId, LocalDate day) {
+    int claimed = encode(day);
+    while (true) {
+      int current = lastDayByEmployee.get(employeeId);
+      if (current == claimed) {
+        return false;
+      }
+      if (lastDayByEmployee.compareAndSet(employeeId, current, Math.max(current, claimed))) {
+        return true;
+      }
+    }
+  }
+
+  /** Gives a claimed day back when its record could not be written. */
+  public void release(int employeeId, LocalDate day) {
+    lastDayByEmployee.compareAndSet(employeeId, encode(day), NONE);
+  }
+
+  public static LocalDate dayOf(OffsetDateTime dateTime) {
+    return dateTime.toLocalDate();
+  }
+
+  private static int encode(LocalDate day) {
+    return Math.toIntExact(day.toEpochDay() + 1);
+  }
+}
@@ -0,0 +1,127 @@
+package com.lazardev.FlexCrew.service;
+
+import com.lazardev.FlexCrew.dao.EmployeeRepository;
+import com.lazardev.FlexCrew.dao.ScheduleRepository;
+import com.lazardev.FlexCrew.dao.projection.ScheduleHeadcount;
+import com.lazardev.FlexCrew.entity.Schedule;
+import com.lazardev.FlexCrew.util.ShiftIntervalIndex;
+import com.lazardev.FlexCrew.util.ShiftWindow;
+import java.util.HashMap;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Number of employees on shift at every minute of the day, from the schedule windows and the
+ * number of employees assigned to each schedule. Assignments shift the counts of the schedules
+ * involved once they commit, changes to the schedules themselves rebuild it from the database.
+ *
+ * <p>A full rebuild also runs every rebuild-interval, so changes made outside the application (or a
+ * move applied on top of a rebuild that had already seen it) are corrected eventually.
+ */
+@Component
+public class CoverageIndex {
+
+  /** Immutable state: index of the windows, headcount per schedule and the minute histogram. */
+  public record Coverage(
+      ShiftIntervalIndex index, Map<Integer, ShiftWindow> windows,
+      Map<Integer, Integer> headcounts, int[] minutes) {
+
+    /** Employees on shift at the minute of the day. */
+    public int headcountAt(int minuteOfDay) {
+      return minutes[minuteOfDay];
+    }
+  }
+
+  private final ScheduleRepository scheduleRepository;
+  private final EmployeeRepository employeeRepository;
+
+  private volatile Coverage coverage;
+
+  @Autowired
+  public CoverageIndex(ScheduleRepository scheduleRepository, EmployeeRepository employeeRepository) {
+    this.scheduleRepository = scheduleRepository;
+    this.employeeRepository = employeeRepository;
+    this.coverage = build(Map.of(), Map.of());
+  }
+
+  public Coverage coverage() {
+    return coverage;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  @Scheduled(
+      fixedDelayString = "${application.analytics.coverage.rebuild-interval:PT10M}",
+      initialDelayString = "${application.analytics.coverage.rebuild-interval:PT10M}")
+  public synchronized void rebuild() {
+    Map<Integer, ShiftWindow> windows = new HashMap<>();
+    for (Schedule schedule : scheduleRepository.findAll()) {
+      ShiftWindow window = ShiftWindow.of(schedule.getStartTime(), schedule.getEndTime());
+      if (window != null) {
+        windows.put(schedule.getId(), window);
+      }
+    }
+    Map<Integer, Integer> headcounts = new HashMap<>();
+    for (ScheduleHeadcount headcount : employeeRepository.countEmployeesPerSchedule()) {
+      headcounts.put(headcount.getScheduleId(), headcount.getEmployees().intValue());
+    }
+    coverage = build(windows, headcounts);
+  }
+
+  /**
+   * Adds delta employees to each schedule once the surrounding transaction commits, a null key is
+   * ignored (an employee without a schedule). Costs one pass over the windows that changed.
+   */
+  public void moveAfterCommit(Map<Integer, Integer> deltas) {
+    Map<Integer, Integer> copy = new HashMap<>(deltas);
+    copy.remove(null);
+    if (copy.isEmpty()) {
+      return;
+    }
+    afterCommit(() -> move(copy));
+  }
+
+  /** For changes to the schedules, or assignments whose previous schedule is unknown. */
+  public void rebuildAfterCommit() {
+    afterCommit(this::rebuild);
+  }
+
+  private synchronized void move(Map<Integer, Integer> deltas) {
+    Coverage current = coverage;
+    int[] minutes = current.minutes().clone();
+    Map<Integer, Integer> headcounts = new HashMap<>(current.headcounts());
+    deltas.forEach((scheduleId, delta) -> {
+      // Empty schedules are left out, as countEmployeesPerSchedule does
+      headcounts.merge(scheduleId, delta, (count, added) -> count + added != 0 ? count + added : null);
+      ShiftWindow window = current.windows().get(scheduleId);
+      if (window != null) {
+        window.addTo(minutes, delta);
+      }
+    });
+    coverage = new Coverage(current.index(), current.windows(), Map.copyOf(headcounts), minutes);
+  }
+
+  private static Coverage build(Map<Integer, ShiftWindow> windows, Map<Integer, Integer> headcounts) {
+    ShiftIntervalIndex index = ShiftIntervalIndex.of(windows);
+    return new Coverage(index, Map.copyOf(windows), Map.copyOf(headcounts), index.histogram(headcounts));
+  }
+
+  private static void afterCommit(Runnable action) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      action.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            action.run();
+          }
+        });
+  }
+}
@@ -1,6 +1,8 @@
 package com.lazardev.FlexCrew.service;
 
+import com.lazardev.FlexCrew.dto.EmployeeWorkload;
 import com.lazardev.FlexCrew.entity.Employee;
+import com.lazardev.FlexCrew.security.user.EmployeePrincipal;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,8 +17,14 @@ public interface EmployeeService {
 
   List<Employee> findByTeamId(Long theTeamId);
 
+  // Members of the team on the fewest active projects first, from memory once the index is seeded
+  List<EmployeeWorkload> findLeastLoadedByTeamId(Integer theTeamId, int limit);
+
   Employee getCurrentAuthenticatedEmployee();
 
+  // Authenticated employee as held in the security context, no query on the common path
+  EmployeePrincipal getCurrentPrincipal();
+
   // Method for changing password
   void changePassword(String email, String oldPassword, String newPassword);
 }
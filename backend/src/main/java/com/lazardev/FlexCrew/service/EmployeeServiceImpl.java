@@ -1,14 +1,26 @@
 package com.lazardev.FlexCrew.service;
 
 import com.lazardev.FlexCrew.dao.EmployeeRepository;
+import com.lazardev.FlexCrew.dao.projection.StoredEmployeeRef;
+import com.lazardev.FlexCrew.dto.EmployeeWorkload;
 import com.lazardev.FlexCrew.entity.Employee;
+import com.lazardev.FlexCrew.security.auth.AuthenticationService;
+import com.lazardev.FlexCrew.security.user.EmployeePrincipal;
+import com.lazardev.FlexCrew.security.user.EmployeePrincipalCache;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -19,6 +31,12 @@ public class EmployeeServiceImpl implements EmployeeService {
 
   private final EmployeeRepository employeeRepository;
   private final PasswordEncoder passwordEncoder; // Inject PasswordEncoder
+  private final AuthenticationService authenticationService;
+  private final EmployeePrincipalCache principalCache;
+  private final ShiftCalendarService shiftCalendarService;
+  private final CoverageIndex coverageIndex;
+  private final ProjectWorkloadIndex workloadIndex;
+  private final ApplicationEventPublisher eventPublisher;
 
   /*
    * // Constructor removed, handled by @RequiredArgsConstructor
@@ -37,10 +55,42 @@ public class EmployeeServiceImpl implements EmployeeService {
   @Override
   @Transactional // Add transactional annotation for save operations
   public Employee save(Employee theEmployee) {
+    // Read before the index moves the employee, its previous team loses a member
+    Integer previousTeamId =
+        theEmployee.getId() != null ? workloadIndex.teamOf(theEmployee.getId()) : null;
+    // Stored schedule and email, read before the save flushes the new ones
+    Optional<StoredEmployeeRef> stored =
+        theEmployee.getId() != null
+            ? employeeRepository.findStoredRefById(theEmployee.getId())
+            : Optional.empty();
+    Integer previousScheduleId = stored.map(StoredEmployeeRef::getScheduleId).orElse(null);
     // Consider adding logic here to encode password if a new employee is saved
     // or if password field is updated through this method (might need separate
     // update method)
-    return employeeRepository.save(theEmployee);
+    Employee savedEmployee = employeeRepository.save(theEmployee);
+    // Role, team or email may have changed. Nothing is cached under another email for a new one
+    principalCache.evict(
+        stored.isPresent() ? stored.get().getEmail() : savedEmployee.getEmail(), savedEmployee);
+    Integer scheduleId =
+        savedEmployee.getSchedule() != null ? savedEmployee.getSchedule().getId() : null;
+    // Name, password or role edits leave the shifts and the coverage alone
+    if (theEmployee.getId() == null || !Objects.equals(previousScheduleId, scheduleId)) {
+      // Map.of does not take the null of an unassigned employee
+      Map<Integer, Integer> schedule = new HashMap<>();
+      schedule.put(savedEmployee.getId(), scheduleId);
+      shiftCalendarService.reassign(schedule);
+      Map<Integer, Integer> deltas = new HashMap<>();
+      deltas.merge(previousScheduleId, -1, Integer::sum);
+      deltas.merge(scheduleId, 1, Integer::sum);
+      coverageIndex.moveAfterCommit(deltas);
+    }
+    Integer teamId = savedEmployee.getTeam() != null ? savedEmployee.getTeam().getId() : null;
+    workloadIndex.movedAfterCommit(savedEmployee.getId(), teamId);
+    eventPublisher.publishEvent(
+        workloadIndex.isReady()
+            ? ProjectStaffingChangedEvent.of(List.of(), Arrays.asList(previousTeamId, teamId))
+            : ProjectStaffingChangedEvent.everything());
+    return savedEmployee;
   }
 
   @Override
@@ -53,6 +103,22 @@ public class EmployeeServiceImpl implements EmployeeService {
     return employeeRepository.findByTeamId(theTeamId);
   }
 
+  @Override
+  @Transactional(readOnly = true)
+  public List<EmployeeWorkload> findLeastLoadedByTeamId(Integer theTeamId, int limit) {
+    if (workloadIndex.isReady()) {
+      return workloadIndex.leastLoaded(theTeamId, limit);
+    }
+    // Not seeded yet, the candidates query counts the same projects
+    return employeeRepository.findProjectCandidatesByTeamIds(List.of(theTeamId)).stream()
+        .map(candidate -> new EmployeeWorkload(
+            candidate.getEmployeeId(), theTeamId, candidate.getAssignmentCount().intValue()))
+        .sorted(Comparator.comparingInt(EmployeeWorkload::activeAssignments)
+            .thenComparing(EmployeeWorkload::employeeId))
+        .limit(Math.max(0, limit))
+        .toList();
+  }
+
   @Override
   public Optional<Employee> getEmployeeById(Integer theId) {
     return employeeRepository.findById(theId);
@@ -60,13 +126,28 @@ public class EmployeeServiceImpl implements EmployeeService {
 
   @Override
   public Employee getCurrentAuthenticatedEmployee() {
+    EmployeePrincipal principal = getCurrentPrincipal();
+    if (principal == null) {
+      return null; // Or throw an exception if user should always be authenticated here
+    }
+    return employeeRepository.findById(principal.id()).orElse(null);
+  }
+
+  @Override
+  public EmployeePrincipal getCurrentPrincipal() {
     Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
     if (authentication == null || !(authentication.getPrincipal() instanceof UserDetails)) {
-      return null; // Or throw an exception if user should always be authenticated here
+      return null;
+    }
+    if (authentication.getPrincipal() instanceof EmployeePrincipal principal) {
+      return principal;
+    }
+    // Authenticated by other means than the JWT filter, resolve through the cache
+    try {
+      return principalCache.get(((UserDetails) authentication.getPrincipal()).getUsername());
+    } catch (UsernameNotFoundException e) {
+      return null;
     }
-    String email = ((UserDetails) authentication.getPrincipal()).getUsername();
-    // Use orElseThrow for better error handling if employee must exist
-    return findByEmail(email).orElse(null);
   }
 
   @Override
@@ -91,6 +172,10 @@ public class EmployeeServiceImpl implements EmployeeService {
     // 5. Update the employee's password in the database
     employee.setPassword(encodedNewPassword);
     employeeRepository.save(employee); // Save the updated employee entity
+    principalCache.evict(employee); // The cached principal holds the old hash
+
+    // 6. Tokens issued with the old password are no longer valid
+    authenticationService.revokeAllUserTokens(employee);
 
     // Optionally: Log the successful password change
     // logger.info("Password successfully changed for user: {}", email);
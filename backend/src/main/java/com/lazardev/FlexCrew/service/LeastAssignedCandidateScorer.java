@@ -0,0 +1,15 @@
+package com.lazardev.FlexCrew.service;
+
+import com.lazardev.FlexCrew.dao.projection.ProjectCandidate;
+import org.springframework.stereotype.Component;
+
+/** Suggests the employees on the fewest projects first. */
+@Component
+public class LeastAssignedCandidateScorer implements CandidateScorer {
+
+  @Override
+  public double score(ProjectCandidate candidate) {
+    Long assignments = candidate.getAssignmentCount();
+    return assignments != null ? -assignments : 0;
+  }
+}
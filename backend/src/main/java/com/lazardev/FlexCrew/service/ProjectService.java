@@ -4,41 +4,65 @@ import com.lazardev.FlexCrew.dao.EmployeeRepository;
 import com.lazardev.FlexCrew.dao.ProjectEmployeeAssignmentRepository;
 import com.lazardev.FlexCrew.dao.ProjectRepository;
 import com.lazardev.FlexCrew.dao.ProjectRequiredTeamRepository;
+import com.lazardev.FlexCrew.dao.projection.ProjectCandidate;
+import com.lazardev.FlexCrew.dao.projection.ProjectMemberRef;
 import com.lazardev.FlexCrew.dto.EmployeeSuggestionDTO;
 import com.lazardev.FlexCrew.dto.ProjectAssignmentSuggestionDTO;
 import com.lazardev.FlexCrew.dto.RequiredTeamSuggestionDTO;
-import com.lazardev.FlexCrew.entity.Employee;
+import com.lazardev.FlexCrew.dto.StaffingAssignment;
 import com.lazardev.FlexCrew.entity.Project;
 import com.lazardev.FlexCrew.entity.ProjectEmployeeAssignment;
 import com.lazardev.FlexCrew.entity.ProjectRequiredTeam;
-import com.lazardev.FlexCrew.entity.Team; // Assuming Team entity is imported
+import com.lazardev.FlexCrew.entity.Team;
+import com.lazardev.FlexCrew.util.IntHashSet;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.PriorityQueue;
 
 @Service
 public class ProjectService {
 
+    // Higher score first, lower id on a tie
+    private static final Comparator<RankedCandidate> RANKING = Comparator
+            .comparingDouble(RankedCandidate::score).reversed()
+            .thenComparing(ranked -> ranked.candidate().getEmployeeId());
+
+    private record RankedCandidate(ProjectCandidate candidate, double score) {
+    }
+
     private final ProjectRepository projectRepository;
     private final ProjectRequiredTeamRepository projectRequiredTeamRepository;
     private final ProjectEmployeeAssignmentRepository projectEmployeeAssignmentRepository;
     private final EmployeeRepository employeeRepository;
+    private final CandidateScorer candidateScorer;
+    private final ProjectWorkloadIndex workloadIndex;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
     public ProjectService(ProjectRepository projectRepository,
             ProjectRequiredTeamRepository projectRequiredTeamRepository,
             ProjectEmployeeAssignmentRepository projectEmployeeAssignmentRepository,
-            EmployeeRepository employeeRepository) {
+            EmployeeRepository employeeRepository,
+            CandidateScorer candidateScorer,
+            ProjectWorkloadIndex workloadIndex,
+            ApplicationEventPublisher eventPublisher) {
         this.projectRepository = projectRepository;
         this.projectRequiredTeamRepository = projectRequiredTeamRepository;
         this.projectEmployeeAssignmentRepository = projectEmployeeAssignmentRepository;
         this.employeeRepository = employeeRepository;
+        this.candidateScorer = candidateScorer;
+        this.workloadIndex = workloadIndex;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional(readOnly = true)
@@ -53,7 +77,13 @@ public class ProjectService {
 
     @Transactional
     public Project createProject(Project project) {
-        return projectRepository.save(project);
+        Project saved = projectRepository.save(project);
+        // Assignments cascaded in with the project keep their employees busy as well
+        if (saved.getEmployeeAssignments() != null && !saved.getEmployeeAssignments().isEmpty()) {
+            workloadIndex.rebuildAfterCommit();
+            eventPublisher.publishEvent(ProjectStaffingChangedEvent.everything());
+        }
+        return saved;
     }
 
     @Transactional
@@ -61,6 +91,14 @@ public class ProjectService {
         Project project = projectRepository.findById(projectId)
                 .orElseThrow(() -> new RuntimeException("Project not found with id: " + projectId));
 
+        // Every member of the project becomes busy or free at once
+        if (ProjectWorkloadIndex.isActive(project.getStatus())
+                != ProjectWorkloadIndex.isActive(projectDetails.getStatus())) {
+            workloadIndex.rebuildAfterCommit();
+            eventPublisher.publishEvent(ProjectStaffingChangedEvent.everything());
+        } else {
+            eventPublisher.publishEvent(ProjectStaffingChangedEvent.of(List.of(projectId), List.of()));
+        }
         project.setName(projectDetails.getName());
         project.setDescription(projectDetails.getDescription());
         project.setStatus(projectDetails.getStatus());
@@ -74,66 +112,136 @@ public class ProjectService {
             throw new RuntimeException("Project not found with id: " + projectId);
         }
         projectRepository.deleteById(projectId);
+        workloadIndex.rebuildAfterCommit(); // Its assignments go with it
+        eventPublisher.publishEvent(ProjectStaffingChangedEvent.everything());
+    }
+
+    /**
+     * Puts the employee on the project. Throws IllegalStateException if the employee is already
+     * on it, RuntimeException if the project or the employee does not exist.
+     */
+    @Transactional
+    public StaffingAssignment assignEmployee(Integer projectId, Integer employeeId) {
+        // Same locks and order as ProjectStaffingService.applyPlan, a plan cannot staff the employee meanwhile
+        Project project = projectRepository.lockAllByIds(List.of(projectId)).stream()
+                .findFirst()
+                .orElseThrow(() -> new RuntimeException("Project not found with id: " + projectId));
+        employeeRepository.lockIdsByIds(List.of(employeeId));
+        ProjectMemberRef employee = employeeRepository.findMemberRefsByIds(List.of(employeeId)).stream()
+                .findFirst()
+                .orElseThrow(() -> new RuntimeException("Employee not found with id: " + employeeId));
+        if (projectEmployeeAssignmentRepository.existsByProjectProjectIdAndEmployeeId(projectId, employeeId)) {
+            throw new IllegalStateException("Employee " + employeeId + " is already on project " + projectId);
+        }
+
+        ProjectEmployeeAssignment assignment = new ProjectEmployeeAssignment();
+        assignment.setProject(project);
+        assignment.setEmployee(employeeRepository.getReferenceById(employeeId));
+        projectEmployeeAssignmentRepository.save(assignment);
+        if (ProjectWorkloadIndex.isActive(project.getStatus())) {
+            workloadIndex.assignedAfterCommit(List.of(employeeId), 1);
+        }
+        eventPublisher.publishEvent(ProjectStaffingChangedEvent.of(List.of(projectId),
+                Collections.singletonList(employee.getTeamId())));
+        return new StaffingAssignment(projectId, employee.getTeamId(), employeeId);
     }
 
+    /** Takes the employee off the project, RuntimeException if it is not on it. */
+    @Transactional
+    public void unassignEmployee(Integer projectId, Integer employeeId) {
+        ProjectEmployeeAssignment assignment = projectEmployeeAssignmentRepository
+                .findByProjectProjectIdAndEmployeeId(projectId, employeeId)
+                .orElseThrow(() -> new RuntimeException(
+                        "Employee " + employeeId + " is not on project " + projectId));
+        boolean active = ProjectWorkloadIndex.isActive(assignment.getProject().getStatus());
+        Team team = assignment.getEmployee().getTeam();
+        projectEmployeeAssignmentRepository.delete(assignment);
+        if (active) {
+            workloadIndex.assignedAfterCommit(List.of(employeeId), -1);
+        }
+        Integer teamId = team != null ? team.getId() : null;
+        eventPublisher.publishEvent(ProjectStaffingChangedEvent.of(List.of(projectId),
+                Collections.singletonList(teamId)));
+    }
+
+    /**
+     * Per required team, the employees already on the project and the best ranked candidates still
+     * free, twice as many as the team is missing. Three queries whatever the number of teams: the
+     * required teams with their team, the assigned employees, and the members of every team still
+     * short of people. Candidates are kept in a bounded heap per team, O(n log k).
+     */
     @Transactional(readOnly = true)
     public ProjectAssignmentSuggestionDTO getProjectAssignmentSuggestions(Integer projectId) {
         Project project = projectRepository.findById(projectId)
                 .orElseThrow(() -> new RuntimeException("Project not found with id: " + projectId));
 
-        List<ProjectRequiredTeam> requiredTeams = projectRequiredTeamRepository.findByProjectProjectId(projectId);
-        List<ProjectEmployeeAssignment> currentAssignments = projectEmployeeAssignmentRepository
-                .findByProjectProjectId(projectId);
-
-        Map<Integer, List<Employee>> assignmentsByTeamId = currentAssignments.stream()
-                .filter(assignment -> assignment.getEmployee() != null && assignment.getEmployee().getTeam() != null)
-                .collect(Collectors.groupingBy(assignment -> assignment.getEmployee().getTeam().getId(), // Assuming
-                                                                                                         // Team has
-                                                                                                         // getId()
-                        Collectors.mapping(ProjectEmployeeAssignment::getEmployee, Collectors.toList())));
+        List<ProjectRequiredTeam> requiredTeams = projectRequiredTeamRepository.findWithTeamByProjectId(projectId);
+        List<ProjectMemberRef> assigned = projectEmployeeAssignmentRepository.findMemberRefsByProjectId(projectId);
 
-        List<RequiredTeamSuggestionDTO> teamSuggestionDTOs = new ArrayList<>();
+        IntHashSet assignedIds = new IntHashSet(assigned.size());
+        Map<Integer, List<EmployeeSuggestionDTO>> assignedByTeamId = new HashMap<>();
+        for (ProjectMemberRef member : assigned) {
+            assignedIds.add(member.getEmployeeId());
+            if (member.getTeamId() != null) {
+                assignedByTeamId.computeIfAbsent(member.getTeamId(), id -> new ArrayList<>()).add(toSuggestion(member));
+            }
+        }
 
+        // Worst of the kept candidates at the head, so a better one replaces it
+        Map<Integer, PriorityQueue<RankedCandidate>> bestByTeamId = new HashMap<>();
+        Map<Integer, Integer> limitByTeamId = new HashMap<>();
         for (ProjectRequiredTeam prt : requiredTeams) {
-            if (prt.getTeam() == null)
-                continue; // Skip if team is somehow null
+            int assignedCount = assignedByTeamId.getOrDefault(prt.getTeam().getId(), List.of()).size();
+            int neededCount = Math.max(0, prt.getRequiredCount() - assignedCount);
+            if (neededCount > 0) {
+                limitByTeamId.put(prt.getTeam().getId(), neededCount * 2);
+                bestByTeamId.put(prt.getTeam().getId(), new PriorityQueue<>(RANKING.reversed()));
+            }
+        }
+        if (!limitByTeamId.isEmpty()) {
+            // Once seeded the index ranks the candidates, counting their projects again would be wasted
+            List<ProjectCandidate> candidates = workloadIndex.isReady()
+                    ? employeeRepository.findUncountedProjectCandidatesByTeamIds(limitByTeamId.keySet())
+                    : employeeRepository.findProjectCandidatesByTeamIds(limitByTeamId.keySet());
+            for (ProjectCandidate candidate : candidates) {
+                if (assignedIds.contains(candidate.getEmployeeId())) {
+                    continue;
+                }
+                PriorityQueue<RankedCandidate> best = bestByTeamId.get(candidate.getTeamId());
+                RankedCandidate ranked = new RankedCandidate(candidate, candidateScorer.score(candidate));
+                if (best.size() < limitByTeamId.get(candidate.getTeamId())) {
+                    best.add(ranked);
+                } else if (RANKING.compare(ranked, best.peek()) < 0) {
+                    best.poll();
+                    best.add(ranked);
+                }
+            }
+        }
 
-            Integer teamId = prt.getTeam().getId(); // Assuming Team has getId()
-            String teamName = prt.getTeam().getName(); // Assuming Team has getName()
+        List<RequiredTeamSuggestionDTO> teamSuggestionDTOs = new ArrayList<>(requiredTeams.size());
+        for (ProjectRequiredTeam prt : requiredTeams) {
+            Integer teamId = prt.getTeam().getId();
+            List<EmployeeSuggestionDTO> assignedEmployeeDTOs = assignedByTeamId.getOrDefault(teamId, List.of());
             int requiredCount = prt.getRequiredCount();
-
-            List<Employee> assignedToThisTeamForProject = assignmentsByTeamId.getOrDefault(teamId, new ArrayList<>());
-            int assignedCount = assignedToThisTeamForProject.size();
-            int neededCount = Math.max(0, requiredCount - assignedCount);
-
-            List<EmployeeSuggestionDTO> assignedEmployeeDTOs = assignedToThisTeamForProject.stream()
-                    .map(emp -> new EmployeeSuggestionDTO(emp.getId(), emp.getNames(), emp.getFirstSurname(),
-                            (emp.getTeam() != null ? emp.getTeam().getName() : "N/A")))
-                    .collect(Collectors.toList());
+            int neededCount = Math.max(0, requiredCount - assignedEmployeeDTOs.size());
 
             List<EmployeeSuggestionDTO> suggestedEmployeeDTOs = new ArrayList<>();
-            if (neededCount > 0) {
-                List<Employee> availableEmployeesFromTeam = employeeRepository.findByTeamId(teamId).stream() // Changed
-                                                                                                             // to
-                                                                                                             // findByTeamId
-                        .filter(emp -> emp != null && emp.getId() != null && currentAssignments.stream()
-                                .noneMatch(
-                                        assign -> assign.getEmployee() != null && assign.getEmployee().getId() != null
-                                                && assign.getEmployee().getId().equals(emp.getId())))
-                        .limit(neededCount * 2)
-                        .collect(Collectors.toList());
-
-                suggestedEmployeeDTOs = availableEmployeesFromTeam.stream()
-                        .map(emp -> new EmployeeSuggestionDTO(emp.getId(), emp.getNames(),
-                                emp.getFirstSurname(), (emp.getTeam() != null ? emp.getTeam().getName() : "N/A")))
-                        .collect(Collectors.toList());
+            PriorityQueue<RankedCandidate> best = bestByTeamId.get(teamId);
+            if (best != null) {
+                best.stream().sorted(RANKING)
+                        .forEach(ranked -> suggestedEmployeeDTOs.add(toSuggestion(ranked.candidate())));
             }
 
             teamSuggestionDTOs.add(new RequiredTeamSuggestionDTO(
-                    teamId, teamName, requiredCount, assignedCount, neededCount,
+                    teamId, prt.getTeam().getName(), requiredCount, assignedEmployeeDTOs.size(), neededCount,
                     assignedEmployeeDTOs, suggestedEmployeeDTOs));
         }
 
         return new ProjectAssignmentSuggestionDTO(project.getProjectId(), project.getName(), teamSuggestionDTOs);
     }
-}
\ No newline at end of file
+
+    private static EmployeeSuggestionDTO toSuggestion(ProjectMemberRef member) {
+        return new EmployeeSuggestionDTO(member.getEmployeeId(), member.getNames(), member.getFirstSurname(),
+                member.getTeamName() != null ? member.getTeamName() : "N/A");
+    }
+}
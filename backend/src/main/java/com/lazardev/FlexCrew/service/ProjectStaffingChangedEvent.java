@@ -0,0 +1,28 @@
+package com.lazardev.FlexCrew.service;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Published in the transaction that changes who is on a project, what a project requires or the
+ * team of an employee. projectIds changed themselves; teamIds had a member join, leave or change
+ * workload, which may reorder the suggestions of every project requiring them. all for changes too
+ * wide to tell.
+ */
+public record ProjectStaffingChangedEvent(Set<Integer> projectIds, Set<Integer> teamIds, boolean all) {
+
+    public static ProjectStaffingChangedEvent of(Collection<Integer> projectIds, Collection<Integer> teamIds) {
+        return new ProjectStaffingChangedEvent(copyOf(projectIds), copyOf(teamIds), false);
+    }
+
+    public static ProjectStaffingChangedEvent everything() {
+        return new ProjectStaffingChangedEvent(Set.of(), Set.of(), true);
+    }
+
+    // Set.copyOf rejects nulls, an employee without a team has none
+    private static Set<Integer> copyOf(Collection<Integer> ids) {
+        return ids.stream().filter(Objects::nonNull).collect(Collectors.toUnmodifiableSet());
+    }
+}
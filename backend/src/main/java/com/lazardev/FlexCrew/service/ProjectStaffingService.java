@@ -0,0 +1,222 @@
+package com.lazardev.FlexCrew.service;
+
+import com.lazardev.FlexCrew.dao.EmployeeRepository;
+import com.lazardev.FlexCrew.dao.ProjectEmployeeAssignmentRepository;
+import com.lazardev.FlexCrew.dao.ProjectRepository;
+import com.lazardev.FlexCrew.dao.ProjectRequiredTeamRepository;
+import com.lazardev.FlexCrew.dao.projection.ProjectAssignmentRef;
+import com.lazardev.FlexCrew.dao.projection.ProjectCandidate;
+import com.lazardev.FlexCrew.dao.projection.ProjectMemberRef;
+import com.lazardev.FlexCrew.dao.projection.RequiredTeamRef;
+import com.lazardev.FlexCrew.dto.StaffingAssignment;
+import com.lazardev.FlexCrew.dto.StaffingPlan;
+import com.lazardev.FlexCrew.entity.Project;
+import com.lazardev.FlexCrew.util.IntHashSet;
+import com.lazardev.FlexCrew.util.SqlNames;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSourceUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Staffs every open project at once. The plan is computed from four queries whatever the number of
+ * projects: the open projects, their required teams, who is already on them, and the members of the
+ * teams still short of people. Applying a plan checks it again under lock and writes it with one
+ * JDBC batch, all of it or nothing.
+ */
+@Service
+public class ProjectStaffingService {
+
+    public static final String OPEN = "OPEN";
+    public static final int MAX_PLAN_SIZE = 10_000;
+
+    private static final String INSERT_ASSIGNMENT_SQL =
+            "INSERT INTO %s (fk_project_id, fk_employee_id) VALUES (:projectId, :employeeId)";
+
+    private final ProjectRepository projectRepository;
+    private final ProjectRequiredTeamRepository projectRequiredTeamRepository;
+    private final ProjectEmployeeAssignmentRepository projectEmployeeAssignmentRepository;
+    private final EmployeeRepository employeeRepository;
+    private final StaffingOptimizer staffingOptimizer;
+    private final ProjectWorkloadIndex workloadIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final String insertAssignmentSql;
+
+    @Autowired
+    public ProjectStaffingService(
+            ProjectRepository projectRepository,
+            ProjectRequiredTeamRepository projectRequiredTeamRepository,
+            ProjectEmployeeAssignmentRepository projectEmployeeAssignmentRepository,
+            EmployeeRepository employeeRepository,
+            StaffingOptimizer staffingOptimizer,
+            ProjectWorkloadIndex workloadIndex,
+            ApplicationEventPublisher eventPublisher,
+            NamedParameterJdbcTemplate jdbcTemplate,
+            @Value("${spring.jpa.properties.hibernate.default_schema}") String schema) {
+        this.projectRepository = projectRepository;
+        this.projectRequiredTeamRepository = projectRequiredTeamRepository;
+        this.projectEmployeeAssignmentRepository = projectEmployeeAssignmentRepository;
+        this.employeeRepository = employeeRepository;
+        this.staffingOptimizer = staffingOptimizer;
+        this.workloadIndex = workloadIndex;
+        this.eventPublisher = eventPublisher;
+        this.jdbcTemplate = jdbcTemplate;
+        this.insertAssignmentSql = INSERT_ASSIGNMENT_SQL.formatted(
+                SqlNames.qualified(schema, "Project_Employee_Assignments"));
+    }
+
+    /** Nothing is written, the plan is applied with applyPlan. */
+    @Transactional(readOnly = true)
+    public StaffingPlan planStaffing() {
+        long start = System.nanoTime();
+        Map<Integer, Project> projects = projectRepository.findByStatus(OPEN).stream()
+                .collect(Collectors.toMap(Project::getProjectId, Function.identity()));
+        if (projects.isEmpty()) {
+            return new StaffingPlan(List.of(), 0, 0, 0, 0);
+        }
+        OpenState state = openState(projects.keySet());
+
+        List<StaffingOptimizer.Demand> demands = new ArrayList<>();
+        Set<Integer> teamIds = new HashSet<>();
+        for (RequiredTeamRef required : state.requiredTeams()) {
+            int needed = state.neededCount(required);
+            if (needed > 0) {
+                demands.add(new StaffingOptimizer.Demand(required.getProjectId(), required.getTeamId(), needed,
+                        projects.get(required.getProjectId()).getDueDate()));
+                teamIds.add(required.getTeamId());
+            }
+        }
+        List<ProjectCandidate> candidates = new ArrayList<>();
+        if (!teamIds.isEmpty()) {
+            List<ProjectCandidate> found = workloadIndex.isReady()
+                    ? employeeRepository.findUncountedProjectCandidatesByTeamIds(teamIds)
+                    : employeeRepository.findProjectCandidatesByTeamIds(teamIds);
+            for (ProjectCandidate candidate : found) {
+                if (!state.staffed().contains(candidate.getEmployeeId())) {
+                    candidates.add(candidate);
+                }
+            }
+        }
+
+        StaffingOptimizer.Result result = staffingOptimizer.optimize(demands, candidates);
+        return new StaffingPlan(result.assignments(), result.needed(), result.filled(), candidates.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * Writes every assignment of the plan, or none if any of them no longer holds: the project is
+     * not open anymore, the employee changed team or is already on an open project, or the team
+     * already has the people the project requires. The projects, then the employees, are locked in
+     * id order meanwhile, as ProjectService.assignEmployee does.
+     */
+    @Transactional
+    public List<StaffingAssignment> applyPlan(List<StaffingAssignment> assignments) {
+        if (assignments.size() > MAX_PLAN_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_PLAN_SIZE + " assignments per plan");
+        }
+        Set<Integer> projectIds = new HashSet<>();
+        Set<Integer> employeeIds = new HashSet<>();
+        for (StaffingAssignment assignment : assignments) {
+            if (assignment == null || assignment.projectId() == null || assignment.teamId() == null
+                    || assignment.employeeId() == null) {
+                throw new IllegalArgumentException("Every assignment needs a project, a team and an employee");
+            }
+            projectIds.add(assignment.projectId());
+            employeeIds.add(assignment.employeeId());
+        }
+        if (assignments.isEmpty()) {
+            return List.of();
+        }
+
+        Set<Integer> open = projectRepository.lockAllByIds(projectIds).stream()
+                .filter(project -> OPEN.equals(project.getStatus()))
+                .map(Project::getProjectId)
+                .collect(Collectors.toSet());
+        employeeRepository.lockIdsByIds(employeeIds);
+        OpenState state = openState(open);
+        Map<Long, Integer> needed = new HashMap<>();
+        state.requiredTeams().forEach(required -> needed.put(
+                key(required.getProjectId(), required.getTeamId()), state.neededCount(required)));
+        Map<Integer, Integer> teamOf = new HashMap<>();
+        for (ProjectMemberRef employee : employeeRepository.findMemberRefsByIds(employeeIds)) {
+            teamOf.put(employee.getEmployeeId(), employee.getTeamId());
+        }
+
+        List<String> problems = new ArrayList<>();
+        IntHashSet planned = new IntHashSet(assignments.size());
+        for (StaffingAssignment assignment : assignments) {
+            Integer employeeId = assignment.employeeId();
+            long key = key(assignment.projectId(), assignment.teamId());
+            if (!open.contains(assignment.projectId())) {
+                problems.add("Project " + assignment.projectId() + " is not open");
+            } else if (!teamOf.containsKey(employeeId)) {
+                problems.add("Employee not found: " + employeeId);
+            } else if (!Objects.equals(teamOf.get(employeeId), assignment.teamId())) {
+                problems.add("Employee " + employeeId + " is not in team " + assignment.teamId());
+            } else if (state.staffed().contains(employeeId) || !planned.add(employeeId)) {
+                problems.add("Employee " + employeeId + " is already on an open project");
+            } else if (!needed.containsKey(key)) {
+                problems.add("Project " + assignment.projectId() + " does not require team " + assignment.teamId());
+            } else if (needed.merge(key, -1, Integer::sum) < 0) {
+                problems.add("Project " + assignment.projectId() + " needs no more people from team "
+                        + assignment.teamId());
+            }
+        }
+        if (!problems.isEmpty()) {
+            throw new IllegalStateException(problems.size() + " assignments no longer hold: "
+                    + String.join("; ", problems.subList(0, Math.min(10, problems.size()))));
+        }
+
+        List<Map<String, Object>> rows = new ArrayList<>(assignments.size());
+        assignments.forEach(assignment -> rows.add(
+                Map.of("projectId", assignment.projectId(), "employeeId", assignment.employeeId())));
+        jdbcTemplate.batchUpdate(insertAssignmentSql, SqlParameterSourceUtils.createBatch(rows));
+        workloadIndex.assignedAfterCommit(employeeIds, 1);
+        eventPublisher.publishEvent(ProjectStaffingChangedEvent.of(projectIds,
+                assignments.stream().map(StaffingAssignment::teamId).toList()));
+        return assignments;
+    }
+
+    // Required teams of the projects, who is on an open project and how many of each team per project
+    private record OpenState(List<RequiredTeamRef> requiredTeams, IntHashSet staffed, Map<Long, Integer> assigned) {
+
+        int neededCount(RequiredTeamRef required) {
+            int assignedCount = assigned.getOrDefault(key(required.getProjectId(), required.getTeamId()), 0);
+            return Math.max(0, required.getRequiredCount() - assignedCount);
+        }
+    }
+
+    private OpenState openState(Set<Integer> projectIds) {
+        List<RequiredTeamRef> requiredTeams = projectIds.isEmpty()
+                ? List.of()
+                : projectRequiredTeamRepository.findRefsByProjectIds(projectIds);
+        List<ProjectAssignmentRef> onOpenProjects = projectEmployeeAssignmentRepository.findRefsByProjectStatus(OPEN);
+        IntHashSet staffed = new IntHashSet(onOpenProjects.size());
+        Map<Long, Integer> assigned = new HashMap<>();
+        for (ProjectAssignmentRef assignment : onOpenProjects) {
+            staffed.add(assignment.getEmployeeId());
+            if (assignment.getTeamId() != null) {
+                assigned.merge(key(assignment.getProjectId(), assignment.getTeamId()), 1, Integer::sum);
+            }
+        }
+        return new OpenState(requiredTeams, staffed, assigned);
+    }
+
+    private static long key(int projectId, int teamId) {
+        return ((long) projectId << 32) | (teamId & 0xffffffffL);
+    }
+}
@@ -0,0 +1,103 @@
+package com.lazardev.FlexCrew.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.lazardev.FlexCrew.dto.ProjectAssignmentSuggestionDTO;
+import com.lazardev.FlexCrew.dto.RequiredTeamSuggestionDTO;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Assignment suggestions per project. Concurrent requests for a project that is not cached wait
+ * for one computation. Entries are evicted once a {@link ProjectStaffingChangedEvent} commits: the
+ * projects it names, and through a reverse index every cached project requiring one of its teams.
+ *
+ * <p>A computation overlapping an eviction may have read the state from before it. Its result is
+ * still returned, but dropped from the cache right after.
+ */
+@Component
+public class ProjectSuggestionCache {
+
+  private record Loaded(ProjectAssignmentSuggestionDTO suggestions, boolean stale) {}
+
+  private final ProjectService projectService;
+  private final LoadingCache<Integer, Loaded> suggestions;
+  private final Timer loadTimer;
+  // Bumped by every eviction, a load seeing it change was overlapped by one
+  private final AtomicLong evictions = new AtomicLong();
+  // Cached projects per required team. Ids of projects no longer cached only cost a no-op eviction
+  private final Map<Integer, Set<Integer>> projectsByTeam = new ConcurrentHashMap<>();
+
+  @Autowired
+  public ProjectSuggestionCache(
+      ProjectService projectService,
+      MeterRegistry meterRegistry,
+      @Value("${application.projects.suggestions.cache.max-size:1000}") long maxSize,
+      @Value("${application.projects.suggestions.cache.ttl:PT10M}") Duration ttl) {
+    this.projectService = projectService;
+    this.suggestions =
+        Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .build(this::load);
+    CaffeineCacheMetrics.monitor(meterRegistry, suggestions, "projects.suggestions");
+    Gauge.builder("projects.suggestions.hit.ratio", suggestions, cache -> cache.stats().hitRate())
+        .description("Share of suggestion requests served from the cache")
+        .register(meterRegistry);
+    this.loadTimer =
+        Timer.builder("projects.suggestions.load")
+            .description("Time to compute the suggestions of a project")
+            .register(meterRegistry);
+  }
+
+  /** Throws as ProjectService.getProjectAssignmentSuggestions does, failures are not cached. */
+  public ProjectAssignmentSuggestionDTO get(Integer projectId) {
+    Loaded loaded = suggestions.get(projectId);
+    if (loaded.stale()) {
+      suggestions.asMap().remove(projectId, loaded);
+    }
+    return loaded.suggestions();
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onStaffingChanged(ProjectStaffingChangedEvent event) {
+    evictions.incrementAndGet();
+    if (event.all()) {
+      projectsByTeam.clear();
+      suggestions.invalidateAll();
+      return;
+    }
+    suggestions.invalidateAll(event.projectIds());
+    for (Integer teamId : event.teamIds()) {
+      Set<Integer> projectIds = projectsByTeam.remove(teamId);
+      if (projectIds != null) {
+        suggestions.invalidateAll(projectIds);
+      }
+    }
+  }
+
+  private Loaded load(Integer projectId) {
+    long before = evictions.get();
+    ProjectAssignmentSuggestionDTO loaded =
+        loadTimer.record(() -> projectService.getProjectAssignmentSuggestions(projectId));
+    for (RequiredTeamSuggestionDTO team : loaded.getTeamSuggestions()) {
+      projectsByTeam
+          .computeIfAbsent(team.getTeamId(), id -> ConcurrentHashMap.newKeySet())
+          .add(projectId);
+    }
+    // Registered before reading the counter, a later eviction of the team finds the project
+    return new Loaded(loaded, evictions.get() != before);
+  }
+}
@@ -0,0 +1,152 @@
+package com.lazardev.FlexCrew.service;
+
+import com.lazardev.FlexCrew.dto.KeysetPage;
+import com.lazardev.FlexCrew.dto.ProjectSummaryDTO;
+import com.lazardev.FlexCrew.util.SqlNames;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * Pages of project summaries in project id order, without loading any entity. A page is one SQL
+ * query: the projects of the page are picked first, then only their required teams and
+ * assignments are grouped, so the cost follows the page size and not the number of projects.
+ */
+@Service
+public class ProjectSummaryService {
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+
+    private static final OffsetDateTime EARLIEST = OffsetDateTime.parse("0001-01-01T00:00:00Z");
+    private static final OffsetDateTime LATEST = OffsetDateTime.parse("9999-12-31T00:00:00Z");
+
+    // Only the filters given are written out: an OR on a bound flag keeps a generic plan off the
+    // status and due date indexes
+    private static final String STATUS_FILTER = "AND status = :status";
+    private static final String DUE_FILTER = "AND due_date >= :dueFrom AND due_date < :dueTo";
+
+    private static final String PAGE_SQL = """
+            WITH page AS (
+                SELECT project_id, name, status, due_date
+                FROM %1$s
+                WHERE project_id > :afterId
+                  %5$s
+                  %6$s
+                ORDER BY project_id
+                LIMIT :limit
+            ),
+            assigned AS (
+                SELECT a.fk_project_id AS project_id, e.fk_team AS team_id, COUNT(*) AS assigned
+                FROM page
+                JOIN %2$s a ON a.fk_project_id = page.project_id
+                JOIN %3$s e ON e.employee_id = a.fk_employee_id
+                GROUP BY a.fk_project_id, e.fk_team
+            ),
+            required AS (
+                SELECT r.fk_project_id AS project_id, SUM(r.required_count) AS required,
+                       SUM(GREATEST(r.required_count - COALESCE(x.assigned, 0), 0)) AS missing
+                FROM page
+                JOIN %4$s r ON r.fk_project_id = page.project_id
+                LEFT JOIN assigned x ON x.project_id = r.fk_project_id AND x.team_id = r.fk_team_id
+                GROUP BY r.fk_project_id
+            )
+            SELECT page.project_id, page.name, page.status, page.due_date,
+                   COALESCE(required.required, 0) AS required,
+                   COALESCE(total.assigned, 0) AS assigned,
+                   COALESCE(required.missing, 0) AS missing
+            FROM page
+            LEFT JOIN required ON required.project_id = page.project_id
+            LEFT JOIN (SELECT project_id, SUM(assigned) AS assigned FROM assigned GROUP BY project_id) total
+                ON total.project_id = page.project_id
+            ORDER BY page.project_id
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    // Indexed by status filter, then due filter
+    private final String[][] pageSql = new String[2][2];
+
+    @Autowired
+    public ProjectSummaryService(
+            NamedParameterJdbcTemplate jdbcTemplate,
+            @Value("${spring.jpa.properties.hibernate.default_schema}") String schema) {
+        this.jdbcTemplate = jdbcTemplate;
+        for (int byStatus = 0; byStatus < 2; byStatus++) {
+            for (int byDue = 0; byDue < 2; byDue++) {
+                pageSql[byStatus][byDue] = PAGE_SQL.formatted(
+                        SqlNames.qualified(schema, "Projects"),
+                        SqlNames.qualified(schema, "Project_Employee_Assignments"),
+                        SqlNames.qualified(schema, "Employees"),
+                        SqlNames.qualified(schema, "Project_Required_Teams"),
+                        byStatus == 1 ? STATUS_FILTER : "",
+                        byDue == 1 ? DUE_FILTER : "");
+            }
+        }
+    }
+
+    /**
+     * Status, due range and cursor may be null. Projects without a due date only show when no due
+     * range is given. limit is capped at MAX_PAGE_SIZE.
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<ProjectSummaryDTO> findPage(
+            String status, OffsetDateTime dueFrom, OffsetDateTime dueTo, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        boolean byDue = dueFrom != null || dueTo != null;
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("afterId", decodeCursor(cursor))
+                // One extra row tells whether there is a next page
+                .addValue("limit", pageSize + 1);
+        if (status != null) {
+            parameters.addValue("status", status);
+        }
+        if (byDue) {
+            // An open end of the range is bounded rather than left out, one statement serves both
+            parameters.addValue("dueFrom", dueFrom != null ? dueFrom : EARLIEST)
+                    .addValue("dueTo", dueTo != null ? dueTo : LATEST);
+        }
+
+        String sql = pageSql[status != null ? 1 : 0][byDue ? 1 : 0];
+        List<ProjectSummaryDTO> summaries = jdbcTemplate.query(sql, parameters,
+                (rs, rowNum) -> toSummary(rs));
+        if (summaries.size() <= pageSize) {
+            return new KeysetPage<>(summaries, null);
+        }
+        List<ProjectSummaryDTO> page = summaries.subList(0, pageSize);
+        return new KeysetPage<>(page, String.valueOf(page.get(pageSize - 1).projectId()));
+    }
+
+    private static ProjectSummaryDTO toSummary(ResultSet rs) throws SQLException {
+        int required = rs.getInt("required");
+        int missing = rs.getInt("missing");
+        return new ProjectSummaryDTO(
+                rs.getInt("project_id"),
+                rs.getString("name"),
+                rs.getString("status"),
+                rs.getObject("due_date", OffsetDateTime.class),
+                required,
+                rs.getInt("assigned"),
+                missing,
+                required > 0 ? Math.round(missing * 1000.0 / required) / 10.0 : 0);
+    }
+
+    // The cursor is the id of the last project of the previous page
+    private static int decodeCursor(String cursor) {
+        if (cursor == null) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(cursor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor.", e);
+        }
+    }
+}
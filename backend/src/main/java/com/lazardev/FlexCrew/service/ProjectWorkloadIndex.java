@@ -0,0 +1,151 @@
+package com.lazardev.FlexCrew.service;
+
+import com.lazardev.FlexCrew.dao.EmployeeRepository;
+import com.lazardev.FlexCrew.dao.projection.EmployeeWorkloadRef;
+import com.lazardev.FlexCrew.dto.EmployeeWorkload;
+import com.lazardev.FlexCrew.util.AtomicDenseIntMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Number of active projects every employee is on, and the team of every employee, held in memory
+ * so suggestions and the least loaded members of a team need no query. Seeded by one grouped
+ * query, then kept up to date as assignments are created or deleted once they commit. Changes to
+ * the status of a project or its deletion rebuild it.
+ *
+ * <p>A full rebuild also runs every rebuild-interval, so changes made outside the application (or a
+ * delta applied on top of a rebuild that had already seen it) are corrected eventually.
+ */
+@Component
+public class ProjectWorkloadIndex {
+
+  /** Statuses of the projects that no longer keep their employees busy. */
+  public static final Set<String> INACTIVE = Set.of("COMPLETED", "CANCELLED");
+
+  // Ranked by load, lower id on a tie
+  private static final Comparator<EmployeeWorkload> LEAST_LOADED =
+      Comparator.comparingInt(EmployeeWorkload::activeAssignments)
+          .thenComparing(EmployeeWorkload::employeeId);
+
+  /** Load and team (0 for none) per employee, replaced as a whole by a rebuild. */
+  private record State(AtomicDenseIntMap loads, AtomicDenseIntMap teams) {}
+
+  private final EmployeeRepository employeeRepository;
+
+  private volatile State state = new State(new AtomicDenseIntMap(), new AtomicDenseIntMap());
+  private volatile boolean ready;
+
+  @Autowired
+  public ProjectWorkloadIndex(EmployeeRepository employeeRepository) {
+    this.employeeRepository = employeeRepository;
+  }
+
+  public static boolean isActive(String status) {
+    return status == null || !INACTIVE.contains(status);
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  @Scheduled(
+      fixedDelayString = "${application.projects.workload.rebuild-interval:PT30M}",
+      initialDelayString = "${application.projects.workload.rebuild-interval:PT30M}")
+  public synchronized void rebuild() {
+    State rebuilt = new State(new AtomicDenseIntMap(), new AtomicDenseIntMap());
+    for (EmployeeWorkloadRef ref : employeeRepository.findWorkloadRefs(INACTIVE)) {
+      if (ref.getAssignments() > 0) {
+        rebuilt.loads().set(ref.getEmployeeId(), ref.getAssignments().intValue());
+      }
+      if (ref.getTeamId() != null) {
+        rebuilt.teams().set(ref.getEmployeeId(), ref.getTeamId());
+      }
+    }
+    state = rebuilt;
+    ready = true;
+  }
+
+  /** False until seeded, callers have to ask the database meanwhile. */
+  public boolean isReady() {
+    return ready;
+  }
+
+  /** Active projects the employee is on. */
+  public int load(int employeeId) {
+    return state.loads().get(employeeId);
+  }
+
+  /** Team of the employee as last seen, null for none or until seeded. */
+  public Integer teamOf(int employeeId) {
+    int teamId = state.teams().get(employeeId);
+    return teamId != 0 ? teamId : null;
+  }
+
+  /**
+   * The limit least loaded members of the team, lower id first on a tie. One pass over the
+   * employees with a bounded heap, O(n log limit).
+   */
+  public List<EmployeeWorkload> leastLoaded(int teamId, int limit) {
+    if (limit <= 0) {
+      return List.of();
+    }
+    State current = state;
+    // Worst of the kept members at the head
+    PriorityQueue<EmployeeWorkload> best = new PriorityQueue<>(LEAST_LOADED.reversed());
+    for (int employeeId = 0, capacity = current.teams().capacity(); employeeId < capacity; employeeId++) {
+      if (current.teams().get(employeeId) != teamId) {
+        continue;
+      }
+      EmployeeWorkload workload =
+          new EmployeeWorkload(employeeId, teamId, current.loads().get(employeeId));
+      if (best.size() < limit) {
+        best.add(workload);
+      } else if (LEAST_LOADED.compare(workload, best.peek()) < 0) {
+        best.poll();
+        best.add(workload);
+      }
+    }
+    List<EmployeeWorkload> ranked = new ArrayList<>(best);
+    ranked.sort(LEAST_LOADED);
+    return ranked;
+  }
+
+  /** Adds delta to the load of each employee once the surrounding transaction commits. */
+  public void assignedAfterCommit(Collection<Integer> employeeIds, int delta) {
+    List<Integer> copy = List.copyOf(employeeIds);
+    afterCommit(() -> copy.forEach(employeeId -> state.loads()
+        .accumulateAndGet(employeeId, delta, (load, added) -> Math.max(0, load + added))));
+  }
+
+  /** Moves the employee to the team (null for none) once the surrounding transaction commits. */
+  public void movedAfterCommit(int employeeId, Integer teamId) {
+    afterCommit(() -> state.teams().set(employeeId, teamId != null ? teamId : 0));
+  }
+
+  /** For a project changing status or deleted, every member of it changes at once. */
+  public void rebuildAfterCommit() {
+    afterCommit(this::rebuild);
+  }
+
+  private static void afterCommit(Runnable action) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      action.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            action.run();
+          }
+        });
+  }
+}
@@ -0,0 +1,116 @@
+package com.lazardev.FlexCrew.service;
+
+import com.lazardev.FlexCrew.entity.Punctuality;
+import com.lazardev.FlexCrew.util.SqlNames;
+import java.time.OffsetDateTime;
+import java.time.OffsetTime;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Classifies the records stored before check-ins were classified on write. Walks the unclassified
+ * records in id order, one chunk per transaction, so it can run next to the live check-ins and be
+ * restarted at any point.
+ */
+@Slf4j
+@Service
+public class PunctualityBackfillService {
+
+  private static final String SELECT_SQL =
+      "SELECT r.record_id, r.created, s.start_time, st.name AS issue_status FROM %s r"
+          + " JOIN %s s ON s.schedule_id = r.fk_schedule"
+          + " LEFT JOIN %s i ON i.issue_id = r.fk_issue"
+          + " LEFT JOIN %s st ON st.issue_status_id = i.fk_issue_status"
+          + " WHERE r.punctuality IS NULL AND r.record_id > ?"
+          + " ORDER BY r.record_id LIMIT ?";
+
+  // created is the partition key, it lets the update go straight to the right partition
+  private static final String UPDATE_SQL =
+      "UPDATE %s SET punctuality = ?, delay_minutes = ? WHERE record_id = ? AND created = ?";
+
+  private record Row(int recordId, OffsetDateTime created, Punctuality punctuality, int delay) {}
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final PunctualityClassifier classifier;
+  private final String selectSql;
+  private final String updateSql;
+  private final int chunkSize;
+
+  @Autowired
+  public PunctualityBackfillService(
+      JdbcTemplate jdbcTemplate,
+      PlatformTransactionManager transactionManager,
+      PunctualityClassifier classifier,
+      @Value("${spring.jpa.properties.hibernate.default_schema}") String schema,
+      @Value("${application.records.punctuality.backfill-chunk-size:5000}") int chunkSize) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.classifier = classifier;
+    this.selectSql =
+        SELECT_SQL.formatted(
+            SqlNames.qualified(schema, "Records"),
+            SqlNames.qualified(schema, "Schedules"),
+            SqlNames.qualified(schema, "Issues"),
+            SqlNames.qualified(schema, "Issue_statuses"));
+    this.updateSql = UPDATE_SQL.formatted(SqlNames.qualified(schema, "Records"));
+    this.chunkSize = chunkSize;
+  }
+
+  /** Returns the number of records classified. */
+  public synchronized long backfill() {
+    long classified = 0;
+    int afterId = 0;
+    while (true) {
+      int from = afterId;
+      List<Row> rows =
+          transactionTemplate.execute(
+              status -> {
+                List<Row> chunk =
+                    jdbcTemplate.query(
+                        selectSql,
+                        (rs, rowNum) ->
+                            classify(
+                                rs.getInt("record_id"),
+                                rs.getObject("created", OffsetDateTime.class),
+                                rs.getObject("start_time", OffsetTime.class),
+                                rs.getString("issue_status")),
+                        from,
+                        chunkSize);
+                jdbcTemplate.batchUpdate(
+                    updateSql,
+                    chunk,
+                    chunk.size(),
+                    (ps, row) -> {
+                      ps.setShort(1, row.punctuality().getCode());
+                      ps.setInt(2, row.delay());
+                      ps.setInt(3, row.recordId());
+                      ps.setObject(4, row.created());
+                    });
+                return chunk;
+              });
+      if (rows == null || rows.isEmpty()) {
+        break;
+      }
+      classified += rows.size();
+      afterId = rows.get(rows.size() - 1).recordId();
+    }
+    log.info("Classified the punctuality of {} records", classified);
+    return classified;
+  }
+
+  // A missed day was only ever recorded as an issue, keep it; everything else is recomputed
+  private Row classify(
+      int recordId, OffsetDateTime created, OffsetTime scheduledStart, String issueStatus) {
+    int delay = PunctualityClassifier.delayMinutes(scheduledStart, created);
+    Punctuality punctuality =
+        "Missed".equals(issueStatus) ? Punctuality.MISSED : classifier.classify(delay);
+    return new Row(recordId, created, punctuality, delay);
+  }
+}
@@ -0,0 +1,46 @@
+package com.lazardev.FlexCrew.service;
+
+import com.lazardev.FlexCrew.entity.Punctuality;
+import com.lazardev.FlexCrew.entity.Record;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.OffsetTime;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Classifies a check-in against the start time of its schedule. Check-ins within the grace period
+ * on either side of the start time are punctual.
+ */
+@Component
+public class PunctualityClassifier {
+
+  private final int graceMinutes;
+
+  public PunctualityClassifier(
+      @Value("${application.records.punctuality.grace-minutes:5}") int graceMinutes) {
+    this.graceMinutes = graceMinutes;
+  }
+
+  /** Sets the punctuality and delay of the record from its start time and schedule. */
+  public void classify(Record record) {
+    int delay = delayMinutes(record.getSchedule().getStartTime(), record.getStartTime());
+    record.setDelayMinutes(delay);
+    record.setPunctuality(classify(delay));
+  }
+
+  public Punctuality classify(int delayMinutes) {
+    if (delayMinutes > graceMinutes) {
+      return Punctuality.LATE;
+    }
+    if (delayMinutes < -graceMinutes) {
+      return Punctuality.EARLY;
+    }
+    return Punctuality.PUNCTUAL;
+  }
+
+  /** Whole minutes from the scheduled start to the check-in, negative when early. */
+  public static int delayMinutes(OffsetTime scheduledStart, OffsetDateTime checkIn) {
+    return Math.toIntExact(Duration.between(scheduledStart, checkIn.toOffsetTime()).toMinutes());
+  }
+}
@@ -0,0 +1,190 @@
+package com.lazardev.FlexCrew.service;
+
+import com.lazardev.FlexCrew.dao.EmployeeRepository;
+import com.lazardev.FlexCrew.dao.RecordRepository;
+import com.lazardev.FlexCrew.dao.ScheduleRepository;
+import com.lazardev.FlexCrew.dao.projection.CheckInTime;
+import com.lazardev.FlexCrew.dto.RecordBatchResult;
+import com.lazardev.FlexCrew.entity.Record;
+import com.lazardev.FlexCrew.entity.Schedule;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Validates and writes a batch of check-ins replayed by kiosks. Applies the same rules as the
+ * single check-in endpoint with a fixed number of queries for the whole batch: one for the
+ * employees, one for the schedules, one for the records already stored on the days of the batch
+ * and one JDBC batch insert. Should the insert still fail, the rows are retried one by one so the
+ * valid ones are saved and only the failing ones are reported.
+ */
+@Service
+public class RecordBatchService {
+
+  public static final int MAX_BATCH_SIZE = 5000;
+
+  private final RecordService recordService;
+  private final RecordRepository recordRepository;
+  private final EmployeeRepository employeeRepository;
+  private final ScheduleRepository scheduleRepository;
+  private final CheckInDayIndex checkInDayIndex;
+  private final RecordWriteBehindBuffer writeBehindBuffer;
+  private final PunctualityClassifier punctualityClassifier;
+
+  @Autowired
+  public RecordBatchService(
+      RecordService recordService,
+      RecordRepository recordRepository,
+      EmployeeRepository employeeRepository,
+      ScheduleRepository scheduleRepository,
+      CheckInDayIndex checkInDayIndex,
+      RecordWriteBehindBuffer writeBehindBuffer,
+      PunctualityClassifier punctualityClassifier) {
+    this.recordService = recordService;
+    this.recordRepository = recordRepository;
+    this.employeeRepository = employeeRepository;
+    this.scheduleRepository = scheduleRepository;
+    this.checkInDayIndex = checkInDayIndex;
+    this.writeBehindBuffer = writeBehindBuffer;
+    this.punctualityClassifier = punctualityClassifier;
+  }
+
+  /** One result per item, in request order. */
+  public List<RecordBatchResult> submitBatch(List<Record> records) {
+    RecordBatchResult[] results = new RecordBatchResult[records.size()];
+
+    // Shape checks first, the rest only looks at well-formed items
+    List<Integer> candidates = new ArrayList<>();
+    for (int i = 0; i < records.size(); i++) {
+      Record record = records.get(i);
+      if (record == null
+          || record.getEmployee() == null
+          || record.getEmployee().getId() == null
+          || record.getSchedule() == null
+          || record.getSchedule().getId() == null
+          || record.getStartTime() == null) {
+        results[i] = RecordBatchResult.rejected(i, "Employee, schedule and start time are required");
+      } else {
+        candidates.add(i);
+      }
+    }
+
+    Set<Integer> employees = loadEmployeeIds(records, candidates);
+    Map<Integer, Schedule> schedules = loadSchedules(records, candidates);
+    Set<Long> taken = loadTakenDays(records, candidates);
+
+    List<Integer> accepted = new ArrayList<>();
+    for (int i : candidates) {
+      Record record = records.get(i);
+      Schedule schedule = schedules.get(record.getSchedule().getId());
+      if (!employees.contains(record.getEmployee().getId())) {
+        results[i] = RecordBatchResult.rejected(i, "Employee not found");
+        continue;
+      }
+      if (schedule == null) {
+        results[i] = RecordBatchResult.rejected(i, "Schedule not found");
+        continue;
+      }
+      // Validate against the stored schedule, not the copy sent by the device
+      record.setSchedule(schedule);
+      record.setId(null);
+      int employeeId = record.getEmployee().getId();
+      LocalDate day = CheckInDayIndex.dayOf(record.getStartTime());
+      if (recordService.isPostedOutOfTime(record)) {
+        results[i] =
+            RecordBatchResult.rejected(i, "You can only post up to 60 minutes after your start time");
+      } else if (recordService.isPostedBeforeExpectedTime(record)) {
+        results[i] =
+            RecordBatchResult.rejected(
+                i, "You can only post up to 60 minutes earlier than your start time");
+      } else if (!taken.add(key(employeeId, day)) || !checkInDayIndex.tryCheckIn(employeeId, day)) {
+        // Stored, earlier in this batch, or accepted meanwhile by the single check-in endpoint
+        results[i] = RecordBatchResult.rejected(i, "You can only post once a day");
+      } else {
+        punctualityClassifier.classify(record);
+        accepted.add(i);
+      }
+    }
+
+    List<Record> rows = accepted.stream().map(records::get).toList();
+    try {
+      writeBehindBuffer.writeNow(rows);
+      accepted.forEach(i -> results[i] = RecordBatchResult.created(i));
+    } catch (RuntimeException e) {
+      // One bad row rolled the whole insert back, find it without failing the others
+      accepted.forEach(i -> results[i] = writeOne(i, records.get(i)));
+    }
+    return List.of(results);
+  }
+
+  private RecordBatchResult writeOne(int index, Record record) {
+    try {
+      writeBehindBuffer.writeNow(List.of(record));
+      return RecordBatchResult.created(index);
+    } catch (RuntimeException e) {
+      checkInDayIndex.release(
+          record.getEmployee().getId(), CheckInDayIndex.dayOf(record.getStartTime()));
+      return RecordBatchResult.failed(index, "The record could not be saved");
+    }
+  }
+
+  private Set<Integer> loadEmployeeIds(List<Record> records, List<Integer> candidates) {
+    Set<Integer> employeeIds =
+        candidates.stream()
+            .map(i -> records.get(i).getEmployee().getId())
+            .collect(Collectors.toSet());
+    return employeeIds.isEmpty()
+        ? Set.of()
+        : new HashSet<>(employeeRepository.findExistingIds(employeeIds));
+  }
+
+  private Map<Integer, Schedule> loadSchedules(List<Record> records, List<Integer> candidates) {
+    Set<Integer> scheduleIds =
+        candidates.stream()
+            .map(i -> records.get(i).getSchedule().getId())
+            .collect(Collectors.toSet());
+    return scheduleRepository.findAllById(scheduleIds).stream()
+        .collect(Collectors.toMap(Schedule::getId, Function.identity()));
+  }
+
+  // (employee, day) pairs that already have a record, from one range query over the batch days
+  private Set<Long> loadTakenDays(List<Record> records, List<Integer> candidates) {
+    Set<Long> taken = new HashSet<>();
+    if (candidates.isEmpty()) {
+      return taken;
+    }
+    Set<Integer> employeeIds = new HashSet<>();
+    LocalDate first = null;
+    LocalDate last = null;
+    for (int i : candidates) {
+      Record record = records.get(i);
+      employeeIds.add(record.getEmployee().getId());
+      LocalDate day = CheckInDayIndex.dayOf(record.getStartTime());
+      first = first == null || day.isBefore(first) ? day : first;
+      last = last == null || day.isAfter(last) ? day : last;
+    }
+    // A day in any offset lies within the UTC day before and the UTC day after, the days of the
+    // rows found are then taken in their own offset
+    OffsetDateTime from =
+        Objects.requireNonNull(first).minusDays(1).atStartOfDay().atOffset(ZoneOffset.UTC);
+    OffsetDateTime to = last.plusDays(2).atStartOfDay().atOffset(ZoneOffset.UTC);
+    for (CheckInTime checkIn : recordRepository.findCheckInTimes(employeeIds, from, to)) {
+      taken.add(key(checkIn.getEmployeeId(), CheckInDayIndex.dayOf(checkIn.getCreated())));
+    }
+    return taken;
+  }
+
+  private static long key(int employeeId, LocalDate day) {
+    return ((long) employeeId << 32) | (day.toEpochDay() & 0xffffffffL);
+  }
+}
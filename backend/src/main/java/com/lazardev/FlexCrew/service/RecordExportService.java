@@ -0,0 +1,156 @@
+package com.lazardev.FlexCrew.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.lazardev.FlexCrew.dao.RecordRepository;
+import com.lazardev.FlexCrew.dto.RecordExportRow;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.Locale;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Streams the records of a date range straight from a database cursor to the response. Rows are
+ * written as they are fetched, so memory use does not depend on the size of the range, and the
+ * connection is only held while the export runs.
+ */
+@Service
+public class RecordExportService {
+
+  public enum Format {
+    CSV("text/csv", "csv"),
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final String contentType;
+    private final String extension;
+
+    Format(String contentType, String extension) {
+      this.contentType = contentType;
+      this.extension = extension;
+    }
+
+    public String getContentType() {
+      return contentType;
+    }
+
+    public String getExtension() {
+      return extension;
+    }
+
+    public static Format parse(String format) {
+      try {
+        return valueOf(format.toUpperCase(Locale.ROOT));
+      } catch (IllegalArgumentException e) {
+        throw new IllegalArgumentException("Unsupported export format: " + format);
+      }
+    }
+  }
+
+  private static final String CSV_HEADER =
+      "record_id,created,employee_id,email,names,first_surname,second_surname,"
+          + "schedule,schedule_start_time,issue_status";
+
+  private final RecordRepository recordRepository;
+  private final ObjectMapper objectMapper;
+  private final TransactionTemplate readOnlyTransaction;
+
+  @Autowired
+  public RecordExportService(
+      RecordRepository recordRepository,
+      ObjectMapper objectMapper,
+      PlatformTransactionManager transactionManager) {
+    this.recordRepository = recordRepository;
+    this.objectMapper = objectMapper;
+    this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+    this.readOnlyTransaction.setReadOnly(true);
+  }
+
+  public void export(
+      OffsetDateTime from, OffsetDateTime to, Format format, boolean gzip, OutputStream out)
+      throws IOException {
+    OutputStream target = gzip ? new GZIPOutputStream(out, 64 * 1024) : out;
+    Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8));
+    try {
+      // The PostgreSQL driver only fetches in chunks with auto-commit off, hence the transaction
+      readOnlyTransaction.executeWithoutResult(
+          status -> {
+            try (Stream<RecordExportRow> rows = recordRepository.streamForExport(from, to)) {
+              if (format == Format.CSV) {
+                writeCsv(rows, writer);
+              } else {
+                writeNdjson(rows, writer);
+              }
+            } catch (IOException e) {
+              throw new UncheckedIOException(e);
+            }
+          });
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+    writer.flush();
+    if (target instanceof GZIPOutputStream gzipStream) {
+      gzipStream.finish();
+    }
+  }
+
+  private static void writeCsv(Stream<RecordExportRow> rows, Writer writer) throws IOException {
+    writer.write(CSV_HEADER);
+    writer.write('\n');
+    for (RecordExportRow row : (Iterable<RecordExportRow>) rows::iterator) {
+      writer.write(String.valueOf(row.recordId()));
+      writeCsvField(writer, row.created());
+      writeCsvField(writer, row.employeeId());
+      writeCsvField(writer, row.email());
+      writeCsvField(writer, row.names());
+      writeCsvField(writer, row.firstSurname());
+      writeCsvField(writer, row.secondSurname());
+      writeCsvField(writer, row.scheduleName());
+      writeCsvField(writer, row.scheduleStartTime());
+      writeCsvField(writer, row.issueStatus());
+      writer.write('\n');
+    }
+  }
+
+  private static void writeCsvField(Writer writer, Object value) throws IOException {
+    writer.write(',');
+    if (value == null) {
+      return;
+    }
+    String text = value.toString();
+    if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0
+        && text.indexOf('\r') < 0) {
+      writer.write(text);
+      return;
+    }
+    writer.write('"');
+    writer.write(text.replace("\"", "\"\""));
+    writer.write('"');
+  }
+
+  private void writeNdjson(Stream<RecordExportRow> rows, Writer writer) throws IOException {
+    // Does not close the writer, the caller still has to finish the gzip stream
+    try (SequenceWriter lines =
+        objectMapper
+            .writer()
+            .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+            .withRootValueSeparator("\n")
+            .writeValues(writer)) {
+      for (RecordExportRow row : (Iterable<RecordExportRow>) rows::iterator) {
+        lines.write(row);
+      }
+    }
+    writer.write('\n');
+  }
+}
@@ -0,0 +1,298 @@
+package com.lazardev.FlexCrew.service;
+
+import com.lazardev.FlexCrew.util.SqlNames;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Maintains the monthly partitions of the Records table (see scripts/records-partitioning.sql).
+ * Creates the partitions of the coming months ahead of time, detaches the partitions that fell out
+ * of the retention period and writes every detached partition to a gzip CSV file in the archive
+ * directory, dropping it afterwards if configured to.
+ *
+ * <p>Runs on startup and then daily. Every step can be repeated, an interrupted run is completed by
+ * the next one. On by default, as database-creation.sql creates Records partitioned with only a
+ * few months ahead; a database still holding the plain table is left alone.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(
+    name = "application.records.partitions.enabled",
+    havingValue = "true",
+    matchIfMissing = true)
+public class RecordPartitionManager {
+
+  private static final String TABLE = "Records";
+  private static final String DEFAULT_PARTITION = "Records_default";
+  private static final Pattern PARTITION_NAME = Pattern.compile("Records_y(\\d{4})m(\\d{2})");
+  private static final String CSV_HEADER =
+      "record_id,fk_employee,created,fk_schedule,fk_issue,punctuality,delay_minutes";
+  private static final String ARCHIVE_SQL =
+      "SELECT record_id, fk_employee, created, fk_schedule, fk_issue, punctuality, delay_minutes"
+          + " FROM %s ORDER BY created, record_id";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final JdbcTemplate archiveJdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final String schema;
+  private final int monthsAhead;
+  private final int retentionMonths;
+  private final Path archiveDir;
+  private final boolean dropAfterArchive;
+
+  @Autowired
+  public RecordPartitionManager(
+      DataSource dataSource,
+      PlatformTransactionManager transactionManager,
+      @Value("${spring.jpa.properties.hibernate.default_schema}") String schema,
+      @Value("${application.records.partitions.months-ahead:3}") int monthsAhead,
+      @Value("${application.records.partitions.retention-months:24}") int retentionMonths,
+      @Value("${application.records.partitions.archive-dir:./archive/records}") Path archiveDir,
+      @Value("${application.records.partitions.drop-after-archive:false}")
+          boolean dropAfterArchive) {
+    this.jdbcTemplate = new JdbcTemplate(dataSource);
+    // Archives read a whole month, the driver only fetches in chunks inside a transaction
+    this.archiveJdbcTemplate = new JdbcTemplate(dataSource);
+    this.archiveJdbcTemplate.setFetchSize(1000);
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.schema = SqlNames.unquoted(schema);
+    this.monthsAhead = monthsAhead;
+    this.retentionMonths = retentionMonths;
+    this.archiveDir = archiveDir;
+    this.dropAfterArchive = dropAfterArchive;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  @Scheduled(cron = "${application.records.partitions.cron:0 30 3 * * *}")
+  public synchronized void maintain() {
+    if (!isPartitioned()) {
+      log.info("{} is not partitioned, see scripts/records-partitioning.sql to migrate it", TABLE);
+      return;
+    }
+    YearMonth current = YearMonth.now();
+    for (int i = 0; i <= monthsAhead; i++) {
+      createPartition(current.plusMonths(i));
+    }
+    YearMonth oldestKept = current.minusMonths(retentionMonths);
+    for (String partition : attachedPartitions()) {
+      monthOf(partition)
+          .filter(month -> month.isBefore(oldestKept))
+          .ifPresent(month -> detach(partition));
+    }
+    for (String partition : detachedPartitions()) {
+      archive(partition);
+    }
+  }
+
+  /**
+   * Creates the partition of the month unless it exists. Rows of that month that already landed in
+   * the default partition are moved into it, Postgres refuses the new partition otherwise.
+   */
+  void createPartition(YearMonth month) {
+    String partition = partitionName(month);
+    if (exists(partition)) {
+      return;
+    }
+    String bounds =
+        "FOR VALUES FROM ('%s') TO ('%s')".formatted(month.atDay(1), month.plusMonths(1).atDay(1));
+    String range =
+        "created >= '%s' AND created < '%s'".formatted(month.atDay(1), month.plusMonths(1).atDay(1));
+    transactionTemplate.executeWithoutResult(
+        status -> {
+          Boolean misplaced =
+              jdbcTemplate.queryForObject(
+                  "SELECT EXISTS (SELECT 1 FROM %s WHERE %s)"
+                      .formatted(qualified(DEFAULT_PARTITION), range),
+                  Boolean.class);
+          if (!Boolean.TRUE.equals(misplaced)) {
+            jdbcTemplate.execute(
+                "CREATE TABLE %s PARTITION OF %s %s"
+                    .formatted(qualified(partition), qualified(TABLE), bounds));
+            return;
+          }
+          jdbcTemplate.execute(
+              "ALTER TABLE %s DETACH PARTITION %s"
+                  .formatted(qualified(TABLE), qualified(DEFAULT_PARTITION)));
+          jdbcTemplate.execute(
+              "CREATE TABLE %s PARTITION OF %s %s"
+                  .formatted(qualified(partition), qualified(TABLE), bounds));
+          int moved =
+              jdbcTemplate.update(
+                  ("WITH moved AS (DELETE FROM %s WHERE %s RETURNING *)"
+                          + " INSERT INTO %s SELECT * FROM moved")
+                      .formatted(qualified(DEFAULT_PARTITION), range, qualified(TABLE)));
+          jdbcTemplate.execute(
+              "ALTER TABLE %s ATTACH PARTITION %s DEFAULT"
+                  .formatted(qualified(TABLE), qualified(DEFAULT_PARTITION)));
+          log.info("Moved {} records from {} into {}", moved, DEFAULT_PARTITION, partition);
+        });
+    log.info("Created partition {}", partition);
+  }
+
+  private void detach(String partition) {
+    jdbcTemplate.execute(
+        "ALTER TABLE %s DETACH PARTITION %s".formatted(qualified(TABLE), qualified(partition)));
+    log.info("Detached partition {}", partition);
+  }
+
+  // Written to a temporary file first, an existing archive is always complete
+  private void archive(String partition) {
+    Path target = archiveDir.resolve(partition + ".csv.gz");
+    try {
+      if (!Files.exists(target)) {
+        Files.createDirectories(archiveDir);
+        Path temporary = archiveDir.resolve(partition + ".csv.gz.tmp");
+        long rows = writeArchive(partition, temporary);
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+        log.info("Archived {} records of {} to {}", rows, partition, target);
+      }
+    } catch (IOException | UncheckedIOException e) {
+      log.error("Could not archive partition {} to {}", partition, target, e);
+      return;
+    }
+    if (dropAfterArchive) {
+      jdbcTemplate.execute("DROP TABLE %s".formatted(qualified(partition)));
+      log.info("Dropped archived partition {}", partition);
+    }
+  }
+
+  private long writeArchive(String partition, Path file) throws IOException {
+    try (Writer writer =
+        new BufferedWriter(
+            new OutputStreamWriter(
+                new GZIPOutputStream(Files.newOutputStream(file), 64 * 1024),
+                StandardCharsets.UTF_8))) {
+      writer.write(CSV_HEADER);
+      writer.write('\n');
+      long[] rows = {0};
+      transactionTemplate.executeWithoutResult(
+          status ->
+              archiveJdbcTemplate.query(
+                  ARCHIVE_SQL.formatted(qualified(partition)),
+                  (ResultSet rs) -> {
+                    writeRow(writer, rs);
+                    rows[0]++;
+                  }));
+      return rows[0];
+    }
+  }
+
+  private static void writeRow(Writer writer, ResultSet rs) throws SQLException {
+    try {
+      writer.write(String.valueOf(rs.getInt("record_id")));
+      writer.write(',');
+      writer.write(String.valueOf(rs.getInt("fk_employee")));
+      writer.write(',');
+      writer.write(rs.getString("created"));
+      writer.write(',');
+      writer.write(String.valueOf(rs.getInt("fk_schedule")));
+      writer.write(',');
+      writeNullable(writer, rs, "fk_issue");
+      writer.write(',');
+      writeNullable(writer, rs, "punctuality");
+      writer.write(',');
+      writeNullable(writer, rs, "delay_minutes");
+      writer.write('\n');
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static void writeNullable(Writer writer, ResultSet rs, String column)
+      throws SQLException, IOException {
+    int value = rs.getInt(column);
+    if (!rs.wasNull()) {
+      writer.write(String.valueOf(value));
+    }
+  }
+
+  private boolean isPartitioned() {
+    return Boolean.TRUE.equals(
+        jdbcTemplate.queryForObject(
+            "SELECT EXISTS (SELECT 1 FROM pg_class c JOIN pg_namespace n ON n.oid = c.relnamespace"
+                + " WHERE n.nspname = ? AND c.relname = ? AND c.relkind = 'p')",
+            Boolean.class,
+            schema,
+            TABLE));
+  }
+
+  private boolean exists(String table) {
+    return Boolean.TRUE.equals(
+        jdbcTemplate.queryForObject(
+            "SELECT EXISTS (SELECT 1 FROM pg_class c JOIN pg_namespace n ON n.oid = c.relnamespace"
+                + " WHERE n.nspname = ? AND c.relname = ?)",
+            Boolean.class,
+            schema,
+            table));
+  }
+
+  private List<String> attachedPartitions() {
+    return jdbcTemplate.queryForList(
+        "SELECT c.relname FROM pg_inherits i"
+            + " JOIN pg_class c ON c.oid = i.inhrelid"
+            + " JOIN pg_class p ON p.oid = i.inhparent"
+            + " JOIN pg_namespace n ON n.oid = p.relnamespace"
+            + " WHERE n.nspname = ? AND p.relname = ?",
+        String.class,
+        schema,
+        TABLE);
+  }
+
+  // Monthly tables of Records that are no longer attached, left over by detach
+  private List<String> detachedPartitions() {
+    return jdbcTemplate
+        .queryForList(
+            "SELECT c.relname FROM pg_class c JOIN pg_namespace n ON n.oid = c.relnamespace"
+                + " WHERE n.nspname = ? AND c.relkind = 'r' AND NOT c.relispartition"
+                + " AND c.relname LIKE 'Records\\_y%' ORDER BY c.relname",
+            String.class,
+            schema)
+        .stream()
+        .filter(name -> PARTITION_NAME.matcher(name).matches())
+        .toList();
+  }
+
+  private String qualified(String table) {
+    return SqlNames.qualified(schema, table);
+  }
+
+  static String partitionName(YearMonth month) {
+    return "Records_y%04dm%02d".formatted(month.getYear(), month.getMonthValue());
+  }
+
+  static Optional<YearMonth> monthOf(String partition) {
+    Matcher matcher = PARTITION_NAME.matcher(partition);
+    if (!matcher.matches()) {
+      return Optional.empty();
+    }
+    return Optional.of(
+        YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2))));
+  }
+}
@@ -1,16 +1,28 @@
 package com.lazardev.FlexCrew.service;
 
+import com.lazardev.FlexCrew.dto.KeysetPage;
+import com.lazardev.FlexCrew.dto.RecordView;
 import com.lazardev.FlexCrew.entity.Record;
-import java.util.List;
+import java.time.OffsetDateTime;
 
 public interface RecordService {
 
-  List<Record> findbyEmployeeId(Integer employeeId);
+  int DEFAULT_PAGE_SIZE = 200;
 
-  List<Record> findbyEmployeeEmail(String employeeEmail);
+  int MAX_PAGE_SIZE = 1000;
+
+  // Newest first, from/to and cursor may be null. limit is capped at MAX_PAGE_SIZE
+  KeysetPage<RecordView> findPageByEmployeeId(
+      Integer employeeId, OffsetDateTime from, OffsetDateTime to, String cursor, int limit);
+
+  KeysetPage<RecordView> findPageByEmployeeEmail(
+      String employeeEmail, OffsetDateTime from, OffsetDateTime to, String cursor, int limit);
 
   int findbyEmployeeEmailAndMonth(String employeeEmail, int month, int year);
 
+  // Recomputes every monthly counter from the Records table, returns the number of counters
+  int rebuildMonthlyCounters();
+
   boolean isSavingRestrictedToday(Integer employeeId);
 
   boolean isPostedOutOfTime(Record record);
@@ -18,4 +30,8 @@ public interface RecordService {
   boolean isPostedBeforeExpectedTime(Record record);
 
   Record saveRecord(Record theRecord);
+
+  // Check-in path, true when the record was queued for a batched write and false when the
+  // buffer was full and it has been saved synchronously
+  boolean submitRecord(Record theRecord);
 }
@@ -1,42 +1,125 @@
 package com.lazardev.FlexCrew.service;
 
+import com.lazardev.FlexCrew.dao.EmployeeRepository;
+import com.lazardev.FlexCrew.dao.MonthlyAttendanceRepository;
 import com.lazardev.FlexCrew.dao.RecordRepository;
+import com.lazardev.FlexCrew.dto.KeysetPage;
+import com.lazardev.FlexCrew.dto.RecordCursor;
+import com.lazardev.FlexCrew.dto.RecordView;
+import com.lazardev.FlexCrew.entity.MonthlyAttendance;
+import com.lazardev.FlexCrew.entity.MonthlyAttendanceId;
 import com.lazardev.FlexCrew.entity.Record;
-import java.time.Duration;
 import java.time.LocalDate;
-import java.time.OffsetTime;
+import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Service
 public class RecordServiceImpl implements RecordService {
 
+  // Bounds used when the caller gives none, both within the range of timestamptz
+  private static final OffsetDateTime EARLIEST = OffsetDateTime.parse("1970-01-01T00:00:00Z");
+  private static final OffsetDateTime LATEST = OffsetDateTime.parse("9999-12-31T00:00:00Z");
+
   private RecordRepository recordRepository;
+  private MonthlyAttendanceRepository monthlyAttendanceRepository;
+  private EmployeeRepository employeeRepository;
+  private TransactionTemplate transactionTemplate;
+  private RecordWriteBehindBuffer writeBehindBuffer;
+  private CheckInDayIndex checkInDayIndex;
+  private PunctualityClassifier punctualityClassifier;
 
   @Autowired
-  public RecordServiceImpl(RecordRepository theRecordRepository) {
+  public RecordServiceImpl(
+      RecordRepository theRecordRepository,
+      MonthlyAttendanceRepository theMonthlyAttendanceRepository,
+      EmployeeRepository theEmployeeRepository,
+      RecordWriteBehindBuffer theWriteBehindBuffer,
+      CheckInDayIndex theCheckInDayIndex,
+      PunctualityClassifier thePunctualityClassifier,
+      PlatformTransactionManager theTransactionManager) {
     this.recordRepository = theRecordRepository;
+    this.monthlyAttendanceRepository = theMonthlyAttendanceRepository;
+    this.employeeRepository = theEmployeeRepository;
+    this.writeBehindBuffer = theWriteBehindBuffer;
+    this.checkInDayIndex = theCheckInDayIndex;
+    this.punctualityClassifier = thePunctualityClassifier;
+    this.transactionTemplate = new TransactionTemplate(theTransactionManager);
+    // A dropped check-in never reached the database, let the employee post again
+    writeBehindBuffer.addDropListener(
+        record -> checkInDayIndex.release(record.getEmployee().getId(), dayOf(record)));
+  }
+
+  @Override
+  public KeysetPage<RecordView> findPageByEmployeeId(
+      Integer employeeId, OffsetDateTime from, OffsetDateTime to, String cursor, int limit) {
+    OffsetDateTime lower = from != null ? from : EARLIEST;
+    OffsetDateTime upper = to != null ? to : LATEST;
+    // Without a cursor start right below the upper bound
+    RecordCursor after =
+        cursor != null ? RecordCursor.decode(cursor) : new RecordCursor(upper, Integer.MIN_VALUE);
+    int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+    // One extra row tells whether there is a next page
+    List<RecordView> records =
+        recordRepository.findPageByEmployeeId(
+            employeeId, lower, upper, after.created(), after.id(), PageRequest.of(0, pageSize + 1));
+    if (records.size() <= pageSize) {
+      return new KeysetPage<>(records, null);
+    }
+    List<RecordView> page = records.subList(0, pageSize);
+    RecordView last = page.get(pageSize - 1);
+    return new KeysetPage<>(page, new RecordCursor(last.startTime(), last.id()).encode());
   }
 
   @Override
-  public List<Record> findbyEmployeeEmail(String employeeEmail) {
-    return recordRepository.findByEmployeeEmail(employeeEmail);
+  public KeysetPage<RecordView> findPageByEmployeeEmail(
+      String employeeEmail, OffsetDateTime from, OffsetDateTime to, String cursor, int limit) {
+    return employeeIdOf(employeeEmail)
+        .map(employeeId -> findPageByEmployeeId(employeeId, from, to, cursor, limit))
+        .orElseGet(() -> new KeysetPage<>(List.of(), null));
   }
 
   @Override
   public int findbyEmployeeEmailAndMonth(String employeeEmail, int month, int year) {
-    return recordRepository.findByEmployeeEmailAndMonth(employeeEmail, month, year);
+    return employeeIdOf(employeeEmail)
+        .flatMap(
+            employeeId ->
+                monthlyAttendanceRepository.findById(
+                    new MonthlyAttendanceId(employeeId, year, month)))
+        .map(MonthlyAttendance::getRecords)
+        .orElse(0);
   }
 
   @Override
-  public List<Record> findbyEmployeeId(Integer recordId) {
-    return recordRepository.findByEmployeeId(recordId);
+  @Transactional
+  public int rebuildMonthlyCounters() {
+    monthlyAttendanceRepository.lockCounters();
+    monthlyAttendanceRepository.deleteAllCounters();
+    return monthlyAttendanceRepository.insertCountersFromRecords();
+  }
+
+  // Index lookup of the id only, the principal cache is left to authentication
+  private Optional<Integer> employeeIdOf(String employeeEmail) {
+    return employeeRepository.findIdByEmail(employeeEmail);
   }
 
   @Override
   public boolean isSavingRestrictedToday(Integer employeeId) {
+    // Covers queued check-ins too, which are not in the database yet
+    if (checkInDayIndex.isCheckedIn(employeeId, LocalDate.now())) {
+      return true;
+    }
+    if (checkInDayIndex.isReady()) {
+      return false;
+    }
+    // Still seeding on startup
     Optional<Record> lastRecord =
         recordRepository.findTopByEmployeeIdOrderByStartTimeDesc(employeeId);
     // No previous post, no restricted today
@@ -50,23 +133,58 @@ public class RecordServiceImpl implements RecordService {
 
   @Override
   public boolean isPostedOutOfTime(Record record) {
-    OffsetTime postedTime = record.getStartTime().toOffsetTime();
-    OffsetTime startTime = record.getSchedule().getStartTime();
     int tolerance = 60; // minutes
-    return Duration.between(startTime, postedTime).toMinutes() > tolerance;
+    return delayMinutes(record) > tolerance;
   }
 
   @Override
   public boolean isPostedBeforeExpectedTime(Record record) {
-    OffsetTime postedTime = record.getStartTime().toOffsetTime();
-    OffsetTime startTime = record.getSchedule().getStartTime();
     int tolerance = -60; // minutes
     // Try to post more than one hour after start time
-    return Duration.between(startTime, postedTime).toMinutes() < tolerance;
+    return delayMinutes(record) < tolerance;
   }
 
   @Override
+  @Transactional
   public Record saveRecord(Record theRecord) {
-    return recordRepository.save(theRecord);
+    if (theRecord.getPunctuality() == null) {
+      punctualityClassifier.classify(theRecord);
+    }
+    Record savedRecord = recordRepository.save(theRecord);
+    monthlyAttendanceRepository.increment(
+        savedRecord.getEmployee().getId(), savedRecord.getStartTime());
+    checkInDayIndex.tryCheckIn(savedRecord.getEmployee().getId(), dayOf(savedRecord));
+    return savedRecord;
+  }
+
+  @Override
+  public boolean submitRecord(Record theRecord) {
+    Integer employeeId = theRecord.getEmployee().getId();
+    LocalDate day = dayOf(theRecord);
+    // Compare-and-set, of two concurrent check-ins of the same employee only one gets through
+    if (!checkInDayIndex.tryCheckIn(employeeId, day)) {
+      throw new IllegalStateException("You can only post once a day");
+    }
+    punctualityClassifier.classify(theRecord);
+    if (writeBehindBuffer.offer(theRecord)) {
+      return true;
+    }
+    try {
+      // Not through the proxy, so the transaction is opened here
+      transactionTemplate.executeWithoutResult(status -> saveRecord(theRecord));
+      return false;
+    } catch (RuntimeException e) {
+      checkInDayIndex.release(employeeId, day);
+      throw e;
+    }
+  }
+
+  private static int delayMinutes(Record record) {
+    return PunctualityClassifier.delayMinutes(
+        record.getSchedule().getStartTime(), record.getStartTime());
+  }
+
+  private static LocalDate dayOf(Record record) {
+    return CheckInDayIndex.dayOf(record.getStartTime());
   }
 }
@@ -0,0 +1,264 @@
+package com.lazardev.FlexCrew.service;
+
+import com.lazardev.FlexCrew.entity.Record;
+import com.lazardev.FlexCrew.util.SqlNames;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Write-behind buffer for check-ins. Accepted records wait in a bounded queue and a single flusher
+ * thread writes them in JDBC batches, one transaction per batch. A batch is flushed once it is full
+ * or once the flush interval has passed since its first record, whichever comes first.
+ *
+ * <p>Stops after the web server, and drains what is left before the datasource is closed. Records
+ * offered while stopped or while the queue is full are refused, the caller writes them itself.
+ *
+ * <p>Off unless application.records.write-behind.enabled is set. A queued check-in is answered 202
+ * without an id and is not durable until its batch commits: a crash loses the queue, and a record
+ * that still fails on its own is dropped, its drop listeners let the employee check in again.
+ */
+@Slf4j
+@Component
+public class RecordWriteBehindBuffer implements SmartLifecycle {
+
+  private static final String INSERT_SQL =
+      "INSERT INTO %s (fk_employee, created, fk_schedule, fk_issue, punctuality, delay_minutes)"
+          + " VALUES (?, ?, ?, ?, ?, ?)";
+
+  // Same statement as MonthlyAttendanceRepository.increment, with JDBC placeholders
+  private static final String COUNT_SQL =
+      "INSERT INTO %s AS m (fk_employee, year, month, records)"
+          + " VALUES (?, EXTRACT(YEAR FROM CAST(? AS timestamptz)),"
+          + " EXTRACT(MONTH FROM CAST(? AS timestamptz)), 1)"
+          + " ON CONFLICT (fk_employee, year, month) DO UPDATE SET records = m.records + 1";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final String insertSql;
+  private final String countSql;
+  private final boolean enabled;
+  private final int batchSize;
+  private final long flushIntervalNanos;
+  private final BlockingQueue<Record> queue;
+  private final List<Consumer<Record>> dropListeners = new CopyOnWriteArrayList<>();
+
+  private final Timer flushTimer;
+  private final DistributionSummary batchSizes;
+  private final Counter rejected;
+  private final Counter failed;
+
+  private volatile boolean running;
+  private Thread flusher;
+
+  @Autowired
+  public RecordWriteBehindBuffer(
+      JdbcTemplate jdbcTemplate,
+      PlatformTransactionManager transactionManager,
+      MeterRegistry meterRegistry,
+      @Value("${spring.jpa.properties.hibernate.default_schema}") String schema,
+      @Value("${application.records.write-behind.enabled:false}") boolean enabled,
+      @Value("${application.records.write-behind.capacity:10000}") int capacity,
+      @Value("${application.records.write-behind.batch-size:500}") int batchSize,
+      @Value("${application.records.write-behind.flush-interval:PT0.2S}") Duration flushInterval) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.insertSql = INSERT_SQL.formatted(SqlNames.qualified(schema, "Records"));
+    this.countSql = COUNT_SQL.formatted(SqlNames.qualified(schema, "Monthly_attendance"));
+    this.enabled = enabled;
+    this.batchSize = batchSize;
+    this.flushIntervalNanos = flushInterval.toNanos();
+    this.queue = new ArrayBlockingQueue<>(capacity);
+
+    this.flushTimer =
+        Timer.builder("records.write-behind.flush")
+            .description("Time to write and commit one batch of check-ins")
+            .publishPercentiles(0.5, 0.99)
+            .register(meterRegistry);
+    this.batchSizes =
+        DistributionSummary.builder("records.write-behind.batch.size").register(meterRegistry);
+    this.rejected =
+        Counter.builder("records.write-behind.rejected")
+            .description("Check-ins written synchronously because the buffer was full or stopped")
+            .register(meterRegistry);
+    this.failed = Counter.builder("records.write-behind.failed").register(meterRegistry);
+    meterRegistry.gauge("records.write-behind.pending", queue, BlockingQueue::size);
+  }
+
+  /** Called from the flusher thread for every record that could not be written. */
+  public void addDropListener(Consumer<Record> listener) {
+    dropListeners.add(listener);
+  }
+
+  /** Queues the record, or returns false if the caller has to write it synchronously. */
+  public boolean offer(Record record) {
+    if (running && queue.offer(record)) {
+      return true;
+    }
+    rejected.increment();
+    return false;
+  }
+
+  /**
+   * Writes the records right away in the caller's thread, as one JDBC batch in one transaction.
+   * Throws if the batch fails, nothing is written then.
+   */
+  public void writeNow(List<Record> records) {
+    if (records.isEmpty()) {
+      return;
+    }
+    batchSizes.record(records.size());
+    flushTimer.record(() -> transactionTemplate.executeWithoutResult(status -> insert(records)));
+  }
+
+  @Override
+  public void start() {
+    if (!enabled) {
+      return;
+    }
+    running = true;
+    flusher = new Thread(this::flushLoop, "records-write-behind");
+    flusher.setDaemon(true);
+    flusher.start();
+  }
+
+  @Override
+  public void stop() {
+    running = false;
+    if (flusher == null) {
+      return;
+    }
+    // The flusher sees the flag within a poll timeout and writes the batch it is building
+    try {
+      flusher.join(TimeUnit.SECONDS.toMillis(30));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    // Whatever the flusher could not take before it exited
+    List<Record> remaining = new ArrayList<>();
+    while (queue.drainTo(remaining, batchSize) > 0) {
+      write(remaining);
+      remaining = new ArrayList<>();
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  // Stop after the web server (DEFAULT_PHASE - 2048) so no request is still offering records
+  @Override
+  public int getPhase() {
+    return SmartLifecycle.DEFAULT_PHASE - 4096;
+  }
+
+  private void flushLoop() {
+    while (running) {
+      List<Record> batch = new ArrayList<>(batchSize);
+      try {
+        Record first = queue.poll(1, TimeUnit.SECONDS);
+        if (first == null) {
+          continue;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + flushIntervalNanos;
+        while (batch.size() < batchSize) {
+          queue.drainTo(batch, batchSize - batch.size());
+          long left = deadline - System.nanoTime();
+          if (batch.size() >= batchSize || left <= 0) {
+            break;
+          }
+          Record next = queue.poll(left, TimeUnit.NANOSECONDS);
+          if (next != null) {
+            batch.add(next);
+          }
+        }
+        write(batch);
+      } catch (InterruptedException e) {
+        write(batch);
+        Thread.currentThread().interrupt();
+        return;
+      } catch (RuntimeException e) {
+        log.error("Check-in flusher failed", e);
+      }
+    }
+  }
+
+  private void write(List<Record> batch) {
+    if (batch.isEmpty()) {
+      return;
+    }
+    batchSizes.record(batch.size());
+    try {
+      flushTimer.record(() -> transactionTemplate.executeWithoutResult(status -> insert(batch)));
+    } catch (RuntimeException e) {
+      // One bad row must not lose the others, retry one record per transaction
+      log.warn("Batch of {} check-ins failed, retrying one by one", batch.size(), e);
+      for (Record record : batch) {
+        try {
+          transactionTemplate.executeWithoutResult(status -> insert(List.of(record)));
+        } catch (RuntimeException single) {
+          failed.increment();
+          log.error("Dropping check-in of employee {}", record.getEmployee().getId(), single);
+          dropListeners.forEach(listener -> listener.accept(record));
+        }
+      }
+    }
+  }
+
+  // Records and their monthly counters are committed together
+  private void insert(List<Record> batch) {
+    jdbcTemplate.batchUpdate(
+        insertSql,
+        batch,
+        batch.size(),
+        (PreparedStatement ps, Record record) -> bind(ps, record));
+    jdbcTemplate.batchUpdate(
+        countSql,
+        batch,
+        batch.size(),
+        (PreparedStatement ps, Record record) -> {
+          ps.setInt(1, record.getEmployee().getId());
+          ps.setObject(2, record.getStartTime());
+          ps.setObject(3, record.getStartTime());
+        });
+  }
+
+  private static void bind(PreparedStatement ps, Record record) throws SQLException {
+    ps.setInt(1, record.getEmployee().getId());
+    ps.setObject(2, record.getStartTime());
+    ps.setInt(3, record.getSchedule().getId());
+    if (record.getIssue() != null && record.getIssue().getId() != null) {
+      ps.setInt(4, record.getIssue().getId());
+    } else {
+      ps.setNull(4, Types.INTEGER);
+    }
+    if (record.getPunctuality() != null) {
+      ps.setShort(5, record.getPunctuality().getCode());
+    } else {
+      ps.setNull(5, Types.SMALLINT);
+    }
+    ps.setObject(6, record.getDelayMinutes(), Types.INTEGER);
+  }
+}
@@ -0,0 +1,595 @@
+package com.lazardev.FlexCrew.service;
+
+import com.lazardev.FlexCrew.dao.EmployeeRepository;
+import com.lazardev.FlexCrew.dao.RotationAssignmentRepository;
+import com.lazardev.FlexCrew.dao.RotationPatternRepository;
+import com.lazardev.FlexCrew.dao.ScheduleRepository;
+import com.lazardev.FlexCrew.dao.projection.EmployeeScheduleRef;
+import com.lazardev.FlexCrew.dao.projection.ScheduleHeadcount;
+import com.lazardev.FlexCrew.dto.ScheduleAssignment;
+import com.lazardev.FlexCrew.dto.conflict.RosterChangeSet;
+import com.lazardev.FlexCrew.dto.conflict.RosterConflict;
+import com.lazardev.FlexCrew.dto.conflict.RosterConflict.Severity;
+import com.lazardev.FlexCrew.dto.conflict.RosterConflict.Type;
+import com.lazardev.FlexCrew.dto.conflict.RosterValidation;
+import com.lazardev.FlexCrew.dto.rotation.RotationPatternRequest;
+import com.lazardev.FlexCrew.dto.simulation.ScheduleEdit;
+import com.lazardev.FlexCrew.entity.RotationPattern;
+import com.lazardev.FlexCrew.entity.Schedule;
+import com.lazardev.FlexCrew.util.ShiftWindow;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Checks a whole batch of schedule, assignment and rotation changes against the current roster
+ * before anything is written, and reports every conflict at once.
+ *
+ * <p>The edits are applied to an in-memory snapshot, then each check sorts what it compares:
+ * schedules by name and by window to find duplicates, window intervals by start for a sweep over the
+ * day that finds overlaps, assignments by employee to find employees moved twice. Rotations are laid
+ * out as absolute minutes over a cycle and the first day of the next, so a shift running into the
+ * next one is found, across the end of the cycle too.
+ * Everything stays within O(n log n) in the number of schedules and edits, plus the overlaps
+ * reported.
+ *
+ * <p>Only conflicts involving at least one edit are reported, a roster that already conflicts
+ * does not block unrelated changes. Errors are always listed in full, there are at most a few per
+ * edit, warnings stop at MAX_WARNINGS.
+ */
+@Service
+@RequiredArgsConstructor
+public class RosterConflictDetector {
+
+  public static final int MAX_EDITS = 10_000;
+  public static final int MAX_WARNINGS = 1_000;
+
+  // Schedule once the edits are applied, editIndex is the last edit touching it, -1 if none
+  record ScheduleState(Integer id, String name, ShiftWindow window, int maxEmployees, int editIndex) {
+
+    boolean touched() {
+      return editIndex >= 0;
+    }
+  }
+
+  record Pattern(Integer id, String name, List<Integer> scheduleIds) {}
+
+  /**
+   * Current roster as far as the change set needs it. scheduleOfEmployee holds the employees named
+   * by the assignments, with a null value for an employee without a schedule.
+   */
+  record Snapshot(
+      Map<Integer, ScheduleState> schedules,
+      Map<Integer, Integer> headcounts,
+      Map<Integer, Integer> scheduleOfEmployee,
+      Set<Integer> employeesOnRotation,
+      List<Pattern> patterns) {}
+
+  private final ScheduleRepository scheduleRepository;
+  private final EmployeeRepository employeeRepository;
+  private final RotationPatternRepository rotationPatternRepository;
+  private final RotationAssignmentRepository rotationAssignmentRepository;
+
+  @Transactional(readOnly = true)
+  public RosterValidation validate(RosterChangeSet changes) {
+    int edits =
+        changes.schedules().size() + changes.assignments().size() + changes.rotations().size();
+    if (edits > MAX_EDITS) {
+      throw new IllegalArgumentException("At most " + MAX_EDITS + " changes per validation");
+    }
+    return detect(snapshot(changes), changes);
+  }
+
+  private Snapshot snapshot(RosterChangeSet changes) {
+    Map<Integer, ScheduleState> schedules = new LinkedHashMap<>();
+    for (Schedule schedule : scheduleRepository.findAll()) {
+      schedules.put(
+          schedule.getId(),
+          new ScheduleState(
+              schedule.getId(),
+              schedule.getName(),
+              ShiftWindow.of(schedule.getStartTime(), schedule.getEndTime()),
+              schedule.getMaxEmployees() != null ? schedule.getMaxEmployees() : 0,
+              -1));
+    }
+    Map<Integer, Integer> headcounts = new HashMap<>();
+    for (ScheduleHeadcount headcount : employeeRepository.countEmployeesPerSchedule()) {
+      headcounts.put(headcount.getScheduleId(), Math.toIntExact(headcount.getEmployees()));
+    }
+
+    Set<Integer> employeeIds =
+        changes.assignments().stream()
+            .filter(Objects::nonNull)
+            .map(ScheduleAssignment::employeeId)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toSet());
+    Map<Integer, Integer> scheduleOfEmployee = new HashMap<>();
+    Set<Integer> onRotation = new HashSet<>();
+    if (!employeeIds.isEmpty()) {
+      for (EmployeeScheduleRef ref : employeeRepository.findScheduleRefsByIds(employeeIds)) {
+        scheduleOfEmployee.put(ref.getEmployeeId(), ref.getScheduleId());
+      }
+      onRotation.addAll(rotationAssignmentRepository.findEmployeeIdsIn(employeeIds));
+    }
+
+    // Existing rotations only matter when a schedule they use changes
+    List<Pattern> patterns = new ArrayList<>();
+    if (!changes.schedules().isEmpty()) {
+      for (RotationPattern pattern : rotationPatternRepository.findAll()) {
+        List<Integer> steps = new ArrayList<>(pattern.getCycleLength());
+        for (int i = 0; i < pattern.getCycleLength(); i++) {
+          steps.add(pattern.scheduleIdAt(i));
+        }
+        patterns.add(new Pattern(pattern.getId(), pattern.getName(), steps));
+      }
+    }
+    return new Snapshot(schedules, headcounts, scheduleOfEmployee, onRotation, patterns);
+  }
+
+  /** Every conflict of the change set against the snapshot, errors first. Does not touch it. */
+  static RosterValidation detect(Snapshot snapshot, RosterChangeSet changes) {
+    Conflicts conflicts = new Conflicts();
+
+    // Apply the schedule edits, invalid ones are reported and left out
+    Map<Integer, ScheduleState> edited = new LinkedHashMap<>(snapshot.schedules());
+    Map<Integer, Integer> removedBy = new HashMap<>();
+    List<ScheduleState> states = new ArrayList<>();
+    List<ScheduleEdit> scheduleEdits = changes.schedules();
+    for (int i = 0; i < scheduleEdits.size(); i++) {
+      String error = apply(scheduleEdits.get(i), i, snapshot, edited, removedBy, states);
+      if (error != null) {
+        conflicts.error(Type.INVALID_EDIT, error, List.of(), List.of(i), null);
+      }
+    }
+    states.addAll(0, edited.values());
+
+    checkDuplicateNames(snapshot, states, conflicts);
+    checkDuplicateWindows(states, conflicts);
+    Map<Integer, Integer> deltas = checkAssignments(snapshot, changes, edited, conflicts);
+    checkCapacity(snapshot, edited, removedBy, deltas, conflicts);
+    checkRotations(snapshot, changes, edited, removedBy, conflicts);
+    // Warnings only, possibly many
+    checkOverlaps(states, conflicts);
+    return conflicts.result();
+  }
+
+  // Returns an error message, or null once the edit is applied
+  private static String apply(
+      ScheduleEdit edit,
+      int index,
+      Snapshot snapshot,
+      Map<Integer, ScheduleState> edited,
+      Map<Integer, Integer> removedBy,
+      List<ScheduleState> added) {
+    if (edit == null) {
+      return "Empty edit";
+    }
+    if (edit.maxEmployees() != null && edit.maxEmployees() <= 0) {
+      return "Max employees must be positive";
+    }
+    if (edit.name() != null && edit.name().isBlank()) {
+      return "Schedule name cannot be blank";
+    }
+    if ((edit.startTime() == null) != (edit.endTime() == null)) {
+      return "Start and end times must change together";
+    }
+    ShiftWindow window = ShiftWindow.of(edit.startTime(), edit.endTime());
+    if (window != null && window.lengthMinutes() == 0) {
+      return "A schedule cannot start and end at the same time";
+    }
+    if (edit.scheduleId() == null) {
+      if (edit.remove() || edit.name() == null || window == null || edit.maxEmployees() == null) {
+        return "A new schedule needs a name, start/end times and max employees";
+      }
+      added.add(new ScheduleState(null, edit.name(), window, edit.maxEmployees(), index));
+      return null;
+    }
+    if (!snapshot.schedules().containsKey(edit.scheduleId())) {
+      return "Schedule not found: " + edit.scheduleId();
+    }
+    ScheduleState current = edited.get(edit.scheduleId());
+    if (current == null) {
+      return "Schedule " + edit.scheduleId() + " is removed by an earlier edit";
+    }
+    if (edit.remove()) {
+      edited.remove(edit.scheduleId());
+      removedBy.put(edit.scheduleId(), index);
+      return null;
+    }
+    edited.put(
+        edit.scheduleId(),
+        new ScheduleState(
+            current.id(),
+            edit.name() != null ? edit.name() : current.name(),
+            window != null ? window : current.window(),
+            edit.maxEmployees() != null ? edit.maxEmployees() : current.maxEmployees(),
+            index));
+    return null;
+  }
+
+  // Only names given by the change set count, a time or capacity edit of a schedule that already
+  // shared its name with another one is not blocked
+  private static void checkDuplicateNames(
+      Snapshot snapshot, List<ScheduleState> states, Conflicts conflicts) {
+    List<ScheduleState> named =
+        states.stream()
+            .filter(state -> state.name() != null)
+            .sorted(Comparator.comparing(RosterConflictDetector::nameKey))
+            .toList();
+    forEachRun(named, (a, b) -> nameKey(a).equals(nameKey(b)), run -> {
+      if (run.size() > 1 && run.stream().anyMatch(state -> isNamedByEdit(snapshot, state))) {
+        conflicts.error(Type.DUPLICATE_NAME,
+            run.size() + " schedules are named '" + run.get(0).name().strip() + "'",
+            ids(run), editIndexes(run), null);
+      }
+    });
+  }
+
+  private static void checkDuplicateWindows(List<ScheduleState> states, Conflicts conflicts) {
+    forEachRun(byWindow(states), (a, b) -> a.window().equals(b.window()), run -> {
+      if (run.size() > 1 && anyTouched(run)) {
+        conflicts.warning(Type.DUPLICATE_WINDOW,
+            run.size() + " schedules run " + format(run.get(0).window()),
+            ids(run), editIndexes(run), null);
+      }
+    });
+  }
+
+  private static List<ScheduleState> byWindow(List<ScheduleState> states) {
+    return states.stream()
+        .filter(state -> state.window() != null && state.window().lengthMinutes() > 0)
+        .sorted(Comparator.comparingInt((ScheduleState state) -> state.window().startMinute())
+            .thenComparingInt(state -> state.window().endMinute()))
+        .toList();
+  }
+
+  /**
+   * Reports invalid and repeated assignments, returns the change in headcount per schedule once
+   * the assignments are applied. For an employee assigned more than once the last one counts.
+   */
+  private static Map<Integer, Integer> checkAssignments(
+      Snapshot snapshot,
+      RosterChangeSet changes,
+      Map<Integer, ScheduleState> edited,
+      Conflicts conflicts) {
+    List<ScheduleAssignment> assignments = changes.assignments();
+    List<Integer> valid = new ArrayList<>(assignments.size());
+    for (int i = 0; i < assignments.size(); i++) {
+      ScheduleAssignment assignment = assignments.get(i);
+      String error = null;
+      if (assignment == null || assignment.employeeId() == null || assignment.scheduleId() == null) {
+        error = "An assignment needs an employee and a schedule";
+      } else if (!snapshot.scheduleOfEmployee().containsKey(assignment.employeeId())) {
+        error = "Employee not found: " + assignment.employeeId();
+      } else if (!edited.containsKey(assignment.scheduleId())) {
+        error = snapshot.schedules().containsKey(assignment.scheduleId())
+            ? "Schedule " + assignment.scheduleId() + " is removed by this change set"
+            : "Schedule not found: " + assignment.scheduleId();
+      }
+      if (error != null) {
+        conflicts.error(Type.INVALID_EDIT, error, List.of(), List.of(i),
+            assignment != null ? assignment.employeeId() : null);
+      } else {
+        valid.add(i);
+      }
+    }
+
+    valid.sort(Comparator.comparing((Integer i) -> assignments.get(i).employeeId())
+        .thenComparingInt(i -> i));
+    Map<Integer, Integer> deltas = new HashMap<>();
+    forEachRun(valid, (a, b) -> assignments.get(a).employeeId().equals(assignments.get(b).employeeId()),
+        run -> {
+          Integer employeeId = assignments.get(run.get(0)).employeeId();
+          if (run.size() > 1) {
+            Set<Integer> targets = new HashSet<>();
+            run.forEach(i -> targets.add(assignments.get(i).scheduleId()));
+            if (targets.size() > 1) {
+              conflicts.error(Type.DUPLICATE_ASSIGNMENT,
+                  "Employee " + employeeId + " is assigned to schedules " + targets,
+                  List.copyOf(targets), run, employeeId);
+            } else {
+              conflicts.warning(Type.DUPLICATE_ASSIGNMENT,
+                  "Employee " + employeeId + " is assigned " + run.size() + " times to the same schedule",
+                  List.copyOf(targets), run, employeeId);
+            }
+          }
+          if (snapshot.employeesOnRotation().contains(employeeId)) {
+            conflicts.warning(Type.ON_ROTATION,
+                "Employee " + employeeId + " follows a rotation, the schedule only applies once taken off it",
+                List.of(), run, employeeId);
+          }
+          Integer from = snapshot.scheduleOfEmployee().get(employeeId);
+          Integer to = assignments.get(run.get(run.size() - 1)).scheduleId();
+          if (!to.equals(from)) {
+            if (from != null) {
+              deltas.merge(from, -1, Integer::sum);
+            }
+            deltas.merge(to, 1, Integer::sum);
+          }
+        });
+    return deltas;
+  }
+
+  private static void checkCapacity(
+      Snapshot snapshot,
+      Map<Integer, ScheduleState> edited,
+      Map<Integer, Integer> removedBy,
+      Map<Integer, Integer> deltas,
+      Conflicts conflicts) {
+    for (ScheduleState state : edited.values()) {
+      int delta = deltas.getOrDefault(state.id(), 0);
+      if (!state.touched() && delta <= 0) {
+        continue;
+      }
+      int headcount = snapshot.headcounts().getOrDefault(state.id(), 0) + delta;
+      if (headcount > state.maxEmployees()) {
+        conflicts.error(Type.OVER_CAPACITY,
+            "Schedule " + state.id() + " would have " + headcount + " employees for "
+                + state.maxEmployees() + " places",
+            List.of(state.id()), state.touched() ? List.of(state.editIndex()) : List.of(), null);
+      }
+    }
+    removedBy.forEach((scheduleId, index) -> {
+      int headcount =
+          snapshot.headcounts().getOrDefault(scheduleId, 0) + deltas.getOrDefault(scheduleId, 0);
+      if (headcount > 0) {
+        conflicts.error(Type.INVALID_EDIT,
+            "Schedule " + scheduleId + " is removed while " + headcount + " employees stay assigned to it",
+            List.of(scheduleId), List.of(index), null);
+      }
+    });
+  }
+
+  /**
+   * New rotations are checked in full, existing ones when a schedule they use is edited. A shift
+   * that has not ended when the next one starts double-books the employees on the rotation.
+   */
+  private static void checkRotations(
+      Snapshot snapshot,
+      RosterChangeSet changes,
+      Map<Integer, ScheduleState> edited,
+      Map<Integer, Integer> removedBy,
+      Conflicts conflicts) {
+    for (Pattern pattern : snapshot.patterns()) {
+      Set<Integer> editIndexes = new TreeSet<>();
+      boolean removed = false;
+      for (Integer scheduleId : new TreeSet<>(
+          pattern.scheduleIds().stream().filter(Objects::nonNull).toList())) {
+        Integer removedIndex = removedBy.get(scheduleId);
+        ScheduleState state = edited.get(scheduleId);
+        if (removedIndex != null) {
+          conflicts.error(Type.INVALID_EDIT,
+              "Schedule " + scheduleId + " is removed but rotation '" + pattern.name() + "' uses it",
+              List.of(scheduleId), List.of(removedIndex), null);
+          removed = true;
+        } else if (state != null && state.touched()) {
+          editIndexes.add(state.editIndex());
+        }
+      }
+      if (!removed && !editIndexes.isEmpty()) {
+        checkRotation("Rotation '" + pattern.name() + "'", pattern.scheduleIds(), edited,
+            List.copyOf(editIndexes), conflicts);
+      }
+    }
+
+    List<RotationPatternRequest> rotations = changes.rotations();
+    for (int i = 0; i < rotations.size(); i++) {
+      RotationPatternRequest rotation = rotations.get(i);
+      String error = null;
+      if (rotation == null || rotation.name() == null || rotation.name().isBlank()) {
+        error = "Rotation name is required";
+      } else if (rotation.scheduleIds() == null || rotation.scheduleIds().isEmpty()
+          || rotation.scheduleIds().size() > RotationService.MAX_CYCLE_LENGTH) {
+        error = "A rotation needs between 1 and " + RotationService.MAX_CYCLE_LENGTH + " days";
+      } else if (rotation.scheduleIds().stream().allMatch(Objects::isNull)) {
+        error = "A rotation needs at least one working day";
+      } else {
+        Set<Integer> missing = rotation.scheduleIds().stream()
+            .filter(id -> id != null && !edited.containsKey(id))
+            .collect(Collectors.toCollection(TreeSet::new));
+        if (!missing.isEmpty()) {
+          error = "Schedules not found: " + missing;
+        }
+      }
+      if (error != null) {
+        conflicts.error(Type.INVALID_EDIT, error, List.of(), List.of(i), null);
+      } else {
+        checkRotation("Rotation '" + rotation.name() + "'", rotation.scheduleIds(), edited,
+            List.of(i), conflicts);
+      }
+    }
+  }
+
+  private static void checkRotation(
+      String label,
+      List<Integer> steps,
+      Map<Integer, ScheduleState> edited,
+      List<Integer> editIndexes,
+      Conflicts conflicts) {
+    int length = steps.size();
+    // Each step starts a day after the previous one, so the shifts come out sorted by start
+    long previousEnd = Long.MIN_VALUE;
+    int previousStep = -1;
+    for (int day = 0; day <= length; day++) {
+      int step = day % length;
+      Integer scheduleId = steps.get(step);
+      ScheduleState state = scheduleId != null ? edited.get(scheduleId) : null;
+      ShiftWindow window = state != null ? state.window() : null;
+      if (window == null) {
+        continue;
+      }
+      long start = (long) day * ShiftWindow.MINUTES_PER_DAY + window.startMinute();
+      if (start < previousEnd) {
+        Integer previousId = steps.get(previousStep);
+        conflicts.error(Type.ROTATION_OVERLAP,
+            label + ": the shift of day " + (step + 1) + " starts before the shift of day "
+                + (previousStep + 1) + " ends",
+            scheduleId.equals(previousId) ? List.of(scheduleId) : List.of(previousId, scheduleId),
+            editIndexes, null);
+      }
+      previousEnd = start + window.lengthMinutes();
+      previousStep = step;
+    }
+  }
+
+  /**
+   * Sweep over the day: schedules with the same window are grouped, the windows sorted by start and
+   * a heap keeps the running ones by end. Windows past midnight are split in two, a pair is reported
+   * once. Windows nobody edits are only compared with edited ones, so every pair visited is a
+   * conflict and the sweep stops once the list is full.
+   */
+  private static void checkOverlaps(List<ScheduleState> states, Conflicts conflicts) {
+    record Interval(int group, int start, int end) {}
+
+    List<List<ScheduleState>> groups = new ArrayList<>();
+    forEachRun(byWindow(states), (a, b) -> a.window().equals(b.window()), groups::add);
+    List<Interval> intervals = new ArrayList<>();
+    for (int g = 0; g < groups.size(); g++) {
+      ShiftWindow window = groups.get(g).get(0).window();
+      if (window.isOvernight()) {
+        intervals.add(new Interval(g, window.startMinute(), ShiftWindow.MINUTES_PER_DAY));
+        if (window.endMinute() > 0) {
+          intervals.add(new Interval(g, 0, window.endMinute()));
+        }
+      } else {
+        intervals.add(new Interval(g, window.startMinute(), window.endMinute()));
+      }
+    }
+    intervals.sort(Comparator.comparingInt(Interval::start));
+
+    Comparator<Interval> byEnd = Comparator.comparingInt(Interval::end);
+    PriorityQueue<Interval> runningTouched = new PriorityQueue<>(byEnd);
+    PriorityQueue<Interval> runningUntouched = new PriorityQueue<>(byEnd);
+    Set<Long> reported = new HashSet<>();
+    for (Interval interval : intervals) {
+      while (!runningTouched.isEmpty() && runningTouched.peek().end() <= interval.start()) {
+        runningTouched.poll();
+      }
+      while (!runningUntouched.isEmpty() && runningUntouched.peek().end() <= interval.start()) {
+        runningUntouched.poll();
+      }
+      List<ScheduleState> group = groups.get(interval.group());
+      boolean touched = anyTouched(group);
+      List<Interval> running = new ArrayList<>(runningTouched);
+      if (touched) {
+        running.addAll(runningUntouched);
+      }
+      for (Interval other : running) {
+        long pair = ((long) Math.min(interval.group(), other.group()) << 32)
+            | Math.max(interval.group(), other.group());
+        if (other.group() == interval.group() || !reported.add(pair)) {
+          continue; // Other half of an overnight window
+        }
+        if (conflicts.full()) {
+          return;
+        }
+        List<ScheduleState> otherGroup = groups.get(other.group());
+        List<ScheduleState> both = new ArrayList<>(otherGroup);
+        both.addAll(group);
+        conflicts.warning(Type.OVERLAP,
+            describe(otherGroup) + " (" + format(otherGroup.get(0).window()) + ") overlaps "
+                + describe(group) + " (" + format(group.get(0).window()) + ")",
+            ids(both), editIndexes(both), null);
+      }
+      (touched ? runningTouched : runningUntouched).add(interval);
+    }
+  }
+
+  // Calls action on every run of neighbours that are the same, single elements included
+  private static <T> void forEachRun(List<T> sorted, BiPredicate<T, T> same, Consumer<List<T>> action) {
+    int from = 0;
+    for (int i = 1; i <= sorted.size(); i++) {
+      if (i == sorted.size() || !same.test(sorted.get(from), sorted.get(i))) {
+        action.accept(sorted.subList(from, i));
+        from = i;
+      }
+    }
+  }
+
+  private static boolean anyTouched(List<ScheduleState> states) {
+    return states.stream().anyMatch(ScheduleState::touched);
+  }
+
+  // New, or renamed to something else than the stored name
+  private static boolean isNamedByEdit(Snapshot snapshot, ScheduleState state) {
+    if (!state.touched()) {
+      return false;
+    }
+    ScheduleState stored = state.id() != null ? snapshot.schedules().get(state.id()) : null;
+    return stored == null || stored.name() == null || !nameKey(stored).equals(nameKey(state));
+  }
+
+  private static String nameKey(ScheduleState state) {
+    return state.name().strip().toLowerCase(Locale.ROOT);
+  }
+
+  private static List<Integer> ids(List<ScheduleState> states) {
+    return states.stream().map(ScheduleState::id).filter(Objects::nonNull).toList();
+  }
+
+  private static List<Integer> editIndexes(List<ScheduleState> states) {
+    return states.stream().filter(ScheduleState::touched).map(ScheduleState::editIndex).toList();
+  }
+
+  private static String describe(List<ScheduleState> group) {
+    if (group.size() > 1) {
+      return group.size() + " schedules";
+    }
+    ScheduleState state = group.get(0);
+    return state.id() != null ? "Schedule " + state.id() : "New schedule '" + state.name() + "'";
+  }
+
+  private static String format(ShiftWindow window) {
+    return String.format("%02d:%02d-%02d:%02d", window.startMinute() / 60, window.startMinute() % 60,
+        window.endMinute() / 60, window.endMinute() % 60);
+  }
+
+  /** Conflicts found so far, every error and up to MAX_WARNINGS warnings. */
+  private static final class Conflicts {
+
+    private final List<RosterConflict> errors = new ArrayList<>();
+    private final List<RosterConflict> warnings = new ArrayList<>();
+    private boolean truncated;
+
+    void error(Type type, String message, List<Integer> scheduleIds, List<Integer> editIndexes,
+        Integer employeeId) {
+      errors.add(new RosterConflict(type, Severity.ERROR, message, scheduleIds, editIndexes, employeeId));
+    }
+
+    void warning(Type type, String message, List<Integer> scheduleIds, List<Integer> editIndexes,
+        Integer employeeId) {
+      if (!full()) {
+        warnings.add(new RosterConflict(type, Severity.WARNING, message, scheduleIds, editIndexes, employeeId));
+      }
+    }
+
+    boolean full() {
+      if (warnings.size() >= MAX_WARNINGS) {
+        truncated = true;
+        return true;
+      }
+      return false;
+    }
+
+    RosterValidation result() {
+      List<RosterConflict> all = new ArrayList<>(errors);
+      all.addAll(warnings);
+      return new RosterValidation(errors.isEmpty(), errors.size(), warnings.size(), truncated, all);
+    }
+  }
+}
@@ -0,0 +1,430 @@
+package com.lazardev.FlexCrew.service;
+
+import com.lazardev.FlexCrew.dao.RotationAssignmentRepository;
+import com.lazardev.FlexCrew.dao.RotationPatternRepository;
+import com.lazardev.FlexCrew.dao.projection.RotationAssignmentRef;
+import com.lazardev.FlexCrew.entity.RotationPattern;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Rosters of the employees on a rotation, held in memory for a horizon of horizon-months months
+ * from the first day of the current month.
+ *
+ * <p>Employees following the same pattern in the same phase share one roster, a short per day
+ * holding the schedule of that day (0 for a day off). Per schedule and day a bitset over the
+ * employees tells who works it. Snapshots are immutable, readers never lock. Moving one employee
+ * copies the bitsets of the days it changes, the daily rebuild lays everything out again.
+ */
+@Slf4j
+@Component
+public class RosterIndex {
+
+  /** Pattern as the index needs it, schedule id per step and 0 on a day off. */
+  public record Pattern(int id, int[] steps) {}
+
+  public record Assignment(int employeeId, int patternId, LocalDate anchorDate) {}
+
+  public record Shift(LocalDate date, int scheduleId) {}
+
+  private final RotationPatternRepository rotationPatternRepository;
+  private final RotationAssignmentRepository rotationAssignmentRepository;
+  private final int horizonMonths;
+
+  private volatile Roster roster;
+
+  @Autowired
+  public RosterIndex(
+      RotationPatternRepository rotationPatternRepository,
+      RotationAssignmentRepository rotationAssignmentRepository,
+      @Value("${application.schedules.rotations.horizon-months:12}") int horizonMonths) {
+    this.rotationPatternRepository = rotationPatternRepository;
+    this.rotationAssignmentRepository = rotationAssignmentRepository;
+    this.horizonMonths = horizonMonths;
+    this.roster = Roster.build(LocalDate.now().withDayOfMonth(1), 0, List.of(), List.of());
+  }
+
+  /** Reloads every pattern and assignment. Runs on startup and daily, the horizon moves monthly. */
+  @EventListener(ApplicationReadyEvent.class)
+  @Scheduled(cron = "${application.schedules.rotations.cron:0 5 0 * * *}")
+  public synchronized void rebuild() {
+    long started = System.nanoTime();
+    List<Pattern> patterns = new ArrayList<>();
+    for (RotationPattern pattern : rotationPatternRepository.findAll()) {
+      int[] steps = new int[pattern.getCycleLength()];
+      for (int i = 0; i < steps.length; i++) {
+        Integer scheduleId = pattern.scheduleIdAt(i);
+        steps[i] = scheduleId != null ? scheduleId : 0;
+      }
+      patterns.add(new Pattern(pattern.getId(), steps));
+    }
+    List<Assignment> assignments = new ArrayList<>();
+    for (RotationAssignmentRef ref : rotationAssignmentRepository.findAllRefs()) {
+      assignments.add(new Assignment(ref.getEmployeeId(), ref.getPatternId(), ref.getAnchorDate()));
+    }
+    LocalDate start = LocalDate.now().withDayOfMonth(1);
+    int days = (int) ChronoUnit.DAYS.between(start, start.plusMonths(horizonMonths));
+    roster = Roster.build(start, days, patterns, assignments);
+    log.info(
+        "Rebuilt rosters of {} employees over {} days in {} ms",
+        assignments.size(),
+        days,
+        (System.nanoTime() - started) / 1_000_000);
+  }
+
+  /**
+   * Puts the employee on the assignment, or takes it off its rotation if null, once the surrounding
+   * transaction commits. Only the rosters of the schedules the employee leaves or joins are
+   * rewritten, a pattern created since the last rebuild is not known yet and rebuilds everything.
+   */
+  public void movedAfterCommit(int employeeId, Assignment assignment) {
+    afterCommit(() -> move(employeeId, assignment));
+  }
+
+  // Synchronized with rebuild, a move committed while a rebuild was reading is applied on top of it
+  private synchronized void move(int employeeId, Assignment assignment) {
+    Roster moved = roster.with(employeeId, assignment);
+    if (moved != null) {
+      roster = moved;
+    } else {
+      rebuild();
+    }
+  }
+
+  public Roster roster() {
+    return roster;
+  }
+
+  private static void afterCommit(Runnable action) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      action.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            action.run();
+          }
+        });
+  }
+
+  /** Immutable rosters over a horizon of days starting at start. */
+  public static final class Roster {
+
+    private final LocalDate start;
+    private final int days;
+    private final Map<Integer, Pattern> patterns;
+    // Sorted ids of the employees and the slot of each, a slot is the bit of the employee in the
+    // bitsets. A build numbers the slots in id order, moves append new slots and free old ones
+    private final int[] employeeIds;
+    private final int[] slotOfEmployee;
+    // -1 for a freed slot
+    private final int[] employeeOfSlot;
+    private final short[][] rosterOfSlot;
+    private final int[] scheduleIds;
+    private final Map<Integer, Integer> scheduleIndex;
+    // [schedule index * days + day], null when nobody works the schedule that day
+    private final BitSet[] working;
+
+    private Roster(
+        LocalDate start,
+        int days,
+        Map<Integer, Pattern> patterns,
+        int[] employeeIds,
+        int[] slotOfEmployee,
+        int[] employeeOfSlot,
+        short[][] rosterOfSlot,
+        int[] scheduleIds,
+        Map<Integer, Integer> scheduleIndex,
+        BitSet[] working) {
+      this.start = start;
+      this.days = days;
+      this.patterns = patterns;
+      this.employeeIds = employeeIds;
+      this.slotOfEmployee = slotOfEmployee;
+      this.employeeOfSlot = employeeOfSlot;
+      this.rosterOfSlot = rosterOfSlot;
+      this.scheduleIds = scheduleIds;
+      this.scheduleIndex = scheduleIndex;
+      this.working = working;
+    }
+
+    /**
+     * Lays out the rosters. Assignments to unknown or empty patterns are skipped. Costs one pass
+     * per distinct (pattern, phase) over the horizon plus one bit per working day of every
+     * employee. The bitsets of a schedule span the employees up to the last one working it.
+     */
+    public static Roster build(
+        LocalDate start, int days, List<Pattern> patterns, List<Assignment> assignments) {
+      Map<Integer, Pattern> patternsById = new HashMap<>();
+      Map<Integer, Integer> scheduleIndex = new HashMap<>();
+      List<Integer> scheduleIds = new ArrayList<>();
+      for (Pattern pattern : patterns) {
+        if (pattern.steps().length == 0) {
+          continue;
+        }
+        patternsById.put(pattern.id(), pattern);
+        for (int scheduleId : pattern.steps()) {
+          if (scheduleId != 0 && !scheduleIndex.containsKey(scheduleId)) {
+            scheduleIndex.put(scheduleId, scheduleIds.size());
+            scheduleIds.add(scheduleId);
+          }
+        }
+      }
+      if (scheduleIds.size() >= Short.MAX_VALUE) {
+        throw new IllegalStateException("Too many schedules in rotations: " + scheduleIds.size());
+      }
+
+      Assignment[] sorted =
+          assignments.stream()
+              .filter(assignment -> patternsById.containsKey(assignment.patternId()))
+              .sorted((a, b) -> Integer.compare(a.employeeId(), b.employeeId()))
+              .toArray(Assignment[]::new);
+      int[] employeeIds = new int[sorted.length];
+      int[] slots = new int[sorted.length];
+      short[][] rosterOfEmployee = new short[sorted.length][];
+      // Rosters shared by every employee in the same pattern and phase
+      Map<Long, short[]> shared = new HashMap<>();
+      Map<short[], int[]> schedulesOfRoster = new IdentityHashMap<>();
+      int[] lastSlot = new int[scheduleIds.size()];
+      for (int e = 0; e < sorted.length; e++) {
+        Assignment assignment = sorted[e];
+        Pattern pattern = patternsById.get(assignment.patternId());
+        int phase = phase(pattern, assignment.anchorDate(), start);
+        short[] roster =
+            shared.computeIfAbsent(
+                ((long) pattern.id() << 32) | phase,
+                key -> layOut(pattern, phase, days, scheduleIndex));
+        employeeIds[e] = assignment.employeeId();
+        slots[e] = e;
+        rosterOfEmployee[e] = roster;
+        // Slots grow with e, the last write is the last member
+        for (int schedule :
+            schedulesOfRoster.computeIfAbsent(roster, key -> schedulesIn(key, scheduleIds.size()))) {
+          lastSlot[schedule] = e;
+        }
+      }
+      BitSet[] working = new BitSet[scheduleIds.size() * days];
+      for (int e = 0; e < sorted.length; e++) {
+        short[] roster = rosterOfEmployee[e];
+        for (int day = 0; day < days; day++) {
+          if (roster[day] != 0) {
+            int slot = (roster[day] - 1) * days + day;
+            if (working[slot] == null) {
+              working[slot] = new BitSet(lastSlot[roster[day] - 1] + 1);
+            }
+            working[slot].set(e);
+          }
+        }
+      }
+      return new Roster(
+          start,
+          days,
+          Map.copyOf(patternsById),
+          employeeIds,
+          slots,
+          employeeIds.clone(),
+          rosterOfEmployee,
+          scheduleIds.stream().mapToInt(Integer::intValue).toArray(),
+          Map.copyOf(scheduleIndex),
+          working);
+    }
+
+    /**
+     * Snapshot with the employee on the assignment, or off any rotation if null. The bitsets of the
+     * days the employee changes schedule are copied, everything else is shared with this snapshot.
+     * Null if the pattern is not part of this snapshot.
+     */
+    Roster with(int employeeId, Assignment assignment) {
+      short[] next = null;
+      if (assignment != null) {
+        Pattern pattern = patterns.get(assignment.patternId());
+        if (pattern == null) {
+          return null;
+        }
+        next = layOut(pattern, phase(pattern, assignment.anchorDate(), start), days, scheduleIndex);
+      }
+      int position = Arrays.binarySearch(employeeIds, employeeId);
+      if (position < 0 && next == null) {
+        return this;
+      }
+      int[] ids = employeeIds;
+      int[] slots = slotOfEmployee;
+      int[] owners = employeeOfSlot;
+      short[][] rosters;
+      short[] previous = null;
+      int slot;
+      if (position >= 0) {
+        slot = slotOfEmployee[position];
+        previous = rosterOfSlot[slot];
+        rosters = rosterOfSlot.clone();
+        rosters[slot] = next;
+        if (next == null) {
+          ids = remove(employeeIds, position);
+          slots = remove(slotOfEmployee, position);
+          owners = employeeOfSlot.clone();
+          owners[slot] = -1;
+        }
+      } else {
+        slot = employeeOfSlot.length;
+        int insertion = -position - 1;
+        ids = insert(employeeIds, insertion, employeeId);
+        slots = insert(slotOfEmployee, insertion, slot);
+        owners = Arrays.copyOf(employeeOfSlot, slot + 1);
+        owners[slot] = employeeId;
+        rosters = Arrays.copyOf(rosterOfSlot, slot + 1);
+        rosters[slot] = next;
+      }
+      BitSet[] moved = working.clone();
+      for (int day = 0; day < days; day++) {
+        int before = previous != null ? previous[day] : 0;
+        int after = next != null ? next[day] : 0;
+        if (before != after) {
+          if (before != 0) {
+            flip(moved, (before - 1) * days + day, slot, false);
+          }
+          if (after != 0) {
+            flip(moved, (after - 1) * days + day, slot, true);
+          }
+        }
+      }
+      return new Roster(
+          start, days, patterns, ids, slots, owners, rosters, scheduleIds, scheduleIndex, moved);
+    }
+
+    private static void flip(BitSet[] working, int index, int slot, boolean value) {
+      BitSet bits = working[index] != null ? (BitSet) working[index].clone() : new BitSet(slot + 1);
+      bits.set(slot, value);
+      working[index] = bits.isEmpty() ? null : bits;
+    }
+
+    private static int[] insert(int[] values, int index, int value) {
+      int[] copy = new int[values.length + 1];
+      System.arraycopy(values, 0, copy, 0, index);
+      copy[index] = value;
+      System.arraycopy(values, index, copy, index + 1, values.length - index);
+      return copy;
+    }
+
+    private static int[] remove(int[] values, int index) {
+      int[] copy = new int[values.length - 1];
+      System.arraycopy(values, 0, copy, 0, index);
+      System.arraycopy(values, index + 1, copy, index, copy.length - index);
+      return copy;
+    }
+
+    private static int phase(Pattern pattern, LocalDate anchorDate, LocalDate start) {
+      return Math.floorMod(ChronoUnit.DAYS.between(anchorDate, start), pattern.steps().length);
+    }
+
+    // Indexes of the schedules worked at least once in the roster
+    private static int[] schedulesIn(short[] roster, int scheduleCount) {
+      BitSet schedules = new BitSet(scheduleCount);
+      for (short schedule : roster) {
+        if (schedule != 0) {
+          schedules.set(schedule - 1);
+        }
+      }
+      return schedules.stream().toArray();
+    }
+
+    private static short[] layOut(
+        Pattern pattern, int phase, int days, Map<Integer, Integer> scheduleIndex) {
+      int[] steps = pattern.steps();
+      short[] roster = new short[days];
+      int step = phase;
+      for (int day = 0; day < days; day++) {
+        if (steps[step] != 0) {
+          roster[day] = (short) (scheduleIndex.get(steps[step]) + 1);
+        }
+        step = step + 1 == steps.length ? 0 : step + 1;
+      }
+      return roster;
+    }
+
+    public LocalDate start() {
+      return start;
+    }
+
+    /** Day after the horizon. */
+    public LocalDate end() {
+      return start.plusDays(days);
+    }
+
+    public boolean covers(LocalDate date) {
+      return !date.isBefore(start) && date.isBefore(end());
+    }
+
+    public boolean isOnRotation(int employeeId) {
+      return Arrays.binarySearch(employeeIds, employeeId) >= 0;
+    }
+
+    /** Employees on a rotation working the schedule on the date, in id order. */
+    public int[] employeesOn(int scheduleId, LocalDate date) {
+      BitSet bits = bitsOf(scheduleId, date);
+      if (bits == null) {
+        return new int[0];
+      }
+      int[] ids = new int[bits.cardinality()];
+      for (int e = bits.nextSetBit(0), i = 0; e >= 0; e = bits.nextSetBit(e + 1), i++) {
+        ids[i] = employeeOfSlot[e];
+      }
+      // Slots added by moves are out of id order
+      Arrays.sort(ids);
+      return ids;
+    }
+
+    public int countOn(int scheduleId, LocalDate date) {
+      BitSet bits = bitsOf(scheduleId, date);
+      return bits != null ? bits.cardinality() : 0;
+    }
+
+    /** Working days of the employee from from to to inclusive, clipped to the horizon. */
+    public List<Shift> shiftsOf(int employeeId, LocalDate from, LocalDate to) {
+      int e = Arrays.binarySearch(employeeIds, employeeId);
+      if (e < 0) {
+        return List.of();
+      }
+      short[] roster = rosterOfSlot[slotOfEmployee[e]];
+      int first = (int) Math.max(0, ChronoUnit.DAYS.between(start, from));
+      int last = (int) Math.min(days - 1, ChronoUnit.DAYS.between(start, to));
+      List<Shift> shifts = new ArrayList<>();
+      for (int day = first; day <= last; day++) {
+        if (roster[day] != 0) {
+          shifts.add(new Shift(start.plusDays(day), scheduleIds[roster[day] - 1]));
+        }
+      }
+      return shifts;
+    }
+
+    public List<Shift> shiftsOf(int employeeId, YearMonth month) {
+      return shiftsOf(employeeId, month.atDay(1), month.atEndOfMonth());
+    }
+
+    private BitSet bitsOf(int scheduleId, LocalDate date) {
+      Integer schedule = scheduleIndex.get(scheduleId);
+      if (schedule == null || !covers(date)) {
+        return null;
+      }
+      return working[schedule * days + (int) ChronoUnit.DAYS.between(start, date)];
+    }
+  }
+}
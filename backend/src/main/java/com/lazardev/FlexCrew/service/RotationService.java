@@ -0,0 +1,173 @@
+package com.lazardev.FlexCrew.service;
+
+import com.lazardev.FlexCrew.dao.EmployeeRepository;
+import com.lazardev.FlexCrew.dao.RotationAssignmentRepository;
+import com.lazardev.FlexCrew.dao.RotationPatternRepository;
+import com.lazardev.FlexCrew.dao.ScheduleRepository;
+import com.lazardev.FlexCrew.dto.calendar.ShiftDay;
+import com.lazardev.FlexCrew.dto.conflict.RosterChangeSet;
+import com.lazardev.FlexCrew.dto.conflict.RosterConflict;
+import com.lazardev.FlexCrew.dto.conflict.RosterValidation;
+import com.lazardev.FlexCrew.dto.rotation.RotationPatternRequest;
+import com.lazardev.FlexCrew.dto.rotation.ScheduleRoster;
+import com.lazardev.FlexCrew.entity.RotationAssignment;
+import com.lazardev.FlexCrew.entity.RotationPattern;
+import com.lazardev.FlexCrew.entity.RotationStep;
+import com.lazardev.FlexCrew.entity.Schedule;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Rotation patterns and the employees following them. Writes go to the database and to the shift
+ * calendar in one transaction, the in-memory rosters are updated once it commits. Reads are served
+ * by the RosterIndex.
+ */
+@Service
+@RequiredArgsConstructor
+public class RotationService {
+
+  public static final int MAX_CYCLE_LENGTH = 366;
+
+  private final RotationPatternRepository rotationPatternRepository;
+  private final RotationAssignmentRepository rotationAssignmentRepository;
+  private final ScheduleRepository scheduleRepository;
+  private final EmployeeRepository employeeRepository;
+  private final ShiftCalendarService shiftCalendarService;
+  private final RosterIndex rosterIndex;
+  private final RosterConflictDetector conflictDetector;
+
+  public List<RotationPattern> findAllPatterns() {
+    return rotationPatternRepository.findAll();
+  }
+
+  @Transactional
+  public RotationPattern createPattern(RotationPatternRequest request) {
+    if (request.name() == null || request.name().isBlank()) {
+      throw new IllegalArgumentException("Rotation name is required");
+    }
+    List<Integer> scheduleIds = request.scheduleIds();
+    if (scheduleIds == null || scheduleIds.isEmpty() || scheduleIds.size() > MAX_CYCLE_LENGTH) {
+      throw new IllegalArgumentException(
+          "A rotation needs between 1 and " + MAX_CYCLE_LENGTH + " days");
+    }
+    if (scheduleIds.stream().allMatch(Objects::isNull)) {
+      throw new IllegalArgumentException("A rotation needs at least one working day");
+    }
+    Set<Integer> distinct =
+        scheduleIds.stream().filter(Objects::nonNull).collect(Collectors.toSet());
+    Map<Integer, Schedule> schedules =
+        scheduleRepository.findAllById(distinct).stream()
+            .collect(Collectors.toMap(Schedule::getId, Function.identity()));
+    if (schedules.size() != distinct.size()) {
+      distinct.removeAll(schedules.keySet());
+      throw new IllegalArgumentException("Schedules not found: " + distinct);
+    }
+    // A shift still running when the next one starts would double-book everyone on the rotation
+    RosterValidation validation = conflictDetector.validate(RosterChangeSet.ofRotation(request));
+    if (!validation.valid()) {
+      throw new IllegalArgumentException(
+          validation.conflicts().stream()
+              .filter(conflict -> conflict.severity() == RosterConflict.Severity.ERROR)
+              .map(RosterConflict::message)
+              .collect(Collectors.joining("; ")));
+    }
+    List<RotationStep> steps = new ArrayList<>(scheduleIds.size());
+    for (Integer scheduleId : scheduleIds) {
+      steps.add(new RotationStep(scheduleId != null ? schedules.get(scheduleId) : null));
+    }
+    return rotationPatternRepository.save(
+        RotationPattern.builder()
+            .name(request.name())
+            .cycleLength(scheduleIds.size())
+            .steps(steps)
+            .build());
+  }
+
+  /**
+   * Puts the employee on the rotation, step 0 falling on the anchor date. Replaces any rotation the
+   * employee followed, the shifts from today on follow the new one.
+   */
+  @Transactional
+  public RotationAssignment assign(Integer employeeId, Integer patternId, LocalDate anchorDate) {
+    if (!employeeRepository.existsById(employeeId)) {
+      throw new RuntimeException("Employee not found: " + employeeId);
+    }
+    RotationPattern pattern =
+        rotationPatternRepository
+            .findById(patternId)
+            .orElseThrow(() -> new RuntimeException("Rotation not found: " + patternId));
+    RotationAssignment assignment =
+        rotationAssignmentRepository.saveAndFlush(
+            new RotationAssignment(employeeId, pattern, anchorDate));
+    shiftCalendarService.regenerate(List.of(employeeId));
+    rosterIndex.movedAfterCommit(
+        employeeId, new RosterIndex.Assignment(employeeId, patternId, anchorDate));
+    return assignment;
+  }
+
+  /** Takes the employee off its rotation, the shifts fall back to its schedule. */
+  @Transactional
+  public boolean unassign(Integer employeeId) {
+    if (!rotationAssignmentRepository.existsById(employeeId)) {
+      return false;
+    }
+    rotationAssignmentRepository.deleteById(employeeId);
+    rotationAssignmentRepository.flush();
+    shiftCalendarService.regenerate(List.of(employeeId));
+    rosterIndex.movedAfterCommit(employeeId, null);
+    return true;
+  }
+
+  /** Who works the schedule on the date according to the rotations, within the roster horizon. */
+  public ScheduleRoster findWorking(Integer scheduleId, LocalDate date) {
+    RosterIndex.Roster roster = rosterIndex.roster();
+    requireCovered(roster, date);
+    int[] employeeIds = roster.employeesOn(scheduleId, date);
+    return new ScheduleRoster(scheduleId, date, Arrays.stream(employeeIds).boxed().toList());
+  }
+
+  /** Working days of an employee on a rotation in the month, empty for anyone else. */
+  public List<ShiftDay> findMonth(Integer employeeId, YearMonth month) {
+    RosterIndex.Roster roster = rosterIndex.roster();
+    requireCovered(roster, month.atDay(1));
+    List<RosterIndex.Shift> shifts = roster.shiftsOf(employeeId, month);
+    Set<Integer> scheduleIds = new HashSet<>();
+    shifts.forEach(shift -> scheduleIds.add(shift.scheduleId()));
+    Map<Integer, Schedule> schedules =
+        scheduleRepository.findAllById(scheduleIds).stream()
+            .collect(Collectors.toMap(Schedule::getId, Function.identity()));
+    List<ShiftDay> days = new ArrayList<>(shifts.size());
+    for (RosterIndex.Shift shift : shifts) {
+      Schedule schedule = schedules.get(shift.scheduleId());
+      if (schedule != null) {
+        days.add(
+            new ShiftDay(
+                shift.date(),
+                schedule.getId(),
+                schedule.getName(),
+                schedule.getStartTime(),
+                schedule.getEndTime()));
+      }
+    }
+    return days;
+  }
+
+  private static void requireCovered(RosterIndex.Roster roster, LocalDate date) {
+    if (!roster.covers(date)) {
+      throw new IllegalArgumentException(
+          "Rosters cover " + roster.start() + " to " + roster.end().minusDays(1) + " only");
+    }
+  }
+}
@@ -0,0 +1,266 @@
+package com.lazardev.FlexCrew.service;
+
+import com.lazardev.FlexCrew.dto.ScheduleAssignment;
+import com.lazardev.FlexCrew.dto.ScheduleAssignmentResult;
+import com.lazardev.FlexCrew.dto.ScheduleAssignmentResult.Status;
+import com.lazardev.FlexCrew.entity.Employee;
+import com.lazardev.FlexCrew.security.user.EmployeePrincipalCache;
+import com.lazardev.FlexCrew.util.SqlNames;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSourceUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Assigns many employees to schedules in one transaction, for rota roll-outs. Loads every employee
+ * and schedule involved with IN queries, works out the capacity of each schedule in memory and
+ * writes the result with two JDBC batches, whatever the number of pairs.
+ *
+ * <p>Schedules, then employees, are locked in id order, the same order as the single assignment,
+ * so both can run side by side without deadlocks.
+ */
+@Service
+public class ScheduleAssignmentBatchService {
+
+    public static final int MAX_BATCH_SIZE = 5000;
+
+    private static final String READ_EMPLOYEES_SQL =
+            "SELECT employee_id, fk_schedule FROM %s WHERE employee_id IN (:ids)";
+    private static final String LOCK_EMPLOYEES_SQL =
+            "SELECT employee_id, email, fk_schedule FROM %s WHERE employee_id IN (:ids)"
+                    + " ORDER BY employee_id FOR UPDATE";
+    private static final String LOCK_SCHEDULES_SQL =
+            "SELECT schedule_id, max_employees, current_employees FROM %s"
+                    + " WHERE schedule_id IN (:ids) ORDER BY schedule_id FOR UPDATE";
+    private static final String MOVE_EMPLOYEE_SQL =
+            "UPDATE %s SET fk_schedule = :scheduleId WHERE employee_id = :employeeId";
+    private static final String SET_SEATS_SQL =
+            "UPDATE %s SET current_employees = :seats WHERE schedule_id = :scheduleId";
+
+    private record EmployeeRow(String email, Integer scheduleId) {
+    }
+
+    private static final class Seats {
+        private final int max;
+        private final int initial;
+        private int taken;
+
+        private Seats(int max, int taken) {
+            this.max = max;
+            this.initial = taken;
+            this.taken = taken;
+        }
+    }
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final EmployeePrincipalCache principalCache;
+    private final ShiftCalendarService shiftCalendarService;
+    private final CoverageIndex coverageIndex;
+    private final String readEmployeesSql;
+    private final String lockEmployeesSql;
+    private final String lockSchedulesSql;
+    private final String moveEmployeeSql;
+    private final String setSeatsSql;
+
+    @Autowired
+    public ScheduleAssignmentBatchService(
+            NamedParameterJdbcTemplate jdbcTemplate,
+            EmployeePrincipalCache principalCache,
+            ShiftCalendarService shiftCalendarService,
+            CoverageIndex coverageIndex,
+            @Value("${spring.jpa.properties.hibernate.default_schema}") String schema) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.principalCache = principalCache;
+        this.shiftCalendarService = shiftCalendarService;
+        this.coverageIndex = coverageIndex;
+        String employees = SqlNames.qualified(schema, "Employees");
+        String schedules = SqlNames.qualified(schema, "Schedules");
+        this.readEmployeesSql = READ_EMPLOYEES_SQL.formatted(employees);
+        this.lockEmployeesSql = LOCK_EMPLOYEES_SQL.formatted(employees);
+        this.lockSchedulesSql = LOCK_SCHEDULES_SQL.formatted(schedules);
+        this.moveEmployeeSql = MOVE_EMPLOYEE_SQL.formatted(employees);
+        this.setSeatsSql = SET_SEATS_SQL.formatted(schedules);
+    }
+
+    /**
+     * One result per pair, in request order. Invalid pairs never stop the valid ones, unless atomic
+     * is set: then either every pair is applied or none is.
+     */
+    @Transactional
+    public List<ScheduleAssignmentResult> assignBatch(List<ScheduleAssignment> pairs, boolean atomic) {
+        ScheduleAssignmentResult[] results = new ScheduleAssignmentResult[pairs.size()];
+
+        // Shape checks first, the rest only looks at well-formed pairs
+        List<Integer> candidates = new ArrayList<>();
+        Set<Integer> listedEmployees = new HashSet<>();
+        for (int i = 0; i < pairs.size(); i++) {
+            ScheduleAssignment pair = pairs.get(i);
+            if (pair == null || pair.employeeId() == null || pair.scheduleId() == null) {
+                results[i] = ScheduleAssignmentResult.of(i, pair, Status.REJECTED,
+                        "Employee and schedule are required");
+            } else if (!listedEmployees.add(pair.employeeId())) {
+                results[i] = ScheduleAssignmentResult.of(i, pair, Status.REJECTED,
+                        "Employee is listed more than once");
+            } else {
+                candidates.add(i);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return List.of(results);
+        }
+        if (atomic && candidates.size() < pairs.size()) {
+            for (int i : candidates) {
+                results[i] = ScheduleAssignmentResult.of(i, pairs.get(i), Status.REJECTED,
+                        "Not applied, another assignment of the batch failed");
+            }
+            return List.of(results);
+        }
+
+        // Current schedules tell which schedules lose a seat, those are locked too
+        Map<Integer, Integer> readSchedules = new HashMap<>();
+        jdbcTemplate.query(readEmployeesSql, Map.of("ids", listedEmployees), rs -> {
+            readSchedules.put(rs.getInt("employee_id"), (Integer) rs.getObject("fk_schedule"));
+        });
+        Set<Integer> scheduleIds = new HashSet<>();
+        candidates.forEach(i -> scheduleIds.add(pairs.get(i).scheduleId()));
+        readSchedules.values().stream().filter(Objects::nonNull).forEach(scheduleIds::add);
+        Map<Integer, Seats> seats = lockSchedules(scheduleIds);
+        Map<Integer, EmployeeRow> employees = lockEmployees(listedEmployees);
+
+        List<Integer> moves = new ArrayList<>();
+        for (int i : candidates) {
+            ScheduleAssignment pair = pairs.get(i);
+            EmployeeRow employee = employees.get(pair.employeeId());
+            if (employee == null) {
+                results[i] = ScheduleAssignmentResult.of(i, pair, Status.REJECTED, "Employee not found");
+            } else if (!seats.containsKey(pair.scheduleId())) {
+                results[i] = ScheduleAssignmentResult.of(i, pair, Status.REJECTED, "Schedule not found");
+            } else if (employee.scheduleId() != null && !seats.containsKey(employee.scheduleId())) {
+                // Moved between the read and the lock to a schedule that is not locked
+                results[i] = ScheduleAssignmentResult.of(i, pair, Status.FAILED,
+                        "Schedule of the employee changed concurrently, try again");
+            } else if (pair.scheduleId().equals(employee.scheduleId())) {
+                results[i] = ScheduleAssignmentResult.of(i, pair, Status.UNCHANGED, null);
+            } else {
+                moves.add(i);
+            }
+        }
+
+        Set<Integer> accepted = allocateSeats(pairs, moves, employees, seats, results);
+        if (atomic && Arrays.stream(results).anyMatch(ScheduleAssignmentBatchService::isFailure)) {
+            for (int i : accepted) {
+                results[i] = ScheduleAssignmentResult.of(i, pairs.get(i), Status.REJECTED,
+                        "Not applied, another assignment of the batch failed");
+            }
+            return List.of(results);
+        }
+        apply(pairs, accepted, seats);
+        Map<Integer, Integer> reassigned = new HashMap<>();
+        Map<Integer, Integer> coverageDeltas = new HashMap<>();
+        for (int i : accepted) {
+            ScheduleAssignment pair = pairs.get(i);
+            results[i] = ScheduleAssignmentResult.of(i, pair, Status.ASSIGNED, null);
+            // Principal carries the schedule id
+            principalCache.evict(Employee.builder()
+                    .id(pair.employeeId())
+                    .email(employees.get(pair.employeeId()).email())
+                    .build());
+            reassigned.put(pair.employeeId(), pair.scheduleId());
+            coverageDeltas.merge(employees.get(pair.employeeId()).scheduleId(), -1, Integer::sum);
+            coverageDeltas.merge(pair.scheduleId(), 1, Integer::sum);
+        }
+        shiftCalendarService.reassign(reassigned);
+        coverageIndex.moveAfterCommit(coverageDeltas);
+        return List.of(results);
+    }
+
+    /**
+     * Seats freed by the moves count for the whole batch, so a rota can swap people between full
+     * schedules. A rejected move keeps its seat, which can in turn reject moves that relied on it,
+     * hence the rounds until no move is rejected. Leaves the final counts in seats.
+     */
+    private static Set<Integer> allocateSeats(List<ScheduleAssignment> pairs, List<Integer> moves,
+            Map<Integer, EmployeeRow> employees, Map<Integer, Seats> seats,
+            ScheduleAssignmentResult[] results) {
+        Set<Integer> accepted = new LinkedHashSet<>(moves);
+        while (true) {
+            seats.values().forEach(schedule -> schedule.taken = schedule.initial);
+            for (int i : accepted) {
+                Integer from = employees.get(pairs.get(i).employeeId()).scheduleId();
+                if (from != null) {
+                    Seats schedule = seats.get(from);
+                    schedule.taken = Math.max(0, schedule.taken - 1);
+                }
+            }
+            List<Integer> rejected = new ArrayList<>();
+            for (int i : accepted) {
+                Seats schedule = seats.get(pairs.get(i).scheduleId());
+                if (schedule.taken < schedule.max) {
+                    schedule.taken++;
+                } else {
+                    rejected.add(i);
+                }
+            }
+            if (rejected.isEmpty()) {
+                return accepted;
+            }
+            for (int i : rejected) {
+                accepted.remove(i);
+                results[i] = ScheduleAssignmentResult.of(i, pairs.get(i), Status.REJECTED,
+                        "Schedule at maximum capacity");
+            }
+        }
+    }
+
+    private static boolean isFailure(ScheduleAssignmentResult result) {
+        return result != null
+                && (result.status() == Status.REJECTED || result.status() == Status.FAILED);
+    }
+
+    private void apply(List<ScheduleAssignment> pairs, Set<Integer> accepted, Map<Integer, Seats> seats) {
+        if (accepted.isEmpty()) {
+            return;
+        }
+        List<Map<String, Object>> moves = new ArrayList<>(accepted.size());
+        for (int i : accepted) {
+            moves.add(Map.of("employeeId", pairs.get(i).employeeId(), "scheduleId", pairs.get(i).scheduleId()));
+        }
+        List<Map<String, Object>> counts = new ArrayList<>();
+        seats.forEach((scheduleId, schedule) -> {
+            if (schedule.taken != schedule.initial) {
+                counts.add(Map.of("scheduleId", scheduleId, "seats", schedule.taken));
+            }
+        });
+        jdbcTemplate.batchUpdate(moveEmployeeSql, SqlParameterSourceUtils.createBatch(moves));
+        jdbcTemplate.batchUpdate(setSeatsSql, SqlParameterSourceUtils.createBatch(counts));
+    }
+
+    private Map<Integer, Seats> lockSchedules(Set<Integer> scheduleIds) {
+        Map<Integer, Seats> seats = new HashMap<>();
+        jdbcTemplate.query(lockSchedulesSql, Map.of("ids", scheduleIds), rs -> {
+            seats.put(rs.getInt("schedule_id"),
+                    new Seats(rs.getInt("max_employees"), rs.getInt("current_employees")));
+        });
+        return seats;
+    }
+
+    private Map<Integer, EmployeeRow> lockEmployees(Set<Integer> employeeIds) {
+        Map<Integer, EmployeeRow> employees = new HashMap<>();
+        jdbcTemplate.query(lockEmployeesSql, Map.of("ids", employeeIds), rs -> {
+            employees.put(rs.getInt("employee_id"),
+                    new EmployeeRow(rs.getString("email"), (Integer) rs.getObject("fk_schedule")));
+        });
+        return employees;
+    }
+}
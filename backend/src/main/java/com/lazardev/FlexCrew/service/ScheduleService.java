@@ -1,7 +1,9 @@
 package com.lazardev.FlexCrew.service;
 
-import com.lazardev.FlexCrew.entity.Employee;
+import com.lazardev.FlexCrew.dto.TeamSchedulePlan;
+import com.lazardev.FlexCrew.dto.calendar.WeekSchedule;
 import com.lazardev.FlexCrew.entity.Schedule;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,9 +15,11 @@ public interface ScheduleService {
 
     List<Schedule> getNextWeekScheduleForEmployee(Integer employeeId);
 
+    WeekSchedule getWeekScheduleForEmployee(Integer employeeId, LocalDate day);
+
     Schedule assignEmployeeToSchedule(Integer employeeId, Integer scheduleId);
 
-    Schedule optimizeScheduleForTeam(Integer teamId);
+    TeamSchedulePlan optimizeScheduleForTeam(Integer teamId);
 
     Schedule saveSchedule(Schedule schedule);
 
@@ -3,19 +3,26 @@ package com.lazardev.FlexCrew.service;
 import com.lazardev.FlexCrew.dao.EmployeeRepository;
 import com.lazardev.FlexCrew.dao.ScheduleRepository;
 import com.lazardev.FlexCrew.dao.TeamRepository;
+import com.lazardev.FlexCrew.dao.projection.EmployeeScheduleRef;
+import com.lazardev.FlexCrew.dto.TeamSchedulePlan;
+import com.lazardev.FlexCrew.dto.calendar.ShiftDay;
+import com.lazardev.FlexCrew.dto.calendar.WeekSchedule;
 import com.lazardev.FlexCrew.entity.Employee;
 import com.lazardev.FlexCrew.entity.Schedule;
-import com.lazardev.FlexCrew.entity.Team;
+import com.lazardev.FlexCrew.security.user.EmployeePrincipalCache;
 
 import java.time.DayOfWeek;
 import java.time.LocalDate;
-import java.time.ZoneId;
 import java.time.temporal.TemporalAdjusters;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -29,6 +36,10 @@ public class ScheduleServiceImpl implements ScheduleService {
     private final ScheduleRepository scheduleRepository;
     private final EmployeeRepository employeeRepository;
     private final TeamRepository teamRepository;
+    private final EmployeePrincipalCache principalCache;
+    private final TeamScheduleOptimizer teamScheduleOptimizer;
+    private final ShiftCalendarService shiftCalendarService;
+    private final CoverageIndex coverageIndex;
     // Autowired constructor removed, handled by Lombok
 
     @Override
@@ -50,7 +61,9 @@ public class ScheduleServiceImpl implements ScheduleService {
         // schedule.setId(null); // Uncomment if necessary based on your ID strategy
         // Add any validation or default setting logic here if needed
         schedule.setCurrentEmployees(0); // Ensure new schedules start with 0 employees
-        return scheduleRepository.save(schedule);
+        Schedule saved = scheduleRepository.save(schedule);
+        coverageIndex.rebuildAfterCommit();
+        return saved;
     }
 
     @Override
@@ -63,6 +76,8 @@ public class ScheduleServiceImpl implements ScheduleService {
         // Consider fetching the existing entity and merging changes
         // to avoid overwriting fields not present in the input DTO/Entity
         scheduleRepository.save(schedule);
+        shiftCalendarService.evictAll(); // Cached weeks carry the schedule name and times
+        coverageIndex.rebuildAfterCommit();
     }
 
     @Override
@@ -75,84 +90,132 @@ public class ScheduleServiceImpl implements ScheduleService {
         // before deleting (e.g., set their schedule to null or reassign)
         // Example: employeeRepository.unassignSchedule(scheduleId);
         scheduleRepository.deleteById(scheduleId);
+        shiftCalendarService.evictAll(); // Its shifts are deleted by the foreign key
+        coverageIndex.rebuildAfterCommit();
     }
 
     // --- Existing Methods (Minor improvements) ---
+    /**
+     * Schedule of every working day of next week, in date order, read from the shift calendar.
+     * Days off are left out, so the list is as long as the employee's working week.
+     */
     @Override
     public List<Schedule> getNextWeekScheduleForEmployee(Integer employeeId) {
-        // Consider adding error handling if employee not found
-        Employee employee = employeeRepository.findById(employeeId)
-                .orElseThrow(() -> new RuntimeException("Employee not found: " + employeeId)); // More specific error
-
-        Schedule currentSchedule = employee.getSchedule();
-        if (currentSchedule == null) {
+        LocalDate nextMonday = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+        WeekSchedule week = shiftCalendarService.getWeek(employeeId, nextMonday);
+        if (week.days().isEmpty()) {
+            if (!employeeRepository.existsById(employeeId)) {
+                throw new RuntimeException("Employee not found: " + employeeId); // More specific error
+            }
             return new ArrayList<>();
         }
-        // Logic for next week seems okay, but could be simplified or adjusted
+        Set<Integer> scheduleIds = new HashSet<>();
+        week.days().forEach(day -> scheduleIds.add(day.scheduleId()));
+        Map<Integer, Schedule> schedules = new HashMap<>();
+        scheduleRepository.findAllById(scheduleIds).forEach(schedule -> schedules.put(schedule.getId(), schedule));
         List<Schedule> weekSchedule = new ArrayList<>();
-        for (int i = 0; i < 5; i++) { // Assuming 5 workdays
-            weekSchedule.add(currentSchedule);
+        for (ShiftDay day : week.days()) {
+            Schedule schedule = schedules.get(day.scheduleId());
+            if (schedule != null) { // Deleted since the week was cached
+                weekSchedule.add(schedule);
+            }
         }
         return weekSchedule;
     }
 
+    @Override
+    public WeekSchedule getWeekScheduleForEmployee(Integer employeeId, LocalDate day) {
+        WeekSchedule week = shiftCalendarService.getWeek(employeeId, day);
+        if (week.days().isEmpty() && !employeeRepository.existsById(employeeId)) {
+            throw new RuntimeException("Employee not found: " + employeeId);
+        }
+        return week;
+    }
+
+    /**
+     * Seats are taken and given back with conditional updates instead of read-modify-write, so
+     * concurrent assignments cannot overbook a schedule and only contend when they touch the same
+     * schedule. Both seat updates run in schedule id order, two opposite moves cannot deadlock.
+     * Any failure rolls the whole move back.
+     */
     @Override
     @Transactional // Ensure atomic operation
     public Schedule assignEmployeeToSchedule(Integer employeeId, Integer scheduleId) {
         Employee employee = employeeRepository.findById(employeeId)
                 .orElseThrow(() -> new RuntimeException("Employee not found: " + employeeId));
-        Schedule schedule = scheduleRepository.findById(scheduleId)
-                .orElseThrow(() -> new RuntimeException("Schedule not found: " + scheduleId));
-
-        if (schedule.getCurrentEmployees() >= schedule.getMaxEmployees()) {
-            throw new RuntimeException("Schedule at maximum capacity");
+        Integer oldScheduleId = employee.getSchedule() != null ? employee.getSchedule().getId() : null;
+        if (scheduleId.equals(oldScheduleId)) {
+            return employee.getSchedule(); // Already assigned to this schedule
         }
 
-        // Unassign from previous schedule
-        Schedule oldSchedule = employee.getSchedule();
-        if (oldSchedule != null) {
-            if (oldSchedule.getId().equals(schedule.getId())) {
-                return schedule; // Already assigned to this schedule
+        // Unassign from previous schedule first when it sorts first
+        boolean releaseFirst = oldScheduleId != null && oldScheduleId < scheduleId;
+        if (releaseFirst) {
+            scheduleRepository.releaseSeat(oldScheduleId);
+        }
+        if (scheduleRepository.tryReserveSeat(scheduleId) == 0) {
+            if (!scheduleRepository.existsById(scheduleId)) {
+                throw new RuntimeException("Schedule not found: " + scheduleId);
             }
-            oldSchedule.setCurrentEmployees(Math.max(0, oldSchedule.getCurrentEmployees() - 1)); // Avoid going below 0
-            scheduleRepository.save(oldSchedule);
+            throw new RuntimeException("Schedule at maximum capacity");
+        }
+        if (oldScheduleId != null && !releaseFirst) {
+            scheduleRepository.releaseSeat(oldScheduleId);
         }
 
-        // Assign to new schedule
-        employee.setSchedule(schedule);
-        schedule.setCurrentEmployees(schedule.getCurrentEmployees() + 1);
+        // Assign to new schedule, unless the employee was moved meanwhile
+        Schedule schedule = scheduleRepository.getReferenceById(scheduleId);
+        int moved = oldScheduleId != null
+                ? employeeRepository.moveToSchedule(employeeId, oldScheduleId, schedule)
+                : employeeRepository.assignScheduleIfUnassigned(employeeId, schedule);
+        if (moved == 0) {
+            throw new ConcurrentModificationException(
+                    "Schedule of employee " + employeeId + " changed concurrently, try again");
+        }
 
-        employeeRepository.save(employee); // Save employee with updated schedule reference
-        return scheduleRepository.save(schedule); // Save schedule with updated count
+        principalCache.evict(employee); // Principal carries the schedule id
+        shiftCalendarService.reassign(Map.of(employeeId, scheduleId));
+        Map<Integer, Integer> coverageDeltas = new HashMap<>();
+        coverageDeltas.put(oldScheduleId, -1);
+        coverageDeltas.put(scheduleId, 1);
+        coverageIndex.moveAfterCommit(coverageDeltas);
+        return scheduleRepository.findById(scheduleId)
+                .orElseThrow(() -> new RuntimeException("Schedule not found: " + scheduleId));
     }
 
+    // Computes a plan only, apply it with ScheduleAssignmentBatchService
     @Override
-    public Schedule optimizeScheduleForTeam(Integer teamId) {
-        // This logic seems overly simplistic, might need rethinking based on actual
-        // requirements.
-        // It just finds the schedule with the most people already assigned that still
-        // has space.
-        Team team = teamRepository.findById(teamId)
-                .orElseThrow(() -> new RuntimeException("Team not found: " + teamId));
-
-        List<Employee> teamMembers = employeeRepository.findByTeamId(teamId.longValue()); // Assuming findByTeamId takes
-                                                                                          // Long
+    public TeamSchedulePlan optimizeScheduleForTeam(Integer teamId) {
+        if (!teamRepository.existsById(teamId)) {
+            throw new RuntimeException("Team not found: " + teamId);
+        }
+        List<EmployeeScheduleRef> teamMembers = employeeRepository.findScheduleRefsByTeamId(teamId);
         if (teamMembers.isEmpty()) {
             throw new RuntimeException("No employees found for team: " + teamId);
         }
 
-        List<Schedule> availableSchedules = scheduleRepository.findAll().stream()
-                .filter(s -> s.getCurrentEmployees() < s.getMaxEmployees())
-                .sorted(Comparator.comparing(Schedule::getCurrentEmployees).reversed()) // Highest occupancy first
-                .collect(Collectors.toList());
-
-        if (availableSchedules.isEmpty()) {
-            // Fallback: Return the first schedule found if none are available?
-            // Or throw an error?
-            return scheduleRepository.findAll().stream().findFirst()
-                    .orElseThrow(() -> new RuntimeException("No schedules available at all."));
+        // Seats of the team members are free for the plan, the rest are taken by other employees
+        Map<Integer, Integer> teamSeats = new HashMap<>();
+        List<TeamScheduleOptimizer.Member> members = new ArrayList<>(teamMembers.size());
+        for (EmployeeScheduleRef member : teamMembers) {
+            members.add(new TeamScheduleOptimizer.Member(member.getEmployeeId(), member.getScheduleId()));
+            if (member.getScheduleId() != null) {
+                teamSeats.merge(member.getScheduleId(), 1, Integer::sum);
+            }
         }
-        return availableSchedules.get(0);
+        List<TeamScheduleOptimizer.Slot> slots = new ArrayList<>();
+        for (Schedule schedule : scheduleRepository.findAll()) {
+            int max = schedule.getMaxEmployees() != null ? schedule.getMaxEmployees() : 0;
+            int current = schedule.getCurrentEmployees() != null ? schedule.getCurrentEmployees() : 0;
+            int others = Math.max(0, current - teamSeats.getOrDefault(schedule.getId(), 0));
+            slots.add(new TeamScheduleOptimizer.Slot(schedule.getId(), Math.max(0, max - others)));
+        }
+
+        long start = System.nanoTime();
+        TeamScheduleOptimizer.Result result = teamScheduleOptimizer.optimize(members, slots);
+        return new TeamSchedulePlan(teamId, result.assignments(), result.unassigned(),
+                result.reassignments(), result.schedulesUsed(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
     }
 
 }
\ No newline at end of file
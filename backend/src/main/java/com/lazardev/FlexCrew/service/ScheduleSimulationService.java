@@ -0,0 +1,185 @@
+package com.lazardev.FlexCrew.service;
+
+import com.lazardev.FlexCrew.dao.EmployeeRepository;
+import com.lazardev.FlexCrew.dao.ScheduleRepository;
+import com.lazardev.FlexCrew.dao.projection.ScheduleHeadcount;
+import com.lazardev.FlexCrew.dto.analytics.ScheduleLoadDto;
+import com.lazardev.FlexCrew.dto.simulation.ScenarioResult;
+import com.lazardev.FlexCrew.dto.simulation.ScheduleEdit;
+import com.lazardev.FlexCrew.dto.simulation.SimulationResult;
+import com.lazardev.FlexCrew.dto.simulation.SimulationScenario;
+import com.lazardev.FlexCrew.entity.Schedule;
+import com.lazardev.FlexCrew.util.ShiftWindow;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Evaluates hypothetical schedule edits without writing anything. Schedules and head counts are
+ * read once per request into an immutable snapshot that every scenario shares, the scenarios are
+ * evaluated in parallel on a dedicated fork-join pool.
+ */
+@Service
+public class ScheduleSimulationService {
+
+    public static final int MAX_SCENARIOS = 100;
+    public static final int MAX_EDITS = 1000;
+    public static final int SLOT_MINUTES = 15;
+
+    private static final int SLOTS = ShiftWindow.MINUTES_PER_DAY / SLOT_MINUTES;
+
+    // State of one schedule, shared by every scenario, edits replace it with a new instance
+    record ScheduleState(Integer id, String name, ShiftWindow window, int maxEmployees) {
+    }
+
+    record Snapshot(Map<Integer, ScheduleState> schedules, Map<Integer, Integer> headcount, int[] coverage) {
+    }
+
+    private final ScheduleRepository scheduleRepository;
+    private final EmployeeRepository employeeRepository;
+    private final ForkJoinPool pool;
+
+    @Autowired
+    public ScheduleSimulationService(
+            ScheduleRepository scheduleRepository,
+            EmployeeRepository employeeRepository,
+            @Value("${application.schedules.simulation.parallelism:0}") int parallelism) {
+        this.scheduleRepository = scheduleRepository;
+        this.employeeRepository = employeeRepository;
+        this.pool = new ForkJoinPool(
+                parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdown();
+    }
+
+    public SimulationResult simulate(List<SimulationScenario> scenarios) {
+        Snapshot snapshot = snapshot();
+        // A parallel stream started inside the pool runs on its workers, not on the common pool
+        List<ScenarioResult> results = pool.submit(
+                () -> scenarios.parallelStream().map(scenario -> evaluate(snapshot, scenario)).toList())
+                .join();
+        return new SimulationResult(SLOT_MINUTES, snapshot.coverage().clone(), results);
+    }
+
+    Snapshot snapshot() {
+        Map<Integer, Integer> headcount = new HashMap<>();
+        for (ScheduleHeadcount count : employeeRepository.countEmployeesPerSchedule()) {
+            headcount.put(count.getScheduleId(), Math.toIntExact(count.getEmployees()));
+        }
+        Map<Integer, ScheduleState> schedules = new LinkedHashMap<>();
+        int[] coverage = new int[SLOTS];
+        for (Schedule schedule : scheduleRepository.findAll()) {
+            ScheduleState state = new ScheduleState(schedule.getId(), schedule.getName(),
+                    ShiftWindow.of(schedule.getStartTime(), schedule.getEndTime()),
+                    schedule.getMaxEmployees() != null ? schedule.getMaxEmployees() : 0);
+            schedules.put(schedule.getId(), state);
+            if (state.window() != null) {
+                state.window().addTo(coverage, headcount.getOrDefault(schedule.getId(), 0));
+            }
+        }
+        return new Snapshot(Collections.unmodifiableMap(schedules), Map.copyOf(headcount), coverage);
+    }
+
+    static ScenarioResult evaluate(Snapshot snapshot, SimulationScenario scenario) {
+        String name = scenario != null ? scenario.name() : null;
+        if (scenario == null || scenario.edits() == null) {
+            return ScenarioResult.invalid(name, List.of("A scenario needs a list of edits"));
+        }
+        if (scenario.edits().size() > MAX_EDITS) {
+            return ScenarioResult.invalid(name, List.of("At most " + MAX_EDITS + " edits per scenario"));
+        }
+
+        // Copy of the map only, the states themselves are immutable
+        Map<Integer, ScheduleState> edited = new LinkedHashMap<>(snapshot.schedules());
+        List<ScheduleState> added = new ArrayList<>();
+        List<String> errors = new ArrayList<>();
+        for (ScheduleEdit edit : scenario.edits()) {
+            String error = apply(edit, snapshot, edited, added);
+            if (error != null) {
+                errors.add(error);
+            }
+        }
+        if (!errors.isEmpty()) {
+            return ScenarioResult.invalid(name, errors);
+        }
+
+        int displaced = 0;
+        int[] coverage = new int[SLOTS];
+        List<ScheduleLoadDto> loads = new ArrayList<>(edited.size() + added.size());
+        for (Map.Entry<Integer, Integer> count : snapshot.headcount().entrySet()) {
+            if (!edited.containsKey(count.getKey())) {
+                displaced += count.getValue(); // Schedule removed
+            }
+        }
+        List<ScheduleState> states = new ArrayList<>(edited.values());
+        states.addAll(added);
+        for (ScheduleState state : states) {
+            int assigned = state.id() != null ? snapshot.headcount().getOrDefault(state.id(), 0) : 0;
+            int kept = Math.min(assigned, state.maxEmployees());
+            displaced += assigned - kept;
+            if (state.window() != null) {
+                state.window().addTo(coverage, kept);
+            }
+            double load = state.maxEmployees() > 0 ? (double) kept / state.maxEmployees() * 100 : 0.0;
+            loads.add(new ScheduleLoadDto(state.id(), state.name(), kept, state.maxEmployees(), load));
+        }
+        int[] delta = new int[SLOTS];
+        for (int slot = 0; slot < SLOTS; slot++) {
+            delta[slot] = coverage[slot] - snapshot.coverage()[slot];
+        }
+        return new ScenarioResult(name, displaced, loads, coverage, delta, List.of());
+    }
+
+    // Returns an error message, or null once the edit is applied
+    private static String apply(ScheduleEdit edit, Snapshot snapshot, Map<Integer, ScheduleState> edited,
+            List<ScheduleState> added) {
+        if (edit == null) {
+            return "Empty edit";
+        }
+        if (edit.maxEmployees() != null && edit.maxEmployees() < 0) {
+            return "Max employees cannot be negative";
+        }
+        if (edit.scheduleId() == null) {
+            if (edit.remove() || edit.startTime() == null || edit.endTime() == null || edit.maxEmployees() == null) {
+                return "A new schedule needs start/end times and max employees";
+            }
+            String name = edit.name() != null ? edit.name() : "New schedule " + (added.size() + 1);
+            added.add(new ScheduleState(null, name, ShiftWindow.of(edit.startTime(), edit.endTime()),
+                    edit.maxEmployees()));
+            return null;
+        }
+        if (!snapshot.schedules().containsKey(edit.scheduleId())) {
+            return "Schedule not found: " + edit.scheduleId();
+        }
+        ScheduleState current = edited.get(edit.scheduleId());
+        if (current == null) {
+            return "Schedule " + edit.scheduleId() + " is removed by an earlier edit";
+        }
+        if (edit.remove()) {
+            edited.remove(edit.scheduleId());
+            return null;
+        }
+        ShiftWindow window = current.window();
+        if (edit.startTime() != null || edit.endTime() != null) {
+            if (edit.startTime() == null || edit.endTime() == null) {
+                return "Start and end times of schedule " + edit.scheduleId() + " must change together";
+            }
+            window = ShiftWindow.of(edit.startTime(), edit.endTime());
+        }
+        edited.put(edit.scheduleId(), new ScheduleState(current.id(),
+                edit.name() != null ? edit.name() : current.name(), window,
+                edit.maxEmployees() != null ? edit.maxEmployees() : current.maxEmployees()));
+        return null;
+    }
+}
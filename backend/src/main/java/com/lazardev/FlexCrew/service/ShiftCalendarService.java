@@ -0,0 +1,341 @@
+package com.lazardev.FlexCrew.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.lazardev.FlexCrew.dao.ShiftInstanceRepository;
+import com.lazardev.FlexCrew.dto.calendar.ShiftDay;
+import com.lazardev.FlexCrew.dto.calendar.WeekSchedule;
+import com.lazardev.FlexCrew.entity.Schedule;
+import com.lazardev.FlexCrew.entity.ShiftInstance;
+import com.lazardev.FlexCrew.util.SqlNames;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Materialized shift calendar: one Shift_instances row per employee and working day, from today up
+ * to days-ahead days ahead, taken from the employee's rotation if it follows one (see
+ * RotationService) and from the schedule it is assigned to otherwise. Reassignments
+ * regenerate the employee's future rows in the same transaction, a daily refresh extends the window
+ * and corrects rows of changes made outside the application.
+ *
+ * <p>Week views are cached per employee and week, and evicted when the employee's rows change.
+ */
+@Slf4j
+@Service
+public class ShiftCalendarService {
+
+  // Placeholders: 1 shifts, 2 employees, 3 rotation assignments, 4 rotation patterns, 5 pattern
+  // steps, 6 working days (ISO numbers), 7 the days of the window, 8 an optional filter
+  private static final String DAYS =
+      "(SELECT CAST(g AS date) AS day FROM generate_series(CAST(:from AS date),"
+          + " CAST(:to AS date), interval '1 day') g)";
+  private static final String BY_EMPLOYEE = "AND e.employee_id IN (:employeeIds)";
+  private static final String BY_ROTATION_EMPLOYEE = "AND r.fk_employee IN (:employeeIds)";
+
+  // Every working day of the window for each employee with a schedule and no rotation
+  private static final String GENERATE_SQL = """
+      INSERT INTO %1$s (fk_employee, shift_date, fk_schedule)
+      SELECT e.employee_id, d.day, e.fk_schedule
+      FROM %2$s e CROSS JOIN %7$s d
+      WHERE e.fk_schedule IS NOT NULL AND EXTRACT(ISODOW FROM d.day) IN (%6$s)
+        AND NOT EXISTS (SELECT 1 FROM %3$s r WHERE r.fk_employee = e.employee_id) %8$s
+      ON CONFLICT (fk_employee, shift_date) DO NOTHING
+      """;
+  // The step of a day counts from the anchor date, in both directions
+  private static final String GENERATE_ROTATIONS_SQL = """
+      INSERT INTO %1$s (fk_employee, shift_date, fk_schedule)
+      SELECT r.fk_employee, d.day, st.fk_schedule
+      FROM %3$s r
+      JOIN %4$s p ON p.rotation_pattern_id = r.fk_rotation_pattern
+      CROSS JOIN %7$s d
+      JOIN %5$s st ON st.fk_rotation_pattern = r.fk_rotation_pattern
+        AND st.step_index = MOD(MOD(d.day - r.anchor_date, p.cycle_length) + p.cycle_length,
+                                p.cycle_length)
+      WHERE st.fk_schedule IS NOT NULL %8$s
+      ON CONFLICT (fk_employee, shift_date) DO NOTHING
+      """;
+  private static final String FILL_EMPLOYEE_SQL = """
+      INSERT INTO %1$s (fk_employee, shift_date, fk_schedule)
+      SELECT :employeeId, d.day, :scheduleId
+      FROM %7$s d
+      WHERE EXTRACT(ISODOW FROM d.day) IN (%6$s)
+        AND NOT EXISTS (SELECT 1 FROM %3$s r WHERE r.fk_employee = :employeeId)
+      ON CONFLICT (fk_employee, shift_date) DO UPDATE SET fk_schedule = EXCLUDED.fk_schedule
+      """;
+  private static final String CLEAR_EMPLOYEES_SQL =
+      "DELETE FROM %1$s WHERE fk_employee IN (:employeeIds) AND shift_date >= :from";
+  // Employees on a rotation only change through regenerate
+  private static final String RECONCILE_SQL = """
+      UPDATE %1$s s SET fk_schedule = e.fk_schedule
+      FROM %2$s e
+      WHERE e.employee_id = s.fk_employee AND s.shift_date >= :from
+        AND e.fk_schedule IS NOT NULL AND s.fk_schedule <> e.fk_schedule
+        AND NOT EXISTS (SELECT 1 FROM %3$s r WHERE r.fk_employee = s.fk_employee)
+      RETURNING s.fk_employee
+      """;
+  private static final String DELETE_STALE_SQL = """
+      DELETE FROM %1$s s
+      WHERE s.shift_date >= :from
+        AND (EXTRACT(ISODOW FROM s.shift_date) NOT IN (%6$s)
+             OR NOT EXISTS (SELECT 1 FROM %2$s e
+                            WHERE e.employee_id = s.fk_employee AND e.fk_schedule IS NOT NULL))
+        AND NOT EXISTS (SELECT 1 FROM %3$s r WHERE r.fk_employee = s.fk_employee)
+      RETURNING s.fk_employee
+      """;
+  private static final String PRUNE_SQL = "DELETE FROM %1$s WHERE shift_date < :before";
+
+  private record WeekKey(int employeeId, LocalDate weekStart) {}
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+  private final ShiftInstanceRepository shiftInstanceRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final int daysAhead;
+  private final int retentionDays;
+  private final Cache<WeekKey, WeekSchedule> weeks;
+  private final String generateSql;
+  private final String generateForEmployeesSql;
+  private final String generateRotationsSql;
+  private final String generateRotationsForEmployeesSql;
+  private final String fillEmployeeSql;
+  private final String clearEmployeesSql;
+  private final String reconcileSql;
+  private final String deleteStaleSql;
+  private final String pruneSql;
+
+  @Autowired
+  public ShiftCalendarService(
+      NamedParameterJdbcTemplate jdbcTemplate,
+      ShiftInstanceRepository shiftInstanceRepository,
+      PlatformTransactionManager transactionManager,
+      MeterRegistry meterRegistry,
+      @Value("${spring.jpa.properties.hibernate.default_schema}") String schema,
+      @Value("${application.schedules.calendar.workdays:MONDAY,TUESDAY,WEDNESDAY,THURSDAY,FRIDAY}")
+          String[] workdays,
+      @Value("${application.schedules.calendar.days-ahead:28}") int daysAhead,
+      @Value("${application.schedules.calendar.retention-days:0}") int retentionDays,
+      @Value("${application.schedules.calendar.week-cache.max-size:10000}") long weekCacheSize,
+      @Value("${application.schedules.calendar.week-cache.ttl:PT1H}") Duration weekCacheTtl) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.shiftInstanceRepository = shiftInstanceRepository;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+    Arrays.stream(workdays).map(String::trim).map(DayOfWeek::valueOf).forEach(days::add);
+    if (days.isEmpty()) {
+      throw new IllegalArgumentException("application.schedules.calendar.workdays is empty");
+    }
+    this.daysAhead = daysAhead;
+    this.retentionDays = retentionDays;
+    this.weeks =
+        Caffeine.newBuilder()
+            .maximumSize(weekCacheSize)
+            .expireAfterWrite(weekCacheTtl)
+            .recordStats()
+            .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, weeks, "schedules.calendar.weeks");
+
+    // ISO day numbers from the enum, safe to inline
+    String isoDays =
+        days.stream().map(day -> String.valueOf(day.getValue())).collect(Collectors.joining(", "));
+    Object[] names = {
+      SqlNames.qualified(schema, "Shift_instances"),
+      SqlNames.qualified(schema, "Employees"),
+      SqlNames.qualified(schema, "Rotation_assignments"),
+      SqlNames.qualified(schema, "Rotation_patterns"),
+      SqlNames.qualified(schema, "Rotation_pattern_steps"),
+      isoDays,
+      DAYS,
+      ""
+    };
+    this.generateSql = GENERATE_SQL.formatted(names);
+    this.generateRotationsSql = GENERATE_ROTATIONS_SQL.formatted(names);
+    this.fillEmployeeSql = FILL_EMPLOYEE_SQL.formatted(names);
+    this.clearEmployeesSql = CLEAR_EMPLOYEES_SQL.formatted(names);
+    this.reconcileSql = RECONCILE_SQL.formatted(names);
+    this.deleteStaleSql = DELETE_STALE_SQL.formatted(names);
+    this.pruneSql = PRUNE_SQL.formatted(names);
+    names[7] = BY_EMPLOYEE;
+    this.generateForEmployeesSql = GENERATE_SQL.formatted(names);
+    names[7] = BY_ROTATION_EMPLOYEE;
+    this.generateRotationsForEmployeesSql = GENERATE_ROTATIONS_SQL.formatted(names);
+  }
+
+  /**
+   * Extends the window to days-ahead days from today and brings the rows in it in line with the
+   * Employees table, then drops the rows older than retention-days if set. Runs on startup and
+   * daily, can be repeated at any time.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  @Scheduled(cron = "${application.schedules.calendar.cron:0 15 3 * * *}")
+  public synchronized void refresh() {
+    LocalDate today = LocalDate.now();
+    MapSqlParameterSource window =
+        new MapSqlParameterSource("from", today).addValue("to", today.plusDays(daysAhead));
+    Set<Integer> changed = new HashSet<>();
+    int[] generated = {0};
+    transactionTemplate.executeWithoutResult(
+        status -> {
+          changed.addAll(jdbcTemplate.queryForList(reconcileSql, window, Integer.class));
+          changed.addAll(jdbcTemplate.queryForList(deleteStaleSql, window, Integer.class));
+          generated[0] = jdbcTemplate.update(generateSql, window);
+          generated[0] += jdbcTemplate.update(generateRotationsSql, window);
+          if (retentionDays > 0) {
+            jdbcTemplate.update(
+                pruneSql, new MapSqlParameterSource("before", today.minusDays(retentionDays)));
+          }
+        });
+    // New rows only extend the window, a cached week may still lack its last days
+    if (generated[0] > 0) {
+      weeks.invalidateAll();
+    } else {
+      evictNow(changed);
+    }
+    log.info(
+        "Shift calendar refreshed up to {}, {} shifts added, {} employees corrected",
+        today.plusDays(daysAhead),
+        generated[0],
+        changed.size());
+  }
+
+  /**
+   * Replaces the shifts of the employees from today on by those of their new schedule, a null
+   * schedule leaves them without shifts. Past shifts are kept. Call it in the transaction that
+   * changes the schedules, the week views are evicted once it commits.
+   */
+  public void reassign(Map<Integer, Integer> scheduleByEmployee) {
+    if (scheduleByEmployee.isEmpty()) {
+      return;
+    }
+    LocalDate today = LocalDate.now();
+    MapSqlParameterSource employees = window(today, scheduleByEmployee.keySet());
+    jdbcTemplate.update(clearEmployeesSql, employees);
+    MapSqlParameterSource[] fills =
+        scheduleByEmployee.entrySet().stream()
+            .filter(entry -> entry.getValue() != null)
+            .map(
+                entry ->
+                    new MapSqlParameterSource("employeeId", entry.getKey())
+                        .addValue("scheduleId", entry.getValue())
+                        .addValue("from", today)
+                        .addValue("to", today.plusDays(daysAhead)))
+            .toArray(MapSqlParameterSource[]::new);
+    if (fills.length > 0) {
+      jdbcTemplate.batchUpdate(fillEmployeeSql, fills);
+    }
+    // Employees on a rotation keep following it
+    jdbcTemplate.update(generateRotationsForEmployeesSql, employees);
+    evict(scheduleByEmployee.keySet());
+  }
+
+  /**
+   * Rebuilds the shifts of the employees from today on from what is stored for them, their rotation
+   * if they follow one and their schedule otherwise. Changes made through JPA have to be flushed
+   * first. Call it in the transaction that makes them, like reassign.
+   */
+  public void regenerate(Collection<Integer> employeeIds) {
+    if (employeeIds.isEmpty()) {
+      return;
+    }
+    MapSqlParameterSource employees = window(LocalDate.now(), employeeIds);
+    jdbcTemplate.update(clearEmployeesSql, employees);
+    jdbcTemplate.update(generateForEmployeesSql, employees);
+    jdbcTemplate.update(generateRotationsForEmployeesSql, employees);
+    evict(employeeIds);
+  }
+
+  /** Last day of the generated window. */
+  public LocalDate windowEnd() {
+    return LocalDate.now().plusDays(daysAhead);
+  }
+
+  private MapSqlParameterSource window(LocalDate today, Collection<Integer> employeeIds) {
+    return new MapSqlParameterSource("employeeIds", employeeIds)
+        .addValue("from", today)
+        .addValue("to", today.plusDays(daysAhead));
+  }
+
+  /** Drops every cached week, for changes to the schedules themselves (name, times). */
+  public void evictAll() {
+    weeks.invalidateAll();
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              weeks.invalidateAll();
+            }
+          });
+    }
+  }
+
+  /** Week starting on the Monday of the given day, from the cache or with one range query. */
+  public WeekSchedule getWeek(Integer employeeId, LocalDate day) {
+    LocalDate weekStart = day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    return weeks.get(new WeekKey(employeeId, weekStart), this::loadWeek);
+  }
+
+  private WeekSchedule loadWeek(WeekKey key) {
+    List<ShiftDay> days =
+        shiftInstanceRepository
+            .findByEmployeeBetween(key.employeeId(), key.weekStart(), key.weekStart().plusDays(6))
+            .stream()
+            .map(ShiftCalendarService::toShiftDay)
+            .toList();
+    return new WeekSchedule(key.employeeId(), key.weekStart(), days);
+  }
+
+  private static ShiftDay toShiftDay(ShiftInstance shift) {
+    Schedule schedule = shift.getSchedule();
+    return new ShiftDay(
+        shift.getId().getShiftDate(),
+        schedule.getId(),
+        schedule.getName(),
+        schedule.getStartTime(),
+        schedule.getEndTime());
+  }
+
+  // Same pattern as EmployeePrincipalCache.evict, a concurrent load cannot put the old rows back
+  private void evict(Collection<Integer> employeeIds) {
+    Set<Integer> ids = Set.copyOf(employeeIds);
+    evictNow(ids);
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              evictNow(ids);
+            }
+          });
+    }
+  }
+
+  private void evictNow(Set<Integer> employeeIds) {
+    if (!employeeIds.isEmpty()) {
+      weeks.asMap().keySet().removeIf(key -> employeeIds.contains(key.employeeId()));
+    }
+  }
+}
@@ -0,0 +1,176 @@
+package com.lazardev.FlexCrew.service;
+
+import com.lazardev.FlexCrew.dao.projection.ProjectCandidate;
+import com.lazardev.FlexCrew.dto.StaffingAssignment;
+import com.lazardev.FlexCrew.util.MinCostFlow;
+import jakarta.annotation.PreDestroy;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Spreads free employees over the places every open project still needs, each employee on one
+ * project at most. The plan fills as many places as the teams allow. When a team is short of
+ * people the projects due first are filled first, and the best scored employees go to the projects
+ * due first.
+ *
+ * <p>An employee can only fill places of its own team, so each team is an independent min-cost
+ * flow, solved in parallel. Employees with the same score are interchangeable: they are pooled in
+ * one node per score, so the network of a team holds (scores x projects) edges rather than
+ * (employees x projects). A team needing k places only keeps its k best employees, the others
+ * could never improve the plan.
+ */
+@Component
+public class StaffingOptimizer {
+
+    /** Places a project still needs from a team, null due date for none. */
+    public record Demand(int projectId, int teamId, int needed, OffsetDateTime dueDate) {
+    }
+
+    public record Result(List<StaffingAssignment> assignments, int needed, int filled) {
+    }
+
+    private record Scored(ProjectCandidate candidate, double score) {
+    }
+
+    // Best score first, lower id on a tie, as the project suggestions
+    private static final Comparator<Scored> RANKING = Comparator.comparingDouble(Scored::score).reversed()
+            .thenComparing(scored -> scored.candidate().getEmployeeId());
+
+    private final CandidateScorer candidateScorer;
+    private final ForkJoinPool pool;
+
+    @Autowired
+    public StaffingOptimizer(
+            CandidateScorer candidateScorer,
+            @Value("${application.projects.staffing.parallelism:0}") int parallelism) {
+        this.candidateScorer = candidateScorer;
+        this.pool = new ForkJoinPool(
+                parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdown();
+    }
+
+    /** Candidates must be free, not on any project the demands belong to. */
+    public Result optimize(List<Demand> demands, List<ProjectCandidate> candidates) {
+        Map<Integer, List<Demand>> demandsByTeam = new HashMap<>();
+        int needed = 0;
+        for (Demand demand : demands) {
+            if (demand.needed() > 0) {
+                demandsByTeam.computeIfAbsent(demand.teamId(), id -> new ArrayList<>()).add(demand);
+                needed += demand.needed();
+            }
+        }
+
+        List<List<StaffingAssignment>> teams = pool.submit(() -> {
+            // Scores first, the scorer may be costly and every candidate needs one
+            double[] scores = new double[candidates.size()];
+            IntStream.range(0, candidates.size()).parallel()
+                    .forEach(i -> scores[i] = candidateScorer.score(candidates.get(i)));
+            Map<Integer, List<Scored>> candidatesByTeam = new HashMap<>();
+            for (int i = 0; i < candidates.size(); i++) {
+                ProjectCandidate candidate = candidates.get(i);
+                if (demandsByTeam.containsKey(candidate.getTeamId())) {
+                    candidatesByTeam.computeIfAbsent(candidate.getTeamId(), id -> new ArrayList<>())
+                            .add(new Scored(candidate, scores[i]));
+                }
+            }
+            return demandsByTeam.entrySet().parallelStream()
+                    .map(team -> solveTeam(team.getValue(), candidatesByTeam.getOrDefault(team.getKey(), List.of())))
+                    .toList();
+        }).join();
+
+        List<StaffingAssignment> assignments = new ArrayList<>();
+        teams.forEach(assignments::addAll);
+        assignments.sort(Comparator.comparing(StaffingAssignment::projectId)
+                .thenComparing(StaffingAssignment::employeeId));
+        return new Result(assignments, needed, assignments.size());
+    }
+
+    static List<StaffingAssignment> solveTeam(List<Demand> demands, List<Scored> candidates) {
+        int needed = demands.stream().mapToInt(Demand::needed).sum();
+        List<Scored> best = candidates.stream().sorted(RANKING).limit(needed).toList();
+        if (best.isEmpty()) {
+            return List.of();
+        }
+
+        // Runs of equal score, in ranking order
+        List<List<Scored>> pools = new ArrayList<>();
+        for (Scored scored : best) {
+            List<Scored> last = pools.isEmpty() ? null : pools.get(pools.size() - 1);
+            if (last != null && last.get(0).score() == scored.score()) {
+                last.add(scored);
+            } else {
+                pools.add(new ArrayList<>(List.of(scored)));
+            }
+        }
+        // Projects due the same day cost the same, no due date comes last
+        TreeMap<LocalDate, Integer> dueRanks = new TreeMap<>();
+        demands.forEach(demand -> dueRanks.put(dueDay(demand), 0));
+        int rank = 0;
+        for (Map.Entry<LocalDate, Integer> entry : dueRanks.entrySet()) {
+            entry.setValue(rank++);
+        }
+
+        // Filling a project due earlier always wins over pairing better, whatever the pairing costs
+        long pairing = (long) rank - 1;
+        long dueWeight = best.size() * (long) pools.size() * (pairing + 1) + 1;
+
+        // source -> pool -> project -> sink
+        int source = 0;
+        int sink = 1;
+        int firstPool = 2;
+        int firstProject = firstPool + pools.size();
+        MinCostFlow network = new MinCostFlow(firstProject + demands.size());
+        for (int p = 0; p < pools.size(); p++) {
+            network.addEdge(source, firstPool + p, pools.get(p).size(), 0);
+        }
+        for (int d = 0; d < demands.size(); d++) {
+            network.addEdge(firstProject + d, sink, demands.get(d).needed(), 0);
+        }
+        int[][] edges = new int[pools.size()][demands.size()];
+        for (int p = 0; p < pools.size(); p++) {
+            for (int d = 0; d < demands.size(); d++) {
+                int due = dueRanks.get(dueDay(demands.get(d)));
+                // p * (last rank - due) is lowest when the best pools meet the earliest projects
+                long cost = due * dueWeight + p * (pairing - due);
+                edges[p][d] = network.addEdge(firstPool + p, firstProject + d, pools.get(p).size(), cost);
+            }
+        }
+        network.solve(source, sink);
+
+        List<StaffingAssignment> assignments = new ArrayList<>();
+        for (int p = 0; p < pools.size(); p++) {
+            int taken = 0;
+            List<Scored> members = pools.get(p);
+            for (int d = 0; d < demands.size(); d++) {
+                Demand demand = demands.get(d);
+                for (int flow = network.flowOn(edges[p][d]); flow > 0; flow--) {
+                    assignments.add(new StaffingAssignment(demand.projectId(), demand.teamId(),
+                            members.get(taken++).candidate().getEmployeeId()));
+                }
+            }
+        }
+        return assignments;
+    }
+
+    private static LocalDate dueDay(Demand demand) {
+        return demand.dueDate() != null
+                ? demand.dueDate().withOffsetSameInstant(ZoneOffset.UTC).toLocalDate()
+                : LocalDate.MAX;
+    }
+}
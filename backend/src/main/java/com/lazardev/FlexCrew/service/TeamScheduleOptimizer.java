@@ -0,0 +1,207 @@
+package com.lazardev.FlexCrew.service;
+
+import com.lazardev.FlexCrew.dto.ScheduleAssignment;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Distributes the members of a team over the schedules, within the seats left by the other
+ * employees. Every member moved away from its current schedule costs move-cost, every schedule used
+ * beyond the first costs spread-cost, so the team stays on few schedules and few people move.
+ *
+ * <p>Members only differ by their current schedule, so a solution is the set of schedules used: a
+ * used schedule keeps as many of its members as it has seats and takes the members that had to
+ * move. Starts from a greedy set and improves it by local search (drop, add, swap, merge two into
+ * one) until no move improves it or the time budget runs out.
+ */
+@Component
+public class TeamScheduleOptimizer {
+
+    /** A team member and its current schedule, null if it has none. */
+    public record Member(int employeeId, Integer scheduleId) {
+    }
+
+    /** A schedule and the seats it has for the team. */
+    public record Slot(int scheduleId, int seats) {
+    }
+
+    public record Result(List<ScheduleAssignment> assignments, List<Integer> unassigned, int reassignments,
+            int schedulesUsed) {
+    }
+
+    private final long timeBudgetNanos;
+    private final int moveCost;
+    private final int spreadCost;
+
+    @Autowired
+    public TeamScheduleOptimizer(
+            @Value("${application.schedules.optimizer.time-budget:PT0.05S}") Duration timeBudget,
+            @Value("${application.schedules.optimizer.move-cost:1}") int moveCost,
+            @Value("${application.schedules.optimizer.spread-cost:2}") int spreadCost) {
+        this.timeBudgetNanos = timeBudget.toNanos();
+        this.moveCost = moveCost;
+        this.spreadCost = spreadCost;
+    }
+
+    public Result optimize(List<Member> members, List<Slot> slots) {
+        long deadline = System.nanoTime() + timeBudgetNanos;
+        int n = members.size();
+
+        // Only schedules with a seat for the team take part
+        List<Slot> open = slots.stream().filter(slot -> slot.seats() > 0).toList();
+        int count = open.size();
+        int[] seats = new int[count];
+        int[] keep = new int[count];
+        Map<Integer, Integer> indexOf = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            seats[i] = open.get(i).seats();
+            indexOf.put(open.get(i).scheduleId(), i);
+        }
+        for (Member member : members) {
+            Integer index = member.scheduleId() != null ? indexOf.get(member.scheduleId()) : null;
+            if (index != null) {
+                keep[index]++;
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            keep[i] = Math.min(keep[i], seats[i]);
+        }
+
+        boolean[] used = initialSet(n, seats, keep);
+        improve(n, seats, keep, used, deadline);
+        return assign(members, open, seats, used, indexOf);
+    }
+
+    // Schedules keeping the most members first, then the largest, until everyone fits
+    private static boolean[] initialSet(int n, int[] seats, int[] keep) {
+        Integer[] order = new Integer[seats.length];
+        Arrays.setAll(order, i -> i);
+        Arrays.sort(order, Comparator.<Integer>comparingInt(i -> keep[i]).reversed()
+                .thenComparing(Comparator.<Integer>comparingInt(i -> seats[i]).reversed()));
+        boolean[] used = new boolean[seats.length];
+        long capacity = 0;
+        for (int i : order) {
+            if (capacity >= n) {
+                break;
+            }
+            used[i] = true;
+            capacity += seats[i];
+        }
+        return used;
+    }
+
+    private void improve(int n, int[] seats, int[] keep, boolean[] used, long deadline) {
+        long capacity = 0;
+        for (int i = 0; i < seats.length; i++) {
+            capacity += used[i] ? seats[i] : 0;
+        }
+        if (capacity < n) {
+            return; // Everything is used already
+        }
+        boolean improved = true;
+        while (improved && System.nanoTime() < deadline) {
+            improved = false;
+            for (int a = 0; a < seats.length && System.nanoTime() < deadline; a++) {
+                if (used[a]) {
+                    // Drop a schedule that keeps fewer members than it costs
+                    if (capacity - seats[a] >= n && keep[a] * moveCost < spreadCost) {
+                        used[a] = false;
+                        capacity -= seats[a];
+                        improved = true;
+                        continue;
+                    }
+                    // Swap it for one that keeps more members
+                    for (int b = 0; b < seats.length; b++) {
+                        if (!used[b] && keep[b] > keep[a] && capacity - seats[a] + seats[b] >= n) {
+                            used[a] = false;
+                            used[b] = true;
+                            capacity += seats[b] - seats[a];
+                            improved = true;
+                            break;
+                        }
+                    }
+                    if (improved) {
+                        continue;
+                    }
+                    // Merge it and another used schedule into one
+                    for (int c = a + 1; c < seats.length && !improved; c++) {
+                        if (!used[c]) {
+                            continue;
+                        }
+                        for (int b = 0; b < seats.length; b++) {
+                            if (!used[b]
+                                    && capacity - seats[a] - seats[c] + seats[b] >= n
+                                    && (keep[a] + keep[c] - keep[b]) * moveCost < spreadCost) {
+                                used[a] = false;
+                                used[c] = false;
+                                used[b] = true;
+                                capacity += seats[b] - seats[a] - seats[c];
+                                improved = true;
+                                break;
+                            }
+                        }
+                    }
+                } else if (keep[a] * moveCost > spreadCost) {
+                    // Add a schedule whose members would otherwise have to move
+                    used[a] = true;
+                    capacity += seats[a];
+                    improved = true;
+                }
+            }
+        }
+    }
+
+    private static Result assign(List<Member> members, List<Slot> open, int[] seats, boolean[] used,
+            Map<Integer, Integer> indexOf) {
+        int[] free = seats.clone();
+        List<ScheduleAssignment> assignments = new ArrayList<>(members.size());
+        List<Member> moving = new ArrayList<>();
+        for (Member member : members) {
+            Integer index = member.scheduleId() != null ? indexOf.get(member.scheduleId()) : null;
+            if (index != null && used[index] && free[index] > 0) {
+                free[index]--;
+                assignments.add(new ScheduleAssignment(member.employeeId(), member.scheduleId()));
+            } else {
+                moving.add(member);
+            }
+        }
+
+        // Members that move fill the used schedules with the most free seats first
+        Integer[] targets = new Integer[seats.length];
+        Arrays.setAll(targets, i -> i);
+        Arrays.sort(targets, Comparator.<Integer>comparingInt(i -> free[i]).reversed());
+        moving.sort(Comparator.comparingInt(Member::employeeId));
+        List<Integer> unassigned = new ArrayList<>();
+        int target = 0;
+        for (Member member : moving) {
+            while (target < targets.length && (!used[targets[target]] || free[targets[target]] == 0)) {
+                target++;
+            }
+            if (target == targets.length) {
+                unassigned.add(member.employeeId());
+                continue;
+            }
+            free[targets[target]]--;
+            assignments.add(new ScheduleAssignment(member.employeeId(), open.get(targets[target]).scheduleId()));
+        }
+
+        int schedulesUsed = 0;
+        for (int i = 0; i < seats.length; i++) {
+            schedulesUsed += used[i] && free[i] < seats[i] ? 1 : 0;
+        }
+        // Members without a schedule getting one are not reassignments
+        int reassignments = 0;
+        for (Member member : moving) {
+            reassignments += member.scheduleId() != null && !unassigned.contains(member.employeeId()) ? 1 : 0;
+        }
+        return new Result(assignments, unassigned, reassignments, schedulesUsed);
+    }
+}
@@ -0,0 +1,33 @@
+package com.lazardev.FlexCrew.service;
+
+import com.lazardev.FlexCrew.dao.projection.ProjectCandidate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+/**
+ * Suggests the employees on the fewest active projects first, as the workload index counts them.
+ * Until the index is seeded the count read with the candidates is used instead.
+ */
+@Primary
+@Component
+public class WorkloadCandidateScorer implements CandidateScorer {
+
+  private final ProjectWorkloadIndex workloadIndex;
+  private final LeastAssignedCandidateScorer fallback;
+
+  @Autowired
+  public WorkloadCandidateScorer(
+      ProjectWorkloadIndex workloadIndex, LeastAssignedCandidateScorer fallback) {
+    this.workloadIndex = workloadIndex;
+    this.fallback = fallback;
+  }
+
+  @Override
+  public double score(ProjectCandidate candidate) {
+    if (!workloadIndex.isReady()) {
+      return fallback.score(candidate);
+    }
+    return -workloadIndex.load(candidate.getEmployeeId());
+  }
+}
@@ -0,0 +1,77 @@
+package com.lazardev.FlexCrew.util;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.IntBinaryOperator;
+
+/**
+ * Lock-free int to int map for small, dense, non-negative keys such as serial database ids.
+ * Values live in fixed size {@link AtomicIntegerArray} chunks allocated on first write, so there is
+ * no boxing and no hashing. Absent keys read as 0, callers encode "no value" as 0.
+ */
+public final class AtomicDenseIntMap {
+
+  private static final int CHUNK_SHIFT = 10;
+  private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+  private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+  private volatile AtomicIntegerArray[] chunks = new AtomicIntegerArray[0];
+
+  public int get(int key) {
+    AtomicIntegerArray chunk = chunkOrNull(key);
+    return chunk == null ? 0 : chunk.get(key & CHUNK_MASK);
+  }
+
+  public void set(int key, int value) {
+    chunk(key).set(key & CHUNK_MASK, value);
+  }
+
+  public boolean compareAndSet(int key, int expect, int update) {
+    return chunk(key).compareAndSet(key & CHUNK_MASK, expect, update);
+  }
+
+  public int addAndGet(int key, int delta) {
+    return chunk(key).addAndGet(key & CHUNK_MASK, delta);
+  }
+
+  public int accumulateAndGet(int key, int value, IntBinaryOperator operator) {
+    return chunk(key).accumulateAndGet(key & CHUNK_MASK, value, operator);
+  }
+
+  /** Upper bound (exclusive) of the keys that may hold a value, for iteration. */
+  public int capacity() {
+    return chunks.length * CHUNK_SIZE;
+  }
+
+  private AtomicIntegerArray chunkOrNull(int key) {
+    checkKey(key);
+    AtomicIntegerArray[] current = chunks;
+    int index = key >>> CHUNK_SHIFT;
+    return index < current.length ? current[index] : null;
+  }
+
+  private AtomicIntegerArray chunk(int key) {
+    AtomicIntegerArray chunk = chunkOrNull(key);
+    return chunk != null ? chunk : allocate(key >>> CHUNK_SHIFT);
+  }
+
+  // Only writers of keys beyond the allocated range get here
+  private synchronized AtomicIntegerArray allocate(int index) {
+    AtomicIntegerArray[] current = chunks;
+    if (index >= current.length) {
+      AtomicIntegerArray[] grown = new AtomicIntegerArray[Math.max(index + 1, current.length * 2)];
+      System.arraycopy(current, 0, grown, 0, current.length);
+      current = grown;
+    }
+    if (current[index] == null) {
+      current[index] = new AtomicIntegerArray(CHUNK_SIZE);
+    }
+    chunks = current;
+    return current[index];
+  }
+
+  private static void checkKey(int key) {
+    if (key < 0) {
+      throw new IllegalArgumentException("Negative key: " + key);
+    }
+  }
+}
@@ -0,0 +1,90 @@
+package com.lazardev.FlexCrew.util;
+
+import java.util.Arrays;
+
+/**
+ * Set of ints in one open-addressed int array, linear probing and no boxing. Grows at half full.
+ * Meant for short-lived sets of ids built and probed within a request, not thread-safe.
+ */
+public final class IntHashSet {
+
+  // Marks a free slot, the value itself is tracked apart
+  private static final int FREE = Integer.MIN_VALUE;
+
+  private int[] slots;
+  private int mask;
+  private int size;
+  private boolean containsFree;
+
+  public IntHashSet() {
+    this(16);
+  }
+
+  public IntHashSet(int expectedSize) {
+    int capacity = Integer.highestOneBit(Math.max(4, expectedSize) * 2 - 1) << 1;
+    slots = new int[capacity];
+    Arrays.fill(slots, FREE);
+    mask = capacity - 1;
+  }
+
+  /** Returns false if the value was already in the set. */
+  public boolean add(int value) {
+    if (value == FREE) {
+      boolean added = !containsFree;
+      containsFree = true;
+      size += added ? 1 : 0;
+      return added;
+    }
+    int slot = indexOf(value);
+    if (slots[slot] == value) {
+      return false;
+    }
+    slots[slot] = value;
+    if (++size * 2 > slots.length) {
+      grow();
+    }
+    return true;
+  }
+
+  public boolean contains(int value) {
+    if (value == FREE) {
+      return containsFree;
+    }
+    return slots[indexOf(value)] == value;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  // Slot holding the value, or the free slot where it would go
+  private int indexOf(int value) {
+    int slot = mix(value) & mask;
+    while (slots[slot] != FREE && slots[slot] != value) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  private void grow() {
+    int[] old = slots;
+    slots = new int[old.length * 2];
+    Arrays.fill(slots, FREE);
+    mask = slots.length - 1;
+    for (int value : old) {
+      if (value != FREE) {
+        slots[indexOf(value)] = value;
+      }
+    }
+  }
+
+  // Serial ids are consecutive, spread them over the table
+  private static int mix(int value) {
+    int h = value * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+}
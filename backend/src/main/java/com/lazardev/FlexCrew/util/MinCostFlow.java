@@ -0,0 +1,111 @@
+package com.lazardev.FlexCrew.util;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+/**
+ * Min-cost max-flow over a small directed graph by successive shortest paths: Dijkstra on reduced
+ * costs with node potentials, one augmenting path per round. Costs must not be negative.
+ *
+ * <p>Edges live in flat arrays, edge e and e ^ 1 being an edge and its residual. Not thread-safe,
+ * build one per solve.
+ */
+public final class MinCostFlow {
+
+  private static final long INFINITE = Long.MAX_VALUE / 4;
+
+  private final int nodes;
+  private int edges;
+  private int[] head;
+  private int[] next = new int[16];
+  private int[] to = new int[16];
+  private int[] capacity = new int[16];
+  private long[] cost = new long[16];
+
+  public MinCostFlow(int nodes) {
+    this.nodes = nodes;
+    this.head = new int[nodes];
+    Arrays.fill(head, -1);
+  }
+
+  /** Adds an edge and returns its id, for flowOn. */
+  public int addEdge(int from, int target, int cap, long edgeCost) {
+    if (edgeCost < 0) {
+      throw new IllegalArgumentException("Negative cost: " + edgeCost);
+    }
+    int id = edges;
+    link(from, target, cap, edgeCost);
+    link(target, from, 0, -edgeCost);
+    return id;
+  }
+
+  /** Flow through an edge once solved. */
+  public int flowOn(int edge) {
+    return capacity[edge ^ 1];
+  }
+
+  /** Pushes as much flow as possible from source to sink at the lowest cost, returns the flow. */
+  public int solve(int source, int sink) {
+    long[] potential = new long[nodes];
+    long[] distance = new long[nodes];
+    int[] via = new int[nodes];
+    int flow = 0;
+    while (true) {
+      Arrays.fill(distance, INFINITE);
+      Arrays.fill(via, -1);
+      distance[source] = 0;
+      PriorityQueue<long[]> queue = new PriorityQueue<>((a, b) -> Long.compare(a[0], b[0]));
+      queue.add(new long[] {0, source});
+      while (!queue.isEmpty()) {
+        long[] top = queue.poll();
+        int node = (int) top[1];
+        if (top[0] > distance[node]) {
+          continue;
+        }
+        for (int e = head[node]; e >= 0; e = next[e]) {
+          if (capacity[e] == 0) {
+            continue;
+          }
+          long reduced = distance[node] + cost[e] + potential[node] - potential[to[e]];
+          if (reduced < distance[to[e]]) {
+            distance[to[e]] = reduced;
+            via[to[e]] = e;
+            queue.add(new long[] {reduced, to[e]});
+          }
+        }
+      }
+      if (distance[sink] >= INFINITE) {
+        return flow;
+      }
+      for (int node = 0; node < nodes; node++) {
+        if (distance[node] < INFINITE) {
+          potential[node] += distance[node];
+        }
+      }
+      int push = Integer.MAX_VALUE;
+      for (int node = sink; node != source; node = to[via[node] ^ 1]) {
+        push = Math.min(push, capacity[via[node]]);
+      }
+      for (int node = sink; node != source; node = to[via[node] ^ 1]) {
+        capacity[via[node]] -= push;
+        capacity[via[node] ^ 1] += push;
+      }
+      flow += push;
+    }
+  }
+
+  private void link(int from, int target, int cap, long edgeCost) {
+    if (edges == to.length) {
+      int grown = edges * 2;
+      next = Arrays.copyOf(next, grown);
+      to = Arrays.copyOf(to, grown);
+      capacity = Arrays.copyOf(capacity, grown);
+      cost = Arrays.copyOf(cost, grown);
+    }
+    next[edges] = head[from];
+    to[edges] = target;
+    capacity[edges] = cap;
+    cost[edges] = edgeCost;
+    head[from] = edges++;
+  }
+}
@@ -0,0 +1,97 @@
+package com.lazardev.FlexCrew.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Which schedules are running at a minute of the day. The day is cut at every start and end of a
+ * window into segments, a sweep over the sorted boundaries records the schedules active in each
+ * segment, and a query is a binary search over the segment starts. Windows running past midnight
+ * count as two intervals, up to midnight and from midnight.
+ *
+ * <p>Immutable, build a new index when a schedule changes.
+ */
+public final class ShiftIntervalIndex {
+
+  private static final int[] NONE = new int[0];
+
+  // Segment i covers [segmentStarts[i], segmentStarts[i + 1]), the last one up to midnight
+  private final int[] segmentStarts;
+  // Schedule ids active in each segment, sorted
+  private final int[][] active;
+
+  private ShiftIntervalIndex(int[] segmentStarts, int[][] active) {
+    this.segmentStarts = segmentStarts;
+    this.active = active;
+  }
+
+  /** Schedules without a window are left out, so are empty windows (same start and end). */
+  public static ShiftIntervalIndex of(Map<Integer, ShiftWindow> windows) {
+    TreeSet<Integer> boundaries = new TreeSet<>();
+    boundaries.add(0);
+    windows.values().forEach(window -> {
+      if (window != null) {
+        boundaries.add(window.startMinute());
+        boundaries.add(window.endMinute());
+      }
+    });
+    int[] starts = boundaries.stream().mapToInt(Integer::intValue).toArray();
+
+    // Sweep: per segment, the schedules opened and closed at its start
+    List<List<Integer>> opened = new ArrayList<>();
+    List<List<Integer>> closed = new ArrayList<>();
+    for (int i = 0; i < starts.length; i++) {
+      opened.add(new ArrayList<>());
+      closed.add(new ArrayList<>());
+    }
+    TreeSet<Integer> running = new TreeSet<>();
+    for (Map.Entry<Integer, ShiftWindow> entry : windows.entrySet()) {
+      ShiftWindow window = entry.getValue();
+      if (window == null || window.lengthMinutes() == 0) {
+        continue;
+      }
+      opened.get(Arrays.binarySearch(starts, window.startMinute())).add(entry.getKey());
+      closed.get(Arrays.binarySearch(starts, window.endMinute())).add(entry.getKey());
+      if (window.isOvernight()) {
+        // Still running from the day before at midnight
+        running.add(entry.getKey());
+      }
+    }
+    int[][] active = new int[starts.length][];
+    for (int i = 0; i < starts.length; i++) {
+      running.removeAll(closed.get(i));
+      running.addAll(opened.get(i));
+      active[i] = running.isEmpty() ? NONE : running.stream().mapToInt(Integer::intValue).toArray();
+    }
+    return new ShiftIntervalIndex(starts, active);
+  }
+
+  /** Ids of the schedules running at the minute of the day, sorted. Do not modify. */
+  public int[] schedulesAt(int minuteOfDay) {
+    if (minuteOfDay < 0 || minuteOfDay >= ShiftWindow.MINUTES_PER_DAY) {
+      throw new IllegalArgumentException("Minute must be within a day");
+    }
+    int i = Arrays.binarySearch(segmentStarts, minuteOfDay);
+    return active[i >= 0 ? i : -i - 2];
+  }
+
+  /**
+   * Minute by minute total of weight over the schedules running, in one pass over the segments.
+   * Schedules missing from weights weigh 0.
+   */
+  public int[] histogram(Map<Integer, Integer> weights) {
+    int[] minutes = new int[ShiftWindow.MINUTES_PER_DAY];
+    for (int i = 0; i < segmentStarts.length; i++) {
+      int total = 0;
+      for (int scheduleId : active[i]) {
+        total += weights.getOrDefault(scheduleId, 0);
+      }
+      int end = i + 1 < segmentStarts.length ? segmentStarts[i + 1] : ShiftWindow.MINUTES_PER_DAY;
+      Arrays.fill(minutes, segmentStarts[i], end, total);
+    }
+    return minutes;
+  }
+}
@@ -0,0 +1,60 @@
+package com.lazardev.FlexCrew.util;
+
+import java.time.OffsetTime;
+
+/**
+ * Daily window of a schedule in minutes of the day, start inclusive and end exclusive. Times are
+ * taken as wall-clock times in the schedule's own offset, a window ending before it starts runs
+ * past midnight.
+ */
+public record ShiftWindow(int startMinute, int endMinute) {
+
+  public static final int MINUTES_PER_DAY = 24 * 60;
+
+  public ShiftWindow {
+    if (startMinute < 0 || startMinute >= MINUTES_PER_DAY
+        || endMinute < 0 || endMinute >= MINUTES_PER_DAY) {
+      throw new IllegalArgumentException("Minutes must be within a day");
+    }
+  }
+
+  /** Null if either time is missing. */
+  public static ShiftWindow of(OffsetTime start, OffsetTime end) {
+    if (start == null || end == null) {
+      return null;
+    }
+    return new ShiftWindow(minuteOfDay(start), minuteOfDay(end));
+  }
+
+  public static int minuteOfDay(OffsetTime time) {
+    return time.getHour() * 60 + time.getMinute();
+  }
+
+  public boolean isOvernight() {
+    return endMinute < startMinute;
+  }
+
+  public int lengthMinutes() {
+    return isOvernight() ? MINUTES_PER_DAY - startMinute + endMinute : endMinute - startMinute;
+  }
+
+  public boolean covers(int minuteOfDay) {
+    if (isOvernight()) {
+      return minuteOfDay >= startMinute || minuteOfDay < endMinute;
+    }
+    return minuteOfDay >= startMinute && minuteOfDay < endMinute;
+  }
+
+  /**
+   * Adds weight to every slot of counts the window covers, slot i starting at minute
+   * i * (MINUTES_PER_DAY / counts.length).
+   */
+  public void addTo(int[] counts, int weight) {
+    int step = MINUTES_PER_DAY / counts.length;
+    for (int slot = 0; slot < counts.length; slot++) {
+      if (covers(slot * step)) {
+        counts[slot] += weight;
+      }
+    }
+  }
+}
@@ -0,0 +1,30 @@
+package com.lazardev.FlexCrew.util;
+
+/**
+ * Builds quoted table names for plain JDBC statements, the tables are created with upper case
+ * names and the schema name may contain dashes.
+ */
+public final class SqlNames {
+
+  private SqlNames() {}
+
+  /** "schema"."table", the schema may already be quoted in the configuration. */
+  public static String qualified(String schema, String table) {
+    return quote(schema) + "." + quote(table);
+  }
+
+  /** The identifier without surrounding quotes, as stored in the catalog. */
+  public static String unquoted(String identifier) {
+    String bare = identifier.strip();
+    if (bare.length() > 1
+        && (bare.startsWith("\"") && bare.endsWith("\"")
+            || bare.startsWith("`") && bare.endsWith("`"))) {
+      bare = bare.substring(1, bare.length() - 1);
+    }
+    return bare;
+  }
+
+  private static String quote(String identifier) {
+    return "\"" + unquoted(identifier).replace("\"", "\"\"") + "\"";
+  }
+}
@@ -5,6 +5,7 @@ import com.lazardev.FlexCrew.dto.analytics.PunctualityStatsDto;
 import com.lazardev.FlexCrew.dto.analytics.ScheduleLoadDto;
 import com.lazardev.FlexCrew.security.config.JwtService;
 import com.lazardev.FlexCrew.security.token.TokenRepository;
+import com.lazardev.FlexCrew.security.token.TokenRevocationIndex;
 import com.lazardev.FlexCrew.service.AnalyticsService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -39,6 +40,9 @@ class AnalyticsControllerTests {
         @MockBean
         private TokenRepository tokenRepository;
 
+        @MockBean
+        private TokenRevocationIndex tokenRevocationIndex;
+
         @MockBean
         private UserDetailsService userDetailsService;
 
@@ -1,27 +1,44 @@
 package com.lazardev.FlexCrew.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lazardev.FlexCrew.dto.KeysetPage;
+import com.lazardev.FlexCrew.dto.ProjectSummaryDTO;
+import com.lazardev.FlexCrew.dto.StaffingAssignment;
+import com.lazardev.FlexCrew.dto.StaffingPlan;
 import com.lazardev.FlexCrew.entity.Project;
 import com.lazardev.FlexCrew.security.config.JwtService;
+import com.lazardev.FlexCrew.security.config.SecurityConfiguration;
 import com.lazardev.FlexCrew.security.token.TokenRepository;
+import com.lazardev.FlexCrew.security.token.TokenRevocationIndex;
 import com.lazardev.FlexCrew.service.ProjectService;
+import com.lazardev.FlexCrew.service.ProjectStaffingService;
+import com.lazardev.FlexCrew.service.ProjectSuggestionCache;
+import com.lazardev.FlexCrew.service.ProjectSummaryService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.OffsetDateTime;
 import java.util.Arrays;
 import java.util.List;
 
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(ProjectController.class)
+@Import(SecurityConfiguration.class)
 class ProjectControllerTests {
 
     @Autowired
@@ -30,15 +47,30 @@ class ProjectControllerTests {
     @MockBean
     private ProjectService projectService;
 
+    @MockBean
+    private ProjectStaffingService staffingService;
+
+    @MockBean
+    private ProjectSummaryService summaryService;
+
+    @MockBean
+    private ProjectSuggestionCache suggestionCache;
+
     @MockBean
     private JwtService jwtService;
 
     @MockBean
     private TokenRepository tokenRepository;
 
+    @MockBean
+    private TokenRevocationIndex tokenRevocationIndex;
+
     @MockBean
     private UserDetailsService userDetailsService;
 
+    @MockBean
+    private AuthenticationProvider authenticationProvider;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -65,6 +97,77 @@ class ProjectControllerTests {
                 .andExpect(jsonPath("$[1].name").value("Project Beta"));
     }
 
+    @Test
+    @WithMockUser
+    void getProjectSummaries_shouldReturnACacheablePage() throws Exception {
+        OffsetDateTime dueFrom = OffsetDateTime.parse("2024-01-01T00:00:00Z");
+        ProjectSummaryDTO summary = new ProjectSummaryDTO(7, "Project Gamma", "OPEN",
+                OffsetDateTime.parse("2024-06-30T00:00:00Z"), 4, 3, 2, 50.0);
+        given(summaryService.findPage("OPEN", dueFrom, null, null, 1))
+                .willReturn(new KeysetPage<>(List.of(summary), "7"));
+
+        mockMvc.perform(get("/api/v1/projects/summary")
+                        .param("status", "OPEN")
+                        .param("dueFrom", "2024-01-01T00:00:00Z")
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "max-age=30, public"))
+                .andExpect(header().string("X-Next-Cursor", "7"))
+                .andExpect(jsonPath("$.size()").value(1))
+                .andExpect(jsonPath("$[0].missingCount").value(2))
+                .andExpect(jsonPath("$[0].staffingGapPercent").value(50.0));
+
+        mockMvc.perform(get("/api/v1/projects/summary")
+                        .param("dueFrom", "2024-01-01T00:00:00Z")
+                        .param("dueTo", "2024-01-01T00:00:00Z"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getStaffingPlan_shouldAskAnonymousCallersToLogIn() throws Exception {
+        mockMvc.perform(get("/api/v1/projects/staffing-plan"))
+                .andExpect(status().isUnauthorized());
+
+        verifyNoInteractions(staffingService);
+    }
+
+    @Test
+    @WithMockUser(authorities = "USER")
+    void getStaffingPlan_shouldBeForbiddenToNonAdmins() throws Exception {
+        mockMvc.perform(get("/api/v1/projects/staffing-plan"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/api/v1/projects/staffing-plan/apply")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"assignments\":[{\"projectId\":1,\"teamId\":10,\"employeeId\":3}]}"))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(staffingService);
+    }
+
+    @Test
+    @WithMockUser(authorities = "USER")
+    void assignments_shouldBeForbiddenToNonAdmins() throws Exception {
+        mockMvc.perform(post("/api/v1/projects/1/assignments/3")).andExpect(status().isForbidden());
+        mockMvc.perform(delete("/api/v1/projects/1/assignments/3")).andExpect(status().isForbidden());
+
+        verifyNoInteractions(projectService);
+    }
+
+    @Test
+    @WithMockUser(authorities = "ADMIN")
+    void applyStaffingPlan_shouldAnswerConflictWithTheProblemsOfAStalePlan() throws Exception {
+        List<StaffingAssignment> assignments = List.of(new StaffingAssignment(1, 10, 3));
+        given(staffingService.applyPlan(assignments)).willThrow(new IllegalStateException(
+                "1 assignments no longer hold: Employee 3 is already on an open project"));
+
+        mockMvc.perform(post("/api/v1/projects/staffing-plan/apply")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new StaffingPlan(assignments, 1, 1, 1, 0))))
+                .andExpect(status().isConflict())
+                .andExpect(content().string("1 assignments no longer hold: Employee 3 is already on an open project"));
+    }
+
     // You can add more test methods here for other endpoints like:
     // - getProjectById
     // - createProject
@@ -0,0 +1,119 @@
+package com.lazardev.FlexCrew.controller;
+
+import com.lazardev.FlexCrew.security.config.JwtService;
+import com.lazardev.FlexCrew.security.config.SecurityConfiguration;
+import com.lazardev.FlexCrew.security.token.TokenRepository;
+import com.lazardev.FlexCrew.security.token.TokenRevocationIndex;
+import com.lazardev.FlexCrew.service.PunctualityBackfillService;
+import com.lazardev.FlexCrew.service.RecordBatchService;
+import com.lazardev.FlexCrew.service.RecordExportService;
+import com.lazardev.FlexCrew.service.RecordService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.OffsetDateTime;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(RecordController.class)
+@Import(SecurityConfiguration.class)
+class RecordControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private RecordService recordService;
+
+    @MockBean
+    private RecordExportService recordExportService;
+
+    @MockBean
+    private RecordBatchService recordBatchService;
+
+    @MockBean
+    private PunctualityBackfillService punctualityBackfillService;
+
+    @MockBean
+    private JwtService jwtService;
+
+    @MockBean
+    private TokenRepository tokenRepository;
+
+    @MockBean
+    private TokenRevocationIndex tokenRevocationIndex;
+
+    @MockBean
+    private UserDetailsService userDetailsService;
+
+    @MockBean
+    private AuthenticationProvider authenticationProvider;
+
+    @Test
+    @WithMockUser(authorities = "USER")
+    void exportRecords_shouldBeForbiddenToNonAdmins() throws Exception {
+        mockMvc.perform(get("/api/records/export")
+                        .param("from", "2024-01-01T00:00:00Z")
+                        .param("to", "2024-02-01T00:00:00Z"))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(recordExportService);
+    }
+
+    @Test
+    @WithMockUser(authorities = "USER")
+    void maintenance_shouldBeForbiddenToNonAdmins() throws Exception {
+        mockMvc.perform(post("/api/records/monthly-counters/rebuild")).andExpect(status().isForbidden());
+        mockMvc.perform(post("/api/records/punctuality/backfill")).andExpect(status().isForbidden());
+
+        verifyNoInteractions(recordService, punctualityBackfillService);
+    }
+
+    @Test
+    @WithMockUser(authorities = "ADMIN")
+    void exportRecords_shouldStreamAnAttachmentToAdmins() throws Exception {
+        OffsetDateTime from = OffsetDateTime.parse("2024-01-01T00:00:00Z");
+        OffsetDateTime to = OffsetDateTime.parse("2024-02-01T00:00:00Z");
+        MvcResult result = mockMvc.perform(get("/api/records/export")
+                        .param("from", "2024-01-01T00:00:00Z")
+                        .param("to", "2024-02-01T00:00:00Z"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"records.csv\""));
+        verify(recordExportService).export(eq(from), eq(to), eq(RecordExportService.Format.CSV), eq(false), any());
+    }
+
+    @Test
+    @WithMockUser(authorities = "ADMIN")
+    void exportRecords_shouldRejectAnUnknownFormat() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/records/export")
+                        .param("from", "2024-01-01T00:00:00Z")
+                        .param("to", "2024-02-01T00:00:00Z")
+                        .param("format", "xml"))
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Unsupported export format: xml"));
+    }
+}
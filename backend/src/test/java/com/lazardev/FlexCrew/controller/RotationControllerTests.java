@@ -0,0 +1,67 @@
+package com.lazardev.FlexCrew.controller;
+
+import com.lazardev.FlexCrew.security.config.JwtService;
+import com.lazardev.FlexCrew.security.config.SecurityConfiguration;
+import com.lazardev.FlexCrew.security.token.TokenRepository;
+import com.lazardev.FlexCrew.security.token.TokenRevocationIndex;
+import com.lazardev.FlexCrew.service.EmployeeService;
+import com.lazardev.FlexCrew.service.RotationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(RotationController.class)
+@Import(SecurityConfiguration.class)
+class RotationControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private RotationService rotationService;
+
+    @MockBean
+    private EmployeeService employeeService;
+
+    @MockBean
+    private JwtService jwtService;
+
+    @MockBean
+    private TokenRepository tokenRepository;
+
+    @MockBean
+    private TokenRevocationIndex tokenRevocationIndex;
+
+    @MockBean
+    private UserDetailsService userDetailsService;
+
+    @MockBean
+    private AuthenticationProvider authenticationProvider;
+
+    @Test
+    @WithMockUser(authorities = "USER")
+    void rotationChanges_shouldBeForbiddenToNonAdmins() throws Exception {
+        mockMvc.perform(post("/api/rotations")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/api/rotations/1/assign/2")).andExpect(status().isForbidden());
+        mockMvc.perform(delete("/api/rotations/assign/2")).andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/rotations/schedule/3")).andExpect(status().isForbidden());
+
+        verifyNoInteractions(rotationService, employeeService);
+    }
+}
@@ -0,0 +1,89 @@
+package com.lazardev.FlexCrew.controller;
+
+import com.lazardev.FlexCrew.security.config.JwtService;
+import com.lazardev.FlexCrew.security.config.SecurityConfiguration;
+import com.lazardev.FlexCrew.security.token.TokenRepository;
+import com.lazardev.FlexCrew.security.token.TokenRevocationIndex;
+import com.lazardev.FlexCrew.service.EmployeeService;
+import com.lazardev.FlexCrew.service.RosterConflictDetector;
+import com.lazardev.FlexCrew.service.ScheduleAssignmentBatchService;
+import com.lazardev.FlexCrew.service.ScheduleService;
+import com.lazardev.FlexCrew.service.ScheduleSimulationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ScheduleController.class)
+@Import(SecurityConfiguration.class)
+class ScheduleControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ScheduleService scheduleService;
+
+    @MockBean
+    private EmployeeService employeeService;
+
+    @MockBean
+    private ScheduleAssignmentBatchService assignmentBatchService;
+
+    @MockBean
+    private ScheduleSimulationService simulationService;
+
+    @MockBean
+    private RosterConflictDetector conflictDetector;
+
+    @MockBean
+    private JwtService jwtService;
+
+    @MockBean
+    private TokenRepository tokenRepository;
+
+    @MockBean
+    private TokenRevocationIndex tokenRevocationIndex;
+
+    @MockBean
+    private UserDetailsService userDetailsService;
+
+    @MockBean
+    private AuthenticationProvider authenticationProvider;
+
+    @Test
+    @WithMockUser(authorities = "USER")
+    void scheduleChanges_shouldBeForbiddenToNonAdmins() throws Exception {
+        mockMvc.perform(post("/api/schedules/assign/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"employeeId\":1,\"scheduleId\":2}]"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/api/schedules/assign/1/2")).andExpect(status().isForbidden());
+        mockMvc.perform(post("/api/schedules/optimize/team/3/apply")).andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/schedules/optimize/team/3")).andExpect(status().isForbidden());
+        mockMvc.perform(post("/api/schedules/simulate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/api/schedules/validate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(delete("/api/schedules/2")).andExpect(status().isForbidden());
+
+        verifyNoInteractions(scheduleService, employeeService, assignmentBatchService, simulationService,
+                conflictDetector);
+    }
+}
@@ -6,6 +6,7 @@ import com.lazardev.FlexCrew.entity.Role;
 import com.lazardev.FlexCrew.security.config.JwtService;
 import com.lazardev.FlexCrew.security.token.Token;
 import com.lazardev.FlexCrew.security.token.TokenRepository;
+import com.lazardev.FlexCrew.security.token.TokenRevocationIndex;
 import com.lazardev.FlexCrew.security.token.TokenType;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -40,6 +41,8 @@ class AuthenticationServiceTests {
     private JwtService jwtService;
     @Mock
     private AuthenticationManager authenticationManager;
+    @Mock
+    private TokenRevocationIndex tokenRevocationIndex;
 
     @InjectMocks
     private AuthenticationService authenticationService;
@@ -144,6 +147,7 @@ class AuthenticationServiceTests {
 
         verify(tokenRepository).findAllValidTokenByUser(employee.getId());
         verify(tokenRepository).saveAll(anyList()); // Verifies that saveAll for revoking tokens was called
+        verify(tokenRevocationIndex).revokeAll(employee.getEmail(), Collections.singletonList(oldToken1));
 
         // Verify new token is saved
         verify(tokenRepository, times(1)).save(tokenArgumentCaptor.capture());
@@ -0,0 +1,81 @@
+package com.lazardev.FlexCrew.security.config;
+
+import com.lazardev.FlexCrew.entity.Employee;
+import com.lazardev.FlexCrew.entity.Role;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtServiceTests {
+
+    private static final String SECRET_KEY = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+
+    private SimpleMeterRegistry meterRegistry;
+    private JwtService jwtService;
+    private Employee employee;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        jwtService = new JwtService(meterRegistry);
+        ReflectionTestUtils.setField(jwtService, "secretKey", SECRET_KEY);
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 900000L);
+        ReflectionTestUtils.setField(jwtService, "refreshExpiration", 12960000000L);
+        ReflectionTestUtils.setField(jwtService, "claimsCacheMaxSize", 100L);
+        jwtService.init();
+
+        employee = Employee.builder()
+                .id(1)
+                .email("test.user@example.com")
+                .password("encodedPassword")
+                .role(Role.USER)
+                .build();
+    }
+
+    @Test
+    void extractAllClaims_shouldParseOnceAndServeRepeatedLookupsFromCache() {
+        String token = jwtService.generateToken(employee);
+
+        Claims first = jwtService.extractAllClaims(token);
+        assertEquals("test.user@example.com", jwtService.extractUsername(token));
+        assertTrue(jwtService.isTokenValid(token, employee));
+
+        assertSame(first, jwtService.extractAllClaims(token));
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "jwt.claims").tag("result", "miss")
+                .functionCounter().count());
+        assertEquals(3.0, meterRegistry.get("cache.gets").tag("cache", "jwt.claims").tag("result", "hit")
+                .functionCounter().count());
+    }
+
+    @Test
+    void isTokenValid_shouldRejectTokenIssuedForAnotherUser() {
+        Employee other = Employee.builder().id(2).email("other@example.com").role(Role.USER).build();
+        String token = jwtService.generateToken(other);
+
+        assertFalse(jwtService.isTokenValid(token, employee));
+    }
+
+    @Test
+    void extractAllClaims_shouldNotCacheTamperedTokens() {
+        String token = jwtService.generateToken(employee);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        assertThrows(JwtException.class, () -> jwtService.extractAllClaims(tampered));
+        assertThrows(JwtException.class, () -> jwtService.extractAllClaims(tampered));
+        assertEquals(0.0, meterRegistry.get("cache.gets").tag("cache", "jwt.claims").tag("result", "hit")
+                .functionCounter().count());
+    }
+
+    @Test
+    void tokenDigest_shouldBeStableAndNotContainTheToken() {
+        String token = jwtService.generateToken(employee);
+
+        assertEquals(JwtService.tokenDigest(token), JwtService.tokenDigest(token));
+        assertFalse(JwtService.tokenDigest(token).contains(token));
+    }
+}
@@ -0,0 +1,128 @@
+package com.lazardev.FlexCrew.security.token;
+
+import com.lazardev.FlexCrew.security.config.JwtService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationIndexTests {
+
+    private static final String SUBJECT = "test.user@example.com";
+
+    @Mock
+    private TokenRepository tokenRepository;
+
+    private TokenRevocationIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new TokenRevocationIndex(tokenRepository, new SimpleMeterRegistry(), 1000, 0.001);
+    }
+
+    private static Claims claims(String tokenUse, long issuedAtMillis) {
+        return Jwts.claims()
+                .subject(SUBJECT)
+                .issuedAt(new Date(issuedAtMillis))
+                .add(JwtService.TOKEN_USE_CLAIM, tokenUse)
+                .build();
+    }
+
+    private void rebuildWith(String... revokedTokens) {
+        when(tokenRepository.countByRevokedTrue()).thenReturn((long) revokedTokens.length);
+        when(tokenRepository.streamRevokedTokens()).thenReturn(Stream.of(revokedTokens));
+        index.rebuild();
+    }
+
+    @Test
+    void check_shouldDeferToDatabase_untilRebuilt() {
+        Claims claims = claims(JwtService.ACCESS_TOKEN, System.currentTimeMillis());
+
+        assertEquals(TokenRevocationIndex.Status.UNKNOWN, index.check("token", claims));
+    }
+
+    @Test
+    void check_shouldTrustAccessTokensThatWereNeverRevoked() {
+        rebuildWith("revoked-token");
+        long now = System.currentTimeMillis();
+
+        assertEquals(TokenRevocationIndex.Status.ACTIVE,
+                index.check("fresh-token", claims(JwtService.ACCESS_TOKEN, now)));
+        assertEquals(TokenRevocationIndex.Status.UNKNOWN,
+                index.check("revoked-token", claims(JwtService.ACCESS_TOKEN, now)));
+    }
+
+    @Test
+    void check_shouldDeferRefreshAndLegacyTokensToDatabase() {
+        rebuildWith();
+        long now = System.currentTimeMillis();
+
+        assertEquals(TokenRevocationIndex.Status.UNKNOWN,
+                index.check("refresh", claims(JwtService.REFRESH_TOKEN, now)));
+        assertEquals(TokenRevocationIndex.Status.UNKNOWN,
+                index.check("legacy", Jwts.claims().subject(SUBJECT).issuedAt(new Date(now)).build()));
+    }
+
+    // Only the payload is read back on a rebuild, the signature is not checked
+    private static String jwt(String subject, long issuedAtSeconds) {
+        String payload = "{\"sub\":\"" + subject + "\",\"iat\":" + issuedAtSeconds + "}";
+        return "eyJhbGciOiJIUzI1NiJ9."
+                + Base64.getUrlEncoder().withoutPadding().encodeToString(payload.getBytes(StandardCharsets.UTF_8))
+                + ".signature";
+    }
+
+    @Test
+    void rebuild_shouldRevokeWhatWasIssuedBeforeTheNewestRevokedTokenOfEachSubject() {
+        long revokedAt = System.currentTimeMillis() / 1000 - 60;
+        rebuildWith(jwt(SUBJECT, revokedAt - 600), jwt(SUBJECT, revokedAt), "not-a-jwt");
+
+        assertEquals(TokenRevocationIndex.Status.REVOKED,
+                index.check("earlier-token", claims(JwtService.ACCESS_TOKEN, (revokedAt - 1) * 1000)));
+        assertEquals(TokenRevocationIndex.Status.ACTIVE,
+                index.check("later-token", claims(JwtService.ACCESS_TOKEN, (revokedAt + 1) * 1000)));
+        assertEquals(TokenRevocationIndex.Status.UNKNOWN,
+                index.check(jwt(SUBJECT, revokedAt), claims(JwtService.ACCESS_TOKEN, revokedAt * 1000)));
+    }
+
+    @Test
+    void revokeAll_shouldRevokeEverythingIssuedBeforeAndKeepLaterTokens() {
+        rebuildWith();
+        long now = System.currentTimeMillis();
+        Token stored = Token.builder().token("old-token").build();
+
+        index.revokeAll(SUBJECT, List.of(stored));
+
+        assertEquals(TokenRevocationIndex.Status.REVOKED,
+                index.check("older-token", claims(JwtService.ACCESS_TOKEN, now - 5000)));
+        assertEquals(TokenRevocationIndex.Status.UNKNOWN,
+                index.check("old-token", claims(JwtService.ACCESS_TOKEN, now + 5000)));
+        assertEquals(TokenRevocationIndex.Status.ACTIVE,
+                index.check("new-token", claims(JwtService.ACCESS_TOKEN, now + 5000)));
+    }
+
+    @Test
+    void revokeAll_shouldNotAffectOtherSubjects() {
+        rebuildWith();
+        long before = System.currentTimeMillis() - 5000;
+
+        index.revokeAll("someone.else@example.com", Collections.emptyList());
+
+        assertEquals(TokenRevocationIndex.Status.ACTIVE,
+                index.check("token", claims(JwtService.ACCESS_TOKEN, before)));
+    }
+}
@@ -0,0 +1,69 @@
+package com.lazardev.FlexCrew.security.user;
+
+import com.lazardev.FlexCrew.dao.EmployeeRepository;
+import com.lazardev.FlexCrew.entity.Employee;
+import com.lazardev.FlexCrew.entity.Role;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class EmployeePrincipalCacheTests {
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+
+    private EmployeePrincipalCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new EmployeePrincipalCache(employeeRepository, new SimpleMeterRegistry(), 100, Duration.ofMinutes(5));
+        lenient().when(employeeRepository.findPrincipalByEmail(anyString())).thenAnswer(invocation -> Optional.of(
+                new EmployeePrincipal(invocation.<String>getArgument(0).startsWith("ana") ? 1 : 2,
+                        invocation.getArgument(0), Role.USER, null, null, "hash")));
+    }
+
+    private static Employee employee(int id, String email) {
+        return Employee.builder().id(id).email(email).build();
+    }
+
+    @Test
+    void evict_shouldDropTheStoredAndTheNewEmail() {
+        cache.get("ana@flexcrew.test");
+        cache.get("ana.new@flexcrew.test");
+        cache.get("bob@flexcrew.test");
+
+        cache.evict("ana@flexcrew.test", employee(1, "ana.new@flexcrew.test"));
+        cache.get("ana@flexcrew.test");
+        cache.get("ana.new@flexcrew.test");
+        cache.get("bob@flexcrew.test");
+
+        verify(employeeRepository, times(2)).findPrincipalByEmail("ana@flexcrew.test");
+        verify(employeeRepository, times(2)).findPrincipalByEmail("ana.new@flexcrew.test");
+        verify(employeeRepository, times(1)).findPrincipalByEmail("bob@flexcrew.test");
+    }
+
+    @Test
+    void evict_withoutTheStoredEmail_shouldDropWhateverIsCachedForTheId() {
+        cache.get("ana@flexcrew.test");
+        cache.get("bob@flexcrew.test");
+
+        cache.evict(null, employee(1, "ana.new@flexcrew.test"));
+        cache.get("ana@flexcrew.test");
+        cache.get("bob@flexcrew.test");
+
+        verify(employeeRepository, times(2)).findPrincipalByEmail("ana@flexcrew.test");
+        verify(employeeRepository, times(1)).findPrincipalByEmail("bob@flexcrew.test");
+    }
+}
@@ -5,6 +5,7 @@ import com.lazardev.FlexCrew.dao.ScheduleRepository;
 import com.lazardev.FlexCrew.dao.projection.PunctualityCount;
 import com.lazardev.FlexCrew.dto.analytics.PunctualityStatsDto;
 import com.lazardev.FlexCrew.dto.analytics.ScheduleLoadDto;
+import com.lazardev.FlexCrew.entity.Punctuality;
 import com.lazardev.FlexCrew.entity.Schedule;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -34,17 +35,17 @@ class AnalyticsServiceTests {
 
     // Helper class/interface for PunctualityCount
     static class MockPunctualityCount implements PunctualityCount {
-        private final String statusName;
+        private final Punctuality punctuality;
         private final Long count;
 
-        public MockPunctualityCount(String statusName, Long count) {
-            this.statusName = statusName;
+        public MockPunctualityCount(Punctuality punctuality, Long count) {
+            this.punctuality = punctuality;
             this.count = count;
         }
 
         @Override
-        public String getStatusName() {
-            return statusName;
+        public Punctuality getPunctuality() {
+            return punctuality;
         }
 
         @Override
@@ -56,11 +57,11 @@ class AnalyticsServiceTests {
     @Test
     void getPunctualityStats_shouldReturnCorrectStats_whenAllCountsPresent() {
         List<PunctualityCount> counts = Arrays.asList(
-                new MockPunctualityCount("Punctual", 50L),
-                new MockPunctualityCount("Late", 10L),
-                new MockPunctualityCount("Early", 5L),
-                new MockPunctualityCount("Missed", 2L));
-        when(recordRepository.countRecordsByIssueStatus()).thenReturn(counts);
+                new MockPunctualityCount(Punctuality.PUNCTUAL, 50L),
+                new MockPunctualityCount(Punctuality.LATE, 10L),
+                new MockPunctualityCount(Punctuality.EARLY, 5L),
+                new MockPunctualityCount(Punctuality.MISSED, 2L));
+        when(recordRepository.countRecordsByPunctuality()).thenReturn(counts);
 
         PunctualityStatsDto stats = analyticsService.getPunctualityStats();
 
@@ -74,9 +75,9 @@ class AnalyticsServiceTests {
     @Test
     void getPunctualityStats_shouldReturnCorrectStats_whenSomeCountsMissing() {
         List<PunctualityCount> counts = Arrays.asList(
-                new MockPunctualityCount("Punctual", 30L),
-                new MockPunctualityCount("Late", 7L));
-        when(recordRepository.countRecordsByIssueStatus()).thenReturn(counts);
+                new MockPunctualityCount(Punctuality.PUNCTUAL, 30L),
+                new MockPunctualityCount(Punctuality.LATE, 7L));
+        when(recordRepository.countRecordsByPunctuality()).thenReturn(counts);
 
         PunctualityStatsDto stats = analyticsService.getPunctualityStats();
 
@@ -89,7 +90,7 @@ class AnalyticsServiceTests {
 
     @Test
     void getPunctualityStats_shouldReturnZeroCounts_whenRepositoryReturnsEmptyList() {
-        when(recordRepository.countRecordsByIssueStatus()).thenReturn(Collections.emptyList());
+        when(recordRepository.countRecordsByPunctuality()).thenReturn(Collections.emptyList());
 
         PunctualityStatsDto stats = analyticsService.getPunctualityStats();
 
@@ -101,12 +102,12 @@ class AnalyticsServiceTests {
     }
 
     @Test
-    void getPunctualityStats_shouldIgnoreUnknownStatusNames() {
+    void getPunctualityStats_shouldIgnoreUnclassifiedRecords() {
         List<PunctualityCount> counts = Arrays.asList(
-                new MockPunctualityCount("Punctual", 20L),
-                new MockPunctualityCount("UnknownStatus", 5L) // This should be ignored
+                new MockPunctualityCount(Punctuality.PUNCTUAL, 20L),
+                new MockPunctualityCount(null, 5L) // Not classified yet, should be ignored
         );
-        when(recordRepository.countRecordsByIssueStatus()).thenReturn(counts);
+        when(recordRepository.countRecordsByPunctuality()).thenReturn(counts);
 
         PunctualityStatsDto stats = analyticsService.getPunctualityStats();
 
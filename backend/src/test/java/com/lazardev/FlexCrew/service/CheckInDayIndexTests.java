@@ -0,0 +1,114 @@
+package com.lazardev.FlexCrew.service;
+
+import com.lazardev.FlexCrew.dao.RecordRepository;
+import com.lazardev.FlexCrew.dao.projection.LastCheckIn;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CheckInDayIndexTests {
+
+    @Mock
+    private RecordRepository recordRepository;
+
+    private CheckInDayIndex index;
+    private LocalDate today;
+
+    @BeforeEach
+    void setUp() {
+        index = new CheckInDayIndex(recordRepository);
+        today = LocalDate.now();
+    }
+
+    private static LastCheckIn lastCheckIn(Integer employeeId, OffsetDateTime at) {
+        return new LastCheckIn() {
+            @Override
+            public Integer getEmployeeId() {
+                return employeeId;
+            }
+
+            @Override
+            public OffsetDateTime getLastCheckIn() {
+                return at;
+            }
+        };
+    }
+
+    @Test
+    void seed_shouldLoadTheLastCheckInDayOfEachEmployee() {
+        OffsetDateTime now = OffsetDateTime.now();
+        when(recordRepository.findLastCheckInPerEmployee())
+                .thenReturn(List.of(lastCheckIn(1, now), lastCheckIn(5000, now.minusDays(1))));
+
+        index.seed();
+
+        assertTrue(index.isReady());
+        assertTrue(index.isCheckedIn(1, today));
+        assertFalse(index.isCheckedIn(5000, today));
+        assertTrue(index.tryCheckIn(5000, today));
+        assertFalse(index.tryCheckIn(1, today));
+    }
+
+    @Test
+    void tryCheckIn_shouldAcceptOnlyOneOfConcurrentDuplicates() throws Exception {
+        int threads = 16;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            results.add(pool.submit(() -> {
+                start.await();
+                return index.tryCheckIn(42, today);
+            }));
+        }
+        start.countDown();
+
+        int accepted = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get(10, TimeUnit.SECONDS)) {
+                accepted++;
+            }
+        }
+        pool.shutdown();
+
+        assertEquals(1, accepted);
+        assertTrue(index.isCheckedIn(42, today));
+    }
+
+    @Test
+    void release_shouldLetTheEmployeeCheckInAgain() {
+        assertTrue(index.tryCheckIn(7, today));
+
+        index.release(7, today);
+
+        assertFalse(index.isCheckedIn(7, today));
+        assertTrue(index.tryCheckIn(7, today));
+    }
+
+    @Test
+    void dayOf_shouldUseTheOffsetOfTheCheckIn() {
+        // Same instant, two different days depending on where the employee checked in
+        OffsetDateTime earlyInTokyo = OffsetDateTime.parse("2026-03-02T00:30:00+09:00");
+        OffsetDateTime lateInUtc = earlyInTokyo.withOffsetSameInstant(ZoneOffset.UTC);
+
+        assertEquals(LocalDate.of(2026, 3, 2), CheckInDayIndex.dayOf(earlyInTokyo));
+        assertEquals(LocalDate.of(2026, 3, 1), CheckInDayIndex.dayOf(lateInUtc));
+    }
+}
@@ -0,0 +1,96 @@
+package com.lazardev.FlexCrew.service;
+
+import com.lazardev.FlexCrew.dao.EmployeeRepository;
+import com.lazardev.FlexCrew.dao.ScheduleRepository;
+import com.lazardev.FlexCrew.dao.projection.ScheduleHeadcount;
+import com.lazardev.FlexCrew.entity.Schedule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.OffsetTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CoverageIndexTests {
+
+    record Headcount(Integer scheduleId, Long employees) implements ScheduleHeadcount {
+        public Integer getScheduleId() {
+            return scheduleId;
+        }
+
+        public Long getEmployees() {
+            return employees;
+        }
+    }
+
+    @Mock
+    private ScheduleRepository scheduleRepository;
+    @Mock
+    private EmployeeRepository employeeRepository;
+
+    // Day 08:00-16:00, night 22:00-06:00 across midnight, late 16:00-00:00
+    private final List<Schedule> schedules = List.of(schedule(1, 8, 16), schedule(2, 22, 6), schedule(3, 16, 0));
+    private final Map<Integer, Integer> stored = new HashMap<>(Map.of(1, 3, 2, 2));
+
+    @BeforeEach
+    void setUp() {
+        when(scheduleRepository.findAll()).thenReturn(schedules);
+        when(employeeRepository.countEmployeesPerSchedule()).thenAnswer(invocation -> stored.entrySet().stream()
+                .filter(entry -> entry.getValue() > 0)
+                .map(entry -> (ScheduleHeadcount) new Headcount(entry.getKey(), (long) entry.getValue()))
+                .toList());
+    }
+
+    private static Schedule schedule(int id, int startHour, int endHour) {
+        return Schedule.builder()
+                .id(id)
+                .startTime(OffsetTime.of(startHour, 0, 0, 0, ZoneOffset.UTC))
+                .endTime(OffsetTime.of(endHour, 0, 0, 0, ZoneOffset.UTC))
+                .build();
+    }
+
+    private void move(CoverageIndex index, Map<Integer, Integer> deltas) {
+        index.moveAfterCommit(deltas);
+        deltas.forEach((scheduleId, delta) -> {
+            if (scheduleId != null) {
+                stored.merge(scheduleId, delta, Integer::sum);
+            }
+        });
+    }
+
+    @Test
+    void movesShouldMatchAFullRebuild() {
+        CoverageIndex index = new CoverageIndex(scheduleRepository, employeeRepository);
+        index.rebuild();
+
+        // Day to night, night to late, an unassigned employee joins the night, the day empties
+        Map<Integer, Integer> unassignedToNight = new HashMap<>();
+        unassignedToNight.put(null, -1);
+        unassignedToNight.put(2, 1);
+        move(index, Map.of(1, -1, 2, 1));
+        move(index, Map.of(2, -1, 3, 1));
+        move(index, unassignedToNight);
+        move(index, Map.of(1, -2, 3, 2));
+        CoverageIndex rebuilt = new CoverageIndex(scheduleRepository, employeeRepository);
+        rebuilt.rebuild();
+
+        assertArrayEquals(rebuilt.coverage().minutes(), index.coverage().minutes());
+        assertEquals(rebuilt.coverage().headcounts(), index.coverage().headcounts());
+        assertEquals(Map.of(2, 3, 3, 3), index.coverage().headcounts());
+        // Both sides of midnight count the night shift
+        assertEquals(6, index.coverage().headcountAt(23 * 60));
+        assertEquals(3, index.coverage().headcountAt(2 * 60));
+        assertEquals(0, index.coverage().headcountAt(12 * 60));
+        assertEquals(3, index.coverage().headcountAt(6 * 60 - 1));
+        assertEquals(0, index.coverage().headcountAt(6 * 60));
+    }
+}
@@ -0,0 +1,203 @@
+package com.lazardev.FlexCrew.service;
+
+import com.lazardev.FlexCrew.dao.EmployeeRepository;
+import com.lazardev.FlexCrew.dao.ProjectEmployeeAssignmentRepository;
+import com.lazardev.FlexCrew.dao.ProjectRepository;
+import com.lazardev.FlexCrew.dao.ProjectRequiredTeamRepository;
+import com.lazardev.FlexCrew.dao.projection.ProjectCandidate;
+import com.lazardev.FlexCrew.dao.projection.ProjectMemberRef;
+import com.lazardev.FlexCrew.dto.EmployeeSuggestionDTO;
+import com.lazardev.FlexCrew.dto.ProjectAssignmentSuggestionDTO;
+import com.lazardev.FlexCrew.dto.RequiredTeamSuggestionDTO;
+import com.lazardev.FlexCrew.entity.Project;
+import com.lazardev.FlexCrew.entity.ProjectEmployeeAssignment;
+import com.lazardev.FlexCrew.entity.ProjectRequiredTeam;
+import com.lazardev.FlexCrew.entity.Team;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProjectServiceTests {
+
+    record Member(Integer employeeId, Integer teamId, Long assignmentCount) implements ProjectCandidate {
+        public Integer getEmployeeId() {
+            return employeeId;
+        }
+
+        public String getNames() {
+            return "Employee " + employeeId;
+        }
+
+        public String getFirstSurname() {
+            return "Surname";
+        }
+
+        public Integer getTeamId() {
+            return teamId;
+        }
+
+        public String getTeamName() {
+            return "Team " + teamId;
+        }
+
+        public Long getAssignmentCount() {
+            return assignmentCount;
+        }
+    }
+
+    @Mock
+    private ProjectRepository projectRepository;
+    @Mock
+    private ProjectRequiredTeamRepository projectRequiredTeamRepository;
+    @Mock
+    private ProjectEmployeeAssignmentRepository projectEmployeeAssignmentRepository;
+    @Mock
+    private EmployeeRepository employeeRepository;
+    @Mock
+    private ProjectWorkloadIndex workloadIndex;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private ProjectService projectService;
+
+    @BeforeEach
+    void setUp() {
+        projectService = new ProjectService(projectRepository, projectRequiredTeamRepository,
+                projectEmployeeAssignmentRepository, employeeRepository, new LeastAssignedCandidateScorer(), workloadIndex,
+                eventPublisher);
+        Project project = new Project();
+        project.setProjectId(1);
+        project.setName("Project Alpha");
+        lenient().when(projectRepository.findById(1)).thenReturn(Optional.of(project));
+    }
+
+    private static ProjectRequiredTeam required(int teamId, int count) {
+        Team team = new Team();
+        team.setId(teamId);
+        team.setName("Team " + teamId);
+        ProjectRequiredTeam requiredTeam = new ProjectRequiredTeam();
+        requiredTeam.setTeam(team);
+        requiredTeam.setRequiredCount(count);
+        return requiredTeam;
+    }
+
+    private static List<Integer> ids(List<EmployeeSuggestionDTO> suggestions) {
+        return suggestions.stream().map(EmployeeSuggestionDTO::getEmployeeId).toList();
+    }
+
+    @Test
+    void shouldSuggestTheLeastAssignedFreeEmployeesOfEveryTeam() {
+        when(projectRequiredTeamRepository.findWithTeamByProjectId(1))
+                .thenReturn(List.of(required(10, 2), required(20, 1)));
+        when(projectEmployeeAssignmentRepository.findMemberRefsByProjectId(1))
+                .thenReturn(List.<ProjectMemberRef>of(new Member(1, 10, 1L)));
+        when(employeeRepository.findProjectCandidatesByTeamIds(Set.of(10, 20))).thenReturn(List.of(
+                new Member(1, 10, 1L), new Member(2, 10, 3L), new Member(3, 10, 0L), new Member(4, 10, 0L),
+                new Member(5, 20, 2L), new Member(6, 20, 2L), new Member(7, 20, 1L)));
+
+        ProjectAssignmentSuggestionDTO suggestions = projectService.getProjectAssignmentSuggestions(1);
+
+        RequiredTeamSuggestionDTO team10 = suggestions.getTeamSuggestions().get(0);
+        assertEquals(1, team10.getAssignedCount());
+        assertEquals(1, team10.getNeededCount());
+        assertEquals(List.of(1), ids(team10.getAssignedEmployees()));
+        // Employee 1 is already on the project, twice the needed count is kept
+        assertEquals(List.of(3, 4), ids(team10.getSuggestedEmployees()));
+
+        RequiredTeamSuggestionDTO team20 = suggestions.getTeamSuggestions().get(1);
+        assertEquals(List.of(7, 5), ids(team20.getSuggestedEmployees()));
+        assertEquals("Team 20", team20.getSuggestedEmployees().get(0).getTeamName());
+    }
+
+    @Test
+    void shouldNotCountProjectsOnceTheWorkloadIndexIsSeeded() {
+        projectService = new ProjectService(projectRepository, projectRequiredTeamRepository,
+                projectEmployeeAssignmentRepository, employeeRepository, new WorkloadCandidateScorer(workloadIndex,
+                        new LeastAssignedCandidateScorer()), workloadIndex, eventPublisher);
+        when(workloadIndex.isReady()).thenReturn(true);
+        when(workloadIndex.load(1)).thenReturn(2);
+        when(workloadIndex.load(2)).thenReturn(0);
+        when(projectRequiredTeamRepository.findWithTeamByProjectId(1)).thenReturn(List.of(required(10, 1)));
+        when(projectEmployeeAssignmentRepository.findMemberRefsByProjectId(1)).thenReturn(List.of());
+        when(employeeRepository.findUncountedProjectCandidatesByTeamIds(Set.of(10)))
+                .thenReturn(List.of(new Member(1, 10, 0L), new Member(2, 10, 0L)));
+
+        RequiredTeamSuggestionDTO team = projectService.getProjectAssignmentSuggestions(1).getTeamSuggestions().get(0);
+
+        assertEquals(List.of(2, 1), ids(team.getSuggestedEmployees()));
+        verify(employeeRepository, never()).findProjectCandidatesByTeamIds(any());
+    }
+
+    @Test
+    void createProject_shouldRebuildTheWorkloadOnlyForCascadedAssignments() {
+        Project empty = new Project();
+        Project staffed = new Project();
+        staffed.setEmployeeAssignments(Set.of(new ProjectEmployeeAssignment()));
+        when(projectRepository.save(any(Project.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        projectService.createProject(empty);
+        verify(workloadIndex, never()).rebuildAfterCommit();
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+
+        projectService.createProject(staffed);
+        verify(workloadIndex).rebuildAfterCommit();
+        verify(eventPublisher).publishEvent(ProjectStaffingChangedEvent.everything());
+    }
+
+    @Test
+    void shouldNotLookForCandidatesWhenEveryTeamIsStaffed() {
+        when(projectRequiredTeamRepository.findWithTeamByProjectId(1)).thenReturn(List.of(required(10, 1)));
+        when(projectEmployeeAssignmentRepository.findMemberRefsByProjectId(1))
+                .thenReturn(List.<ProjectMemberRef>of(new Member(1, 10, 1L), new Member(2, 10, 1L)));
+
+        RequiredTeamSuggestionDTO team = projectService.getProjectAssignmentSuggestions(1).getTeamSuggestions().get(0);
+
+        assertEquals(0, team.getNeededCount());
+        assertEquals(2, team.getAssignedCount());
+        assertTrue(team.getSuggestedEmployees().isEmpty());
+        verify(employeeRepository, never()).findProjectCandidatesByTeamIds(any());
+    }
+
+    @Test
+    void shouldRankThousandsOfCandidatesWithAPluggableScorer() {
+        projectService = new ProjectService(projectRepository, projectRequiredTeamRepository,
+                projectEmployeeAssignmentRepository, employeeRepository, candidate -> candidate.getEmployeeId() % 100,
+                workloadIndex, eventPublisher);
+        List<ProjectRequiredTeam> teams = new ArrayList<>();
+        List<ProjectCandidate> candidates = new ArrayList<>();
+        for (int teamId = 1; teamId <= 20; teamId++) {
+            teams.add(required(teamId, 5));
+        }
+        for (int employeeId = 1; employeeId <= 5_000; employeeId++) {
+            candidates.add(new Member(employeeId, 1 + employeeId % 20, 0L));
+        }
+        when(projectRequiredTeamRepository.findWithTeamByProjectId(1)).thenReturn(teams);
+        when(projectEmployeeAssignmentRepository.findMemberRefsByProjectId(1)).thenReturn(List.of());
+        when(employeeRepository.findProjectCandidatesByTeamIds(any())).thenReturn(candidates);
+
+        List<RequiredTeamSuggestionDTO> suggestions = projectService.getProjectAssignmentSuggestions(1)
+                .getTeamSuggestions();
+
+        assertEquals(20, suggestions.size());
+        // Team 1 holds the ids ending in 00, 20, 40, 60 and 80: the 80s score highest
+        assertEquals(List.of(80, 180, 280, 380, 480, 580, 680, 780, 880, 980),
+                ids(suggestions.get(0).getSuggestedEmployees()));
+        suggestions.forEach(team -> assertEquals(10, team.getSuggestedEmployees().size()));
+    }
+}
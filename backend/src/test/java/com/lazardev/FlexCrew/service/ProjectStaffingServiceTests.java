@@ -0,0 +1,176 @@
+package com.lazardev.FlexCrew.service;
+
+import com.lazardev.FlexCrew.dao.EmployeeRepository;
+import com.lazardev.FlexCrew.dao.ProjectEmployeeAssignmentRepository;
+import com.lazardev.FlexCrew.dao.ProjectRepository;
+import com.lazardev.FlexCrew.dao.ProjectRequiredTeamRepository;
+import com.lazardev.FlexCrew.dao.projection.ProjectAssignmentRef;
+import com.lazardev.FlexCrew.dao.projection.ProjectMemberRef;
+import com.lazardev.FlexCrew.dao.projection.RequiredTeamRef;
+import com.lazardev.FlexCrew.dto.StaffingAssignment;
+import com.lazardev.FlexCrew.entity.Project;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProjectStaffingServiceTests {
+
+    record Required(Integer projectId, Integer teamId, Integer requiredCount) implements RequiredTeamRef {
+        public Integer getProjectId() {
+            return projectId;
+        }
+
+        public Integer getTeamId() {
+            return teamId;
+        }
+
+        public Integer getRequiredCount() {
+            return requiredCount;
+        }
+    }
+
+    record Assigned(Integer projectId, Integer employeeId, Integer teamId) implements ProjectAssignmentRef {
+        public Integer getProjectId() {
+            return projectId;
+        }
+
+        public Integer getEmployeeId() {
+            return employeeId;
+        }
+
+        public Integer getTeamId() {
+            return teamId;
+        }
+    }
+
+    record Member(Integer employeeId, Integer teamId) implements ProjectMemberRef {
+        public Integer getEmployeeId() {
+            return employeeId;
+        }
+
+        public String getNames() {
+            return "Employee " + employeeId;
+        }
+
+        public String getFirstSurname() {
+            return "Surname";
+        }
+
+        public Integer getTeamId() {
+            return teamId;
+        }
+
+        public String getTeamName() {
+            return "Team " + teamId;
+        }
+    }
+
+    @Mock
+    private ProjectRepository projectRepository;
+    @Mock
+    private ProjectRequiredTeamRepository projectRequiredTeamRepository;
+    @Mock
+    private ProjectEmployeeAssignmentRepository projectEmployeeAssignmentRepository;
+    @Mock
+    private EmployeeRepository employeeRepository;
+    @Mock
+    private ProjectWorkloadIndex workloadIndex;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    private ProjectStaffingService staffingService;
+
+    @BeforeEach
+    void setUp() {
+        staffingService = new ProjectStaffingService(projectRepository, projectRequiredTeamRepository,
+                projectEmployeeAssignmentRepository, employeeRepository,
+                new StaffingOptimizer(new LeastAssignedCandidateScorer(), 2), workloadIndex, eventPublisher,
+                jdbcTemplate, "public");
+        // Project 1 needs two people from team 10, employee 3 is already on it
+        lenient().when(projectRepository.lockAllByIds(anyCollection()))
+                .thenReturn(List.of(project(1, ProjectStaffingService.OPEN), project(2, "COMPLETED")));
+        lenient().when(projectRequiredTeamRepository.findRefsByProjectIds(anyCollection()))
+                .thenReturn(List.<RequiredTeamRef>of(new Required(1, 10, 2)));
+        lenient().when(projectEmployeeAssignmentRepository.findRefsByProjectStatus(ProjectStaffingService.OPEN))
+                .thenReturn(List.<ProjectAssignmentRef>of(new Assigned(1, 3, 10)));
+        lenient().when(employeeRepository.findMemberRefsByIds(anyCollection())).thenReturn(List.<ProjectMemberRef>of(
+                new Member(1, 10), new Member(2, 10), new Member(3, 10), new Member(4, 20)));
+    }
+
+    private static Project project(int id, String status) {
+        Project project = new Project();
+        project.setProjectId(id);
+        project.setStatus(status);
+        return project;
+    }
+
+    @Test
+    void applyPlan_shouldLockProjectsThenEmployeesAndWriteOneBatch() {
+        List<StaffingAssignment> plan = List.of(new StaffingAssignment(1, 10, 1));
+
+        assertEquals(plan, staffingService.applyPlan(plan));
+
+        InOrder locks = inOrder(projectRepository, employeeRepository);
+        locks.verify(projectRepository).lockAllByIds(Set.of(1));
+        locks.verify(employeeRepository).lockIdsByIds(Set.of(1));
+        locks.verify(employeeRepository).findMemberRefsByIds(anyCollection());
+        verify(jdbcTemplate).batchUpdate(anyString(), any(SqlParameterSource[].class));
+        verify(workloadIndex).assignedAfterCommit(Set.of(1), 1);
+    }
+
+    @Test
+    void applyPlan_shouldRejectAStalePlanWithEveryProblem() {
+        List<StaffingAssignment> plan = List.of(
+                new StaffingAssignment(2, 10, 1),
+                new StaffingAssignment(1, 10, 4),
+                new StaffingAssignment(1, 10, 3),
+                new StaffingAssignment(1, 10, 99));
+        when(employeeRepository.findMemberRefsByIds(anyCollection())).thenReturn(List.<ProjectMemberRef>of(
+                new Member(1, 10), new Member(3, 10), new Member(4, 20)));
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> staffingService.applyPlan(plan));
+
+        assertTrue(e.getMessage().startsWith("4 assignments no longer hold"), e.getMessage());
+        assertTrue(e.getMessage().contains("Project 2 is not open"));
+        assertTrue(e.getMessage().contains("Employee 4 is not in team 10"));
+        assertTrue(e.getMessage().contains("Employee 3 is already on an open project"));
+        assertTrue(e.getMessage().contains("Employee not found: 99"));
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), any(SqlParameterSource[].class));
+    }
+
+    @Test
+    void applyPlan_shouldWriteNothingWhenOneAssignmentNoLongerHolds() {
+        // One place is left after employee 3, the second assignment overfills it
+        List<StaffingAssignment> plan = List.of(new StaffingAssignment(1, 10, 1), new StaffingAssignment(1, 10, 2));
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> staffingService.applyPlan(plan));
+
+        assertTrue(e.getMessage().contains("Project 1 needs no more people from team 10"), e.getMessage());
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), any(SqlParameterSource[].class));
+        verify(workloadIndex, never()).assignedAfterCommit(anyCollection(), anyInt());
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+}
@@ -0,0 +1,133 @@
+package com.lazardev.FlexCrew.service;
+
+import com.lazardev.FlexCrew.dto.ProjectAssignmentSuggestionDTO;
+import com.lazardev.FlexCrew.dto.RequiredTeamSuggestionDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProjectSuggestionCacheTests {
+
+    @Mock
+    private ProjectService projectService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ProjectSuggestionCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new ProjectSuggestionCache(projectService, meterRegistry, 100, Duration.ofMinutes(10));
+    }
+
+    private static ProjectAssignmentSuggestionDTO suggestions(int projectId, Integer... teamIds) {
+        List<RequiredTeamSuggestionDTO> teams = new ArrayList<>();
+        for (Integer teamId : teamIds) {
+            teams.add(new RequiredTeamSuggestionDTO(teamId, "Team " + teamId, 1, 0, 1, List.of(), List.of()));
+        }
+        return new ProjectAssignmentSuggestionDTO(projectId, "Project " + projectId, teams);
+    }
+
+    @Test
+    void shouldEvictOnlyTheProjectsAChangeAffects() {
+        when(projectService.getProjectAssignmentSuggestions(1)).thenReturn(suggestions(1, 10));
+        when(projectService.getProjectAssignmentSuggestions(2)).thenReturn(suggestions(2, 10, 20));
+        when(projectService.getProjectAssignmentSuggestions(3)).thenReturn(suggestions(3, 30));
+        for (int round = 0; round < 2; round++) {
+            cache.get(1);
+            cache.get(2);
+            cache.get(3);
+        }
+
+        // A member of team 20 moved, only project 2 requires it
+        cache.onStaffingChanged(ProjectStaffingChangedEvent.of(List.of(), List.of(20)));
+        cache.get(1);
+        cache.get(2);
+        cache.get(3);
+        verify(projectService, times(1)).getProjectAssignmentSuggestions(1);
+        verify(projectService, times(2)).getProjectAssignmentSuggestions(2);
+        verify(projectService, times(1)).getProjectAssignmentSuggestions(3);
+
+        cache.onStaffingChanged(ProjectStaffingChangedEvent.of(List.of(3), List.of()));
+        cache.get(3);
+        verify(projectService, times(2)).getProjectAssignmentSuggestions(3);
+
+        cache.onStaffingChanged(ProjectStaffingChangedEvent.everything());
+        cache.get(1);
+        verify(projectService, times(2)).getProjectAssignmentSuggestions(1);
+
+        assertEquals(5.0 / 11, meterRegistry.get("projects.suggestions.hit.ratio").gauge().value(), 1e-9);
+        assertEquals(6, meterRegistry.get("projects.suggestions.load").timer().count());
+    }
+
+    @Test
+    void shouldComputeOnceForConcurrentRequests() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        when(projectService.getProjectAssignmentSuggestions(1)).thenAnswer(invocation -> {
+            loading.await(5, TimeUnit.SECONDS);
+            return suggestions(1, 10);
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<ProjectAssignmentSuggestionDTO>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> cache.get(1)));
+            }
+            Thread.sleep(100);
+            loading.countDown();
+            Set<ProjectAssignmentSuggestionDTO> distinct = new HashSet<>();
+            for (Future<ProjectAssignmentSuggestionDTO> result : results) {
+                distinct.add(result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, distinct.size());
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(projectService, times(1)).getProjectAssignmentSuggestions(1);
+    }
+
+    @Test
+    void shouldNotKeepALoadOverlappedByAnEviction() {
+        when(projectService.getProjectAssignmentSuggestions(1)).thenAnswer(invocation -> {
+            // The change commits while the suggestions are being read
+            cache.onStaffingChanged(ProjectStaffingChangedEvent.of(List.of(), List.of(99)));
+            return suggestions(1, 10);
+        });
+
+        assertNotNull(cache.get(1));
+        assertNotNull(cache.get(1));
+
+        verify(projectService, times(2)).getProjectAssignmentSuggestions(1);
+    }
+
+    @Test
+    void shouldNotCacheFailures() {
+        when(projectService.getProjectAssignmentSuggestions(9))
+                .thenThrow(new RuntimeException("Project not found with id: 9"));
+
+        assertThrows(RuntimeException.class, () -> cache.get(9));
+        assertThrows(RuntimeException.class, () -> cache.get(9));
+
+        verify(projectService, times(2)).getProjectAssignmentSuggestions(9);
+    }
+}
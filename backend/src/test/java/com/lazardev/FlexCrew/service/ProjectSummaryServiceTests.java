@@ -0,0 +1,81 @@
+package com.lazardev.FlexCrew.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import java.time.OffsetDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class ProjectSummaryServiceTests {
+
+    @Mock
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    private ProjectSummaryService summaryService;
+
+    @BeforeEach
+    void setUp() {
+        summaryService = new ProjectSummaryService(jdbcTemplate, "public");
+    }
+
+    private String sqlOf(String status, OffsetDateTime dueFrom, OffsetDateTime dueTo) {
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        summaryService.findPage(status, dueFrom, dueTo, null, 10);
+        verify(jdbcTemplate).query(sql.capture(), any(SqlParameterSource.class), any(RowMapper.class));
+        return sql.getValue();
+    }
+
+    @Test
+    void findPage_shouldWriteOutOnlyTheFiltersGiven() {
+        String unfiltered = sqlOf(null, null, null);
+
+        assertFalse(unfiltered.contains("status = :status"));
+        assertFalse(unfiltered.contains("due_date >="));
+        assertFalse(unfiltered.contains(" OR "));
+    }
+
+    @Test
+    void findPage_shouldFilterByStatusAndDueDateWithoutFlags() {
+        ArgumentCaptor<MapSqlParameterSource> parameters = ArgumentCaptor.forClass(MapSqlParameterSource.class);
+
+        summaryService.findPage("OPEN", OffsetDateTime.parse("2024-01-01T00:00:00Z"), null, "7", 10);
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate).query(sql.capture(), parameters.capture(), any(RowMapper.class));
+        assertTrue(sql.getValue().contains("AND status = :status"));
+        assertTrue(sql.getValue().contains("AND due_date >= :dueFrom AND due_date < :dueTo"));
+        assertFalse(sql.getValue().contains(" OR "));
+        assertEquals("OPEN", parameters.getValue().getValue("status"));
+        assertEquals(7, parameters.getValue().getValue("afterId"));
+        assertEquals(11, parameters.getValue().getValue("limit"));
+        assertFalse(parameters.getValue().hasValue("anyStatus"));
+    }
+
+    @Test
+    void findPage_shouldGiveEveryFilterCombinationItsOwnStatement() {
+        OffsetDateTime due = OffsetDateTime.parse("2024-01-01T00:00:00Z");
+        summaryService.findPage(null, null, null, null, 10);
+        summaryService.findPage("OPEN", null, null, null, 10);
+        summaryService.findPage(null, null, due, null, 10);
+        summaryService.findPage("OPEN", due, null, null, 10);
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, times(4))
+                .query(sql.capture(), any(SqlParameterSource.class), any(RowMapper.class));
+        assertEquals(4, sql.getAllValues().stream().distinct().count());
+        sql.getAllValues().forEach(statement -> assertFalse(statement.contains(" OR ")));
+    }
+}
@@ -0,0 +1,85 @@
+package com.lazardev.FlexCrew.service;
+
+import com.lazardev.FlexCrew.dao.EmployeeRepository;
+import com.lazardev.FlexCrew.dao.projection.EmployeeWorkloadRef;
+import com.lazardev.FlexCrew.dto.EmployeeWorkload;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProjectWorkloadIndexTests {
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+
+    private ProjectWorkloadIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProjectWorkloadIndex(employeeRepository);
+    }
+
+    private static EmployeeWorkloadRef ref(Integer employeeId, Integer teamId, long assignments) {
+        return new EmployeeWorkloadRef() {
+            public Integer getEmployeeId() {
+                return employeeId;
+            }
+
+            public Integer getTeamId() {
+                return teamId;
+            }
+
+            public Long getAssignments() {
+                return assignments;
+            }
+        };
+    }
+
+    private static List<Integer> ids(List<EmployeeWorkload> workloads) {
+        return workloads.stream().map(EmployeeWorkload::employeeId).toList();
+    }
+
+    @Test
+    void shouldRankTheMembersOfATeamFromMemory() {
+        when(employeeRepository.findWorkloadRefs(ProjectWorkloadIndex.INACTIVE)).thenReturn(List.of(
+                ref(1, 10, 3), ref(2, 10, 0), ref(3, 10, 1), ref(4, 20, 0), ref(5, null, 0), ref(6, 10, 1)));
+
+        assertFalse(index.isReady());
+        index.rebuild();
+
+        assertTrue(index.isReady());
+        assertEquals(3, index.load(1));
+        assertEquals(0, index.load(99));
+        assertEquals(List.of(2, 3, 6), ids(index.leastLoaded(10, 3)));
+        assertEquals(List.of(new EmployeeWorkload(4, 20, 0)), index.leastLoaded(20, 10));
+        assertEquals(List.of(), index.leastLoaded(10, 0));
+    }
+
+    @Test
+    void shouldFollowAssignmentsAndTeamChanges() {
+        when(employeeRepository.findWorkloadRefs(ProjectWorkloadIndex.INACTIVE)).thenReturn(List.of(
+                ref(1, 10, 0), ref(2, 10, 1)));
+        index.rebuild();
+
+        // No transaction here, applied right away
+        index.assignedAfterCommit(List.of(1, 2), 1);
+        index.assignedAfterCommit(List.of(1), 2);
+        assertEquals(List.of(2, 1), ids(index.leastLoaded(10, 5)));
+
+        index.assignedAfterCommit(List.of(2, 2, 2), -1);
+        assertEquals(0, index.load(2));
+
+        index.movedAfterCommit(2, 20);
+        index.movedAfterCommit(3, 10);
+        assertEquals(List.of(3, 1), ids(index.leastLoaded(10, 5)));
+        assertEquals(List.of(2), ids(index.leastLoaded(20, 5)));
+    }
+}
@@ -0,0 +1,54 @@
+package com.lazardev.FlexCrew.service;
+
+import com.lazardev.FlexCrew.entity.Punctuality;
+import com.lazardev.FlexCrew.entity.Record;
+import com.lazardev.FlexCrew.entity.Schedule;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.time.OffsetTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PunctualityClassifierTests {
+
+    private final PunctualityClassifier classifier = new PunctualityClassifier(5);
+
+    @Test
+    void classify_shouldTreatCheckInsWithinGraceAsPunctual() {
+        assertEquals(Punctuality.PUNCTUAL, classifier.classify(0));
+        assertEquals(Punctuality.PUNCTUAL, classifier.classify(5));
+        assertEquals(Punctuality.PUNCTUAL, classifier.classify(-5));
+        assertEquals(Punctuality.LATE, classifier.classify(6));
+        assertEquals(Punctuality.EARLY, classifier.classify(-6));
+    }
+
+    @Test
+    void classify_shouldStoreSignedDelayOnRecord() {
+        Schedule schedule = new Schedule(1, "Morning", OffsetTime.parse("08:00:00-06:00"),
+                OffsetTime.parse("16:30:00-06:00"), 3, 0);
+        Record record = new Record();
+        record.setSchedule(schedule);
+        // 08:20 at -06:00, reported from a client in UTC
+        record.setStartTime(OffsetDateTime.parse("2024-05-06T14:20:00Z"));
+
+        classifier.classify(record);
+
+        assertEquals(20, record.getDelayMinutes());
+        assertEquals(Punctuality.LATE, record.getPunctuality());
+
+        record.setStartTime(OffsetDateTime.parse("2024-05-06T07:45:00-06:00"));
+        classifier.classify(record);
+
+        assertEquals(-15, record.getDelayMinutes());
+        assertEquals(Punctuality.EARLY, record.getPunctuality());
+    }
+
+    @Test
+    void fromCode_shouldRoundTripStoredCodes() {
+        for (Punctuality punctuality : Punctuality.values()) {
+            assertEquals(punctuality, Punctuality.fromCode(punctuality.getCode()));
+        }
+        assertThrows(IllegalArgumentException.class, () -> Punctuality.fromCode((short) 42));
+    }
+}
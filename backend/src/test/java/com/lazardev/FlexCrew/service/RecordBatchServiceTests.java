@@ -0,0 +1,149 @@
+package com.lazardev.FlexCrew.service;
+
+import com.lazardev.FlexCrew.dao.EmployeeRepository;
+import com.lazardev.FlexCrew.dao.RecordRepository;
+import com.lazardev.FlexCrew.dao.ScheduleRepository;
+import com.lazardev.FlexCrew.dao.projection.CheckInTime;
+import com.lazardev.FlexCrew.dto.RecordBatchResult;
+import com.lazardev.FlexCrew.entity.Employee;
+import com.lazardev.FlexCrew.entity.Record;
+import com.lazardev.FlexCrew.entity.Schedule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RecordBatchServiceTests {
+
+    private static final OffsetDateTime NOW = OffsetDateTime.now();
+
+    @Mock
+    private RecordService recordService;
+    @Mock
+    private RecordRepository recordRepository;
+    @Mock
+    private EmployeeRepository employeeRepository;
+    @Mock
+    private ScheduleRepository scheduleRepository;
+    @Mock
+    private RecordWriteBehindBuffer writeBehindBuffer;
+
+    private CheckInDayIndex checkInDayIndex;
+    private RecordBatchService batchService;
+
+    @BeforeEach
+    void setUp() {
+        checkInDayIndex = new CheckInDayIndex(recordRepository);
+        batchService = new RecordBatchService(recordService, recordRepository, employeeRepository,
+                scheduleRepository, checkInDayIndex, writeBehindBuffer, new PunctualityClassifier(5));
+        Schedule schedule = Schedule.builder().id(1).startTime(NOW.toOffsetTime()).build();
+        lenient().when(scheduleRepository.findAllById(any())).thenReturn(List.of(schedule));
+        lenient().when(recordRepository.findCheckInTimes(anyCollection(), any(), any())).thenReturn(List.of());
+    }
+
+    private static Record record(Integer employeeId, Integer scheduleId) {
+        return Record.builder()
+                .employee(Employee.builder().id(employeeId).build())
+                .schedule(Schedule.builder().id(scheduleId).build())
+                .startTime(NOW)
+                .build();
+    }
+
+    private static List<RecordBatchResult.Status> statuses(List<RecordBatchResult> results) {
+        return results.stream().map(RecordBatchResult::status).toList();
+    }
+
+    @Test
+    void shouldSaveTheValidItemsOfAMixedBatch() {
+        when(employeeRepository.findExistingIds(anyCollection())).thenReturn(List.of(1, 2, 3));
+
+        List<RecordBatchResult> results = batchService.submitBatch(Arrays.asList(
+                record(1, 1), record(99, 1), null, record(2, 7), record(1, 1), record(3, 1)));
+
+        assertEquals(List.of(RecordBatchResult.Status.CREATED, RecordBatchResult.Status.REJECTED,
+                RecordBatchResult.Status.REJECTED, RecordBatchResult.Status.REJECTED,
+                RecordBatchResult.Status.REJECTED, RecordBatchResult.Status.CREATED), statuses(results));
+        assertEquals("Employee not found", results.get(1).message());
+        assertEquals("Schedule not found", results.get(3).message());
+        assertEquals("You can only post once a day", results.get(4).message());
+        verify(writeBehindBuffer, times(1)).writeNow(any());
+    }
+
+    @Test
+    void shouldRetryRowByRowWhenTheBatchedWriteFails() {
+        when(employeeRepository.findExistingIds(anyCollection())).thenReturn(List.of(1, 2, 3));
+        // Employee 2 breaks a constraint, which rolls back any insert it is part of
+        doAnswer(invocation -> {
+            List<Record> rows = invocation.getArgument(0);
+            if (rows.stream().anyMatch(row -> row.getEmployee().getId() == 2)) {
+                throw new IllegalStateException("constraint violation");
+            }
+            return null;
+        }).when(writeBehindBuffer).writeNow(any());
+
+        List<RecordBatchResult> results = batchService.submitBatch(
+                List.of(record(1, 1), record(2, 1), record(3, 1)));
+
+        assertEquals(List.of(RecordBatchResult.Status.CREATED, RecordBatchResult.Status.FAILED,
+                RecordBatchResult.Status.CREATED), statuses(results));
+        // The failed item can be sent again
+        assertFalse(checkInDayIndex.isCheckedIn(2, CheckInDayIndex.dayOf(NOW)));
+        assertTrue(checkInDayIndex.isCheckedIn(1, CheckInDayIndex.dayOf(NOW)));
+        verify(writeBehindBuffer, times(4)).writeNow(any());
+    }
+
+    @Test
+    void shouldFindCheckInsOfTheSameLocalDayStoredInAnotherOffset() {
+        when(employeeRepository.findExistingIds(anyCollection())).thenReturn(List.of(1));
+        OffsetDateTime lateEvening = OffsetDateTime.parse("2026-03-01T23:30:00-05:00");
+        OffsetDateTime earlyMorning = OffsetDateTime.parse("2026-03-01T06:00:00-05:00");
+        // Stored check-in comes back in UTC, already the next day there
+        when(recordRepository.findCheckInTimes(anyCollection(), any(), any())).thenAnswer(invocation -> {
+            OffsetDateTime from = invocation.getArgument(1);
+            OffsetDateTime to = invocation.getArgument(2);
+            OffsetDateTime stored = earlyMorning.withOffsetSameInstant(ZoneOffset.UTC);
+            return stored.isBefore(from) || !stored.isBefore(to) ? List.of() : List.of(checkInTime(1, stored));
+        });
+        Record record = record(1, 1);
+        record.setStartTime(lateEvening);
+
+        List<RecordBatchResult> results = batchService.submitBatch(List.of(record));
+
+        assertEquals(List.of(RecordBatchResult.Status.REJECTED), statuses(results));
+        assertEquals("You can only post once a day", results.get(0).message());
+        // The range spans the UTC day before and after, whatever the offsets
+        verify(recordRepository).findCheckInTimes(anyCollection(),
+                eq(OffsetDateTime.parse("2026-02-28T00:00:00Z")), eq(OffsetDateTime.parse("2026-03-03T00:00:00Z")));
+    }
+
+    private static CheckInTime checkInTime(Integer employeeId, OffsetDateTime created) {
+        return new CheckInTime() {
+            @Override
+            public Integer getEmployeeId() {
+                return employeeId;
+            }
+
+            @Override
+            public OffsetDateTime getCreated() {
+                return created;
+            }
+        };
+    }
+}
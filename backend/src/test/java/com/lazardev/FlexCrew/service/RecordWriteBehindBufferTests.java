@@ -0,0 +1,129 @@
+package com.lazardev.FlexCrew.service;
+
+import com.lazardev.FlexCrew.entity.Employee;
+import com.lazardev.FlexCrew.entity.Record;
+import com.lazardev.FlexCrew.entity.Schedule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RecordWriteBehindBufferTests {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private RecordWriteBehindBuffer buffer;
+
+    @AfterEach
+    void tearDown() {
+        if (buffer != null) {
+            buffer.stop();
+        }
+    }
+
+    private RecordWriteBehindBuffer start(boolean enabled, int capacity, int batchSize, Duration flushInterval) {
+        buffer = new RecordWriteBehindBuffer(jdbcTemplate, transactionManager, meterRegistry, "public", enabled,
+                capacity, batchSize, flushInterval);
+        buffer.start();
+        return buffer;
+    }
+
+    private static Record record(int employeeId) {
+        return Record.builder()
+                .employee(Employee.builder().id(employeeId).build())
+                .schedule(Schedule.builder().id(1).build())
+                .startTime(OffsetDateTime.now())
+                .build();
+    }
+
+    private static Collection<Record> ofSize(int size) {
+        return argThat(records -> records != null && records.size() == size);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ParameterizedPreparedStatementSetter<Record> anySetter() {
+        return any(ParameterizedPreparedStatementSetter.class);
+    }
+
+    @Test
+    void shouldFlushAsSoonAsABatchIsFull() {
+        start(true, 100, 3, Duration.ofSeconds(30));
+
+        assertTrue(buffer.offer(record(1)));
+        assertTrue(buffer.offer(record(2)));
+        assertTrue(buffer.offer(record(3)));
+
+        // Long before the 30 s interval
+        verify(jdbcTemplate, timeout(2000)).batchUpdate(contains("\"Records\""), ofSize(3), anyInt(), anySetter());
+        verify(jdbcTemplate, timeout(2000))
+                .batchUpdate(contains("\"Monthly_attendance\""), ofSize(3), anyInt(), anySetter());
+    }
+
+    @Test
+    void shouldFlushAPartialBatchOnceTheIntervalHasPassed() {
+        start(true, 100, 500, Duration.ofMillis(300));
+
+        assertTrue(buffer.offer(record(1)));
+        assertTrue(buffer.offer(record(2)));
+
+        verify(jdbcTemplate, after(100).never()).batchUpdate(contains("\"Records\""), ofSize(2), anyInt(), anySetter());
+        verify(jdbcTemplate, timeout(2000)).batchUpdate(contains("\"Records\""), ofSize(2), anyInt(), anySetter());
+    }
+
+    @Test
+    void shouldRefuseRecordsWhenTheQueueIsFull() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(jdbcTemplate.batchUpdate(contains("\"Records\""), ofSize(1), anyInt(), anySetter()))
+                .thenAnswer(invocation -> {
+                    writing.countDown();
+                    release.await(5, TimeUnit.SECONDS);
+                    return new int[0][];
+                });
+        start(true, 1, 1, Duration.ofMillis(10));
+
+        assertTrue(buffer.offer(record(1)));
+        // The flusher holds the first record, the second fills the queue
+        assertTrue(writing.await(2, TimeUnit.SECONDS));
+        assertTrue(buffer.offer(record(2)));
+        assertFalse(buffer.offer(record(3)));
+        release.countDown();
+
+        assertEquals(1.0, meterRegistry.counter("records.write-behind.rejected").count());
+    }
+
+    @Test
+    void shouldRefuseEveryRecordWhenDisabled() {
+        start(false, 100, 10, Duration.ofMillis(10));
+
+        assertFalse(buffer.offer(record(1)));
+        assertFalse(buffer.isRunning());
+    }
+}
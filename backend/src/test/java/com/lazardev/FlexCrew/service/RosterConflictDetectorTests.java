@@ -0,0 +1,154 @@
+package com.lazardev.FlexCrew.service;
+
+import com.lazardev.FlexCrew.dto.ScheduleAssignment;
+import com.lazardev.FlexCrew.dto.conflict.RosterChangeSet;
+import com.lazardev.FlexCrew.dto.conflict.RosterConflict;
+import com.lazardev.FlexCrew.dto.conflict.RosterValidation;
+import com.lazardev.FlexCrew.dto.rotation.RotationPatternRequest;
+import com.lazardev.FlexCrew.dto.simulation.ScheduleEdit;
+import com.lazardev.FlexCrew.util.ShiftWindow;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RosterConflictDetectorTests {
+
+    private static final ZoneOffset OFFSET = ZoneOffset.ofHours(-6);
+
+    // Early 06:00-14:00 (1), late 14:00-22:00 (2), night 22:00-06:00 (3), two places each
+    private static RosterConflictDetector.Snapshot snapshot(Map<Integer, Integer> scheduleOfEmployee) {
+        Map<Integer, RosterConflictDetector.ScheduleState> schedules = new LinkedHashMap<>();
+        schedules.put(1, state(1, "Early", 6, 14));
+        schedules.put(2, state(2, "Late", 14, 22));
+        schedules.put(3, state(3, "Night", 22, 6));
+        Map<Integer, Integer> headcounts = new HashMap<>();
+        scheduleOfEmployee.values().forEach(id -> headcounts.merge(id, 1, Integer::sum));
+        return new RosterConflictDetector.Snapshot(schedules, headcounts, scheduleOfEmployee, Set.of(),
+                List.of(new RosterConflictDetector.Pattern(1, "Late then early", Arrays.asList(2, 1, null))));
+    }
+
+    private static RosterConflictDetector.ScheduleState state(int id, String name, int startHour, int endHour) {
+        return new RosterConflictDetector.ScheduleState(id, name, new ShiftWindow(startHour * 60, endHour * 60), 2, -1);
+    }
+
+    private static ScheduleEdit window(Integer scheduleId, String name, int startHour, int endHour) {
+        return new ScheduleEdit(scheduleId, name, OffsetTime.of(startHour, 0, 0, 0, OFFSET),
+                OffsetTime.of(endHour, 0, 0, 0, OFFSET), scheduleId == null ? 2 : null, false);
+    }
+
+    private static List<RosterConflict.Type> types(RosterValidation validation) {
+        return validation.conflicts().stream().map(RosterConflict::type).toList();
+    }
+
+    @Test
+    void shouldAcceptChangesThatFitTheRoster() {
+        RosterValidation validation = RosterConflictDetector.detect(snapshot(Map.of(10, 1)),
+                new RosterChangeSet(List.of(window(null, "Weekend", 22, 6)),
+                        List.of(new ScheduleAssignment(10, 2)), null));
+
+        assertTrue(validation.valid());
+        // Same window as the night shift, and the new schedule runs through both halves of the day
+        assertEquals(List.of(RosterConflict.Type.DUPLICATE_WINDOW), types(validation));
+        assertEquals(0, validation.errors());
+    }
+
+    @Test
+    void shouldReportEveryConflictOfABatch() {
+        Map<Integer, Integer> employees = new HashMap<>();
+        employees.put(10, 1);
+        employees.put(11, 1);
+        employees.put(12, null);
+        RosterValidation validation = RosterConflictDetector.detect(snapshot(employees),
+                new RosterChangeSet(
+                        List.of(window(null, " early ", 7, 15),
+                                new ScheduleEdit(3, null, null, null, null, true),
+                                new ScheduleEdit(99, "Missing", null, null, 1, false)),
+                        List.of(new ScheduleAssignment(12, 2), new ScheduleAssignment(12, 1),
+                                new ScheduleAssignment(13, 1)),
+                        null));
+
+        assertFalse(validation.valid());
+        List<RosterConflict.Type> types = types(validation);
+        assertTrue(types.contains(RosterConflict.Type.DUPLICATE_NAME));
+        assertTrue(types.contains(RosterConflict.Type.DUPLICATE_ASSIGNMENT));
+        assertTrue(types.contains(RosterConflict.Type.OVER_CAPACITY));
+        assertTrue(types.contains(RosterConflict.Type.OVERLAP));
+        // Schedule 99 and employee 13 do not exist
+        assertEquals(2, types.stream().filter(type -> type == RosterConflict.Type.INVALID_EDIT).count());
+        // Errors come first
+        assertEquals(RosterConflict.Severity.WARNING,
+                validation.conflicts().get(validation.conflicts().size() - 1).severity());
+        assertEquals(validation.errors() + validation.warnings(), validation.conflicts().size());
+    }
+
+    @Test
+    void shouldFindShiftsRunningIntoTheNextOneOfARotation() {
+        // Night into early the next morning only meets at 06:00, across the end of the cycle too
+        RosterValidation validation = RosterConflictDetector.detect(snapshot(Map.of()),
+                new RosterChangeSet(null, null, List.of(
+                        new RotationPatternRequest("Quick return", Arrays.asList(3, 1, null)),
+                        new RotationPatternRequest("Wrapping", Arrays.asList(1, null, 3)),
+                        new RotationPatternRequest("Fine", Arrays.asList(1, 3, null)))));
+
+        assertEquals(0, validation.errors());
+
+        // Moving the late shift to 23:00-07:00 breaks the existing late then early rotation
+        validation = RosterConflictDetector.detect(snapshot(Map.of()),
+                RosterChangeSet.ofSchedule(window(2, null, 23, 7)));
+
+        assertFalse(validation.valid());
+        RosterConflict conflict = validation.conflicts().get(0);
+        assertEquals(RosterConflict.Type.ROTATION_OVERLAP, conflict.type());
+        assertEquals(List.of(2, 1), conflict.scheduleIds());
+        assertEquals(List.of(0), conflict.editIndexes());
+    }
+
+    @Test
+    void shouldValidateThousandsOfEdits() {
+        List<ScheduleEdit> edits = new ArrayList<>();
+        List<ScheduleAssignment> assignments = new ArrayList<>();
+        Map<Integer, Integer> employees = new HashMap<>();
+        for (int i = 0; i < 5_000; i++) {
+            OffsetTime start = OffsetTime.of(0, 0, 0, 0, OFFSET).plusMinutes(i * 7L);
+            edits.add(new ScheduleEdit(null, "Schedule " + i, start, start.plusHours(8), 2, false));
+            employees.put(i, null);
+            assignments.add(new ScheduleAssignment(i, 1 + i % 3));
+        }
+
+        RosterValidation validation = RosterConflictDetector.detect(snapshot(employees),
+                new RosterChangeSet(edits, assignments, null));
+
+        // Only the three existing schedules fill up, the warnings are cut at the limit
+        assertEquals(3, validation.errors());
+        assertTrue(validation.truncated());
+        assertEquals(RosterConflictDetector.MAX_WARNINGS, validation.warnings());
+        assertEquals(RosterConflict.Type.OVER_CAPACITY, validation.conflicts().get(0).type());
+    }
+
+    @Test
+    void shouldOnlyReportDuplicateNamesGivenByTheChanges() {
+        // Two schedules already share a name in the database
+        RosterConflictDetector.Snapshot snapshot = snapshot(Map.of());
+        snapshot.schedules().put(4, state(4, "Early", 7, 15));
+
+        RosterValidation retimed = RosterConflictDetector.detect(snapshot,
+                new RosterChangeSet(List.of(window(1, null, 5, 13), window(4, "EARLY ", 8, 16)), List.of(), null));
+        RosterValidation renamed = RosterConflictDetector.detect(snapshot,
+                new RosterChangeSet(List.of(window(2, "early", 14, 22)), List.of(), null));
+
+        assertFalse(types(retimed).contains(RosterConflict.Type.DUPLICATE_NAME));
+        assertTrue(retimed.valid());
+        assertTrue(types(renamed).contains(RosterConflict.Type.DUPLICATE_NAME));
+        assertFalse(renamed.valid());
+    }
+}
@@ -0,0 +1,134 @@
+package com.lazardev.FlexCrew.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RosterIndexTests {
+
+    private static final LocalDate START = LocalDate.of(2026, 1, 1);
+
+    // Four days on schedule 1, three off
+    private static final RosterIndex.Pattern FOUR_ON_THREE_OFF =
+            new RosterIndex.Pattern(1, new int[] {1, 1, 1, 1, 0, 0, 0});
+    // Alternating early (2) and late (3) weeks, weekends off
+    private static final RosterIndex.Pattern EARLY_LATE = new RosterIndex.Pattern(2,
+            new int[] {2, 2, 2, 2, 2, 0, 0, 3, 3, 3, 3, 3, 0, 0});
+
+    @Test
+    void shouldFollowThePatternFromTheAnchorDate() {
+        RosterIndex.Roster roster = RosterIndex.Roster.build(START, 365, List.of(FOUR_ON_THREE_OFF),
+                List.of(new RosterIndex.Assignment(7, 1, START.plusDays(2))));
+
+        // Anchored two days later, the first two days of the horizon are the end of the previous cycle
+        assertArrayEquals(new int[0], roster.employeesOn(1, START));
+        assertArrayEquals(new int[0], roster.employeesOn(1, START.plusDays(1)));
+        assertArrayEquals(new int[] {7}, roster.employeesOn(1, START.plusDays(2)));
+        assertArrayEquals(new int[] {7}, roster.employeesOn(1, START.plusDays(5)));
+        assertArrayEquals(new int[0], roster.employeesOn(1, START.plusDays(6)));
+        assertArrayEquals(new int[] {7}, roster.employeesOn(1, START.plusDays(9)));
+        assertEquals(0, roster.countOn(2, START.plusDays(2)));
+    }
+
+    @Test
+    void shouldListTheShiftsOfAMonth() {
+        RosterIndex.Roster roster = RosterIndex.Roster.build(START, 365, List.of(EARLY_LATE),
+                List.of(new RosterIndex.Assignment(3, 2, LocalDate.of(2025, 12, 29))));
+
+        List<RosterIndex.Shift> january = roster.shiftsOf(3, YearMonth.of(2026, 1));
+
+        // 2025-12-29 is a Monday, the weeks of January alternate late, early, late...
+        assertEquals(new RosterIndex.Shift(LocalDate.of(2026, 1, 1), 2), january.get(0));
+        assertEquals(new RosterIndex.Shift(LocalDate.of(2026, 1, 5), 3), january.get(2));
+        assertEquals(22, january.size());
+        assertTrue(january.stream().noneMatch(shift -> shift.date().getDayOfWeek().getValue() > 5));
+        assertEquals(List.of(), roster.shiftsOf(99, YearMonth.of(2026, 1)));
+    }
+
+    @Test
+    void shouldIgnoreDatesOutsideTheHorizonAndUnknownPatterns() {
+        RosterIndex.Roster roster = RosterIndex.Roster.build(START, 31, List.of(FOUR_ON_THREE_OFF),
+                List.of(new RosterIndex.Assignment(1, 1, START), new RosterIndex.Assignment(2, 42, START)));
+
+        assertFalse(roster.covers(START.minusDays(1)));
+        assertFalse(roster.covers(START.plusDays(31)));
+        assertArrayEquals(new int[0], roster.employeesOn(1, START.plusDays(31)));
+        assertTrue(roster.isOnRotation(1));
+        assertFalse(roster.isOnRotation(2));
+        assertEquals(4, roster.shiftsOf(1, START.minusDays(10), START.plusDays(6)).size());
+    }
+
+    @Test
+    void shouldLayOutAYearForManyEmployees() {
+        List<RosterIndex.Assignment> assignments = new ArrayList<>();
+        for (int employeeId = 1; employeeId <= 20_000; employeeId++) {
+            int patternId = employeeId % 2 == 0 ? 1 : 2;
+            assignments.add(new RosterIndex.Assignment(employeeId, patternId, START.plusDays(employeeId % 14)));
+        }
+
+        RosterIndex.Roster roster = RosterIndex.Roster.build(START, 365,
+                List.of(FOUR_ON_THREE_OFF, EARLY_LATE), assignments);
+
+        // Every day four of the seven phases of the 4-on/3-off employees work
+        int fourOn = 0;
+        for (int employeeId = 2; employeeId <= 20_000; employeeId += 2) {
+            if (roster.shiftsOf(employeeId, START, START).size() == 1) {
+                fourOn++;
+            }
+        }
+        assertEquals(fourOn, roster.countOn(1, START));
+        int[] working = roster.employeesOn(1, START.plusDays(100));
+        for (int employeeId : working) {
+            assertEquals(0, employeeId % 2);
+            assertEquals(1, roster.shiftsOf(employeeId, START.plusDays(100), START.plusDays(100)).get(0).scheduleId());
+        }
+    }
+
+    @Test
+    void movesShouldMatchAFullBuild() {
+        List<RosterIndex.Pattern> patterns = List.of(FOUR_ON_THREE_OFF, EARLY_LATE);
+        List<RosterIndex.Assignment> assignments = new ArrayList<>();
+        for (int employeeId = 10; employeeId <= 200; employeeId += 10) {
+            assignments.add(new RosterIndex.Assignment(employeeId, employeeId % 20 == 0 ? 1 : 2,
+                    START.plusDays(employeeId % 7)));
+        }
+        RosterIndex.Roster roster = RosterIndex.Roster.build(START, 90, patterns, assignments);
+
+        // Joins between existing slots, switches pattern, leaves, and leaves again
+        RosterIndex.Assignment joining = new RosterIndex.Assignment(15, 2, START.plusDays(3));
+        RosterIndex.Assignment switching = new RosterIndex.Assignment(20, 2, START);
+        roster = roster.with(15, joining).with(20, switching).with(30, null).with(30, null);
+        assignments.add(joining);
+        assignments.replaceAll(assignment -> assignment.employeeId() == 20 ? switching : assignment);
+        assignments.removeIf(assignment -> assignment.employeeId() == 30);
+        RosterIndex.Roster built = RosterIndex.Roster.build(START, 90, patterns, assignments);
+
+        for (int day = 0; day < 90; day++) {
+            LocalDate date = START.plusDays(day);
+            for (int scheduleId = 1; scheduleId <= 3; scheduleId++) {
+                assertArrayEquals(built.employeesOn(scheduleId, date), roster.employeesOn(scheduleId, date),
+                        "schedule " + scheduleId + " on " + date);
+                assertEquals(built.countOn(scheduleId, date), roster.countOn(scheduleId, date));
+            }
+        }
+        for (int employeeId : new int[] {15, 20, 30, 40}) {
+            assertEquals(built.isOnRotation(employeeId), roster.isOnRotation(employeeId));
+            assertEquals(built.shiftsOf(employeeId, START, START.plusDays(89)),
+                    roster.shiftsOf(employeeId, START, START.plusDays(89)));
+        }
+    }
+
+    @Test
+    void moveToAPatternUnknownToTheSnapshotShouldAskForARebuild() {
+        RosterIndex.Roster roster = RosterIndex.Roster.build(START, 31, List.of(FOUR_ON_THREE_OFF),
+                List.of(new RosterIndex.Assignment(1, 1, START)));
+
+        assertNull(roster.with(1, new RosterIndex.Assignment(1, 42, START)));
+        assertSame(roster, roster.with(2, null));
+    }
+}
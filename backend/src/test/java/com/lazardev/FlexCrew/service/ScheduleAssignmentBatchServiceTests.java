@@ -0,0 +1,244 @@
+package com.lazardev.FlexCrew.service;
+
+import com.lazardev.FlexCrew.dto.ScheduleAssignment;
+import com.lazardev.FlexCrew.dto.ScheduleAssignmentResult;
+import com.lazardev.FlexCrew.dto.ScheduleAssignmentResult.Status;
+import com.lazardev.FlexCrew.security.user.EmployeePrincipalCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * The jdbc template is backed by in-memory Employees and Schedules tables, the locks are those of
+ * the database and are not exercised here.
+ */
+@ExtendWith(MockitoExtension.class)
+class ScheduleAssignmentBatchServiceTests {
+
+    @Mock
+    private NamedParameterJdbcTemplate jdbcTemplate;
+    @Mock
+    private EmployeePrincipalCache principalCache;
+    @Mock
+    private ShiftCalendarService shiftCalendarService;
+    @Mock
+    private CoverageIndex coverageIndex;
+
+    // employee id -> schedule id, schedule id -> {max, current}
+    private final Map<Integer, Integer> employees = new HashMap<>();
+    private final Map<Integer, int[]> schedules = new HashMap<>();
+
+    private ScheduleAssignmentBatchService batchService;
+
+    @BeforeEach
+    void setUp() {
+        batchService = new ScheduleAssignmentBatchService(jdbcTemplate, principalCache, shiftCalendarService,
+                coverageIndex, "public");
+        lenient().doAnswer(invocation -> {
+            String sql = invocation.getArgument(0);
+            Collection<?> ids = (Collection<?>) ((Map<?, ?>) invocation.getArgument(1)).get("ids");
+            List<Map<String, Object>> rows = new ArrayList<>();
+            for (Object id : ids) {
+                if (sql.contains("schedule_id, max_employees") && schedules.containsKey(id)) {
+                    int[] seats = schedules.get(id);
+                    rows.add(Map.of("schedule_id", id, "max_employees", seats[0], "current_employees", seats[1]));
+                } else if (sql.contains("employee_id") && !sql.contains("max_employees")
+                        && employees.containsKey(id)) {
+                    Map<String, Object> row = new HashMap<>();
+                    row.put("employee_id", id);
+                    row.put("email", "employee" + id + "@flexcrew.test");
+                    row.put("fk_schedule", employees.get(id));
+                    rows.add(row);
+                }
+            }
+            replay(rows, invocation.getArgument(2));
+            return null;
+        }).when(jdbcTemplate).query(anyString(), anyMap(), any(RowCallbackHandler.class));
+        lenient().when(jdbcTemplate.batchUpdate(anyString(), any(SqlParameterSource[].class))).thenAnswer(invocation -> {
+            String sql = invocation.getArgument(0);
+            SqlParameterSource[] batch = invocation.getArgument(1);
+            for (SqlParameterSource params : batch) {
+                Integer scheduleId = (Integer) params.getValue("scheduleId");
+                if (sql.contains("SET fk_schedule")) {
+                    employees.put((Integer) params.getValue("employeeId"), scheduleId);
+                } else {
+                    schedules.get(scheduleId)[1] = (Integer) params.getValue("seats");
+                }
+            }
+            return new int[batch.length];
+        });
+    }
+
+    private static void replay(List<Map<String, Object>> rows, RowCallbackHandler handler) throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        Map<String, Object>[] current = new Map[1];
+        lenient().when(rs.getInt(anyString()))
+                .thenAnswer(invocation -> ((Number) current[0].get(invocation.<String>getArgument(0))).intValue());
+        lenient().when(rs.getObject(anyString())).thenAnswer(invocation -> current[0].get(invocation.<String>getArgument(0)));
+        lenient().when(rs.getString(anyString()))
+                .thenAnswer(invocation -> (String) current[0].get(invocation.<String>getArgument(0)));
+        for (Map<String, Object> row : rows) {
+            current[0] = row;
+            handler.processRow(rs);
+        }
+    }
+
+    private void schedule(int id, int max, int current) {
+        schedules.put(id, new int[] {max, current});
+    }
+
+    private static List<Status> statuses(List<ScheduleAssignmentResult> results) {
+        return results.stream().map(ScheduleAssignmentResult::status).toList();
+    }
+
+    @Test
+    void assignBatch_shouldRejectMovesIntoAFullSchedule() {
+        schedule(1, 1, 1);
+        schedule(2, 5, 0);
+        employees.put(10, 1);
+        employees.put(20, 2);
+
+        List<ScheduleAssignmentResult> results = batchService.assignBatch(List.of(new ScheduleAssignment(20, 1)), false);
+
+        assertEquals(List.of(Status.REJECTED), statuses(results));
+        assertEquals("Schedule at maximum capacity", results.get(0).message());
+        assertEquals(2, employees.get(20));
+        assertEquals(1, schedules.get(1)[1]);
+    }
+
+    @Test
+    void assignBatch_shouldLetMovesUseTheSeatsFreedInTheSameBatch() {
+        schedule(1, 1, 1);
+        schedule(2, 1, 1);
+        employees.put(10, 1);
+        employees.put(20, 2);
+
+        List<ScheduleAssignmentResult> results = batchService.assignBatch(
+                List.of(new ScheduleAssignment(10, 2), new ScheduleAssignment(20, 1)), false);
+
+        assertEquals(List.of(Status.ASSIGNED, Status.ASSIGNED), statuses(results));
+        assertEquals(2, employees.get(10));
+        assertEquals(1, employees.get(20));
+        assertEquals(1, schedules.get(1)[1]);
+        assertEquals(1, schedules.get(2)[1]);
+    }
+
+    @Test
+    void assignBatch_shouldRejectAnEmployeeListedTwice() {
+        schedule(1, 5, 0);
+        schedule(2, 5, 0);
+        employees.put(10, null);
+
+        List<ScheduleAssignmentResult> results = batchService.assignBatch(
+                List.of(new ScheduleAssignment(10, 1), new ScheduleAssignment(10, 2)), false);
+
+        assertEquals(List.of(Status.ASSIGNED, Status.REJECTED), statuses(results));
+        assertEquals("Employee is listed more than once", results.get(1).message());
+        assertEquals(1, employees.get(10));
+        assertEquals(1, schedules.get(1)[1]);
+        assertEquals(0, schedules.get(2)[1]);
+    }
+
+    @Test
+    void assignBatch_shouldRejectUnknownEmployeesAndSchedules() {
+        schedule(1, 5, 0);
+        employees.put(10, null);
+
+        List<ScheduleAssignmentResult> results = batchService.assignBatch(
+                List.of(new ScheduleAssignment(99, 1), new ScheduleAssignment(10, 99),
+                        new ScheduleAssignment(null, 1)), false);
+
+        assertEquals(List.of(Status.REJECTED, Status.REJECTED, Status.REJECTED), statuses(results));
+        assertEquals("Employee not found", results.get(0).message());
+        assertEquals("Schedule not found", results.get(1).message());
+        assertNull(employees.get(10));
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), any(SqlParameterSource[].class));
+    }
+
+    @Test
+    void assignBatch_atomic_shouldApplyNothingWhenOnePairFails() {
+        schedule(1, 1, 1);
+        schedule(2, 5, 0);
+        employees.put(10, 1);
+        employees.put(20, null);
+        employees.put(30, null);
+
+        List<ScheduleAssignmentResult> results = batchService.assignBatch(
+                List.of(new ScheduleAssignment(20, 2), new ScheduleAssignment(30, 1)), true);
+
+        assertEquals(List.of(Status.REJECTED, Status.REJECTED), statuses(results));
+        assertEquals("Not applied, another assignment of the batch failed", results.get(0).message());
+        assertNull(employees.get(20));
+        assertEquals(0, schedules.get(2)[1]);
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), any(SqlParameterSource[].class));
+        verify(shiftCalendarService, never()).reassign(any());
+    }
+
+    @Test
+    void assignBatch_partial_shouldApplyTheValidPairs() {
+        schedule(1, 1, 1);
+        schedule(2, 5, 0);
+        schedule(3, 5, 1);
+        employees.put(10, 1);
+        employees.put(20, 3);
+        employees.put(30, null);
+
+        List<ScheduleAssignmentResult> results = batchService.assignBatch(
+                List.of(new ScheduleAssignment(20, 2), new ScheduleAssignment(30, 1)), false);
+
+        assertEquals(List.of(Status.ASSIGNED, Status.REJECTED), statuses(results));
+        assertEquals(2, employees.get(20));
+        assertNull(employees.get(30));
+        assertEquals(1, schedules.get(2)[1]);
+        assertEquals(0, schedules.get(3)[1]);
+        verify(shiftCalendarService).reassign(Map.of(20, 2));
+        verify(coverageIndex).moveAfterCommit(Map.of(3, -1, 2, 1));
+    }
+
+    @Test
+    void assignBatch_shouldMoveADepartmentWithFiveStatementsWellUnderASecond() {
+        schedule(1, 1000, 1000);
+        schedule(2, 1000, 0);
+        List<ScheduleAssignment> pairs = new ArrayList<>();
+        for (int id = 1; id <= 1000; id++) {
+            employees.put(id, 1);
+            pairs.add(new ScheduleAssignment(id, 2));
+        }
+
+        long start = System.nanoTime();
+        List<ScheduleAssignmentResult> results = batchService.assignBatch(pairs, false);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(elapsedMillis < 1000, "took " + elapsedMillis + " ms");
+        assertTrue(results.stream().allMatch(result -> result.status() == Status.ASSIGNED));
+        assertEquals(0, schedules.get(1)[1]);
+        assertEquals(1000, schedules.get(2)[1]);
+        // One read, two locks and two batches, whatever the number of pairs
+        verify(jdbcTemplate, times(3)).query(anyString(), anyMap(), any(RowCallbackHandler.class));
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), any(SqlParameterSource[].class));
+    }
+}
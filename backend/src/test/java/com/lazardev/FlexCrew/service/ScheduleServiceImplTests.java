@@ -0,0 +1,210 @@
+package com.lazardev.FlexCrew.service;
+
+import com.lazardev.FlexCrew.dao.EmployeeRepository;
+import com.lazardev.FlexCrew.dao.ScheduleRepository;
+import com.lazardev.FlexCrew.dao.TeamRepository;
+import com.lazardev.FlexCrew.entity.Employee;
+import com.lazardev.FlexCrew.entity.Schedule;
+import com.lazardev.FlexCrew.security.user.EmployeePrincipalCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ScheduleServiceImplTests {
+
+    @Mock
+    private ScheduleRepository scheduleRepository;
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+
+    @Mock
+    private TeamRepository teamRepository;
+
+    @Mock
+    private EmployeePrincipalCache principalCache;
+
+    @Mock
+    private TeamScheduleOptimizer teamScheduleOptimizer;
+
+    @Mock
+    private ShiftCalendarService shiftCalendarService;
+
+    @Mock
+    private CoverageIndex coverageIndex;
+
+    private ScheduleServiceImpl scheduleService;
+
+    // Seats taken per schedule, updated the way the conditional UPDATE does in the database
+    private final Map<Integer, AtomicInteger> seats = new ConcurrentHashMap<>();
+    private final Map<Integer, Integer> capacity = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        scheduleService = new ScheduleServiceImpl(
+                scheduleRepository, employeeRepository, teamRepository, principalCache, teamScheduleOptimizer,
+                shiftCalendarService, coverageIndex);
+        lenient().when(employeeRepository.findById(anyInt()))
+                .thenAnswer(invocation -> Optional.of(employee(invocation.getArgument(0), null)));
+        lenient().when(scheduleRepository.getReferenceById(anyInt()))
+                .thenAnswer(invocation -> schedule(invocation.getArgument(0)));
+        lenient().when(scheduleRepository.findById(anyInt()))
+                .thenAnswer(invocation -> Optional.of(schedule(invocation.getArgument(0))));
+        lenient().when(scheduleRepository.existsById(anyInt())).thenReturn(true);
+        lenient().when(employeeRepository.assignScheduleIfUnassigned(anyInt(), any())).thenReturn(1);
+    }
+
+    // The seat count itself is guarded by the conditional UPDATE in the database, stubbed here. This
+    // checks the service side: every refused reservation ends in a rejection, never an assignment
+    @Test
+    void assignEmployeeToSchedule_shouldAssignOnlyReservedSeats_underConcurrentAssignments() throws Exception {
+        addSchedule(1, 10);
+        when(scheduleRepository.tryReserveSeat(1)).thenAnswer(invocation -> reserve(1));
+
+        int employees = 200;
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 1; i <= employees; i++) {
+            int employeeId = i;
+            results.add(pool.submit(() -> {
+                start.await();
+                try {
+                    scheduleService.assignEmployeeToSchedule(employeeId, 1);
+                    return true;
+                } catch (RuntimeException e) {
+                    assertEquals("Schedule at maximum capacity", e.getMessage());
+                    return false;
+                }
+            }));
+        }
+        start.countDown();
+        int assigned = 0;
+        for (Future<Boolean> result : results) {
+            assigned += result.get(10, TimeUnit.SECONDS) ? 1 : 0;
+        }
+        pool.shutdown();
+
+        assertEquals(10, assigned);
+        assertEquals(10, seats.get(1).get());
+    }
+
+    @Test
+    void assignEmployeeToSchedule_shouldNotSerializeAssignmentsToDifferentSchedules() throws Exception {
+        int schedules = 8;
+        // Every reservation waits for all the others, this only completes if they run in parallel
+        CyclicBarrier allInside = new CyclicBarrier(schedules);
+        for (int id = 1; id <= schedules; id++) {
+            int scheduleId = id;
+            addSchedule(scheduleId, 1);
+            when(scheduleRepository.tryReserveSeat(scheduleId)).thenAnswer(invocation -> {
+                allInside.await(5, TimeUnit.SECONDS);
+                return reserve(scheduleId);
+            });
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(schedules);
+        List<Future<Schedule>> results = new ArrayList<>();
+        for (int id = 1; id <= schedules; id++) {
+            int scheduleId = id;
+            results.add(pool.submit(() -> scheduleService.assignEmployeeToSchedule(100 + scheduleId, scheduleId)));
+        }
+        for (Future<Schedule> result : results) {
+            assertNotNull(result.get(10, TimeUnit.SECONDS));
+        }
+        pool.shutdown();
+
+        for (int id = 1; id <= schedules; id++) {
+            assertEquals(1, seats.get(id).get());
+        }
+    }
+
+    @Test
+    void assignEmployeeToSchedule_shouldUpdateSeatsInScheduleIdOrder_whenMoving() {
+        when(employeeRepository.findById(7)).thenReturn(Optional.of(employee(7, schedule(2))));
+        when(employeeRepository.findById(8)).thenReturn(Optional.of(employee(8, schedule(1))));
+        when(scheduleRepository.tryReserveSeat(anyInt())).thenReturn(1);
+        when(employeeRepository.moveToSchedule(anyInt(), anyInt(), any())).thenReturn(1);
+
+        scheduleService.assignEmployeeToSchedule(7, 1);
+        scheduleService.assignEmployeeToSchedule(8, 2);
+
+        InOrder order = inOrder(scheduleRepository, employeeRepository);
+        // 2 -> 1: take the seat on 1 before giving back the one on 2
+        order.verify(scheduleRepository).tryReserveSeat(1);
+        order.verify(scheduleRepository).releaseSeat(2);
+        order.verify(employeeRepository).moveToSchedule(eq(7), eq(2), any());
+        // 1 -> 2: give back the seat on 1 before taking the one on 2
+        order.verify(scheduleRepository).releaseSeat(1);
+        order.verify(scheduleRepository).tryReserveSeat(2);
+        order.verify(employeeRepository).moveToSchedule(eq(8), eq(1), any());
+    }
+
+    @Test
+    void assignEmployeeToSchedule_shouldFail_whenEmployeeMovedConcurrently() {
+        when(employeeRepository.findById(7)).thenReturn(Optional.of(employee(7, schedule(2))));
+        when(scheduleRepository.tryReserveSeat(3)).thenReturn(1);
+        when(employeeRepository.moveToSchedule(eq(7), eq(2), any())).thenReturn(0);
+
+        assertThrows(ConcurrentModificationException.class,
+                () -> scheduleService.assignEmployeeToSchedule(7, 3));
+    }
+
+    private void addSchedule(int scheduleId, int maxEmployees) {
+        seats.put(scheduleId, new AtomicInteger());
+        capacity.put(scheduleId, maxEmployees);
+    }
+
+    private int reserve(int scheduleId) {
+        AtomicInteger taken = seats.get(scheduleId);
+        int max = capacity.get(scheduleId);
+        while (true) {
+            int current = taken.get();
+            if (current >= max) {
+                return 0;
+            }
+            if (taken.compareAndSet(current, current + 1)) {
+                return 1;
+            }
+        }
+    }
+
+    private static Schedule schedule(int scheduleId) {
+        Schedule schedule = new Schedule();
+        schedule.setId(scheduleId);
+        return schedule;
+    }
+
+    private static Employee employee(int employeeId, Schedule schedule) {
+        Employee employee = new Employee();
+        employee.setId(employeeId);
+        employee.setSchedule(schedule);
+        return employee;
+    }
+}
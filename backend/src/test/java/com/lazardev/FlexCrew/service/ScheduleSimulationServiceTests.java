@@ -0,0 +1,131 @@
+package com.lazardev.FlexCrew.service;
+
+import com.lazardev.FlexCrew.dao.EmployeeRepository;
+import com.lazardev.FlexCrew.dao.ScheduleRepository;
+import com.lazardev.FlexCrew.dao.projection.ScheduleHeadcount;
+import com.lazardev.FlexCrew.dto.simulation.ScenarioResult;
+import com.lazardev.FlexCrew.dto.simulation.ScheduleEdit;
+import com.lazardev.FlexCrew.dto.simulation.SimulationResult;
+import com.lazardev.FlexCrew.dto.simulation.SimulationScenario;
+import com.lazardev.FlexCrew.entity.Schedule;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.OffsetTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ScheduleSimulationServiceTests {
+
+    @Mock
+    private ScheduleRepository scheduleRepository;
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+
+    private ScheduleSimulationService simulationService;
+
+    @BeforeEach
+    void setUp() {
+        simulationService = new ScheduleSimulationService(scheduleRepository, employeeRepository, 4);
+        when(scheduleRepository.findAll()).thenReturn(List.of(
+                new Schedule(1, "Morning", time("07:00"), time("15:00"), 5, 4),
+                new Schedule(2, "Night", time("22:00"), time("06:00"), 3, 3)));
+        when(employeeRepository.countEmployeesPerSchedule()).thenReturn(List.of(
+                headcount(1, 4), headcount(2, 3)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        simulationService.shutdown();
+    }
+
+    @Test
+    void simulate_shouldReportDisplacedEmployeesAndCoverage() {
+        SimulationScenario shrink = new SimulationScenario("shrink",
+                List.of(new ScheduleEdit(1, null, null, null, 2, false)));
+        SimulationScenario removeNight = new SimulationScenario("remove night",
+                List.of(new ScheduleEdit(2, null, null, null, null, true),
+                        new ScheduleEdit(null, "Evening", time("15:00"), time("23:00"), 4, false)));
+
+        SimulationResult result = simulationService.simulate(List.of(shrink, removeNight));
+
+        int eightAm = 8 * 60 / result.slotMinutes();
+        int midnight = 0;
+        assertEquals(4, result.baselineCoverage()[eightAm]);
+        assertEquals(3, result.baselineCoverage()[midnight]);
+
+        ScenarioResult first = result.scenarios().get(0);
+        assertEquals("shrink", first.name());
+        assertEquals(2, first.displacedEmployees());
+        assertEquals(-2, first.coverageDelta()[eightAm]);
+        assertEquals(0, first.coverageDelta()[midnight]);
+
+        ScenarioResult second = result.scenarios().get(1);
+        assertEquals(3, second.displacedEmployees());
+        assertEquals(-3, second.coverageDelta()[midnight]);
+        assertEquals(2, second.loads().size()); // Night removed, Evening added
+        assertEquals("Evening", second.loads().get(1).getScheduleName());
+    }
+
+    @Test
+    void simulate_shouldRejectInvalidScenarios_withoutAffectingOthers() {
+        SimulationScenario unknown = new SimulationScenario("unknown",
+                List.of(new ScheduleEdit(99, null, null, null, 1, false)));
+        SimulationScenario twice = new SimulationScenario("removed twice",
+                List.of(new ScheduleEdit(1, null, null, null, null, true),
+                        new ScheduleEdit(1, null, null, null, 3, false)));
+        SimulationScenario valid = new SimulationScenario("valid",
+                List.of(new ScheduleEdit(2, null, null, null, 10, false)));
+
+        SimulationResult result = simulationService.simulate(List.of(unknown, twice, valid));
+
+        assertEquals(List.of("Schedule not found: 99"), result.scenarios().get(0).errors());
+        assertEquals(1, result.scenarios().get(1).errors().size());
+        assertTrue(result.scenarios().get(2).errors().isEmpty());
+        assertEquals(0, result.scenarios().get(2).displacedEmployees());
+    }
+
+    @Test
+    void simulate_shouldKeepScenarioOrder_whenEvaluatedInParallel() {
+        List<SimulationScenario> scenarios = new ArrayList<>();
+        for (int max = 0; max < 50; max++) {
+            scenarios.add(new SimulationScenario("max " + max,
+                    List.of(new ScheduleEdit(1, null, null, null, max, false))));
+        }
+
+        SimulationResult result = simulationService.simulate(scenarios);
+
+        for (int max = 0; max < 50; max++) {
+            ScenarioResult scenario = result.scenarios().get(max);
+            assertEquals("max " + max, scenario.name());
+            assertEquals(Math.max(0, 4 - max), scenario.displacedEmployees());
+        }
+    }
+
+    private static OffsetTime time(String localTime) {
+        return OffsetTime.parse(localTime + ":00-06:00");
+    }
+
+    private static ScheduleHeadcount headcount(int scheduleId, long employees) {
+        return new ScheduleHeadcount() {
+            @Override
+            public Integer getScheduleId() {
+                return scheduleId;
+            }
+
+            @Override
+            public Long getEmployees() {
+                return employees;
+            }
+        };
+    }
+}
@@ -0,0 +1,200 @@
+package com.lazardev.FlexCrew.service;
+
+import com.lazardev.FlexCrew.dao.ShiftInstanceRepository;
+import com.lazardev.FlexCrew.dto.calendar.ShiftDay;
+import com.lazardev.FlexCrew.dto.calendar.WeekSchedule;
+import com.lazardev.FlexCrew.entity.Schedule;
+import com.lazardev.FlexCrew.entity.ShiftInstance;
+import com.lazardev.FlexCrew.entity.ShiftInstanceId;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.OffsetTime;
+import java.time.ZoneOffset;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * The jdbc template is backed by an in-memory calendar that applies the clear, fill and prune
+ * statements with the parameters the service passes, the rest of the SQL is left to the database.
+ */
+@ExtendWith(MockitoExtension.class)
+class ShiftCalendarServiceTests {
+
+    private static final String[] WORKDAYS = {"MONDAY", "TUESDAY", "WEDNESDAY", "THURSDAY", "FRIDAY"};
+    private static final int DAYS_AHEAD = 28;
+
+    @Mock
+    private NamedParameterJdbcTemplate jdbcTemplate;
+    @Mock
+    private ShiftInstanceRepository shiftInstanceRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final Map<Integer, TreeMap<LocalDate, Integer>> calendar = new HashMap<>();
+    private final Map<Integer, Schedule> schedules = Map.of(
+            7, schedule(7, "Morning", 6),
+            9, schedule(9, "Evening", 14));
+    private final LocalDate today = LocalDate.now();
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(jdbcTemplate.update(anyString(), any(MapSqlParameterSource.class))).thenAnswer(invocation -> {
+            String sql = invocation.getArgument(0);
+            MapSqlParameterSource params = invocation.getArgument(1);
+            if (sql.contains("fk_employee IN (:employeeIds) AND shift_date >= :from")) {
+                LocalDate from = (LocalDate) params.getValue("from");
+                int removed = 0;
+                for (Object id : (Collection<?>) params.getValue("employeeIds")) {
+                    TreeMap<LocalDate, Integer> days = calendar.getOrDefault((Integer) id, new TreeMap<>());
+                    removed += days.tailMap(from, true).size();
+                    days.tailMap(from, true).clear();
+                }
+                return removed;
+            }
+            if (sql.contains("shift_date < :before")) {
+                LocalDate before = (LocalDate) params.getValue("before");
+                int removed = 0;
+                for (TreeMap<LocalDate, Integer> days : calendar.values()) {
+                    removed += days.headMap(before).size();
+                    days.headMap(before).clear();
+                }
+                return removed;
+            }
+            return 0;
+        });
+        lenient().when(jdbcTemplate.batchUpdate(contains("DO UPDATE SET fk_schedule"), any(MapSqlParameterSource[].class)))
+                .thenAnswer(invocation -> {
+                    MapSqlParameterSource[] fills = invocation.getArgument(1);
+                    for (MapSqlParameterSource fill : fills) {
+                        LocalDate to = (LocalDate) fill.getValue("to");
+                        for (LocalDate day = (LocalDate) fill.getValue("from"); !day.isAfter(to); day = day.plusDays(1)) {
+                            if (day.getDayOfWeek().getValue() <= DayOfWeek.FRIDAY.getValue()) {
+                                shift((Integer) fill.getValue("employeeId"), day, (Integer) fill.getValue("scheduleId"));
+                            }
+                        }
+                    }
+                    return new int[fills.length];
+                });
+        lenient().when(jdbcTemplate.queryForList(anyString(), any(MapSqlParameterSource.class), eq(Integer.class)))
+                .thenReturn(List.of());
+        lenient().when(shiftInstanceRepository.findByEmployeeBetween(anyInt(), any(), any())).thenAnswer(invocation -> {
+            Integer employeeId = invocation.getArgument(0);
+            LocalDate from = invocation.getArgument(1);
+            LocalDate to = invocation.getArgument(2);
+            return calendar.getOrDefault(employeeId, new TreeMap<>()).subMap(from, true, to, true).entrySet().stream()
+                    .map(entry -> new ShiftInstance(
+                            new ShiftInstanceId(employeeId, entry.getKey()), schedules.get(entry.getValue())))
+                    .toList();
+        });
+    }
+
+    private ShiftCalendarService service(int retentionDays) {
+        return new ShiftCalendarService(jdbcTemplate, shiftInstanceRepository, transactionManager,
+                new SimpleMeterRegistry(), "public", WORKDAYS, DAYS_AHEAD, retentionDays, 100,
+                Duration.ofHours(1));
+    }
+
+    private static Schedule schedule(int id, String name, int startHour) {
+        return Schedule.builder()
+                .id(id)
+                .name(name)
+                .startTime(OffsetTime.of(startHour, 0, 0, 0, ZoneOffset.UTC))
+                .endTime(OffsetTime.of(startHour + 8, 0, 0, 0, ZoneOffset.UTC))
+                .build();
+    }
+
+    private void shift(Integer employeeId, LocalDate day, Integer scheduleId) {
+        calendar.computeIfAbsent(employeeId, id -> new TreeMap<>()).put(day, scheduleId);
+    }
+
+    private static List<Integer> scheduleIds(WeekSchedule week) {
+        return week.days().stream().map(ShiftDay::scheduleId).toList();
+    }
+
+    @Test
+    void reassign_shouldRegenerateFutureShiftsAndEvictTheCachedWeeks() {
+        ShiftCalendarService calendarService = service(0);
+        LocalDate past = today.minusWeeks(1).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        shift(1, past, 7);
+        LocalDate nextWeek = today.plusWeeks(1);
+
+        calendarService.reassign(Map.of(1, 7));
+        WeekSchedule before = calendarService.getWeek(1, nextWeek);
+        calendarService.reassign(Map.of(1, 9));
+        WeekSchedule after = calendarService.getWeek(1, nextWeek);
+
+        assertEquals(List.of(7, 7, 7, 7, 7), scheduleIds(before));
+        assertEquals(List.of(9, 9, 9, 9, 9), scheduleIds(after));
+        assertEquals("Evening", after.days().get(0).name());
+        // Shifts before today stay on the schedule they were worked on
+        assertEquals(7, calendar.get(1).get(past));
+        LocalDate lastWorkday = today.plusDays(DAYS_AHEAD);
+        while (lastWorkday.getDayOfWeek().getValue() > DayOfWeek.FRIDAY.getValue()) {
+            lastWorkday = lastWorkday.minusDays(1);
+        }
+        assertEquals(lastWorkday, calendar.get(1).lastKey());
+        assertTrue(calendar.get(1).tailMap(today, true).values().stream().allMatch(id -> id == 9));
+    }
+
+    @Test
+    void reassign_toNoSchedule_shouldLeaveNoFutureShifts() {
+        ShiftCalendarService calendarService = service(0);
+        calendarService.reassign(Map.of(1, 7));
+        Map<Integer, Integer> unassigned = new HashMap<>();
+        unassigned.put(1, null);
+
+        calendarService.reassign(unassigned);
+
+        assertTrue(calendar.get(1).tailMap(today, true).isEmpty());
+        assertTrue(calendarService.getWeek(1, today.plusWeeks(1)).days().isEmpty());
+    }
+
+    @Test
+    void refresh_shouldDeleteShiftsOlderThanTheRetention() {
+        ShiftCalendarService calendarService = service(30);
+        shift(1, today.minusDays(40), 7);
+        shift(1, today.minusDays(31), 7);
+        shift(1, today.minusDays(30), 7);
+        shift(1, today.minusDays(10), 7);
+
+        calendarService.refresh();
+
+        assertEquals(List.of(today.minusDays(30), today.minusDays(10)), List.copyOf(calendar.get(1).keySet()));
+    }
+
+    @Test
+    void refresh_withoutRetention_shouldKeepEveryShift() {
+        ShiftCalendarService calendarService = service(0);
+        shift(1, today.minusDays(400), 7);
+
+        calendarService.refresh();
+
+        verify(jdbcTemplate, never()).update(contains("shift_date < :before"), any(MapSqlParameterSource.class));
+        assertEquals(List.of(today.minusDays(400)), List.copyOf(calendar.get(1).keySet()));
+    }
+}
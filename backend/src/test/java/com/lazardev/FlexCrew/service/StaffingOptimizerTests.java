@@ -0,0 +1,150 @@
+package com.lazardev.FlexCrew.service;
+
+import com.lazardev.FlexCrew.dao.projection.ProjectCandidate;
+import com.lazardev.FlexCrew.dto.StaffingAssignment;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StaffingOptimizerTests {
+
+    private static final OffsetDateTime NOW = OffsetDateTime.of(2026, 3, 1, 12, 0, 0, 0, ZoneOffset.UTC);
+
+    record Candidate(Integer employeeId, Integer teamId, Long assignmentCount) implements ProjectCandidate {
+        public Integer getEmployeeId() {
+            return employeeId;
+        }
+
+        public String getNames() {
+            return "Employee " + employeeId;
+        }
+
+        public String getFirstSurname() {
+            return "Surname";
+        }
+
+        public Integer getTeamId() {
+            return teamId;
+        }
+
+        public String getTeamName() {
+            return "Team " + teamId;
+        }
+
+        public Long getAssignmentCount() {
+            return assignmentCount;
+        }
+    }
+
+    private final StaffingOptimizer optimizer = new StaffingOptimizer(new LeastAssignedCandidateScorer(), 2);
+
+    @AfterEach
+    void tearDown() {
+        optimizer.shutdown();
+    }
+
+    private static Map<Integer, Integer> projectOf(List<StaffingAssignment> assignments) {
+        Map<Integer, Integer> projectOf = new HashMap<>();
+        assignments.forEach(assignment -> assertNull(
+                projectOf.put(assignment.employeeId(), assignment.projectId()), "Employee proposed twice"));
+        return projectOf;
+    }
+
+    @Test
+    void shouldFillTheProjectsDueFirstWhenATeamIsShort() {
+        List<StaffingOptimizer.Demand> demands = List.of(
+                new StaffingOptimizer.Demand(1, 10, 2, NOW.plusDays(30)),
+                new StaffingOptimizer.Demand(2, 10, 2, NOW.plusDays(7)),
+                new StaffingOptimizer.Demand(3, 10, 2, null),
+                new StaffingOptimizer.Demand(4, 20, 1, NOW));
+        List<ProjectCandidate> candidates = List.of(
+                new Candidate(100, 10, 2L), new Candidate(101, 10, 0L), new Candidate(102, 10, 1L),
+                new Candidate(103, 10, 0L), new Candidate(200, 20, 0L), new Candidate(300, 30, 0L));
+
+        StaffingOptimizer.Result result = optimizer.optimize(demands, candidates);
+
+        assertEquals(7, result.needed());
+        assertEquals(5, result.filled());
+        Map<Integer, Integer> projectOf = projectOf(result.assignments());
+        // The least assigned employees go to project 2, due first; project 3 has no due date
+        assertEquals(2, projectOf.get(101));
+        assertEquals(2, projectOf.get(103));
+        assertEquals(1, projectOf.get(102));
+        assertEquals(1, projectOf.get(100));
+        assertEquals(4, projectOf.get(200));
+        assertFalse(projectOf.containsKey(300));
+        assertTrue(result.assignments().stream().noneMatch(assignment -> assignment.projectId() == 3));
+    }
+
+    @Test
+    void shouldKeepOnlyTheBestEmployeesWhenATeamHasMore() {
+        List<ProjectCandidate> candidates = new ArrayList<>();
+        for (int employeeId = 1; employeeId <= 50; employeeId++) {
+            candidates.add(new Candidate(employeeId, 10, (long) (50 - employeeId) / 10));
+        }
+
+        StaffingOptimizer.Result result = optimizer.optimize(List.of(
+                new StaffingOptimizer.Demand(1, 10, 3, NOW.plusDays(1)),
+                new StaffingOptimizer.Demand(2, 10, 3, NOW.plusDays(2))), candidates);
+
+        Map<Integer, Integer> projectOf = projectOf(result.assignments());
+        // 41 to 50 are on no project, the lowest ids of them win the tie
+        assertEquals(Set.of(41, 42, 43, 44, 45, 46), projectOf.keySet());
+        assertEquals(Set.of(41, 42, 43), Set.copyOf(projectOf.entrySet().stream()
+                .filter(entry -> entry.getValue() == 1).map(Map.Entry::getKey).toList()));
+    }
+
+    @Test
+    void shouldStaffManyProjectsFromThousandsOfEmployees() {
+        List<StaffingOptimizer.Demand> demands = new ArrayList<>();
+        for (int projectId = 1; projectId <= 200; projectId++) {
+            for (int team = 0; team < 3; team++) {
+                int teamId = (projectId + team) % 20;
+                demands.add(new StaffingOptimizer.Demand(projectId, teamId, 1 + projectId % 5,
+                        NOW.plusDays(projectId % 60)));
+            }
+        }
+        List<ProjectCandidate> candidates = new ArrayList<>();
+        for (int employeeId = 1; employeeId <= 10_000; employeeId++) {
+            candidates.add(new Candidate(employeeId, employeeId % 20, (long) (employeeId % 7)));
+        }
+
+        StaffingOptimizer.Result result = optimizer.optimize(demands, candidates);
+
+        // 1800 places over 20 teams of 500 employees, all of them filled
+        assertEquals(result.needed(), result.filled());
+        Map<Integer, Integer> projectOf = projectOf(result.assignments());
+        Set<Long> places = new HashSet<>();
+        for (StaffingAssignment assignment : result.assignments()) {
+            assertEquals(assignment.employeeId() % 20, assignment.teamId());
+            places.add(((long) assignment.projectId() << 32) | assignment.teamId());
+        }
+        assertEquals(demands.size(), places.size());
+        // Nobody left out of a team is on fewer projects than someone chosen from it
+        long[] worstChosen = new long[20];
+        long[] bestLeftOut = new long[20];
+        Arrays.fill(bestLeftOut, Long.MAX_VALUE);
+        for (ProjectCandidate candidate : candidates) {
+            int team = candidate.getTeamId();
+            if (projectOf.containsKey(candidate.getEmployeeId())) {
+                worstChosen[team] = Math.max(worstChosen[team], candidate.getAssignmentCount());
+            } else {
+                bestLeftOut[team] = Math.min(bestLeftOut[team], candidate.getAssignmentCount());
+            }
+        }
+        for (int team = 0; team < 20; team++) {
+            assertTrue(worstChosen[team] <= bestLeftOut[team]);
+        }
+    }
+}
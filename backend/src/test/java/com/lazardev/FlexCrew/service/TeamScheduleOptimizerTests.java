@@ -0,0 +1,97 @@
+package com.lazardev.FlexCrew.service;
+
+import com.lazardev.FlexCrew.dto.ScheduleAssignment;
+import com.lazardev.FlexCrew.service.TeamScheduleOptimizer.Member;
+import com.lazardev.FlexCrew.service.TeamScheduleOptimizer.Result;
+import com.lazardev.FlexCrew.service.TeamScheduleOptimizer.Slot;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TeamScheduleOptimizerTests {
+
+    private final TeamScheduleOptimizer optimizer = new TeamScheduleOptimizer(Duration.ofMillis(200), 1, 2);
+
+    @Test
+    void optimize_shouldKeepEveryone_whenCurrentSchedulesFit() {
+        List<Member> members = List.of(new Member(1, 10), new Member(2, 10), new Member(3, 20));
+        List<Slot> slots = List.of(new Slot(10, 2), new Slot(20, 5), new Slot(30, 50));
+
+        Result result = optimizer.optimize(members, slots);
+
+        assertEquals(0, result.reassignments());
+        assertTrue(result.unassigned().isEmpty());
+        assertTrue(result.assignments().containsAll(List.of(
+                new ScheduleAssignment(1, 10), new ScheduleAssignment(2, 10), new ScheduleAssignment(3, 20))));
+    }
+
+    @Test
+    void optimize_shouldCoLocateMembersWithoutSchedule() {
+        List<Member> members = new ArrayList<>();
+        for (int i = 1; i <= 6; i++) {
+            members.add(new Member(i, null));
+        }
+        List<Slot> slots = List.of(new Slot(1, 2), new Slot(2, 3), new Slot(3, 6), new Slot(4, 4));
+
+        Result result = optimizer.optimize(members, slots);
+
+        assertEquals(1, result.schedulesUsed());
+        assertTrue(result.assignments().stream().allMatch(pair -> pair.scheduleId() == 3));
+    }
+
+    @Test
+    void optimize_shouldRespectSeats_andReportMembersThatDoNotFit() {
+        List<Member> members = new ArrayList<>();
+        for (int i = 1; i <= 10; i++) {
+            members.add(new Member(i, 1));
+        }
+        List<Slot> slots = List.of(new Slot(1, 4), new Slot(2, 3), new Slot(3, 0));
+
+        Result result = optimizer.optimize(members, slots);
+
+        assertEquals(3, result.unassigned().size());
+        assertEquals(7, result.assignments().size());
+        assertEquals(3, result.reassignments());
+        Map<Integer, Integer> taken = seatsTaken(result);
+        assertEquals(4, taken.get(1));
+        assertEquals(3, taken.get(2));
+    }
+
+    @Test
+    void optimize_shouldPlanLargeTeamsWithinBudget() {
+        Random random = new Random(42);
+        List<Slot> slots = new ArrayList<>();
+        Map<Integer, Integer> seats = new HashMap<>();
+        for (int id = 1; id <= 3000; id++) {
+            int free = random.nextInt(6);
+            slots.add(new Slot(id, free));
+            seats.put(id, free);
+        }
+        List<Member> members = new ArrayList<>();
+        for (int i = 1; i <= 500; i++) {
+            members.add(new Member(i, random.nextInt(10) == 0 ? null : 1 + random.nextInt(3000)));
+        }
+
+        long start = System.nanoTime();
+        Result result = optimizer.optimize(members, slots);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(elapsedMillis < 2000, "took " + elapsedMillis + " ms");
+        assertTrue(result.unassigned().isEmpty());
+        assertEquals(500, result.assignments().size());
+        seatsTaken(result).forEach((scheduleId, taken) -> assertTrue(taken <= seats.get(scheduleId)));
+    }
+
+    private static Map<Integer, Integer> seatsTaken(Result result) {
+        Map<Integer, Integer> taken = new HashMap<>();
+        result.assignments().forEach(pair -> taken.merge(pair.scheduleId(), 1, Integer::sum));
+        return taken;
+    }
+}
@@ -0,0 +1,66 @@
+package com.lazardev.FlexCrew.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShiftIntervalIndexTests {
+
+    private static final Map<Integer, ShiftWindow> WINDOWS = Map.of(
+            1, new ShiftWindow(8 * 60, 16 * 60),   // Morning 08:00-16:00
+            2, new ShiftWindow(14 * 60, 22 * 60),  // Evening 14:00-22:00
+            3, new ShiftWindow(22 * 60, 6 * 60));  // Night 22:00-06:00, past midnight
+
+    @Test
+    void shouldFindOvernightSchedulesOnBothSidesOfMidnight() {
+        ShiftIntervalIndex index = ShiftIntervalIndex.of(WINDOWS);
+
+        assertArrayEquals(new int[] {3}, index.schedulesAt(2 * 60 + 30));
+        assertArrayEquals(new int[] {3}, index.schedulesAt(23 * 60));
+        assertArrayEquals(new int[] {3}, index.schedulesAt(0));
+        assertArrayEquals(new int[0], index.schedulesAt(6 * 60));
+        assertArrayEquals(new int[] {1, 2}, index.schedulesAt(15 * 60));
+        // End is exclusive, start inclusive
+        assertArrayEquals(new int[] {2}, index.schedulesAt(16 * 60));
+        assertArrayEquals(new int[] {3}, index.schedulesAt(22 * 60));
+    }
+
+    @Test
+    void shouldWeightTheHistogramByHeadcount() {
+        int[] minutes = ShiftIntervalIndex.of(WINDOWS).histogram(Map.of(1, 5, 2, 3, 3, 2));
+
+        assertEquals(2, minutes[2 * 60 + 30]);
+        assertEquals(0, minutes[7 * 60]);
+        assertEquals(8, minutes[15 * 60]);
+        assertEquals(2, minutes[ShiftWindow.MINUTES_PER_DAY - 1]);
+    }
+
+    @Test
+    void shouldAgreeWithTheWindowsOnRandomSchedules() {
+        Random random = new Random(19);
+        Map<Integer, ShiftWindow> windows = new HashMap<>();
+        Map<Integer, Integer> headcounts = new HashMap<>();
+        for (int scheduleId = 1; scheduleId <= 200; scheduleId++) {
+            windows.put(scheduleId, new ShiftWindow(random.nextInt(ShiftWindow.MINUTES_PER_DAY),
+                    random.nextInt(ShiftWindow.MINUTES_PER_DAY)));
+            headcounts.put(scheduleId, random.nextInt(50));
+        }
+        ShiftIntervalIndex index = ShiftIntervalIndex.of(windows);
+        int[] histogram = index.histogram(headcounts);
+
+        int[] expected = new int[ShiftWindow.MINUTES_PER_DAY];
+        windows.forEach((scheduleId, window) -> window.addTo(expected, headcounts.get(scheduleId)));
+        assertArrayEquals(expected, histogram);
+        for (int minute = 0; minute < ShiftWindow.MINUTES_PER_DAY; minute += 7) {
+            int running = 0;
+            for (ShiftWindow window : windows.values()) {
+                running += window.covers(minute) ? 1 : 0;
+            }
+            assertEquals(running, index.schedulesAt(minute).length);
+        }
+    }
+}
@@ -26,7 +26,9 @@ const useApiPrivate = () => {
       // error handler, for example: token expired
       async (error) => {
         const prevRequest = error?.config;
-        if (error?.response?.status === 403 && !prevRequest?.sent) {
+        // 401 when the token is no longer accepted, 403 is kept for older backends
+        const status = error?.response?.status;
+        if ((status === 401 || status === 403) && !prevRequest?.sent) {
           prevRequest.sent = true;
           // Get the new access token by request to "/api/auth/refresh-token"
           const newAccessToken = await refresh();
@@ -1,17 +1,27 @@
 import api from "../api/axiosConfig";
 import { Record } from "../types/Record";
 
+// Largest page the backend serves, the next page cursor comes in the X-Next-Cursor header
+const PAGE_SIZE = 1000;
+
 export const getRecordsByEmployeeId = async (
   employeeId: number,
   token: string | null,
 ): Promise<Record[]> => {
   try {
-    const response = await api.get(`/api/records/${employeeId}`, {
-      headers: {
-        Authorization: `Bearer ${token}`,
-      },
-    });
-    return response.data as Record[];
+    const records: Record[] = [];
+    let cursor: string | undefined;
+    do {
+      const response = await api.get(`/api/records/${employeeId}`, {
+        params: { limit: PAGE_SIZE, cursor },
+        headers: {
+          Authorization: `Bearer ${token}`,
+        },
+      });
+      records.push(...(response.data as Record[]));
+      cursor = (response.headers["x-next-cursor"] as string | undefined) || undefined;
+    } while (cursor);
+    return records;
   } catch (error) {
     console.error("Error fetching records by employee ID:", error);
     throw error;
@@ -13,6 +13,11 @@ DROP TABLE IF EXISTS "Flex-Crew-v1"."Project_Employee_Assignments" CASCADE;
 DROP TABLE IF EXISTS "Flex-Crew-v1"."Project_Required_Teams" CASCADE;
 DROP TABLE IF EXISTS "Flex-Crew-v1"."Projects" CASCADE;
 DROP TABLE IF EXISTS "Flex-Crew-v1"."Tokens" CASCADE;
+DROP TABLE IF EXISTS "Flex-Crew-v1"."Shift_instances" CASCADE;
+DROP TABLE IF EXISTS "Flex-Crew-v1"."Rotation_assignments" CASCADE;
+DROP TABLE IF EXISTS "Flex-Crew-v1"."Rotation_pattern_steps" CASCADE;
+DROP TABLE IF EXISTS "Flex-Crew-v1"."Rotation_patterns" CASCADE;
+DROP TABLE IF EXISTS "Flex-Crew-v1"."Monthly_attendance" CASCADE;
 DROP TABLE IF EXISTS "Flex-Crew-v1"."Records" CASCADE;
 DROP TABLE IF EXISTS "Flex-Crew-v1"."Issues" CASCADE;
 DROP TABLE IF EXISTS "Flex-Crew-v1"."Employees" CASCADE;
@@ -57,15 +62,98 @@ CREATE TABLE IF NOT EXISTS "Flex-Crew-v1"."Teams"
     UNIQUE (name)
 );
 
+-- Partitioned by month on created. The primary key and unique constraints have to include the
+-- partition key. Monthly partitions are kept ahead of time by RecordPartitionManager (on unless
+-- application.records.partitions.enabled=false), the default partition only catches rows outside
+-- of them. See records-partitioning.sql to migrate an
+-- existing database.
 CREATE TABLE IF NOT EXISTS "Flex-Crew-v1"."Records"
 (
     record_id serial NOT NULL,
-    fk_employee serial NOT NULL,
+    fk_employee integer NOT NULL,
     created timestamp with time zone NOT NULL,
-    fk_schedule serial NOT NULL,
+    fk_schedule integer NOT NULL,
     fk_issue integer,
-    PRIMARY KEY (record_id),
-    UNIQUE (fk_issue)
+    punctuality smallint,
+    delay_minutes integer,
+    PRIMARY KEY (record_id, created),
+    UNIQUE (fk_issue, created)
+) PARTITION BY RANGE (created);
+
+DO $$
+DECLARE
+    month_start date;
+BEGIN
+    FOR month_start IN
+        SELECT generate_series(date_trunc('month', now()) - interval '1 month',
+                               date_trunc('month', now()) + interval '3 months',
+                               interval '1 month')::date
+    LOOP
+        EXECUTE format('CREATE TABLE IF NOT EXISTS %I.%I PARTITION OF %I.%I FOR VALUES FROM (%L) TO (%L)',
+            'Flex-Crew-v1', 'Records_y' || to_char(month_start, 'YYYY') || 'm' || to_char(month_start, 'MM'),
+            'Flex-Crew-v1', 'Records', month_start, (month_start + interval '1 month')::date);
+    END LOOP;
+END
+$$;
+
+CREATE TABLE IF NOT EXISTS "Flex-Crew-v1"."Records_default"
+    PARTITION OF "Flex-Crew-v1"."Records" DEFAULT;
+
+-- Keyset pagination of an employee's records, newest first
+CREATE INDEX IF NOT EXISTS records_employee_created_idx
+    ON "Flex-Crew-v1"."Records" (fk_employee, created, record_id);
+
+-- Punctuality dashboard, counts per punctuality code (0 punctual, 1 late, 2 early, 3 missed)
+CREATE INDEX IF NOT EXISTS records_punctuality_idx
+    ON "Flex-Crew-v1"."Records" (punctuality);
+
+-- Records per employee and calendar month, kept up to date with every insert into Records
+CREATE TABLE IF NOT EXISTS "Flex-Crew-v1"."Monthly_attendance"
+(
+    fk_employee integer NOT NULL,
+    year integer NOT NULL,
+    month integer NOT NULL,
+    records integer NOT NULL,
+    PRIMARY KEY (fk_employee, year, month)
+);
+
+-- Shift of an employee on one working day, generated ahead by the backend from Employees.fk_schedule
+CREATE TABLE IF NOT EXISTS "Flex-Crew-v1"."Shift_instances"
+(
+    fk_employee integer NOT NULL,
+    shift_date date NOT NULL,
+    fk_schedule integer NOT NULL,
+    PRIMARY KEY (fk_employee, shift_date)
+);
+
+-- Who works on a day, per schedule
+CREATE INDEX IF NOT EXISTS shift_instances_date_schedule_idx
+    ON "Flex-Crew-v1"."Shift_instances" (shift_date, fk_schedule);
+
+-- Cyclic schedule patterns, one step per day. Days off have no step row
+CREATE TABLE IF NOT EXISTS "Flex-Crew-v1"."Rotation_patterns"
+(
+    rotation_pattern_id serial NOT NULL,
+    name character varying(255) NOT NULL,
+    cycle_length integer NOT NULL,
+    PRIMARY KEY (rotation_pattern_id)
+);
+
+CREATE TABLE IF NOT EXISTS "Flex-Crew-v1"."Rotation_pattern_steps"
+(
+    fk_rotation_pattern integer NOT NULL,
+    step_index integer NOT NULL,
+    fk_schedule integer,
+    PRIMARY KEY (fk_rotation_pattern, step_index)
+);
+
+-- Step 0 of the pattern falls on anchor_date
+CREATE TABLE IF NOT EXISTS "Flex-Crew-v1"."Rotation_assignments"
+(
+    fk_employee integer NOT NULL,
+    fk_rotation_pattern integer NOT NULL,
+    anchor_date date NOT NULL,
+    PRIMARY KEY (fk_employee)
 );
 
 CREATE TABLE IF NOT EXISTS "Flex-Crew-v1"."Issues"
@@ -95,6 +183,10 @@ CREATE TABLE IF NOT EXISTS "Flex-Crew-v1"."Tokens"
     PRIMARY KEY (token_id)
 );
 
+-- The authentication filter looks tokens up by value, and revocation scans revoked rows
+CREATE UNIQUE INDEX IF NOT EXISTS tokens_token_idx ON "Flex-Crew-v1"."Tokens" (token);
+CREATE INDEX IF NOT EXISTS tokens_revoked_idx ON "Flex-Crew-v1"."Tokens" (fk_employee) WHERE revoked = false;
+
 ALTER TABLE IF EXISTS "Flex-Crew-v1"."Employees"
     ADD FOREIGN KEY (fk_team)
     REFERENCES "Flex-Crew-v1"."Teams" (team_id) MATCH SIMPLE
@@ -123,24 +215,21 @@ ALTER TABLE IF EXISTS "Flex-Crew-v1"."Records"
     ADD FOREIGN KEY (fk_employee)
     REFERENCES "Flex-Crew-v1"."Employees" (employee_id) MATCH SIMPLE
     ON UPDATE NO ACTION
-    ON DELETE NO ACTION
-    NOT VALID;
+    ON DELETE NO ACTION;
 
 
 ALTER TABLE IF EXISTS "Flex-Crew-v1"."Records"
     ADD FOREIGN KEY (fk_issue)
     REFERENCES "Flex-Crew-v1"."Issues" (issue_id) MATCH SIMPLE
     ON UPDATE NO ACTION
-    ON DELETE NO ACTION
-    NOT VALID;
+    ON DELETE NO ACTION;
 
 
 ALTER TABLE IF EXISTS "Flex-Crew-v1"."Records"
     ADD FOREIGN KEY (fk_schedule)
     REFERENCES "Flex-Crew-v1"."Schedules" (schedule_id) MATCH SIMPLE
     ON UPDATE NO ACTION
-    ON DELETE NO ACTION
-    NOT VALID;
+    ON DELETE NO ACTION;
 
 
 ALTER TABLE IF EXISTS "Flex-Crew-v1"."Issues"
@@ -158,6 +247,42 @@ ALTER TABLE IF EXISTS "Flex-Crew-v1"."Tokens"
     ON DELETE NO ACTION
     NOT VALID;
 
+ALTER TABLE IF EXISTS "Flex-Crew-v1"."Shift_instances"
+    ADD FOREIGN KEY (fk_employee)
+    REFERENCES "Flex-Crew-v1"."Employees" (employee_id) MATCH SIMPLE
+    ON UPDATE NO ACTION
+    ON DELETE CASCADE;
+
+ALTER TABLE IF EXISTS "Flex-Crew-v1"."Shift_instances"
+    ADD FOREIGN KEY (fk_schedule)
+    REFERENCES "Flex-Crew-v1"."Schedules" (schedule_id) MATCH SIMPLE
+    ON UPDATE NO ACTION
+    ON DELETE CASCADE;
+
+ALTER TABLE IF EXISTS "Flex-Crew-v1"."Rotation_pattern_steps"
+    ADD FOREIGN KEY (fk_rotation_pattern)
+    REFERENCES "Flex-Crew-v1"."Rotation_patterns" (rotation_pattern_id) MATCH SIMPLE
+    ON UPDATE NO ACTION
+    ON DELETE CASCADE;
+
+ALTER TABLE IF EXISTS "Flex-Crew-v1"."Rotation_pattern_steps"
+    ADD FOREIGN KEY (fk_schedule)
+    REFERENCES "Flex-Crew-v1"."Schedules" (schedule_id) MATCH SIMPLE
+    ON UPDATE NO ACTION
+    ON DELETE NO ACTION;
+
+ALTER TABLE IF EXISTS "Flex-Crew-v1"."Rotation_assignments"
+    ADD FOREIGN KEY (fk_employee)
+    REFERENCES "Flex-Crew-v1"."Employees" (employee_id) MATCH SIMPLE
+    ON UPDATE NO ACTION
+    ON DELETE CASCADE;
+
+ALTER TABLE IF EXISTS "Flex-Crew-v1"."Rotation_assignments"
+    ADD FOREIGN KEY (fk_rotation_pattern)
+    REFERENCES "Flex-Crew-v1"."Rotation_patterns" (rotation_pattern_id) MATCH SIMPLE
+    ON UPDATE NO ACTION
+    ON DELETE NO ACTION;
+
 END;
 
 -- Populate database
@@ -285,6 +410,16 @@ CREATE TABLE IF NOT EXISTS "Flex-Crew-v1"."Project_Employee_Assignments"
     UNIQUE (fk_project_id, fk_employee_id) -- An employee should generally not be assigned to the same project multiple times in the same capacity
 );
 
+-- Filters of the project summary list
+CREATE INDEX IF NOT EXISTS projects_status_idx
+    ON "Flex-Crew-v1"."Projects" (status, project_id);
+CREATE INDEX IF NOT EXISTS projects_due_date_idx
+    ON "Flex-Crew-v1"."Projects" (due_date);
+
+-- Projects of an employee, counted when ranking project suggestions
+CREATE INDEX IF NOT EXISTS project_assignments_employee_idx
+    ON "Flex-Crew-v1"."Project_Employee_Assignments" (fk_employee_id);
+
 -- Optional: Sample Data for new tables (Uncomment if you want to run this as part of the script)
 INSERT INTO "Flex-Crew-v1"."Projects"(name, description, status, due_date)
 VALUES
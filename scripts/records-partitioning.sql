@@ -0,0 +1,95 @@
+-- Converts an existing, unpartitioned "Records" table into a table partitioned by month on
+-- created, as defined in database-creation.sql. Run it once, with the backend stopped, the whole
+-- migration is a single transaction and locks "Records" until it commits.
+--
+-- Nothing has to be switched on afterwards: the backend skips partition maintenance while the
+-- table is unpartitioned and starts it on its next run once it is, creating the partitions of the
+-- coming months and archiving the ones past the retention period. Setting
+-- application.records.partitions.enabled=false turns that maintenance off.
+
+BEGIN;
+
+LOCK TABLE "Flex-Crew-v1"."Records" IN ACCESS EXCLUSIVE MODE;
+
+-- Present when the backend already ran against this database, the copy below expects them
+ALTER TABLE "Flex-Crew-v1"."Records"
+    ADD COLUMN IF NOT EXISTS punctuality smallint,
+    ADD COLUMN IF NOT EXISTS delay_minutes integer;
+
+ALTER TABLE "Flex-Crew-v1"."Records" RENAME TO "Records_legacy";
+ALTER INDEX IF EXISTS "Flex-Crew-v1".records_employee_created_idx
+    RENAME TO records_legacy_employee_created_idx;
+ALTER INDEX IF EXISTS "Flex-Crew-v1".records_punctuality_idx
+    RENAME TO records_legacy_punctuality_idx;
+
+-- Keep the ids, the new table takes over the sequence of the old one
+CREATE TABLE "Flex-Crew-v1"."Records"
+(
+    record_id integer NOT NULL DEFAULT nextval('"Flex-Crew-v1"."Records_record_id_seq"'),
+    fk_employee integer NOT NULL,
+    created timestamp with time zone NOT NULL,
+    fk_schedule integer NOT NULL,
+    fk_issue integer,
+    punctuality smallint,
+    delay_minutes integer,
+    PRIMARY KEY (record_id, created),
+    UNIQUE (fk_issue, created)
+) PARTITION BY RANGE (created);
+
+ALTER SEQUENCE "Flex-Crew-v1"."Records_record_id_seq" OWNED BY "Flex-Crew-v1"."Records".record_id;
+
+-- One partition per month from the oldest record up to three months ahead
+DO $$
+DECLARE
+    month_start date;
+BEGIN
+    FOR month_start IN
+        SELECT generate_series(
+                   date_trunc('month', coalesce((SELECT min(created) FROM "Flex-Crew-v1"."Records_legacy"), now())),
+                   date_trunc('month', now()) + interval '3 months',
+                   interval '1 month')::date
+    LOOP
+        EXECUTE format('CREATE TABLE IF NOT EXISTS %I.%I PARTITION OF %I.%I FOR VALUES FROM (%L) TO (%L)',
+            'Flex-Crew-v1', 'Records_y' || to_char(month_start, 'YYYY') || 'm' || to_char(month_start, 'MM'),
+            'Flex-Crew-v1', 'Records', month_start, (month_start + interval '1 month')::date);
+    END LOOP;
+END
+$$;
+
+CREATE TABLE IF NOT EXISTS "Flex-Crew-v1"."Records_default"
+    PARTITION OF "Flex-Crew-v1"."Records" DEFAULT;
+
+INSERT INTO "Flex-Crew-v1"."Records"
+    (record_id, fk_employee, created, fk_schedule, fk_issue, punctuality, delay_minutes)
+SELECT record_id, fk_employee, created, fk_schedule, fk_issue, punctuality, delay_minutes
+FROM "Flex-Crew-v1"."Records_legacy";
+
+-- Created on every partition, existing and future
+CREATE INDEX records_employee_created_idx
+    ON "Flex-Crew-v1"."Records" (fk_employee, created, record_id);
+CREATE INDEX records_punctuality_idx
+    ON "Flex-Crew-v1"."Records" (punctuality);
+
+ALTER TABLE "Flex-Crew-v1"."Records"
+    ADD FOREIGN KEY (fk_employee)
+    REFERENCES "Flex-Crew-v1"."Employees" (employee_id) MATCH SIMPLE
+    ON UPDATE NO ACTION
+    ON DELETE NO ACTION;
+
+ALTER TABLE "Flex-Crew-v1"."Records"
+    ADD FOREIGN KEY (fk_issue)
+    REFERENCES "Flex-Crew-v1"."Issues" (issue_id) MATCH SIMPLE
+    ON UPDATE NO ACTION
+    ON DELETE NO ACTION;
+
+ALTER TABLE "Flex-Crew-v1"."Records"
+    ADD FOREIGN KEY (fk_schedule)
+    REFERENCES "Flex-Crew-v1"."Schedules" (schedule_id) MATCH SIMPLE
+    ON UPDATE NO ACTION
+    ON DELETE NO ACTION;
+
+DROP TABLE "Flex-Crew-v1"."Records_legacy";
+
+ANALYZE "Flex-Crew-v1"."Records";
+
+COMMIT;